@@ -0,0 +1,16 @@
+package com.revature.ATeamORM.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Caches the results of Session.find(clazz, fieldName, fieldValue) for an @Entity, keyed by field and value. Every
+ * write the ORM makes to the entity's table clears the cached results of that table.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheQueries {
+	int maxSize() default 1_000;
+	long ttlMillis() default 60_000;
+	int maxRows() default 100;
+}
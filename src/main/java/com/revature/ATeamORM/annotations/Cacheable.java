@@ -0,0 +1,15 @@
+package com.revature.ATeamORM.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Opts an @Entity into the process-wide second-level cache. Rows are cached by @Id across every Session and
+ * invalidated whenever the ORM writes them.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cacheable {
+	int maxSize() default 10_000;
+	long ttlMillis() default 300_000;
+}
@@ -2,9 +2,21 @@ package com.revature.ATeamORM.annotations;
 
 import java.lang.annotation.*;
 
+/**
+ * Column constraints beyond the notNull() and unique() of @Column, applied by the schema package when it creates or
+ * migrates the table
+ */
 @Documented
 @Target(ElementType.FIELD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Constraints {
-	// Not MVP, to be implemented if time permits
+	/**
+	 * @return SQL condition every row must satisfy, e.g. "age >= 0"; none if empty
+	 */
+	String check() default "";
+
+	/**
+	 * @return SQL expression filling the column of existing rows when a migration adds it, e.g. "''"; none if empty
+	 */
+	String defaultValue() default "";
 }
@@ -2,10 +2,37 @@ package com.revature.ATeamORM.annotations;
 
 import java.lang.annotation.*;
 
+/**
+ * Maps an association to another @Entity through a key @Column. Placed on a field that is not itself a @Column:
+ * <pre>
+ *     // Many-to-one, in Post: the @Column field authorId holds the id of a User
+ *     &#64;ForeignKey(name = "authorId")
+ *     private User author;
+ *
+ *     // One-to-many, in User: the posts whose authorId references this user's @Id
+ *     &#64;ForeignKey(name = "authorId", lazy = true)
+ *     private List&lt;Post&gt; posts;
+ * </pre>
+ * Associations are read-only: they are filled when entities are read, while writes only ever go through the key
+ * @Column itself.
+ */
 @Documented
 @Target(ElementType.FIELD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface ForeignKey {
+	/**
+	 * @return Field (not column) holding the key, on the many side: in this class for a single entity, in the
+	 * element class for a List
+	 */
 	String name();
-	String references(); // references a primary key in another table
+
+	/**
+	 * @return Field (not column) of the one side that the key references; its @Id if empty
+	 */
+	String references() default "";
+
+	/**
+	 * @return Whether a List is only loaded when first used. Single entities are always fetched with their owner.
+	 */
+	boolean lazy() default false;
 }
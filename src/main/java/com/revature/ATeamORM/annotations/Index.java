@@ -0,0 +1,20 @@
+package com.revature.ATeamORM.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Indexes a @Column, typically one looked up with Session.find or filtered on in a Query, so the database does not
+ * scan the whole table. Fields of a class sharing a name() form one composite index, in declaration order. Created
+ * by the schema package, see SchemaMigrator.
+ */
+@Documented
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Index {
+	/**
+	 * @return Name of the index; table_column_idx if empty
+	 */
+	String name() default "";
+
+	boolean unique() default false;
+}
@@ -11,4 +11,23 @@ public @interface JDBCConnection {
 	String password();
 	String schema() default "";
 	String dbType() default "org.postgresql.Driver";
+	boolean reWriteBatchedInserts() default false;
+
+	/**
+	 * Hosts of read replicas, written like url. Each entry may be a ${property} whose value lists several hosts
+	 * separated by commas. Replicas share the primary's credentials, schema and @PoolConfig.
+	 */
+	String[] replicas() default {};
+
+	/**
+	 * How reads are spread over the replicas
+	 */
+	Balancing balancing() default Balancing.ROUND_ROBIN;
+
+	enum Balancing {
+		// Each read connection goes to the next replica in turn
+		ROUND_ROBIN,
+		// Each read connection goes to the replica with the fewest connections in use or awaited
+		LEAST_BUSY
+	}
 }
@@ -0,0 +1,18 @@
+package com.revature.ATeamORM.annotations;
+
+import java.lang.annotation.*;
+
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PoolConfig {
+	int minIdle() default 2;
+	int maxIdle() default 10;
+	int maxSize() default 10;
+	long acquireTimeoutMillis() default 30_000;
+	int validationTimeoutSeconds() default 5;
+	long validationBypassMillis() default 500;
+	long idleTimeoutMillis() default 600_000;
+	long maxLifetimeMillis() default 1_800_000;
+	long housekeepingIntervalMillis() default 30_000;
+}
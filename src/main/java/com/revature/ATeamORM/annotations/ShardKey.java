@@ -0,0 +1,18 @@
+package com.revature.ATeamORM.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks the @Column field whose value decides which shard stores an entity. Writes through a ShardedSession are
+ * routed by it, as are lookups by that field; every other read is sent to all shards.
+ * <pre>
+ *     &#64;ShardKey
+ *     &#64;Column(name = "tenant_id", notNull = true)
+ *     private int tenantId;
+ * </pre>
+ */
+@Documented
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
@@ -0,0 +1,148 @@
+package com.revature.ATeamORM.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * In-process cache bounded by entry count and time to live. Entries are kept in access order and the least recently
+ * used entry is evicted once maxSize is exceeded; expired entries are dropped when they are next read. All methods
+ * are synchronized on the cache, which keeps every operation a constant-time map access.
+ * @param <K> Key Type
+ * @param <V> Value Type
+ */
+public class BoundedCache<K, V> {
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LongSupplier clock;
+	private final LinkedHashMap<K, Entry<V>> entries;
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long expirationCount;
+
+	/**
+	 * Creates an empty cache
+	 * @param maxSize Maximum number of entries, must be positive
+	 * @param ttlMillis Time an entry stays readable after it was put, or 0 or less to never expire
+	 */
+	public BoundedCache(int maxSize, long ttlMillis) {
+		this(maxSize, ttlMillis, System::nanoTime);
+	}
+
+	BoundedCache(int maxSize, long ttlMillis, LongSupplier clock) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Cache size must be positive");
+		}
+		this.maxSize = maxSize;
+		this.ttlNanos = ttlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : 0;
+		this.clock = clock;
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > BoundedCache.this.maxSize) {
+					evictionCount++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Gets a live entry, marking it as recently used
+	 * @param key Key to look up
+	 * @return The cached value, or null if it is absent or expired
+	 */
+	public synchronized V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			missCount++;
+			return null;
+		}
+		if (ttlNanos > 0 && clock.getAsLong() - entry.createdAt >= ttlNanos) {
+			entries.remove(key);
+			expirationCount++;
+			missCount++;
+			return null;
+		}
+		hitCount++;
+		return entry.value;
+	}
+
+	/**
+	 * Adds or replaces an entry, evicting the least recently used entry if the cache is full
+	 * @param key Key of the entry
+	 * @param value Value to cache, must not be null
+	 */
+	public synchronized void put(K key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot cache null");
+		}
+		entries.put(key, new Entry<>(value, clock.getAsLong()));
+	}
+
+	/**
+	 * Adds or replaces an entry if a condition holds. The condition is checked under the cache's lock, so no other
+	 * operation on the cache can run between the check and the put.
+	 * @param key Key of the entry
+	 * @param value Value to cache, must not be null
+	 * @param condition Checked right before the put
+	 * @return Whether the entry was put
+	 */
+	public synchronized boolean putIf(K key, V value, BooleanSupplier condition) {
+		if (!condition.getAsBoolean()) {
+			return false;
+		}
+		put(key, value);
+		return true;
+	}
+
+	public synchronized void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	/**
+	 * Removes every entry whose key matches
+	 * @param keys Predicate selecting the keys to remove
+	 */
+	public synchronized void invalidateIf(Predicate<? super K> keys) {
+		for (Iterator<K> iterator = entries.keySet().iterator(); iterator.hasNext(); ) {
+			if (keys.test(iterator.next())) {
+				iterator.remove();
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets the counters accumulated since the cache was created
+	 * @return Snapshot of the cache counters
+	 */
+	public synchronized CacheStats getStats() {
+		return new CacheStats(hitCount, missCount, evictionCount, expirationCount, entries.size(), maxSize);
+	}
+
+	private static final class Entry<V> {
+		private final V value;
+		private final long createdAt;
+
+		Entry(V value, long createdAt) {
+			this.value = value;
+			this.createdAt = createdAt;
+		}
+	}
+}
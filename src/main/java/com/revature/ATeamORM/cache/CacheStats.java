@@ -0,0 +1,73 @@
+package com.revature.ATeamORM.cache;
+
+/**
+ * Point-in-time snapshot of a BoundedCache's counters.
+ */
+public final class CacheStats {
+
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+	private final long expirationCount;
+	private final int size;
+	private final int maxSize;
+
+	CacheStats(long hitCount, long missCount, long evictionCount, long expirationCount, int size, int maxSize) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.expirationCount = expirationCount;
+		this.size = size;
+		this.maxSize = maxSize;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Entries removed because the cache was full
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Entries removed because their time to live had passed
+	 */
+	public long getExpirationCount() {
+		return expirationCount;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return Fraction of lookups that were hits, or 0 if there were none
+	 */
+	public double getHitRate() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 0 : (double) hitCount / requests;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats{" +
+				"hits=" + hitCount +
+				", misses=" + missCount +
+				", evictions=" + evictionCount +
+				", expirations=" + expirationCount +
+				", size=" + size +
+				", maxSize=" + maxSize +
+				'}';
+	}
+}
@@ -0,0 +1,369 @@
+package com.revature.ATeamORM.datasource;
+
+import com.revature.ATeamORM.repos.ObjectRepo;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking counterpart of Session. Every operation borrows its own pooled connection on a dedicated executor and
+ * completes a CompletableFuture, so the calling thread never waits on database I/O. On JDKs with virtual threads
+ * each call runs on a new virtual thread, limited by a semaphore to the pool's maxSize(); otherwise a fixed pool of
+ * maxSize() platform threads is used.
+ * <p>
+ * Cancelling a returned future, or letting it exceed the timeout, cancels the statement the call is executing
+ * through Statement.cancel(), or stops it from being prepared if it has not started yet. Calls are independent: there is no identity map, and each write runs on whichever
+ * connection it borrows, so use Session when several operations must share a transaction. find and findAll go to
+ * the read replicas of the configuration class, if it has any, and may not see writes of earlier calls yet.
+ */
+public class AsyncSession implements AutoCloseable {
+
+	// Drivers ignore a cancel for a statement that is not executing yet, so it is repeated until the call ends
+	private static final long CANCEL_RETRY_MILLIS = 20;
+
+	private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "ATeamORM-async-timeout");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Class<?> clazz;
+	private final ObjectRepo repo;
+	private final ExecutorService executor;
+	private final Semaphore permits;
+	private volatile long timeoutMillis;
+
+	/**
+	 * Creates an executor sized to the connection pool of the configuration class. Connections are borrowed per call.
+	 * @param clazz The class that contains the JDBCConnection annotation with appropriate credentials
+	 */
+	public AsyncSession(Class<?> clazz) {
+		this.clazz = clazz;
+		this.repo = new ObjectRepo();
+		// Each call gives its connection back at once, so lazy Lists would have nothing to query through
+		repo.setLazyLoading(false);
+		int size = PoolSettings.from(clazz).getMaxSize();
+		ExecutorService virtual = newVirtualThreadExecutor();
+		if (virtual != null) {
+			executor = virtual;
+			permits = new Semaphore(size);
+		} else {
+			executor = newPlatformExecutor(size);
+			permits = null;
+		}
+	}
+
+	/**
+	 * Finds the objects whose fieldName matches the fieldValue provided
+	 * @param clazz The class reference for the objects to be built from
+	 * @param fieldName The name of the field (not column) that will be searched
+	 * @param fieldValue The value of the field as a String
+	 * @param <T> The object type created from the injected class
+	 * @return Future completed with every matching entry
+	 */
+	public <T> CompletableFuture<Result<T>> find(Class<T> clazz, String fieldName, String fieldValue) {
+		return submit(conn -> readRepo(conn).read(conn, clazz, fieldName, fieldValue), true);
+	}
+
+	/**
+	 * Finds every entry of a table
+	 * @param clazz The class reference for the objects to be built from
+	 * @param <T> The object type created from the injected class
+	 * @return Future completed with every entry
+	 */
+	public <T> CompletableFuture<Result<T>> findAll(Class<T> clazz) {
+		return submit(conn -> readRepo(conn).read(conn, clazz), true);
+	}
+
+	/**
+	 * Saves/Updates the values of the object provided based on its @Id annotated field
+	 * @param object The object with non-null fields to use to update the database with
+	 * @return Future completed once the update has run
+	 */
+	public CompletableFuture<Void> save(Object object) {
+		return submit(conn -> {
+			repo.update(conn, object);
+			return null;
+		});
+	}
+
+	/**
+	 * Inserts the object provided and writes the database generated Id back into it
+	 * @param object The object to be inserted into the database
+	 * @return Future completed once the object holds its generated Id
+	 */
+	public CompletableFuture<Void> insert(Object object) {
+		return submit(conn -> {
+			repo.create(conn, object);
+			return null;
+		});
+	}
+
+	/**
+	 * Inserts the object or updates the row it conflicts with, then writes the row's Id back into it
+	 * @param object The object to be inserted or updated
+	 * @return Future completed once the object holds its Id
+	 */
+	public CompletableFuture<Void> upsert(Object object) {
+		return submit(conn -> {
+			repo.upsert(conn, object);
+			return null;
+		});
+	}
+
+	/**
+	 * Deletes the provided object using its @Id annotated field
+	 * @param object The object to be removed from the database
+	 * @return Future completed once the delete has run
+	 */
+	public CompletableFuture<Void> remove(Object object) {
+		return submit(conn -> {
+			repo.delete(conn, object);
+			return null;
+		});
+	}
+
+	/**
+	 * Batched save of every object provided, in a single transaction
+	 * @param objects The objects with non-null fields to use to update the database with
+	 * @param batchSize Statements per executeBatch
+	 * @return Future completed once the transaction has committed
+	 */
+	public CompletableFuture<Void> saveAll(Collection<?> objects, int batchSize) {
+		return submit(conn -> {
+			repo.updateAll(conn, objects, batchSize);
+			return null;
+		});
+	}
+
+	/**
+	 * Batched insert of every object provided, in a single transaction
+	 * @param objects The objects to be inserted into the database
+	 * @param batchSize Statements per executeBatch
+	 * @return Future completed once the transaction has committed and Ids are written back
+	 */
+	public CompletableFuture<Void> insertAll(Collection<?> objects, int batchSize) {
+		return submit(conn -> {
+			repo.createAll(conn, objects, batchSize);
+			return null;
+		});
+	}
+
+	/**
+	 * Batched upsert of every object provided, in a single transaction
+	 * @param objects The objects to be inserted or updated
+	 * @param batchSize Statements per executeBatch
+	 * @return Future completed once the transaction has committed and Ids are written back
+	 */
+	public CompletableFuture<Void> upsertAll(Collection<?> objects, int batchSize) {
+		return submit(conn -> {
+			repo.upsertAll(conn, objects, batchSize);
+			return null;
+		});
+	}
+
+	/**
+	 * Batched delete of every object provided, in a single transaction
+	 * @param objects The objects to be removed from the database
+	 * @param batchSize Statements per executeBatch
+	 * @return Future completed once the transaction has committed
+	 */
+	public CompletableFuture<Void> removeAll(Collection<?> objects, int batchSize) {
+		return submit(conn -> {
+			repo.deleteAll(conn, objects, batchSize);
+			return null;
+		});
+	}
+
+	/**
+	 * Checks whether the unique() @Column values of an object are still free
+	 * @param object Object to check against the database
+	 * @return Future completed with true if the values are unique
+	 */
+	public CompletableFuture<Boolean> isEntityUnique(Object object) {
+		return submit(conn -> repo.isEntryUnique(conn, object));
+	}
+
+	/**
+	 * Sets how long each call may take, measured from submission. A call that runs over completes exceptionally
+	 * with a TimeoutException and its statement is cancelled.
+	 * @param timeout Time allowed per call, or 0 for no timeout
+	 * @param unit Unit of timeout
+	 */
+	public void setTimeout(long timeout, TimeUnit unit) {
+		if (timeout < 0) {
+			throw new IllegalArgumentException("Timeout cannot be negative");
+		}
+		this.timeoutMillis = unit.toMillis(timeout);
+	}
+
+	public long getTimeoutMillis() {
+		return timeoutMillis;
+	}
+
+	/**
+	 * Stops accepting calls; calls already submitted still complete
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Gets the repo for a read-only call. With replicas the call's connection is a replica one, whose rows must not
+	 * fill the shared caches, so the call gets a repo of its own that knows it.
+	 */
+	private ObjectRepo readRepo(Connection conn) {
+		if (!ConnectionFactory.getInstance().hasReplicas(clazz)) {
+			return repo;
+		}
+		ObjectRepo replicaRepo = new ObjectRepo();
+		replicaRepo.setLazyLoading(false);
+		replicaRepo.setReplicaConnection(conn);
+		return replicaRepo;
+	}
+
+	/**
+	 * Work run with a borrowed connection
+	 * @param <R> Result Type
+	 */
+	@FunctionalInterface
+	private interface SqlCall<R> {
+		R run(Connection conn) throws SQLException;
+	}
+
+	private <R> CompletableFuture<R> submit(SqlCall<R> work) {
+		return submit(work, false);
+	}
+
+	/**
+	 * @param readOnly Whether the work may run on a read replica
+	 */
+	private <R> CompletableFuture<R> submit(SqlCall<R> work, boolean readOnly) {
+		Call<R> call = new Call<>(work, readOnly);
+		CompletableFuture<R> future = call.future;
+		long timeout = timeoutMillis;
+		if (timeout > 0) {
+			ScheduledFuture<?> expiry = timer.schedule(() -> {
+				if (future.completeExceptionally(new TimeoutException("Call did not complete within " + timeout + "ms"))) {
+					call.cancel();
+				}
+			}, timeout, TimeUnit.MILLISECONDS);
+			future.whenComplete((result, e) -> expiry.cancel(false));
+		}
+		future.whenComplete((result, e) -> {
+			if (future.isCancelled()) {
+				call.cancel();
+			}
+		});
+		try {
+			executor.execute(call);
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * A submitted operation. The connection is only visible to cancel() while the call owns it, so a late cancel
+	 * can never reach a statement of a connection that was already returned to the pool.
+	 */
+	private final class Call<R> implements Runnable {
+		private final CompletableFuture<R> future = new CompletableFuture<>();
+		private final SqlCall<R> work;
+		private final boolean readOnly;
+		private Connection connection;
+
+		Call(SqlCall<R> work, boolean readOnly) {
+			this.work = work;
+			this.readOnly = readOnly;
+		}
+
+		@Override
+		public void run() {
+			// Cancelled or timed out while queued
+			if (future.isDone()) {
+				return;
+			}
+			try {
+				if (permits != null) {
+					permits.acquire();
+				}
+				ConnectionFactory factory = ConnectionFactory.getInstance();
+				try (Connection conn = readOnly ? factory.getReadConnection(clazz) : factory.getConnection(clazz)) {
+					StatementCache statements = StatementCache.of(conn);
+					synchronized (this) {
+						if (future.isDone()) {
+							return;
+						}
+						statements.clearCancel();
+						connection = conn;
+					}
+					try {
+						future.complete(work.run(conn));
+					} finally {
+						synchronized (this) {
+							connection = null;
+							statements.clearCancel();
+						}
+					}
+				} finally {
+					if (permits != null) {
+						permits.release();
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				future.completeExceptionally(e);
+			} catch (Throwable t) {
+				// No effect if the future was already cancelled or timed out
+				future.completeExceptionally(t);
+			}
+		}
+
+		/**
+		 * Cancels the statement the call is running, or the next one it prepares, and repeats until the call gives
+		 * its connection back, in case the statement had not started executing yet
+		 */
+		synchronized void cancel() {
+			if (connection == null) {
+				return;
+			}
+			try {
+				StatementCache.of(connection).cancel();
+			} catch (SQLException e) {
+				// The call still completes with the cancellation or timeout; the statement just runs to its end
+				return;
+			}
+			timer.schedule(this::cancel, CANCEL_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Uses Executors.newVirtualThreadPerTaskExecutor through reflection so the ORM still compiles for Java 8
+	 * @return A virtual thread executor, or null if the running JDK has none
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static ExecutorService newPlatformExecutor(int size) {
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+			Thread thread = new Thread(r, "ATeamORM-async-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+}
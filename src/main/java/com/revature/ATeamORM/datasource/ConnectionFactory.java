@@ -3,6 +3,8 @@ package com.revature.ATeamORM.datasource;
 import com.revature.ATeamORM.annotations.ConnectionConfig;
 import com.revature.ATeamORM.exceptions.DataSourceException;
 import com.revature.ATeamORM.annotations.JDBCConnection;
+import com.revature.ATeamORM.metrics.Metrics;
+import com.revature.ATeamORM.metrics.MetricsRecorder;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -10,15 +12,26 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Singleton factory that establishes a connection with a database based on @JDBCConnection params
+ * Singleton factory that establishes a connection with a database based on @JDBCConnection params. Connections are
+ * borrowed from a ConnectionPool kept per configuration class, so credentials are only resolved once per class.
+ * <p>
+ * Concurrency contract: every public method may be called from any number of threads. The singleton is created by
+ * the class loader on first use and safely published. The settings resolved for a configuration class are immutable
+ * and, like its ConnectionPool, created at most once through ConcurrentHashMap.computeIfAbsent, so concurrent first
+ * calls for the same class share one pool and calls for different classes never see each other's url or schema.
+ * The Connections handed out are not thread-safe and, like the Session that owns one, must be confined to a single
+ * thread until they are closed.
  * @author Juan Mendoza, Uros Vorkapic, Vinson Chin
  */
 public class ConnectionFactory {
-	static ConnectionFactory connectionFactory;
-	static String dbDriver;
-	String currentSchema;
+	static volatile String dbDriver;
+	private final ConcurrentMap<Class<?>, ConnectionSettings> settings = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<?>, ConnectionPool> pools = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<?>, ReplicaSet> replicaSets = new ConcurrentHashMap<>();
 
 	/*
 	 * Ensures the driver is loaded into memory before the ConnectionFactory is ever even instantiated
@@ -28,34 +41,175 @@ public class ConnectionFactory {
 			dbDriver = (String) JDBCConnection.class.getDeclaredMethod("dbType").getDefaultValue();
 			Class.forName(dbDriver);
 		} catch (ClassNotFoundException | NoSuchMethodException e) {
-			e.printStackTrace();
+			// JDBC 4 drivers on the classpath still register themselves; otherwise DriverManager reports the
+			// missing driver when the first connection is opened
 		}
 	}
 
 	private ConnectionFactory() {}
 
 	/**
-	 * Gets an instance of the ConnectionFactory singleton, or creates one if none exist
+	 * Lazily initialized by the class loader the first time getInstance() is invoked
+	 */
+	private static final class Holder {
+		static final ConnectionFactory INSTANCE = new ConnectionFactory();
+	}
+
+	/**
+	 * Gets the only instance of the ConnectionFactory singleton, creating it on first use
 	 * @return The only ConnectionFactory instance
 	 * @author Juan Mendoza, Uros Vorkapic, Vinson Chin
 	 */
 	public static ConnectionFactory getInstance() {
-		if (connectionFactory == null) {
-			connectionFactory = new ConnectionFactory();
-		}
-
-		return connectionFactory;
+		return Holder.INSTANCE;
 	}
 
 	/**
-	 * Creates a connection to a predefined database
-	 * @param clazz The class that has the @JDBCConnection annotation & the optional @ConnectionConfig
+	 * Borrows a pooled connection to a predefined database. Closing the connection returns it to the pool.
+	 * @param clazz The class that has the @JDBCConnection annotation & the optional @ConnectionConfig/@PoolConfig
 	 * @return The connection requested based on @JDBCConnection annotations
 	 * @throws DataSourceException Throws if @JDBCConnection annotation does not exist in class
-	 * @throws SQLException Throws if credentials for connection (url, username, or password) are invalid
+	 * @throws SQLException Throws if credentials for connection (url, username, or password) are invalid or no
+	 * pooled connection becomes available within the acquire timeout
 	 * @author Juan Mendoza, Uros Vorkapic
 	 */
 	public Connection getConnection(Class<?> clazz) throws DataSourceException, SQLException {
+		MetricsRecorder metrics = Metrics.recorder();
+		if (metrics == null) {
+			return getPool(clazz).borrow();
+		}
+		long start = System.nanoTime();
+		Connection connection = getPool(clazz).borrow();
+		metrics.recordConnectionAcquire(clazz, System.nanoTime() - start);
+		return connection;
+	}
+
+	/**
+	 * Borrows a connection for read-only work. With replicas() configured it comes from a replica picked by the
+	 * class's balancing, otherwise, or if no replica can hand out a connection, from the primary. Writes made through
+	 * a replica connection fail, and replicas may lag behind the primary.
+	 * @param clazz The class that has the @JDBCConnection annotation & the optional @ConnectionConfig/@PoolConfig
+	 * @return A replica connection, or a primary connection if the class has no usable replica
+	 * @throws DataSourceException Throws if @JDBCConnection annotation does not exist in class
+	 * @throws SQLException Throws if neither a replica nor the primary can hand out a connection
+	 */
+	public Connection getReadConnection(Class<?> clazz) throws DataSourceException, SQLException {
+		ReplicaSet replicaSet = getReplicaSet(clazz);
+		if (replicaSet.isEmpty()) {
+			return getConnection(clazz);
+		}
+		MetricsRecorder metrics = Metrics.recorder();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Connection connection;
+		try {
+			connection = replicaSet.borrow();
+		} catch (SQLException e) {
+			// Reads stay available on the primary while every replica is down
+			return getConnection(clazz);
+		}
+		if (metrics != null) {
+			metrics.recordConnectionAcquire(clazz, System.nanoTime() - start);
+		}
+		return connection;
+	}
+
+	/**
+	 * @param clazz The class that has the @JDBCConnection annotation
+	 * @return Whether the class declares read replicas
+	 */
+	public boolean hasReplicas(Class<?> clazz) {
+		return !getSettings(clazz).getReplicaUrls().isEmpty();
+	}
+
+	/**
+	 * Gets statistics for the pools of the read replicas of a configuration class
+	 * @param clazz The class that has the @JDBCConnection annotation
+	 * @return Snapshot of each replica pool, in replicas() order; empty if there are none
+	 */
+	public List<PoolStats> getReplicaPoolStats(Class<?> clazz) {
+		return getReplicaSet(clazz).getStats();
+	}
+
+	/**
+	 * Gets statistics for the pool serving a configuration class
+	 * @param clazz The class that has the @JDBCConnection annotation
+	 * @return Snapshot of the pool counters
+	 */
+	public PoolStats getPoolStats(Class<?> clazz) {
+		return getPool(clazz).getStats();
+	}
+
+	/**
+	 * Closes every pool created by this factory and forgets the resolved settings. Intended for application
+	 * shutdown; a later getConnection creates a new pool.
+	 */
+	public void shutdown() {
+		for (Class<?> clazz : pools.keySet()) {
+			ConnectionPool pool = pools.remove(clazz);
+			if (pool != null) {
+				pool.close();
+			}
+		}
+		for (Class<?> clazz : replicaSets.keySet()) {
+			ReplicaSet replicaSet = replicaSets.remove(clazz);
+			if (replicaSet != null) {
+				replicaSet.close();
+			}
+		}
+		settings.clear();
+	}
+
+	/**
+	 * Gets the pool for a configuration class, resolving its settings and creating the pool on first use
+	 * @param clazz The class that has the @JDBCConnection annotation
+	 * @return The pool serving that class
+	 */
+	private ConnectionPool getPool(Class<?> clazz) {
+		ConnectionPool pool = pools.get(clazz);
+		if (pool == null) {
+			pool = pools.computeIfAbsent(clazz, c -> {
+				ConnectionSettings resolved = getSettings(c);
+				return new ConnectionPool(PoolSettings.from(c),
+										  () -> DriverManager.getConnection(resolved.getUrl(), resolved.getUsername(),
+																			resolved.getPassword()));
+			});
+		}
+		return pool;
+	}
+
+	/**
+	 * Gets the replica pools for a configuration class, creating them on first use
+	 * @param clazz The class that has the @JDBCConnection annotation
+	 * @return The replicas serving that class, empty if it has none
+	 */
+	private ReplicaSet getReplicaSet(Class<?> clazz) {
+		ReplicaSet replicaSet = replicaSets.get(clazz);
+		if (replicaSet == null) {
+			replicaSet = replicaSets.computeIfAbsent(clazz, c -> {
+				ConnectionSettings resolved = getSettings(c);
+				List<ConnectionPool> replicaPools = new ArrayList<>();
+				for (String url : resolved.getReplicaUrls()) {
+					replicaPools.add(new ConnectionPool(PoolSettings.from(c),
+														() -> DriverManager.getConnection(url, resolved.getUsername(),
+																						  resolved.getPassword())));
+				}
+				return new ReplicaSet(replicaPools, resolved.getBalancing());
+			});
+		}
+		return replicaSet;
+	}
+
+	/**
+	 * Gets the connection details of a configuration class, resolving them on first use
+	 * @param clazz The class that has the @JDBCConnection annotation & the optional @ConnectionConfig
+	 * @return Immutable url, credentials and schema of that class
+	 * @throws DataSourceException Throws if @JDBCConnection annotation does not exist in class
+	 */
+	ConnectionSettings getSettings(Class<?> clazz) throws DataSourceException {
+		return settings.computeIfAbsent(clazz, this::resolveSettings);
+	}
+
+	private ConnectionSettings resolveSettings(Class<?> clazz) throws DataSourceException {
 		if (!clazz.isAnnotationPresent(JDBCConnection.class)) {
 			throw new DataSourceException("Object does not have a @JDBCConnection annotation");
 		}
@@ -68,14 +222,21 @@ public class ConnectionFactory {
 			annoList.add(anno.username());
 			annoList.add(anno.password());
 			annoList.add(anno.schema());
+			annoList.addAll(Arrays.asList(anno.replicas()));
 		}
 
-		if (!anno.schema().equals("")) {
-			currentSchema = annoList.get(3);
+		String schema = anno.schema().equals("") ? null : annoList.get(3);
+		String url = injectDriver(annoList.get(0), schema, anno.reWriteBatchedInserts());
+		// Entries after the schema are replica hosts, each possibly a comma separated list from a property
+		List<String> replicaUrls = new ArrayList<>();
+		for (String hosts : annoList.subList(4, annoList.size())) {
+			for (String host : hosts.split(",")) {
+				if (!host.trim().isEmpty()) {
+					replicaUrls.add(injectDriver(host.trim(), schema, anno.reWriteBatchedInserts()));
+				}
+			}
 		}
-		String url = injectDriver(annoList.get(0));
-
-		return DriverManager.getConnection(url, annoList.get(1), annoList.get(2));
+		return new ConnectionSettings(url, annoList.get(1), annoList.get(2), schema, replicaUrls, anno.balancing());
 	}
 
 	/**
@@ -104,16 +265,23 @@ public class ConnectionFactory {
 	/**
 	 * Injects database and host details into the url; currently only implements postgres syntax
 	 * @param url The url of the database
+	 * @param schema The schema to connect to, or null for the database default
+	 * @param reWriteBatchedInserts Whether the driver should rewrite batched inserts into multi-row VALUES inserts
 	 * @return The modified url that includes language specific identifiers
 	 * @author Uros Vorkapic
 	 */
-	private String injectDriver(String url) {
+	private String injectDriver(String url, String schema, boolean reWriteBatchedInserts) {
 		StringBuilder urlWithDriver = new StringBuilder();
 		if (dbDriver.equals("org.postgresql.Driver")) {
 			urlWithDriver.append("jdbc:postgresql://").append(url).append(":5432/postgres");
-			if (currentSchema != null) {
-				urlWithDriver.append("?currentSchema=").append(currentSchema);
+			StringJoiner params = new StringJoiner("&", "?", "").setEmptyValue("");
+			if (schema != null) {
+				params.add("currentSchema=" + schema);
+			}
+			if (reWriteBatchedInserts) {
+				params.add("reWriteBatchedInserts=true");
 			}
+			urlWithDriver.append(params);
 		}
 
 		return urlWithDriver.toString();
@@ -145,7 +313,7 @@ public class ConnectionFactory {
 			InputStream input = loader.getResourceAsStream(actualFilePath.toString());
 			prop.load(input);
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new DataSourceException("Could not read connection properties from " + actualFilePath, e);
 		}
 
 		List<String> connPropsList = new LinkedList<>();
@@ -153,6 +321,7 @@ public class ConnectionFactory {
 		connPropsList.add(connProps.username());
 		connPropsList.add(connProps.password());
 		connPropsList.add(connProps.schema());
+		connPropsList.addAll(Arrays.asList(connProps.replicas()));
 
 		List<String> elementList = new ArrayList<>();
 		// Configures JDBCConnection with appropriate values
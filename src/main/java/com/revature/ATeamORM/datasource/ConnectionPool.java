@@ -0,0 +1,283 @@
+package com.revature.ATeamORM.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of physical JDBC connections. Idle connections are handed out most-recently-used first, validated
+ * on borrow when they have sat idle, and retired by a background housekeeper once they exceed the idle timeout or
+ * maximum lifetime. Borrowers block for at most the configured acquire timeout when the pool is exhausted.
+ */
+public final class ConnectionPool implements AutoCloseable {
+
+	/**
+	 * Opens a new physical connection for the pool
+	 */
+	@FunctionalInterface
+	interface ConnectionSupplier {
+		Connection get() throws SQLException;
+	}
+
+	private static final ScheduledExecutorService housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "ATeamORM-pool-housekeeper");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final PoolSettings settings;
+	private final ConnectionSupplier supplier;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition available = lock.newCondition();
+	private final Deque<PooledConnection> idle = new ArrayDeque<>();
+	private final ScheduledFuture<?> housekeeping;
+
+	// Guarded by lock
+	private int total;
+	private int pending;
+	private boolean closed;
+
+	private final AtomicLong createdCount = new AtomicLong();
+	private final AtomicLong destroyedCount = new AtomicLong();
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong timeoutCount = new AtomicLong();
+
+	ConnectionPool(PoolSettings settings, ConnectionSupplier supplier) {
+		this.settings = settings;
+		this.supplier = supplier;
+		long interval = settings.getHousekeepingIntervalMillis();
+		this.housekeeping = interval > 0
+				? housekeeper.scheduleWithFixedDelay(this::housekeep, 0, interval, TimeUnit.MILLISECONDS)
+				: null;
+	}
+
+	/**
+	 * Borrows a connection, waiting up to the acquire timeout if every connection is in use. Closing the returned
+	 * connection gives it back to the pool.
+	 * @return A validated connection
+	 * @throws SQLException Thrown if the pool is closed, the timeout elapses or a new connection cannot be opened
+	 */
+	public Connection borrow() throws SQLException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getAcquireTimeoutMillis());
+		while (true) {
+			PooledConnection entry;
+			lock.lock();
+			try {
+				entry = takeIdleOrReserve(deadline);
+			} finally {
+				lock.unlock();
+			}
+
+			if (entry == null) {
+				entry = open();
+			} else if (!isUsable(entry)) {
+				destroy(entry);
+				continue;
+			}
+			borrowCount.incrementAndGet();
+			return entry.lease();
+		}
+	}
+
+	/**
+	 * Waits until an idle connection can be taken or a slot for a new one reserved. Must hold the lock.
+	 * @return An idle connection, or null if the caller reserved a slot and must open a new connection
+	 */
+	private PooledConnection takeIdleOrReserve(long deadline) throws SQLException {
+		while (true) {
+			if (closed) {
+				throw new SQLException("Connection pool has been closed");
+			}
+			PooledConnection entry = idle.pollFirst();
+			if (entry != null) {
+				return entry;
+			}
+			if (total < settings.getMaxSize()) {
+				total++;
+				return null;
+			}
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				timeoutCount.incrementAndGet();
+				throw new SQLException("Timed out after " + settings.getAcquireTimeoutMillis() +
+									   " ms waiting for a pooled connection");
+			}
+			pending++;
+			try {
+				available.awaitNanos(remaining);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("Interrupted while waiting for a pooled connection", e);
+			} finally {
+				pending--;
+			}
+		}
+	}
+
+	private boolean isUsable(PooledConnection entry) {
+		long now = System.currentTimeMillis();
+		if (entry.isExpired(now, settings.getMaxLifetimeMillis())) {
+			return false;
+		}
+		// Connections returned within the bypass window are trusted without a validation round trip
+		return now - entry.getLastReturned() < settings.getValidationBypassMillis() ||
+			   entry.isValid(settings.getValidationTimeoutSeconds());
+	}
+
+	/**
+	 * Opens a physical connection for a slot already reserved in total, freeing the slot if opening fails
+	 */
+	private PooledConnection open() throws SQLException {
+		try {
+			PooledConnection entry = new PooledConnection(this, supplier.get());
+			createdCount.incrementAndGet();
+			return entry;
+		} catch (SQLException | RuntimeException e) {
+			lock.lock();
+			try {
+				total--;
+				available.signal();
+			} finally {
+				lock.unlock();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Invoked when a borrower closes its connection. Healthy connections go back on the idle stack, the rest are
+	 * closed.
+	 * @param entry The connection being returned
+	 */
+	void release(PooledConnection entry) {
+		boolean healthy = entry.reset();
+		long now = System.currentTimeMillis();
+		lock.lock();
+		try {
+			if (healthy && !closed && !entry.isExpired(now, settings.getMaxLifetimeMillis()) &&
+				idle.size() < settings.getMaxIdle()) {
+				entry.setLastReturned(now);
+				idle.addFirst(entry);
+				available.signal();
+				return;
+			}
+		} finally {
+			lock.unlock();
+		}
+		destroy(entry);
+	}
+
+	private void destroy(PooledConnection entry) {
+		entry.closePhysical();
+		destroyedCount.incrementAndGet();
+		lock.lock();
+		try {
+			total--;
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Retires idle connections past the idle timeout (down to minIdle) or past their maximum lifetime, then tops
+	 * the pool back up to minIdle.
+	 */
+	void housekeep() {
+		List<PooledConnection> retired = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		lock.lock();
+		try {
+			// Least recently returned connections sit at the tail of the idle stack
+			Iterator<PooledConnection> iterator = idle.descendingIterator();
+			while (iterator.hasNext()) {
+				PooledConnection entry = iterator.next();
+				boolean idleTooLong = idle.size() > settings.getMinIdle() && settings.getIdleTimeoutMillis() > 0 &&
+									  now - entry.getLastReturned() >= settings.getIdleTimeoutMillis();
+				if (idleTooLong || entry.isExpired(now, settings.getMaxLifetimeMillis())) {
+					iterator.remove();
+					retired.add(entry);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+		retired.forEach(this::destroy);
+		fillToMinIdle();
+	}
+
+	private void fillToMinIdle() {
+		while (true) {
+			lock.lock();
+			try {
+				if (closed || idle.size() >= settings.getMinIdle() || total >= settings.getMaxSize()) {
+					return;
+				}
+				total++;
+			} finally {
+				lock.unlock();
+			}
+
+			PooledConnection entry;
+			try {
+				entry = open();
+			} catch (SQLException | RuntimeException e) {
+				return; // the next housekeeping run or borrow will try again
+			}
+			lock.lock();
+			try {
+				if (!closed) {
+					idle.addLast(entry);
+					available.signal();
+					continue;
+				}
+			} finally {
+				lock.unlock();
+			}
+			destroy(entry);
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the pool counters
+	 * @return Current pool statistics
+	 */
+	public PoolStats getStats() {
+		lock.lock();
+		try {
+			return new PoolStats(total, idle.size(), pending, settings.getMaxSize(), createdCount.get(),
+								 destroyedCount.get(), borrowCount.get(), timeoutCount.get());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Closes every idle connection and stops handing out new ones. Connections still borrowed are closed as they
+	 * are returned.
+	 */
+	@Override
+	public void close() {
+		List<PooledConnection> drained;
+		lock.lock();
+		try {
+			closed = true;
+			drained = new ArrayList<>(idle);
+			idle.clear();
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		if (housekeeping != null) {
+			housekeeping.cancel(false);
+		}
+		drained.forEach(this::destroy);
+	}
+}
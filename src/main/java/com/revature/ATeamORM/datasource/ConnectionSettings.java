@@ -0,0 +1,71 @@
+package com.revature.ATeamORM.datasource;
+
+import com.revature.ATeamORM.annotations.JDBCConnection;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable connection details resolved from a class's @JDBCConnection and optional @ConnectionConfig.
+ */
+final class ConnectionSettings {
+
+	private final String url;
+	private final String username;
+	private final String password;
+	private final String schema;
+	private final List<String> replicaUrls;
+	private final JDBCConnection.Balancing balancing;
+
+	ConnectionSettings(String url, String username, String password, String schema) {
+		this(url, username, password, schema, Collections.emptyList(), JDBCConnection.Balancing.ROUND_ROBIN);
+	}
+
+	ConnectionSettings(String url, String username, String password, String schema, List<String> replicaUrls,
+					   JDBCConnection.Balancing balancing) {
+		this.url = url;
+		this.username = username;
+		this.password = password;
+		this.schema = schema;
+		this.replicaUrls = Collections.unmodifiableList(replicaUrls);
+		this.balancing = balancing;
+	}
+
+	/**
+	 * @return Full JDBC url, including the schema and driver parameters
+	 */
+	String getUrl() {
+		return url;
+	}
+
+	String getUsername() {
+		return username;
+	}
+
+	String getPassword() {
+		return password;
+	}
+
+	/**
+	 * @return The schema connected to, or null for the database default
+	 */
+	String getSchema() {
+		return schema;
+	}
+
+	/**
+	 * @return Full JDBC urls of the read replicas, empty if reads go to the primary
+	 */
+	List<String> getReplicaUrls() {
+		return replicaUrls;
+	}
+
+	JDBCConnection.Balancing getBalancing() {
+		return balancing;
+	}
+
+	@Override
+	public String toString() {
+		return "ConnectionSettings{url=" + url + ", username=" + username + ", schema=" + schema + ", replicas=" + replicaUrls + '}';
+	}
+}
@@ -0,0 +1,86 @@
+package com.revature.ATeamORM.datasource;
+
+import com.revature.ATeamORM.annotations.PoolConfig;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+
+/**
+ * Immutable connection pool configuration resolved from an optional @PoolConfig annotation. Classes without the
+ * annotation use the annotation's defaults.
+ */
+public final class PoolSettings {
+
+	@PoolConfig
+	private static final class Defaults {}
+
+	private final int minIdle;
+	private final int maxIdle;
+	private final int maxSize;
+	private final long acquireTimeoutMillis;
+	private final int validationTimeoutSeconds;
+	private final long validationBypassMillis;
+	private final long idleTimeoutMillis;
+	private final long maxLifetimeMillis;
+	private final long housekeepingIntervalMillis;
+
+	PoolSettings(PoolConfig config) {
+		this.minIdle = config.minIdle();
+		this.maxIdle = config.maxIdle();
+		this.maxSize = config.maxSize();
+		this.acquireTimeoutMillis = config.acquireTimeoutMillis();
+		this.validationTimeoutSeconds = config.validationTimeoutSeconds();
+		this.validationBypassMillis = config.validationBypassMillis();
+		this.idleTimeoutMillis = config.idleTimeoutMillis();
+		this.maxLifetimeMillis = config.maxLifetimeMillis();
+		this.housekeepingIntervalMillis = config.housekeepingIntervalMillis();
+
+		if (maxSize < 1 || minIdle < 0 || maxIdle < minIdle || minIdle > maxSize) {
+			throw new DataSourceException("@PoolConfig requires 0 <= minIdle <= maxIdle and minIdle <= maxSize, maxSize >= 1");
+		}
+	}
+
+	/**
+	 * Resolves the pool settings declared on a class
+	 * @param clazz The class that may carry @PoolConfig
+	 * @return Settings from the annotation, or the defaults if none is present
+	 */
+	public static PoolSettings from(Class<?> clazz) {
+		PoolConfig config = clazz.getAnnotation(PoolConfig.class);
+		return new PoolSettings(config != null ? config : Defaults.class.getAnnotation(PoolConfig.class));
+	}
+
+	public int getMinIdle() {
+		return minIdle;
+	}
+
+	public int getMaxIdle() {
+		return maxIdle;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getAcquireTimeoutMillis() {
+		return acquireTimeoutMillis;
+	}
+
+	public int getValidationTimeoutSeconds() {
+		return validationTimeoutSeconds;
+	}
+
+	public long getValidationBypassMillis() {
+		return validationBypassMillis;
+	}
+
+	public long getIdleTimeoutMillis() {
+		return idleTimeoutMillis;
+	}
+
+	public long getMaxLifetimeMillis() {
+		return maxLifetimeMillis;
+	}
+
+	public long getHousekeepingIntervalMillis() {
+		return housekeepingIntervalMillis;
+	}
+}
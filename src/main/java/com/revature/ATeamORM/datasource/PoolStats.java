@@ -0,0 +1,81 @@
+package com.revature.ATeamORM.datasource;
+
+/**
+ * Point-in-time snapshot of a ConnectionPool's counters.
+ */
+public final class PoolStats {
+
+	private final int totalConnections;
+	private final int idleConnections;
+	private final int activeConnections;
+	private final int pendingThreads;
+	private final int maxSize;
+	private final long createdCount;
+	private final long destroyedCount;
+	private final long borrowCount;
+	private final long timeoutCount;
+
+	PoolStats(int totalConnections, int idleConnections, int pendingThreads, int maxSize,
+			  long createdCount, long destroyedCount, long borrowCount, long timeoutCount) {
+		this.totalConnections = totalConnections;
+		this.idleConnections = idleConnections;
+		this.activeConnections = totalConnections - idleConnections;
+		this.pendingThreads = pendingThreads;
+		this.maxSize = maxSize;
+		this.createdCount = createdCount;
+		this.destroyedCount = destroyedCount;
+		this.borrowCount = borrowCount;
+		this.timeoutCount = timeoutCount;
+	}
+
+	public int getTotalConnections() {
+		return totalConnections;
+	}
+
+	public int getIdleConnections() {
+		return idleConnections;
+	}
+
+	public int getActiveConnections() {
+		return activeConnections;
+	}
+
+	public int getPendingThreads() {
+		return pendingThreads;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getCreatedCount() {
+		return createdCount;
+	}
+
+	public long getDestroyedCount() {
+		return destroyedCount;
+	}
+
+	public long getBorrowCount() {
+		return borrowCount;
+	}
+
+	public long getTimeoutCount() {
+		return timeoutCount;
+	}
+
+	@Override
+	public String toString() {
+		return "PoolStats{" +
+				"total=" + totalConnections +
+				", idle=" + idleConnections +
+				", active=" + activeConnections +
+				", pending=" + pendingThreads +
+				", maxSize=" + maxSize +
+				", created=" + createdCount +
+				", destroyed=" + destroyedCount +
+				", borrowed=" + borrowCount +
+				", timeouts=" + timeoutCount +
+				'}';
+	}
+}
@@ -0,0 +1,147 @@
+package com.revature.ATeamORM.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A physical connection owned by a ConnectionPool. Callers only ever see a proxy, whose close() hands the
+ * connection back to the pool instead of closing it. Every lease gets its own proxy, so a handle stays closed once
+ * its borrower returned it, even after the physical connection is lent to someone else. Per-connection state, such
+ * as the StatementCache, is keyed on the physical connection and survives between leases.
+ */
+final class PooledConnection {
+
+	private final ConnectionPool pool;
+	private final Connection physical;
+	private final long createdAt;
+	private volatile long lastReturned;
+
+	PooledConnection(ConnectionPool pool, Connection physical) {
+		this.pool = pool;
+		this.physical = physical;
+		this.createdAt = System.currentTimeMillis();
+		this.lastReturned = createdAt;
+	}
+
+	/**
+	 * Hands out a new proxy for a borrower
+	 * @return The proxy given to callers, valid until they close it
+	 */
+	Connection lease() {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+												   new Lease());
+	}
+
+	/**
+	 * Resolves the connection statements are prepared on
+	 * @param connection A pooled proxy or any other connection
+	 * @return The physical connection behind an open proxy, or the connection itself if it is not pooled
+	 * @throws SQLException Thrown if the proxy was already returned to the pool
+	 */
+	static Connection physicalOf(Connection connection) throws SQLException {
+		if (!Proxy.isProxyClass(connection.getClass())) {
+			return connection;
+		}
+		InvocationHandler handler = Proxy.getInvocationHandler(connection);
+		if (!(handler instanceof Lease)) {
+			return connection;
+		}
+		return ((Lease) handler).physical();
+	}
+
+	/**
+	 * Puts the physical connection back into autocommit, non read-only mode, discarding any open transaction
+	 * @return true if the connection could be reset and may be reused
+	 */
+	boolean reset() {
+		try {
+			if (!physical.getAutoCommit()) {
+				physical.rollback();
+				physical.setAutoCommit(true);
+			}
+			if (physical.isReadOnly()) {
+				physical.setReadOnly(false);
+			}
+			physical.clearWarnings();
+			return true;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	boolean isValid(int timeoutSeconds) {
+		try {
+			return physical.isValid(timeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Closes the physical connection and drops its cached statements
+	 */
+	void closePhysical() {
+		StatementCache.release(physical);
+		try {
+			physical.close();
+		} catch (SQLException e) {
+			// The connection is being discarded, most likely because it is already broken
+		}
+	}
+
+	boolean isExpired(long now, long maxLifetimeMillis) {
+		return maxLifetimeMillis > 0 && now - createdAt >= maxLifetimeMillis;
+	}
+
+	long getLastReturned() {
+		return lastReturned;
+	}
+
+	void setLastReturned(long lastReturned) {
+		this.lastReturned = lastReturned;
+	}
+
+	/**
+	 * One borrower's handle on the physical connection
+	 */
+	private final class Lease implements InvocationHandler {
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		Connection physical() throws SQLException {
+			if (closed.get()) {
+				throw new SQLException("Connection has already been returned to the pool");
+			}
+			return physical;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "close":
+					if (closed.compareAndSet(false, true)) {
+						pool.release(PooledConnection.this);
+					}
+					return null;
+				case "isClosed":
+					return closed.get() || physical.isClosed();
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "PooledConnection[" + physical + "]";
+				default:
+					try {
+						return method.invoke(physical(), args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+			}
+		}
+	}
+}
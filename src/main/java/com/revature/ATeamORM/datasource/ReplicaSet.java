@@ -0,0 +1,87 @@
+package com.revature.ATeamORM.datasource;
+
+import com.revature.ATeamORM.annotations.JDBCConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection pools of the read replicas of one configuration class. A borrow goes to the replica chosen by the
+ * class's balancing; if that replica cannot hand out a connection the others are tried in turn.
+ */
+final class ReplicaSet implements AutoCloseable {
+
+	private final List<ConnectionPool> pools;
+	private final JDBCConnection.Balancing balancing;
+	private final AtomicInteger next = new AtomicInteger();
+
+	ReplicaSet(List<ConnectionPool> pools, JDBCConnection.Balancing balancing) {
+		this.pools = Collections.unmodifiableList(new ArrayList<>(pools));
+		this.balancing = balancing;
+	}
+
+	boolean isEmpty() {
+		return pools.isEmpty();
+	}
+
+	/**
+	 * Borrows a connection from the chosen replica, falling back to the other replicas
+	 * @return A replica connection; closing it returns it to its pool
+	 * @throws SQLException Thrown if no replica can hand out a connection, with the other failures suppressed
+	 */
+	Connection borrow() throws SQLException {
+		int size = pools.size();
+		int first = choose();
+		SQLException failure = null;
+		for (int i = 0; i < size; i++) {
+			try {
+				return pools.get((first + i) % size).borrow();
+			} catch (SQLException e) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		throw failure != null ? failure : new SQLException("No read replicas are configured");
+	}
+
+	/**
+	 * @return Index of the replica to try first
+	 */
+	private int choose() {
+		// Rotating the starting point also spreads ties between equally busy replicas
+		int start = Math.floorMod(next.getAndIncrement(), pools.size());
+		if (balancing == JDBCConnection.Balancing.ROUND_ROBIN) {
+			return start;
+		}
+		int best = start;
+		int bestLoad = Integer.MAX_VALUE;
+		for (int i = 0; i < pools.size(); i++) {
+			int index = (start + i) % pools.size();
+			PoolStats stats = pools.get(index).getStats();
+			int load = stats.getActiveConnections() + stats.getPendingThreads();
+			if (load < bestLoad) {
+				best = index;
+				bestLoad = load;
+			}
+		}
+		return best;
+	}
+
+	List<PoolStats> getStats() {
+		List<PoolStats> stats = new ArrayList<>(pools.size());
+		pools.forEach(pool -> stats.add(pool.getStats()));
+		return stats;
+	}
+
+	@Override
+	public void close() {
+		pools.forEach(ConnectionPool::close);
+	}
+}
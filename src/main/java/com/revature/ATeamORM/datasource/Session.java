@@ -1,18 +1,51 @@
 package com.revature.ATeamORM.datasource;
 
+import com.revature.ATeamORM.cache.CacheStats;
+import com.revature.ATeamORM.query.Aggregate;
+import com.revature.ATeamORM.query.Criteria;
+import com.revature.ATeamORM.query.Query;
+import com.revature.ATeamORM.repos.ColumnMetadata;
+import com.revature.ATeamORM.repos.CopyLoader;
+import com.revature.ATeamORM.repos.EntityCache;
+import com.revature.ATeamORM.repos.EntityMetadata;
 import com.revature.ATeamORM.repos.ObjectRepo;
+import com.revature.ATeamORM.repos.PersistenceContext;
+import com.revature.ATeamORM.repos.QueryCache;
+import com.revature.ATeamORM.repos.ResultIterator;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Maintains and establishes a connection with the database and invokes the CRUD+ operations
  */
 public class Session implements AutoCloseable {
 
+	public static final int DEFAULT_FETCH_SIZE = 500;
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
 	private Connection connection;
 	private final ObjectRepo repo;
+	private final CopyLoader copyLoader;
+	private final PersistenceContext context;
 	private final Class<?> clazz;
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private WriteQueue queue;
+	private int previousIsolation = -1;
+	private boolean readOnlyTransaction;
+	private Connection replicaConnection;
+	private boolean readYourWrites = true;
+	private boolean wrote;
 
 	/**
 	 * Opens a connection using JDBCConnection annotated credentials from inserted class.
@@ -22,11 +55,15 @@ public class Session implements AutoCloseable {
 	public Session(Class<?> clazz) {
 		this.clazz = clazz;
 		repo = new ObjectRepo();
+		copyLoader = new CopyLoader();
+		context = new PersistenceContext();
+		repo.setPersistenceContext(context);
 	}
 
 	/**
 	 * Finds and returns a Result List of objects instantiated from the clazz Class
-	 * whose fieldName matches the fieldValue provided
+	 * whose fieldName matches the fieldValue provided. Entities are tracked by this session, so the same row is
+	 * always the same instance, and a lookup by the @Id field is answered without a query once the row is known.
 	 * @param clazz The class reference for the objects to be built from
 	 * @param fieldName The name of the field (not column) that will be searched
 	 * @param fieldValue The value of the field as a String
@@ -37,7 +74,15 @@ public class Session implements AutoCloseable {
 	 * @author Uros Vorkapic
 	 */
 	public <T> Result<T> find(Class<T> clazz, String fieldName, String fieldValue) throws SQLException {
-		return repo.read(connection, clazz, fieldName, fieldValue);
+		flushQueue();
+		ColumnMetadata idColumn = EntityMetadata.of(clazz).getIdColumn();
+		if (idColumn != null && idColumn.getFieldName().equals(fieldName)) {
+			T managed = context.find(clazz, idColumn.fromString(fieldValue));
+			if (managed != null) {
+				return new Result<>(Collections.singletonList(managed));
+			}
+		}
+		return repo.read(readConnection(), clazz, fieldName, fieldValue);
 	}
 
 	/**
@@ -49,18 +94,252 @@ public class Session implements AutoCloseable {
 	 * @author Uros Vorkapic
 	 */
 	public <T> Result<T> findAll(Class<T> clazz) throws SQLException {
-		return repo.read(connection, clazz);
+		flushQueue();
+		return repo.read(readConnection(), clazz);
+	}
+
+	/**
+	 * Starts a fluent query over an entity, run with list() or first()
+	 * @param clazz The class reference for the objects to be built from
+	 * @param <T> The object type created from the injected class
+	 * @return An unfiltered query bound to this session
+	 */
+	public <T> Query<T> query(Class<T> clazz) {
+		return new Query<>(clazz, this);
+	}
+
+	/**
+	 * Runs a query built with query(clazz). Filtering, ordering and paging all happen in the database.
+	 * @param query The query to run
+	 * @param <T> The object type created from the injected class
+	 * @return Result object containing every matching entry
+	 * @throws SQLException Thrown if connection cannot be established, a field does not exist or
+	 * if @Column is not properly annotated
+	 */
+	public <T> Result<T> find(Query<T> query) throws SQLException {
+		flushQueue();
+		return repo.read(readConnection(), query);
+	}
+
+	/**
+	 * Runs a query built with query(clazz) and constructs a DTO or record per row from the selected fields, so only
+	 * those columns are sent and decoded. Results are not tracked by this session.
+	 * @param query The query to run; its select() fields must match a constructor of type, in order
+	 * @param type DTO or record type to construct
+	 * @param <R> The type constructed
+	 * @return Result object containing one object per matching entry
+	 * @throws SQLException Thrown if connection cannot be established or a field does not exist
+	 */
+	public <R> Result<R> find(Query<?> query, Class<R> type) throws SQLException {
+		flushQueue();
+		return repo.read(readConnection(), query, type);
+	}
+
+	/**
+	 * Counts every entry of a table with select count(*), without building any objects
+	 * @param clazz The annotated class of the table
+	 * @return Number of entries
+	 * @throws SQLException Thrown if connection cannot be established
+	 */
+	public long count(Class<?> clazz) throws SQLException {
+		flushQueue();
+		return repo.count(readConnection(), Query.from(clazz));
+	}
+
+	/**
+	 * Counts the entries matching the criteria, e.g. count(User.class, Criteria.where("email").isNull())
+	 * @param clazz The annotated class of the table
+	 * @param criteria Filter on the entity's fields
+	 * @return Number of matching entries
+	 * @throws SQLException Thrown if connection cannot be established or a field does not exist
+	 */
+	public long count(Class<?> clazz, Criteria criteria) throws SQLException {
+		flushQueue();
+		return repo.count(readConnection(), Query.from(clazz).where(criteria));
+	}
+
+	/**
+	 * Counts the entries a query built with query(clazz) matches
+	 * @param query The query to count
+	 * @return Number of matching entries
+	 * @throws SQLException Thrown if connection cannot be established or a field does not exist
+	 */
+	public long count(Query<?> query) throws SQLException {
+		flushQueue();
+		return repo.count(readConnection(), query);
+	}
+
+	/**
+	 * Checks whether any entry matches the criteria; the database stops at the first match
+	 * @param clazz The annotated class of the table
+	 * @param criteria Filter on the entity's fields
+	 * @return true if at least one entry matches
+	 * @throws SQLException Thrown if connection cannot be established or a field does not exist
+	 */
+	public boolean exists(Class<?> clazz, Criteria criteria) throws SQLException {
+		flushQueue();
+		return repo.exists(readConnection(), Query.from(clazz).where(criteria));
+	}
+
+	/**
+	 * Checks whether any entry matches a query built with query(clazz)
+	 * @param query The query to check
+	 * @return true if at least one entry matches
+	 * @throws SQLException Thrown if connection cannot be established or a field does not exist
+	 */
+	public boolean exists(Query<?> query) throws SQLException {
+		flushQueue();
+		return repo.exists(readConnection(), query);
+	}
+
+	/**
+	 * Computes sum, avg, min, max or count over the entries a query matches, in the database
+	 * @param query The query whose entries are aggregated
+	 * @param function Aggregate function
+	 * @param fieldName Numeric field (not column) aggregated, or null to COUNT entries
+	 * @return The aggregate as returned by the driver, or null if nothing matches and the function is not COUNT
+	 * @throws SQLException Thrown if connection cannot be established or a field does not exist
+	 */
+	public Number aggregate(Query<?> query, Aggregate function, String fieldName) throws SQLException {
+		flushQueue();
+		return repo.aggregate(readConnection(), query, function, fieldName);
+	}
+
+	/**
+	 * Computes sum, avg, min, max or count per distinct value of a field over the entries a query matches
+	 * @param query The query whose entries are aggregated
+	 * @param function Aggregate function
+	 * @param fieldName Numeric field (not column) aggregated, or null to COUNT entries
+	 * @param groupByField Field (not column) whose values group the entries
+	 * @return Aggregate per group value
+	 * @throws SQLException Thrown if connection cannot be established or a field does not exist
+	 */
+	public Map<Object, Number> aggregate(Query<?> query, Aggregate function, String fieldName, String groupByField)
+			throws SQLException {
+		flushQueue();
+		return repo.aggregate(readConnection(), query, function, fieldName, groupByField);
+	}
+
+	/**
+	 * Streams the entries whose fieldName matches the fieldValue provided through a server-side cursor, creating one
+	 * object per row as the Stream is consumed. The Stream must be closed, preferably with try-with-resources.
+	 * @param clazz The class reference for the objects to be built from
+	 * @param fieldName The name of the field (not column) that will be searched
+	 * @param fieldValue The value of the field as a String
+	 * @param <T> The object type created from the injected class
+	 * @return Lazy Stream of matching entries
+	 * @throws SQLException Thrown if connection cannot be established, fieldName does not exist or
+	 * if @Column is not properly annotated
+	 */
+	public <T> Stream<T> stream(Class<T> clazz, String fieldName, String fieldValue) throws SQLException {
+		flushQueue();
+		return iterate(clazz, fieldName, fieldValue).stream();
+	}
+
+	/**
+	 * Streams every entry in the table through a server-side cursor, creating one object per row as the Stream is
+	 * consumed, so memory use stays constant regardless of table size. The Stream must be closed, preferably with
+	 * try-with-resources.
+	 * @param clazz The class reference for the objects to be built from
+	 * @param <T> The object type created from the injected class
+	 * @return Lazy Stream of all entries
+	 * @throws SQLException Thrown if connection cannot be established or @Column fields are not correctly annotated
+	 */
+	public <T> Stream<T> stream(Class<T> clazz) throws SQLException {
+		flushQueue();
+		return iterate(clazz).stream();
+	}
+
+	/**
+	 * Iterator form of stream(clazz, fieldName, fieldValue). Must be closed unless it is read to the end.
+	 * @param clazz The class reference for the objects to be built from
+	 * @param fieldName The name of the field (not column) that will be searched
+	 * @param fieldValue The value of the field as a String
+	 * @param <T> The object type created from the injected class
+	 * @return Closeable iterator of matching entries
+	 * @throws SQLException Thrown if connection cannot be established, fieldName does not exist or
+	 * if @Column is not properly annotated
+	 */
+	public <T> ResultIterator<T> iterate(Class<T> clazz, String fieldName, String fieldValue) throws SQLException {
+		flushQueue();
+		return repo.iterate(readConnection(), clazz, fieldName, fieldValue, fetchSize);
 	}
 
 	/**
-	 * Saves/Updates the values of the object provided into the database based on the @Id annotated field of the object
+	 * Iterator form of stream(clazz). Must be closed unless it is read to the end.
+	 * @param clazz The class reference for the objects to be built from
+	 * @param <T> The object type created from the injected class
+	 * @return Closeable iterator of all entries
+	 * @throws SQLException Thrown if connection cannot be established or @Column fields are not correctly annotated
+	 */
+	public <T> ResultIterator<T> iterate(Class<T> clazz) throws SQLException {
+		flushQueue();
+		return repo.iterate(readConnection(), clazz, fetchSize);
+	}
+
+	/**
+	 * Sets how many rows stream and iterate fetch from the server per round trip
+	 * @param fetchSize Rows per fetch, must be positive
+	 */
+	public void setFetchSize(int fetchSize) {
+		if (fetchSize < 1) {
+			throw new IllegalArgumentException("Fetch size must be positive");
+		}
+		this.fetchSize = fetchSize;
+	}
+
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Saves/Updates the values of the object provided into the database based on the @Id annotated field of the object.
+	 * If this session loaded or wrote the object, only the columns changed since then are written, and nothing is
+	 * sent when none changed; otherwise every @Column except the @Id is written.
 	 * @param object The object with non-null fields to use to update the database with
 	 * @throws SQLException Thrown if connection cannot be established, object is missing field values or if
 	 * ID cannot be found.
 	 * @author Uros Vorkapic
 	 */
 	public void save(Object object) throws SQLException {
-		repo.update(connection, object);
+		wrote = true;
+		if (queue != null) {
+			queue.add(WriteQueue.Kind.SAVE, object, null);
+			return;
+		}
+		List<ColumnMetadata> changed = context.getChangedColumns(object);
+		if (changed == null) {
+			repo.update(connection, object);
+		} else {
+			repo.update(connection, object, changed);
+		}
+		context.manage(object);
+	}
+
+	/**
+	 * Saves/Updates only the provided fields of the object, based on its @Id annotated field. Other changed fields
+	 * stay pending for a later save or flush.
+	 * @param object The object holding the values to write
+	 * @param fieldNames Names of the fields (not columns) to write
+	 * @throws SQLException Thrown if connection cannot be established, a field does not exist, a written notNull()
+	 * field is null or if ID cannot be found.
+	 */
+	public void save(Object object, String... fieldNames) throws SQLException {
+		wrote = true;
+		EntityMetadata<?> metadata = EntityMetadata.of(object.getClass());
+		List<ColumnMetadata> columns = new ArrayList<>();
+		for (String fieldName : fieldNames) {
+			ColumnMetadata column = metadata.getColumn(fieldName);
+			if (!column.isId() && !columns.contains(column)) {
+				columns.add(column);
+			}
+		}
+		if (queue != null) {
+			queue.add(WriteQueue.Kind.SAVE, object, columns);
+			return;
+		}
+		repo.update(connection, object, columns);
+		context.markWritten(object, columns);
 	}
 
 	/**
@@ -72,7 +351,152 @@ public class Session implements AutoCloseable {
 	 * @author Uros Vorkapic
 	 */
 	public void insert(Object object) throws SQLException {
+		wrote = true;
+		if (queue != null) {
+			queue.add(WriteQueue.Kind.INSERT, object, null);
+			return;
+		}
 		repo.create(connection, object);
+		context.manage(object);
+	}
+
+	/**
+	 * Saves/Updates every object provided using JDBC batches of getBatchSize() statements per class. Runs in a
+	 * single transaction. Like save, objects tracked by this session only write their changed columns.
+	 * @param objects The objects with non-null fields to use to update the database with
+	 * @throws SQLException Thrown if connection cannot be established, an object is missing field values or if
+	 * ID cannot be found.
+	 */
+	public void saveAll(Collection<?> objects) throws SQLException {
+		wrote = true;
+		if (queue != null) {
+			objects.forEach(object -> queue.add(WriteQueue.Kind.SAVE, object, null));
+			return;
+		}
+		saveNow(objects, Collections.emptyMap());
+	}
+
+	/**
+	 * Batches the updates of a saveAll or of queued saves
+	 * @param objects Objects to update
+	 * @param explicit Columns of objects saved with save(object, fields...); others write what changed
+	 */
+	private void saveNow(Collection<?> objects, Map<Object, List<ColumnMetadata>> explicit) throws SQLException {
+		// Objects this session tracks only write their changed columns, others write every column
+		Map<Object, List<ColumnMetadata>> changes = new IdentityHashMap<>();
+		for (Object object : objects) {
+			List<ColumnMetadata> columns = explicit.get(object);
+			if (columns == null) {
+				columns = context.getChangedColumns(object);
+			}
+			changes.put(object, columns != null ? columns : EntityMetadata.of(object.getClass()).getUpdateColumns());
+		}
+		repo.updateColumns(connection, changes, batchSize);
+		for (Object object : objects) {
+			if (explicit.get(object) != null) {
+				context.markWritten(object, explicit.get(object));
+			} else {
+				context.manage(object);
+			}
+		}
+	}
+
+	/**
+	 * Inserts every object provided using JDBC batches of getBatchSize() statements per class, then writes the
+	 * database generated Ids back into the objects. Runs in a single transaction.
+	 * @param objects The objects to be inserted into the database
+	 * @throws SQLException Thrown if connection cannot be established, an object is missing non-null field values or
+	 * if uniqueness is not ensured
+	 */
+	public void insertAll(Collection<?> objects) throws SQLException {
+		wrote = true;
+		if (queue != null) {
+			objects.forEach(object -> queue.add(WriteQueue.Kind.INSERT, object, null));
+			return;
+		}
+		repo.createAll(connection, objects, batchSize);
+		objects.forEach(context::manage);
+	}
+
+	/**
+	 * Inserts the object, or updates the existing row it conflicts with, in a single statement, then writes the id of
+	 * that row into the object. Objects with an @Id conflict on it; others conflict on their unique() @Columns.
+	 * @param object The object to be inserted or updated
+	 * @throws SQLException Thrown if connection cannot be established, object is missing non-null field values or
+	 * if the table has no unique constraint matching the conflict columns
+	 */
+	public void upsert(Object object) throws SQLException {
+		wrote = true;
+		if (queue != null) {
+			queue.add(WriteQueue.Kind.UPSERT, object, null);
+			return;
+		}
+		repo.upsert(connection, object);
+		context.manage(object);
+	}
+
+	/**
+	 * Upserts every object provided using JDBC batches of getBatchSize() statements per class, then writes the ids
+	 * back into the objects. Runs in a single transaction.
+	 * @param objects The objects to be inserted or updated
+	 * @throws SQLException Thrown if connection cannot be established, an object is missing non-null field values or
+	 * if a table has no unique constraint matching the conflict columns
+	 */
+	public void upsertAll(Collection<?> objects) throws SQLException {
+		wrote = true;
+		if (queue != null) {
+			objects.forEach(object -> queue.add(WriteQueue.Kind.UPSERT, object, null));
+			return;
+		}
+		repo.upsertAll(connection, objects, batchSize);
+		objects.forEach(context::manage);
+	}
+
+	/**
+	 * Deletes every object provided by its @Id using JDBC batches of getBatchSize() statements per class. Runs in a
+	 * single transaction.
+	 * @param objects The objects to be removed from the database
+	 * @throws SQLException Thrown if connection cannot be established or something went terribly wrong
+	 */
+	public void removeAll(Collection<?> objects) throws SQLException {
+		wrote = true;
+		if (queue != null) {
+			objects.forEach(object -> queue.add(WriteQueue.Kind.REMOVE, object, null));
+			return;
+		}
+		repo.deleteAll(connection, objects, batchSize);
+		objects.forEach(context::evict);
+	}
+
+	/**
+	 * Bulk loads objects with PostgreSQL COPY, encoding rows from their @Column values as they are pulled from the
+	 * iterator. Intended for very large loads: the data set is never held in memory, but generated Ids are not
+	 * written back into the objects.
+	 * @param clazz The annotated class of the objects being loaded
+	 * @param rows Source of objects to load, consumed once
+	 * @param <T> The object type being loaded
+	 * @return Number of rows loaded
+	 * @throws SQLException Thrown if the COPY fails; nothing is loaded in that case
+	 */
+	public <T> long copyIn(Class<T> clazz, Iterator<? extends T> rows) throws SQLException {
+		wrote = true;
+		flushQueue();
+		return copyLoader.copyIn(connection, clazz, rows);
+	}
+
+	/**
+	 * Sets how many statements insertAll, saveAll and removeAll send per executeBatch
+	 * @param batchSize Statements per batch, must be positive
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive");
+		}
+		this.batchSize = batchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
 	}
 
 	/**
@@ -82,7 +506,238 @@ public class Session implements AutoCloseable {
 	 * @author Uros Vorkapic
 	 */
 	public void remove(Object object) throws SQLException {
+		wrote = true;
+		if (queue != null) {
+			queue.add(WriteQueue.Kind.REMOVE, object, null);
+			return;
+		}
 		repo.delete(connection, object);
+		context.evict(object);
+	}
+
+	/**
+	 * Writes every entity tracked by this session that changed since it was loaded or last written. Only the
+	 * changed columns are updated, in JDBC batches of getBatchSize() statements, within a single transaction.
+	 * Inside a transaction the queued writes are sent first.
+	 * @return Number of entities written
+	 * @throws SQLException Thrown if connection cannot be established, a changed notNull() field is null or if
+	 * ID cannot be found.
+	 */
+	public int flush() throws SQLException {
+		int queued = queue == null ? 0 : queue.size();
+		flushQueue();
+		Map<Object, List<ColumnMetadata>> dirty = context.getDirtyEntities();
+		if (!dirty.isEmpty()) {
+			wrote = true;
+		}
+		repo.updateColumns(connection, dirty, batchSize);
+		dirty.keySet().forEach(context::manage);
+		return queued + dirty.size();
+	}
+
+	/**
+	 * Starts a transaction with the connection's default isolation. Until commit or rollback, insert, save, upsert
+	 * and remove (and their batched versions) are queued instead of executed, and sent as JDBC batches when the
+	 * transaction is committed, flushed, or a query needs to see them. Generated ids are therefore only written
+	 * back at that point.
+	 * @throws SQLException Thrown if the connection cannot leave autocommit mode
+	 * @throws IllegalStateException Thrown if a transaction is already active
+	 */
+	public void beginTransaction() throws SQLException {
+		beginTransaction(-1, false);
+	}
+
+	/**
+	 * Starts a transaction, see beginTransaction()
+	 * @param isolationLevel One of the Connection.TRANSACTION_* levels, or -1 for the connection's default
+	 * @param readOnly Whether the transaction only reads, which lets the database skip write bookkeeping
+	 * @throws SQLException Thrown if the connection cannot leave autocommit mode or does not support the level
+	 * @throws IllegalStateException Thrown if a transaction is already active
+	 */
+	public void beginTransaction(int isolationLevel, boolean readOnly) throws SQLException {
+		if (queue != null) {
+			throw new IllegalStateException("A transaction is already active");
+		}
+		if (isolationLevel != -1) {
+			previousIsolation = connection.getTransactionIsolation();
+			connection.setTransactionIsolation(isolationLevel);
+		}
+		if (readOnly) {
+			connection.setReadOnly(true);
+			readOnlyTransaction = true;
+		}
+		connection.setAutoCommit(false);
+		repo.setTransactional(true);
+		queue = new WriteQueue();
+	}
+
+	/**
+	 * Sends the queued writes and commits the transaction. If a queued write fails, the transaction is rolled back.
+	 * @throws SQLException Thrown if a queued write or the commit fails
+	 * @throws IllegalStateException Thrown if no transaction is active
+	 */
+	public void commit() throws SQLException {
+		requireTransaction();
+		try {
+			flushQueue();
+			connection.commit();
+		} catch (SQLException | RuntimeException e) {
+			rollback();
+			throw e;
+		}
+		endTransaction();
+	}
+
+	/**
+	 * Discards the queued writes and rolls the transaction back. Entities tracked by this session may hold rolled
+	 * back values, so the session stops tracking all of them.
+	 * @throws SQLException Thrown if the rollback fails
+	 * @throws IllegalStateException Thrown if no transaction is active
+	 */
+	public void rollback() throws SQLException {
+		requireTransaction();
+		queue.clear();
+		context.clear();
+		try {
+			connection.rollback();
+		} finally {
+			endTransaction();
+		}
+	}
+
+	/**
+	 * Runs work in a transaction, committing if it completes and rolling back if it throws:
+	 * <pre>
+	 *     long id = session.inTransaction(s -> {
+	 *         s.insert(user);
+	 *         s.insertAll(posts);
+	 *         return user.getId();
+	 *     });
+	 * </pre>
+	 * Ids generated inside the work are only available once a query, flush() or the commit has sent the inserts.
+	 * @param work Work run with this session
+	 * @param <R> Result Type
+	 * @return What the work returned
+	 * @throws SQLException Thrown if the work or the commit fails
+	 */
+	public <R> R inTransaction(TransactionWork<R> work) throws SQLException {
+		beginTransaction();
+		R result;
+		try {
+			result = work.run(this);
+		} catch (SQLException | RuntimeException | Error e) {
+			try {
+				rollback();
+			} catch (SQLException rollbackFailure) {
+				e.addSuppressed(rollbackFailure);
+			}
+			throw e;
+		}
+		commit();
+		return result;
+	}
+
+	/**
+	 * Sends the queued writes and marks a point the transaction can be rolled back to
+	 * @param name Name of the savepoint
+	 * @return The savepoint
+	 * @throws SQLException Thrown if a queued write fails or savepoints are not supported
+	 * @throws IllegalStateException Thrown if no transaction is active
+	 */
+	public Savepoint setSavepoint(String name) throws SQLException {
+		requireTransaction();
+		flushQueue();
+		return connection.setSavepoint(name);
+	}
+
+	/**
+	 * Undoes every write made since the savepoint, including writes still queued. The session stops tracking its
+	 * entities, which may hold undone values.
+	 * @param savepoint Savepoint of the active transaction
+	 * @throws SQLException Thrown if the rollback fails
+	 * @throws IllegalStateException Thrown if no transaction is active
+	 */
+	public void rollbackTo(Savepoint savepoint) throws SQLException {
+		requireTransaction();
+		queue.clear();
+		context.clear();
+		connection.rollback(savepoint);
+	}
+
+	/**
+	 * Releases a savepoint that is no longer needed
+	 * @param savepoint Savepoint of the active transaction
+	 * @throws SQLException Thrown if the savepoint cannot be released
+	 */
+	public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+		requireTransaction();
+		connection.releaseSavepoint(savepoint);
+	}
+
+	public boolean isInTransaction() {
+		return queue != null;
+	}
+
+	private void requireTransaction() {
+		if (queue == null) {
+			throw new IllegalStateException("No transaction is active");
+		}
+	}
+
+	/**
+	 * Returns the connection to autocommit mode with the isolation and read-only flag it had before the transaction
+	 */
+	private void endTransaction() throws SQLException {
+		queue = null;
+		repo.setTransactional(false);
+		try {
+			connection.setAutoCommit(true);
+			if (readOnlyTransaction) {
+				connection.setReadOnly(false);
+			}
+			if (previousIsolation != -1) {
+				connection.setTransactionIsolation(previousIsolation);
+			}
+		} finally {
+			readOnlyTransaction = false;
+			previousIsolation = -1;
+		}
+	}
+
+	/**
+	 * Sends every queued write of the transaction, one JDBC batch per run of writes of the same kind
+	 */
+	private void flushQueue() throws SQLException {
+		if (queue == null || queue.isEmpty()) {
+			return;
+		}
+		for (WriteQueue.Run run : queue.drain()) {
+			switch (run.kind) {
+				case INSERT:
+					repo.createAll(connection, run.objects, batchSize);
+					run.objects.forEach(context::manage);
+					break;
+				case SAVE:
+					saveNow(run.objects, run.columns);
+					break;
+				case UPSERT:
+					repo.upsertAll(connection, run.objects, batchSize);
+					run.objects.forEach(context::manage);
+					break;
+				case REMOVE:
+					repo.deleteAll(connection, run.objects, batchSize);
+					run.objects.forEach(context::evict);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Stops tracking every entity loaded or written by this session, discarding unflushed changes. Later finds
+	 * query the database again and return new instances.
+	 */
+	public void clear() {
+		context.clear();
 	}
 	
 	
@@ -96,11 +751,12 @@ public class Session implements AutoCloseable {
 	 * @author Juan Mendoza
 	 */
 	public boolean isEntityUnique(Object object) throws SQLException {
+		flushQueue();
 		return repo.isEntryUnique(connection,object);
 	}
 
 	/**
-	 * Opens a session by establishing a connection based on provided @ConnectionConfig and @JDBCConnection
+	 * Opens a session by borrowing a pooled connection based on provided @ConnectionConfig and @JDBCConnection
 	 * @throws SQLException Thrown if connection cannot be established
 	 * @author Uros Vorkapic
 	 */
@@ -109,14 +765,87 @@ public class Session implements AutoCloseable {
 	}
 
 	/**
-	 * Closes the current session. This method is automatically invoked if Session.open() is invoked as an
-	 * AutoCloseable in the try-catch
+	 * Chooses whether reads go back to the primary once this session has written. On by default, so a session
+	 * always reads its own writes even while replicas lag; turn it off for sessions that tolerate stale reads.
+	 * Without replicas() on the configuration class every call uses the primary anyway.
+	 * @param readYourWrites false to keep sending reads to replicas after a write
+	 */
+	public void setReadYourWrites(boolean readYourWrites) {
+		this.readYourWrites = readYourWrites;
+	}
+
+	public boolean isReadYourWrites() {
+		return readYourWrites;
+	}
+
+	/**
+	 * Picks the connection for a read-only call. Reads go to a replica connection, borrowed on first use and kept
+	 * until close, unless the configuration class has no replicas(), a transaction is active, or read-your-writes is
+	 * on and this session has written. Rows read from the replica are kept out of the shared caches.
+	 */
+	private Connection readConnection() throws SQLException {
+		if (queue != null || (readYourWrites && wrote) || !ConnectionFactory.getInstance().hasReplicas(clazz)) {
+			return connection;
+		}
+		if (replicaConnection == null) {
+			replicaConnection = ConnectionFactory.getInstance().getReadConnection(clazz);
+			repo.setReplicaConnection(replicaConnection);
+		}
+		return replicaConnection;
+	}
+
+	/**
+	 * Gets statistics for the connection pool this session borrows from
+	 * @return Snapshot of the pool counters
+	 */
+	public PoolStats getPoolStats() {
+		return ConnectionFactory.getInstance().getPoolStats(clazz);
+	}
+
+	/**
+	 * Gets statistics for the process-wide second-level cache of an entity
+	 * @param clazz A class annotated with @Cacheable
+	 * @return Snapshot of the cache counters, or null if the class is not cached
+	 */
+	public CacheStats getCacheStats(Class<?> clazz) {
+		EntityCache<?> cache = EntityCache.of(clazz);
+		return cache == null ? null : cache.getStats();
+	}
+
+	/**
+	 * Gets statistics for the process-wide find(fieldName, fieldValue) result cache of an entity
+	 * @param clazz A class annotated with @CacheQueries
+	 * @return Snapshot of the cache counters, or null if the class does not cache queries
+	 */
+	public CacheStats getQueryCacheStats(Class<?> clazz) {
+		QueryCache<?> cache = QueryCache.of(clazz);
+		return cache == null ? null : cache.getStats();
+	}
+
+	/**
+	 * Closes the current session, forgetting tracked entities without flushing them, and returns its connection to
+	 * the pool. This method is automatically invoked if
+	 * Session.open() is invoked as an AutoCloseable in the try-catch
 	 * @throws SQLException Thrown if connection cannot be closed properly.
 	 * @author Uros Vorkapic
 	 */
 	@Override
 	public void close() throws SQLException {
-		connection.close();
+		if (queue != null) {
+			rollback();
+		}
+		context.clear();
+		repo.closeLazyLists();
+		wrote = false;
+		try {
+			connection.close();
+		} finally {
+			if (replicaConnection != null) {
+				repo.setReplicaConnection(null);
+				replicaConnection.close();
+				replicaConnection = null;
+			}
+		}
 	}
 
 }
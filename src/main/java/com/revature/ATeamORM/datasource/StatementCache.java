@@ -0,0 +1,179 @@
+package com.revature.ATeamORM.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * LRU-bounded cache of PreparedStatements for a single Connection, keyed by SQL text. Because the ORM only ever
+ * issues fixed parameterized SQL per entity, repeated CRUD calls on the same connection reuse one statement and let
+ * the driver switch to a server-side prepared statement. ResultSets obtained from cached statements must be closed
+ * by the caller, the statements themselves are closed on eviction or when the cache is released.
+ */
+public final class StatementCache {
+
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private static final ConcurrentMap<Connection, StatementCache> caches = new ConcurrentHashMap<>();
+	private static volatile int defaultCapacity = DEFAULT_CAPACITY;
+
+	private final Connection connection;
+	private final LinkedHashMap<String, PreparedStatement> statements;
+	private volatile PreparedStatement current;
+	private volatile boolean cancelled;
+
+	StatementCache(Connection connection, int capacity) {
+		this.connection = connection;
+		this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+				if (size() > capacity) {
+					closeQuietly(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Gets the statement cache belonging to a connection, creating one if none exists. Pooled connections share the
+	 * cache of their physical connection across leases.
+	 * @param connection The connection whose statements are cached
+	 * @return The cache for that connection
+	 * @throws SQLException Thrown if the connection is a pooled one that was already returned to the pool
+	 */
+	public static StatementCache of(Connection connection) throws SQLException {
+		Connection physical = PooledConnection.physicalOf(connection);
+		StatementCache cache = caches.get(physical);
+		if (cache == null) {
+			cache = caches.computeIfAbsent(physical, c -> new StatementCache(c, defaultCapacity));
+		}
+		return cache;
+	}
+
+	/**
+	 * Closes every cached statement of a connection and forgets the cache. Must be invoked before the physical
+	 * connection is closed, otherwise the cache keeps the connection reachable.
+	 * @param connection The connection being closed
+	 */
+	public static void release(Connection connection) {
+		StatementCache cache = caches.remove(connection);
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Changes the capacity used for caches created from now on
+	 * @param capacity Maximum statements kept open per connection
+	 */
+	public static void setDefaultCapacity(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Statement cache capacity must be at least 1");
+		}
+		defaultCapacity = capacity;
+	}
+
+	/**
+	 * Gets a cached statement for the SQL text, preparing it on first use
+	 * @param sql Parameterized SQL
+	 * @return A reusable PreparedStatement with cleared parameters
+	 * @throws SQLException Thrown if the statement cannot be prepared, or cancel() was called since clearCancel()
+	 */
+	public synchronized PreparedStatement prepare(String sql) throws SQLException {
+		PreparedStatement pstmt = statements.get(sql);
+		if (pstmt == null || pstmt.isClosed()) {
+			pstmt = connection.prepareStatement(sql);
+			statements.put(sql, pstmt);
+		} else {
+			pstmt.clearParameters();
+		}
+		return started(pstmt);
+	}
+
+	/**
+	 * Gets a cached statement that returns the generated values of the provided columns
+	 * @param sql Parameterized SQL
+	 * @param generatedColumns Columns returned through getGeneratedKeys()
+	 * @return A reusable PreparedStatement with cleared parameters
+	 * @throws SQLException Thrown if the statement cannot be prepared, or cancel() was called since clearCancel()
+	 */
+	public synchronized PreparedStatement prepare(String sql, String[] generatedColumns) throws SQLException {
+		String key = sql + "\u0000" + String.join(",", generatedColumns);
+		PreparedStatement pstmt = statements.get(key);
+		if (pstmt == null || pstmt.isClosed()) {
+			pstmt = connection.prepareStatement(sql, generatedColumns);
+			statements.put(key, pstmt);
+		} else {
+			pstmt.clearParameters();
+		}
+		return started(pstmt);
+	}
+
+	/**
+	 * Makes the statement just handed out current, unless a cancel is pending. Setting current before reading the
+	 * flag means a concurrent cancel() either sees this statement or is seen here.
+	 */
+	private PreparedStatement started(PreparedStatement pstmt) throws SQLException {
+		current = pstmt;
+		if (cancelled) {
+			throw new SQLException("canceling statement due to user request", "57014");
+		}
+		return pstmt;
+	}
+
+	/**
+	 * Asks the driver to cancel the statement most recently handed out by prepare. The ORM runs one statement at a
+	 * time per connection, so this is the statement that is executing, if any. Every later prepare fails until
+	 * clearCancel(), so a cancel that lands before the statement is prepared still stops it. Drivers ignore a cancel
+	 * for a statement that has not started executing yet, so callers should repeat it while the work is running.
+	 * Does not take the cache lock and may be called from any thread.
+	 * @throws SQLException Thrown if the driver cannot send the cancel request
+	 */
+	public void cancel() throws SQLException {
+		cancelled = true;
+		PreparedStatement pstmt = current;
+		if (pstmt != null && !pstmt.isClosed()) {
+			pstmt.cancel();
+		}
+	}
+
+	/**
+	 * Forgets a cancel and the statement it was meant for; invoked when a caller takes over or gives back the
+	 * connection, so a cancel never outlives the work it was aimed at
+	 */
+	public void clearCancel() {
+		cancelled = false;
+		current = null;
+	}
+
+	/**
+	 * Closes and removes every cached statement
+	 */
+	public synchronized void clear() {
+		Iterator<PreparedStatement> iterator = statements.values().iterator();
+		while (iterator.hasNext()) {
+			closeQuietly(iterator.next());
+			iterator.remove();
+		}
+		current = null;
+	}
+
+	public synchronized int size() {
+		return statements.size();
+	}
+
+	private static void closeQuietly(PreparedStatement pstmt) {
+		try {
+			pstmt.close();
+		} catch (SQLException e) {
+			// Evicted or released statements are no longer used, failing to close one leaves nothing to clean up
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package com.revature.ATeamORM.datasource;
+
+import java.sql.SQLException;
+
+/**
+ * Work run by Session.inTransaction
+ * @param <R> Result Type
+ */
+@FunctionalInterface
+public interface TransactionWork<R> {
+	R run(Session session) throws SQLException;
+}
@@ -0,0 +1,88 @@
+package com.revature.ATeamORM.datasource;
+
+import com.revature.ATeamORM.repos.ColumnMetadata;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a Session defers until its transaction is flushed. Consecutive writes of the same kind form one run, which
+ * is sent as a JDBC batch; runs keep their order so, for example, a delete still reaches the database before a
+ * later insert that reuses its unique values.
+ */
+final class WriteQueue {
+
+	enum Kind {
+		INSERT, SAVE, UPSERT, REMOVE
+	}
+
+	/**
+	 * Consecutive writes of one kind, each object once
+	 */
+	static final class Run {
+		final Kind kind;
+		final List<Object> objects = new ArrayList<>();
+		// Columns of a save(object, fields...); null for a save of every changed column
+		final Map<Object, List<ColumnMetadata>> columns = new IdentityHashMap<>();
+
+		private Run(Kind kind) {
+			this.kind = kind;
+		}
+	}
+
+	private final List<Run> runs = new ArrayList<>();
+	private int size;
+
+	/**
+	 * @param kind Kind of write
+	 * @param object Object written
+	 * @param columns For SAVE, the only columns to write, or null for every changed column
+	 */
+	void add(Kind kind, Object object, List<ColumnMetadata> columns) {
+		Run run = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+		if (run == null || run.kind != kind) {
+			run = new Run(kind);
+			runs.add(run);
+		}
+		if (!run.columns.containsKey(object)) {
+			run.objects.add(object);
+			run.columns.put(object, columns);
+			size++;
+		} else if (run.columns.get(object) != null) {
+			// A full save wins; two partial saves write both column lists
+			if (columns == null) {
+				run.columns.put(object, null);
+			} else {
+				LinkedHashSet<ColumnMetadata> union = new LinkedHashSet<>(run.columns.get(object));
+				union.addAll(columns);
+				run.columns.put(object, new ArrayList<>(union));
+			}
+		}
+	}
+
+	/**
+	 * Takes every queued run, leaving the queue empty
+	 * @return Runs in the order they were queued
+	 */
+	List<Run> drain() {
+		List<Run> drained = new ArrayList<>(runs);
+		clear();
+		return drained;
+	}
+
+	void clear() {
+		runs.clear();
+		size = 0;
+	}
+
+	boolean isEmpty() {
+		return runs.isEmpty();
+	}
+
+	int size() {
+		return size;
+	}
+}
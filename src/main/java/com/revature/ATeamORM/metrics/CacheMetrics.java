@@ -0,0 +1,33 @@
+package com.revature.ATeamORM.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hits and misses of one entity in one shared cache
+ */
+public final class CacheMetrics {
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	void record(boolean hit) {
+		(hit ? hits : misses).increment();
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return Fraction of lookups that were hits, or 0 if there were none
+	 */
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long requests = hitCount + misses.sum();
+		return requests == 0 ? 0 : (double) hitCount / requests;
+	}
+}
@@ -0,0 +1,11 @@
+package com.revature.ATeamORM.metrics;
+
+/**
+ * Shared cache a lookup was answered from, as reported to a MetricsRecorder
+ */
+public enum CacheRegion {
+	// Rows by @Id of a @Cacheable entity
+	ENTITY,
+	// find(fieldName, fieldValue) results of a @CacheQueries entity
+	QUERY
+}
@@ -0,0 +1,132 @@
+package com.revature.ATeamORM.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MetricsRecorder keeping every measurement in process: a LatencyHistogram and row count per entity and statement
+ * kind, per entity for row mapping and per configuration class for connection acquires, and hit counters per entity
+ * and cache. Recording is lock-free; only the first measurement of a new key allocates.
+ */
+public class InMemoryMetrics implements MetricsRecorder {
+
+	private final ConcurrentMap<List<Object>, TimerMetrics> statements = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<?>, TimerMetrics> rowMapping = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<?>, TimerMetrics> connectionAcquire = new ConcurrentHashMap<>();
+	private final ConcurrentMap<List<Object>, CacheMetrics> caches = new ConcurrentHashMap<>();
+
+	@Override
+	public void recordStatement(Class<?> entity, Operation operation, long nanos, long rows) {
+		timer(statements, Arrays.asList(entity, operation)).record(nanos, rows);
+	}
+
+	@Override
+	public void recordRowMapping(Class<?> entity, long nanos) {
+		timer(rowMapping, entity).record(nanos, 0);
+	}
+
+	@Override
+	public void recordConnectionAcquire(Class<?> configuration, long nanos) {
+		timer(connectionAcquire, configuration).record(nanos, 0);
+	}
+
+	@Override
+	public void recordCacheAccess(Class<?> entity, CacheRegion region, boolean hit) {
+		List<Object> key = Arrays.asList(entity, region);
+		CacheMetrics metrics = caches.get(key);
+		if (metrics == null) {
+			metrics = caches.computeIfAbsent(key, k -> new CacheMetrics());
+		}
+		metrics.record(hit);
+	}
+
+	/**
+	 * @return Statements of that kind run for the entity, or null if there were none
+	 */
+	public TimerMetrics getStatementMetrics(Class<?> entity, Operation operation) {
+		return statements.get(Arrays.asList(entity, operation));
+	}
+
+	/**
+	 * @return Rows mapped into the entity, or null if there were none
+	 */
+	public TimerMetrics getRowMappingMetrics(Class<?> entity) {
+		return rowMapping.get(entity);
+	}
+
+	/**
+	 * @return Connections borrowed for the configuration class, or null if there were none
+	 */
+	public TimerMetrics getConnectionAcquireMetrics(Class<?> configuration) {
+		return connectionAcquire.get(configuration);
+	}
+
+	/**
+	 * @return Lookups of the entity in that cache, or null if there were none
+	 */
+	public CacheMetrics getCacheMetrics(Class<?> entity, CacheRegion region) {
+		return caches.get(Arrays.asList(entity, region));
+	}
+
+	/**
+	 * Forgets every measurement
+	 */
+	public void reset() {
+		statements.clear();
+		rowMapping.clear();
+		connectionAcquire.clear();
+		caches.clear();
+	}
+
+	/**
+	 * Flattens every measurement into named values, e.g. "statement.com.app.User.SELECT.p99Micros" or
+	 * "cache.com.app.User.ENTITY.hitRate". Durations are in microseconds.
+	 * @return Values sorted by name
+	 */
+	public SortedMap<String, Number> snapshot() {
+		SortedMap<String, Number> values = new TreeMap<>();
+		for (Map.Entry<List<Object>, TimerMetrics> entry : statements.entrySet()) {
+			String prefix = "statement." + ((Class<?>) entry.getKey().get(0)).getName() + "." + entry.getKey().get(1);
+			putTimer(values, prefix, entry.getValue());
+			values.put(prefix + ".rows", entry.getValue().getRows());
+		}
+		for (Map.Entry<Class<?>, TimerMetrics> entry : rowMapping.entrySet()) {
+			putTimer(values, "mapping." + entry.getKey().getName(), entry.getValue());
+		}
+		for (Map.Entry<Class<?>, TimerMetrics> entry : connectionAcquire.entrySet()) {
+			putTimer(values, "acquire." + entry.getKey().getName(), entry.getValue());
+		}
+		for (Map.Entry<List<Object>, CacheMetrics> entry : caches.entrySet()) {
+			String prefix = "cache." + ((Class<?>) entry.getKey().get(0)).getName() + "." + entry.getKey().get(1);
+			values.put(prefix + ".hits", entry.getValue().getHitCount());
+			values.put(prefix + ".misses", entry.getValue().getMissCount());
+			values.put(prefix + ".hitRate", entry.getValue().getHitRate());
+		}
+		return values;
+	}
+
+	private static void putTimer(Map<String, Number> values, String prefix, TimerMetrics timer) {
+		LatencyHistogram latency = timer.getLatency();
+		values.put(prefix + ".count", latency.getCount());
+		values.put(prefix + ".meanMicros", latency.getMean() / 1_000);
+		values.put(prefix + ".p50Micros", micros(latency.getValueAtPercentile(50)));
+		values.put(prefix + ".p99Micros", micros(latency.getValueAtPercentile(99)));
+		values.put(prefix + ".maxMicros", micros(latency.getMax()));
+	}
+
+	private static long micros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	private static <K> TimerMetrics timer(ConcurrentMap<K, TimerMetrics> timers, K key) {
+		// get first: computeIfAbsent locks the bin even when the key is present on Java 8
+		TimerMetrics timer = timers.get(key);
+		return timer != null ? timer : timers.computeIfAbsent(key, k -> new TimerMetrics());
+	}
+}
@@ -0,0 +1,127 @@
+package com.revature.ATeamORM.metrics;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes an InMemoryMetrics registry on the platform MBeanServer, for jconsole, VisualVM or any JMX agent. The
+ * MBean has one read-only attribute per value of InMemoryMetrics.snapshot(), computed when it is read, and a reset
+ * operation; attributes appear as new entities and statements are measured.
+ */
+public final class JmxExporter {
+
+	public static final String DEFAULT_NAME = "com.revature.ATeamORM:type=Metrics";
+
+	private JmxExporter() {}
+
+	/**
+	 * Registers the registry under DEFAULT_NAME
+	 * @param metrics Registry to publish
+	 * @return Name it was registered under
+	 * @throws IllegalStateException Thrown if the name is already registered
+	 */
+	public static ObjectName register(InMemoryMetrics metrics) {
+		return register(metrics, DEFAULT_NAME);
+	}
+
+	/**
+	 * Registers the registry under a name, e.g. to publish one registry per application in a shared JVM
+	 * @param metrics Registry to publish
+	 * @param name JMX object name
+	 * @return Name it was registered under
+	 * @throws IllegalStateException Thrown if the name is invalid or already registered
+	 */
+	public static ObjectName register(InMemoryMetrics metrics, String name) {
+		try {
+			ObjectName objectName = new ObjectName(name);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(metrics), objectName);
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not register metrics MBean " + name, e);
+		}
+	}
+
+	/**
+	 * Removes a registered registry; does nothing if it is not registered
+	 * @param name Name returned by register
+	 */
+	public static void unregister(ObjectName name) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		} catch (InstanceNotFoundException e) {
+			// Already gone
+		} catch (MBeanRegistrationException e) {
+			throw new IllegalStateException("Could not unregister metrics MBean " + name, e);
+		}
+	}
+
+	/**
+	 * Attributes are the snapshot names, so the MBeanInfo is rebuilt on every request
+	 */
+	private static final class MetricsMBean implements DynamicMBean {
+		private final InMemoryMetrics metrics;
+
+		MetricsMBean(InMemoryMetrics metrics) {
+			this.metrics = metrics;
+		}
+
+		@Override
+		public Object getAttribute(String attribute) throws AttributeNotFoundException {
+			Number value = metrics.snapshot().get(attribute);
+			if (value == null) {
+				throw new AttributeNotFoundException(attribute);
+			}
+			return value;
+		}
+
+		@Override
+		public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+			throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+		}
+
+		@Override
+		public AttributeList getAttributes(String[] attributes) {
+			Map<String, Number> snapshot = metrics.snapshot();
+			AttributeList list = new AttributeList();
+			for (String attribute : attributes) {
+				Number value = snapshot.get(attribute);
+				if (value != null) {
+					list.add(new Attribute(attribute, value));
+				}
+			}
+			return list;
+		}
+
+		@Override
+		public AttributeList setAttributes(AttributeList attributes) {
+			return new AttributeList();
+		}
+
+		@Override
+		public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+			if ("reset".equals(actionName)) {
+				metrics.reset();
+				return null;
+			}
+			throw new ReflectionException(new NoSuchMethodException(actionName));
+		}
+
+		@Override
+		public MBeanInfo getMBeanInfo() {
+			List<MBeanAttributeInfo> attributes = new ArrayList<>();
+			for (Map.Entry<String, Number> entry : metrics.snapshot().entrySet()) {
+				attributes.add(new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+													  entry.getKey(), true, false, false));
+			}
+			MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Forgets every measurement",
+															  new MBeanParameterInfo[0], "void",
+															  MBeanOperationInfo.ACTION);
+			return new MBeanInfo(InMemoryMetrics.class.getName(), "ATeamORM metrics",
+								 attributes.toArray(new MBeanAttributeInfo[0]), new MBeanConstructorInfo[0],
+								 new MBeanOperationInfo[]{reset}, new MBeanNotificationInfo[0]);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.revature.ATeamORM.metrics;
+
+/**
+ * Holds the MetricsRecorder and StatementProfiler the ORM reports to. Nothing is installed by default; instrumented
+ * code then only reads one field and skips its System.nanoTime() calls, so metrics cost next to nothing while
+ * disabled.
+ * <pre>
+ *     InMemoryMetrics metrics = new InMemoryMetrics();
+ *     Metrics.install(metrics);
+ *     JmxExporter.register(metrics);
+ * </pre>
+ */
+public final class Metrics {
+
+	private static volatile MetricsRecorder recorder;
+	private static volatile StatementProfiler profiler;
+	// recorder != null || profiler != null, kept in one field so statements check a single volatile read
+	private static volatile boolean measuringStatements;
+
+	private Metrics() {}
+
+	/**
+	 * Starts reporting to a recorder, replacing any previous one
+	 * @param metricsRecorder Recorder receiving every measurement from now on
+	 */
+	public static synchronized void install(MetricsRecorder metricsRecorder) {
+		if (metricsRecorder == null) {
+			throw new IllegalArgumentException("Recorder cannot be null, use uninstall() to disable metrics");
+		}
+		recorder = metricsRecorder;
+		measuringStatements = true;
+	}
+
+	/**
+	 * Stops reporting measurements
+	 */
+	public static synchronized void uninstall() {
+		recorder = null;
+		measuringStatements = profiler != null;
+	}
+
+	/**
+	 * Starts profiling every statement by its SQL fingerprint, replacing any previous profiler. Independent of the
+	 * installed recorder.
+	 * @param statementProfiler Profiler receiving every statement from now on
+	 */
+	public static synchronized void installProfiler(StatementProfiler statementProfiler) {
+		if (statementProfiler == null) {
+			throw new IllegalArgumentException("Profiler cannot be null, use uninstallProfiler() to disable it");
+		}
+		profiler = statementProfiler;
+		measuringStatements = true;
+	}
+
+	/**
+	 * Stops profiling statements
+	 */
+	public static synchronized void uninstallProfiler() {
+		profiler = null;
+		measuringStatements = recorder != null;
+	}
+
+	/**
+	 * Gets the installed recorder. Instrumented code reads this once per measurement and only starts timing if it is
+	 * not null.
+	 * @return The installed recorder, or null if metrics are disabled
+	 */
+	public static MetricsRecorder recorder() {
+		return recorder;
+	}
+
+	/**
+	 * @return The installed profiler, or null if statements are not profiled
+	 */
+	public static StatementProfiler profiler() {
+		return profiler;
+	}
+
+	public static boolean isEnabled() {
+		return recorder != null;
+	}
+
+	/**
+	 * Checked before timing a statement
+	 * @return Whether a recorder or a profiler is installed
+	 */
+	public static boolean isMeasuringStatements() {
+		return measuringStatements;
+	}
+
+	/**
+	 * Reports an executed statement to the installed recorder and profiler
+	 * @param entity Entity class the statement reads or writes
+	 * @param operation Kind of statement
+	 * @param sql SQL the statement was prepared from
+	 * @param nanos Time spent executing it
+	 * @param rows Entities read or rows written
+	 */
+	public static void recordStatement(Class<?> entity, Operation operation, String sql, long nanos, long rows) {
+		MetricsRecorder metricsRecorder = recorder;
+		if (metricsRecorder != null) {
+			metricsRecorder.recordStatement(entity, operation, nanos, rows);
+		}
+		StatementProfiler statementProfiler = profiler;
+		if (statementProfiler != null) {
+			statementProfiler.record(sql, entity, operation, nanos, rows);
+		}
+	}
+}
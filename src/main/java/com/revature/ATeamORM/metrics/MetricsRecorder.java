@@ -0,0 +1,40 @@
+package com.revature.ATeamORM.metrics;
+
+/**
+ * Receives measurements from the ORM's hot paths. Install an implementation with Metrics.install; InMemoryMetrics
+ * is provided, and an adapter to any other metrics library only has to implement these four methods. Methods are
+ * called on the thread doing the work, concurrently from many threads, so they must be thread-safe and fast.
+ */
+public interface MetricsRecorder {
+
+	/**
+	 * Called after every statement the ORM executes
+	 * @param entity Entity class the statement reads or writes
+	 * @param operation Kind of statement
+	 * @param nanos Time spent executing it; for a SELECT this includes reading and mapping every row
+	 * @param rows Entities read or rows written; 0 for AGGREGATE and for cursors, whose rows are read later
+	 */
+	void recordStatement(Class<?> entity, Operation operation, long nanos, long rows);
+
+	/**
+	 * Called for every row turned into an entity
+	 * @param entity Entity class created
+	 * @param nanos Time spent mapping the row
+	 */
+	void recordRowMapping(Class<?> entity, long nanos);
+
+	/**
+	 * Called every time a pooled connection is borrowed
+	 * @param configuration Class holding the @JDBCConnection the pool serves
+	 * @param nanos Time spent waiting for the connection, including opening a new one
+	 */
+	void recordConnectionAcquire(Class<?> configuration, long nanos);
+
+	/**
+	 * Called for every lookup in a shared cache
+	 * @param entity Entity class looked up
+	 * @param region Cache looked in
+	 * @param hit Whether the lookup was answered from the cache
+	 */
+	void recordCacheAccess(Class<?> entity, CacheRegion region, boolean hit);
+}
@@ -0,0 +1,14 @@
+package com.revature.ATeamORM.metrics;
+
+/**
+ * Kind of statement the ORM executed for an entity, as reported to a MetricsRecorder
+ */
+public enum Operation {
+	SELECT,
+	INSERT,
+	UPDATE,
+	UPSERT,
+	DELETE,
+	AGGREGATE,
+	COPY
+}
@@ -0,0 +1,86 @@
+package com.revature.ATeamORM.metrics;
+
+/**
+ * Point-in-time totals of every statement sharing one SQL fingerprint, see StatementProfiler
+ */
+public final class StatementProfile {
+
+	private final String fingerprint;
+	private final Class<?> entity;
+	private final Operation operation;
+	private final long count;
+	private final long totalNanos;
+	private final long maxNanos;
+	private final long rows;
+	private final long slowCount;
+
+	StatementProfile(String fingerprint, Class<?> entity, Operation operation, long count, long totalNanos,
+					 long maxNanos, long rows, long slowCount) {
+		this.fingerprint = fingerprint;
+		this.entity = entity;
+		this.operation = operation;
+		this.count = count;
+		this.totalNanos = totalNanos;
+		this.maxNanos = maxNanos;
+		this.rows = rows;
+		this.slowCount = slowCount;
+	}
+
+	/**
+	 * @return Normalized SQL: literals replaced by ?, lists of parameters collapsed, whitespace and case folded
+	 */
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * @return Entity class of the first statement seen with this fingerprint
+	 */
+	public Class<?> getEntity() {
+		return entity;
+	}
+
+	public Operation getOperation() {
+		return operation;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * @return Mean time per statement in nanoseconds, or 0 if none ran
+	 */
+	public double getMeanNanos() {
+		return count == 0 ? 0 : (double) totalNanos / count;
+	}
+
+	/**
+	 * @return Total entities read or rows written
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * @return Statements that took at least the profiler's slow threshold
+	 */
+	public long getSlowCount() {
+		return slowCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d x, %.3f ms mean, %.3f ms max, %.3f ms total, %d rows, %d slow: %s",
+							 count, getMeanNanos() / 1e6, maxNanos / 1e6, totalNanos / 1e6, rows, slowCount,
+							 fingerprint);
+	}
+}
@@ -0,0 +1,258 @@
+package com.revature.ATeamORM.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in per-statement profiler, installed with Metrics.installProfiler. Every statement the ORM executes is reduced
+ * to a fingerprint, its SQL with literals replaced by ?, lists of parameters such as the IN lists of association
+ * loading collapsed to (...), and whitespace and case folded, so the same statement with different values or list
+ * lengths is counted once. Count, total, max time and rows are kept per fingerprint with lock-free adders.
+ * <p>
+ * Statements that take at least the slow threshold are logged at WARNING to the
+ * com.revature.ATeamORM.metrics.StatementProfiler java.util.logging logger. The log shows the fingerprint and how
+ * many parameters were bound, never their values.
+ */
+public class StatementProfiler {
+
+	public static final long DEFAULT_SLOW_THRESHOLD_MILLIS = 1000;
+
+	private static final Logger log = Logger.getLogger(StatementProfiler.class.getName());
+	private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s?\\?(?:\\s?,\\s?\\?)+\\s?\\)");
+	// The ORM issues a fixed set of SQL strings, but literal limits and IN lists can multiply them
+	private static final int MAX_CACHED_FINGERPRINTS = 4096;
+
+	private final ConcurrentMap<String, String> fingerprints = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Accumulator> profiles = new ConcurrentHashMap<>();
+	private volatile long slowThresholdNanos;
+
+	public StatementProfiler() {
+		this(DEFAULT_SLOW_THRESHOLD_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @param slowThreshold Statements taking at least this long are logged, 0 to log none
+	 * @param unit Unit of slowThreshold
+	 */
+	public StatementProfiler(long slowThreshold, TimeUnit unit) {
+		setSlowThreshold(slowThreshold, unit);
+	}
+
+	/**
+	 * Changes the time from which statements are logged
+	 * @param slowThreshold Statements taking at least this long are logged, 0 to log none
+	 * @param unit Unit of slowThreshold
+	 */
+	public void setSlowThreshold(long slowThreshold, TimeUnit unit) {
+		if (slowThreshold < 0) {
+			throw new IllegalArgumentException("Slow threshold cannot be negative");
+		}
+		slowThresholdNanos = unit.toNanos(slowThreshold);
+	}
+
+	public long getSlowThresholdMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+	}
+
+	/**
+	 * Adds an executed statement to the profile of its fingerprint, logging it if it was slow
+	 * @param sql SQL the statement was prepared from
+	 * @param entity Entity class the statement reads or writes
+	 * @param operation Kind of statement
+	 * @param nanos Time spent executing it
+	 * @param rows Entities read or rows written
+	 */
+	public void record(String sql, Class<?> entity, Operation operation, long nanos, long rows) {
+		String fingerprint = fingerprintOf(sql);
+		Accumulator profile = profiles.get(fingerprint);
+		if (profile == null) {
+			profile = profiles.computeIfAbsent(fingerprint, f -> new Accumulator(entity, operation));
+		}
+		boolean slow = slowThresholdNanos > 0 && nanos >= slowThresholdNanos;
+		profile.add(nanos, rows, slow);
+		if (slow && log.isLoggable(Level.WARNING)) {
+			log.warning(String.format("Slow %s of %s took %.3f ms, %d rows, %d parameters (values redacted): %s",
+									  operation, entity.getName(), nanos / 1e6, rows, countParameters(sql),
+									  fingerprint));
+		}
+	}
+
+	/**
+	 * Gets the fingerprints that took the most time in total
+	 * @param n Most profiles returned
+	 * @return Profiles by descending total time
+	 */
+	public List<StatementProfile> top(int n) {
+		return top(n, Comparator.comparingLong(StatementProfile::getTotalNanos));
+	}
+
+	/**
+	 * Gets the highest ranked fingerprints, e.g. by getMaxNanos or getCount
+	 * @param n Most profiles returned
+	 * @param ranking Order, highest last, like Comparator.comparingLong(StatementProfile::getMaxNanos)
+	 * @return Profiles by descending rank
+	 */
+	public List<StatementProfile> top(int n, Comparator<StatementProfile> ranking) {
+		return getProfiles().stream()
+							.sorted(ranking.reversed())
+							.limit(n)
+							.collect(Collectors.toList());
+	}
+
+	/**
+	 * @return A snapshot of every fingerprint's profile, in no particular order
+	 */
+	public List<StatementProfile> getProfiles() {
+		List<StatementProfile> snapshot = new ArrayList<>(profiles.size());
+		profiles.forEach((fingerprint, profile) -> snapshot.add(profile.snapshot(fingerprint)));
+		return snapshot;
+	}
+
+	/**
+	 * Formats the top fingerprints by total time, one per line
+	 * @param n Most fingerprints listed
+	 * @return Human readable report
+	 */
+	public String report(int n) {
+		return top(n).stream().map(StatementProfile::toString).collect(Collectors.joining(System.lineSeparator()));
+	}
+
+	/**
+	 * Forgets every profile
+	 */
+	public void reset() {
+		profiles.clear();
+	}
+
+	private String fingerprintOf(String sql) {
+		String fingerprint = fingerprints.get(sql);
+		if (fingerprint == null) {
+			fingerprint = fingerprint(sql);
+			if (fingerprints.size() < MAX_CACHED_FINGERPRINTS) {
+				fingerprints.putIfAbsent(sql, fingerprint);
+			}
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Normalizes SQL so statements that only differ in values share one fingerprint. String and numeric literals and
+	 * $n placeholders become ?, runs of whitespace become one space, keywords and names are lowercased (quoted
+	 * identifiers are kept as written) and parenthesized lists of only parameters become (...).
+	 * @param sql SQL to normalize
+	 * @return The fingerprint
+	 */
+	public static String fingerprint(String sql) {
+		StringBuilder out = new StringBuilder(sql.length());
+		boolean pendingSpace = false;
+		int i = 0;
+		int length = sql.length();
+		while (i < length) {
+			char c = sql.charAt(i);
+			if (Character.isWhitespace(c)) {
+				pendingSpace = out.length() > 0;
+				i++;
+				continue;
+			}
+			if (pendingSpace) {
+				out.append(' ');
+				pendingSpace = false;
+			}
+			char previous = out.length() == 0 ? ' ' : out.charAt(out.length() - 1);
+			boolean afterName = Character.isLetterOrDigit(previous) || previous == '_';
+			if (c == '\'') {
+				i = skipStringLiteral(sql, i);
+				out.append('?');
+			} else if (c == '"') {
+				int end = sql.indexOf('"', i + 1);
+				end = end < 0 ? length : end + 1;
+				out.append(sql, i, end);
+				i = end;
+			} else if (!afterName && (Character.isDigit(c) || (c == '$' && i + 1 < length && Character.isDigit(sql.charAt(i + 1))))) {
+				i++;
+				while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+					i++;
+				}
+				out.append('?');
+			} else {
+				out.append(Character.toLowerCase(c));
+				i++;
+			}
+		}
+		return PARAMETER_LIST.matcher(out).replaceAll("(...)");
+	}
+
+	/**
+	 * @return Index just past the literal starting at the quote at start; '' is an escaped quote inside it
+	 */
+	private static int skipStringLiteral(String sql, int start) {
+		int i = start + 1;
+		while (i < sql.length()) {
+			if (sql.charAt(i) == '\'') {
+				if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+					i += 2;
+					continue;
+				}
+				return i + 1;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	private static int countParameters(String sql) {
+		int count = 0;
+		for (int i = 0; i < sql.length(); i++) {
+			if (sql.charAt(i) == '?') {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Running totals of one fingerprint; adders keep concurrent statements from contending on one counter
+	 */
+	private static final class Accumulator {
+		private final Class<?> entity;
+		private final Operation operation;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAdder rows = new LongAdder();
+		private final LongAdder slowCount = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		Accumulator(Class<?> entity, Operation operation) {
+			this.entity = entity;
+			this.operation = operation;
+		}
+
+		void add(long nanos, long rowCount, boolean slow) {
+			count.increment();
+			totalNanos.add(nanos);
+			rows.add(rowCount);
+			if (slow) {
+				slowCount.increment();
+			}
+			long current = maxNanos.get();
+			while (nanos > current && !maxNanos.compareAndSet(current, nanos)) {
+				current = maxNanos.get();
+			}
+		}
+
+		StatementProfile snapshot(String fingerprint) {
+			return new StatementProfile(fingerprint, entity, operation, count.sum(), totalNanos.sum(),
+										maxNanos.get(), rows.sum(), slowCount.sum());
+		}
+	}
+}
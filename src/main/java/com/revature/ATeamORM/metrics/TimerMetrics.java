@@ -0,0 +1,30 @@
+package com.revature.ATeamORM.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram of one measured activity, with the number of rows it handled
+ */
+public final class TimerMetrics {
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder rows = new LongAdder();
+
+	void record(long nanos, long rowCount) {
+		latency.record(nanos);
+		if (rowCount > 0) {
+			rows.add(rowCount);
+		}
+	}
+
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	/**
+	 * @return Total entities read or rows written; always 0 for row mapping and connection acquires
+	 */
+	public long getRows() {
+		return rows.sum();
+	}
+}
@@ -0,0 +1,23 @@
+package com.revature.ATeamORM.query;
+
+/**
+ * SQL aggregate functions a Query can compute over a numeric field, see Query.aggregate. COUNT also accepts no field,
+ * which counts rows.
+ */
+public enum Aggregate {
+	COUNT("count"),
+	SUM("sum"),
+	AVG("avg"),
+	MIN("min"),
+	MAX("max");
+
+	private final String function;
+
+	Aggregate(String function) {
+		this.function = function;
+	}
+
+	String render(String columnName) {
+		return function + "(" + columnName + ")";
+	}
+}
@@ -0,0 +1,83 @@
+package com.revature.ATeamORM.query;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Function;
+
+/**
+ * Comparison on a single field, completed by one of its operator methods. Values are always bound as parameters;
+ * a String passed for a non-String field is converted the same way Session.find converts its fieldValue.
+ * @param <R> Builder returned once the comparison is complete, so calls can be chained
+ */
+public final class Condition<R> {
+
+	private final String fieldName;
+	private final Function<Predicate, R> sink;
+
+	Condition(String fieldName, Function<Predicate, R> sink) {
+		this.fieldName = fieldName;
+		this.sink = sink;
+	}
+
+	public R eq(Object value) {
+		return compare("=", value);
+	}
+
+	public R ne(Object value) {
+		return compare("<>", value);
+	}
+
+	public R lt(Object value) {
+		return compare("<", value);
+	}
+
+	public R le(Object value) {
+		return compare("<=", value);
+	}
+
+	public R gt(Object value) {
+		return compare(">", value);
+	}
+
+	public R ge(Object value) {
+		return compare(">=", value);
+	}
+
+	/**
+	 * SQL LIKE, with % and _ as wildcards
+	 * @param pattern Pattern matched against a String field
+	 * @return The builder this condition belongs to
+	 */
+	public R like(String pattern) {
+		return compare("like", pattern);
+	}
+
+	public R in(Object... values) {
+		return in(Arrays.asList(values));
+	}
+
+	/**
+	 * Matches any of the values. An empty collection matches nothing.
+	 * @param values Values compared with =
+	 * @return The builder this condition belongs to
+	 */
+	public R in(Collection<?> values) {
+		return sink.apply(Predicate.in(fieldName, values));
+	}
+
+	public R isNull() {
+		return sink.apply(Predicate.nullCheck(fieldName, true));
+	}
+
+	public R isNotNull() {
+		return sink.apply(Predicate.nullCheck(fieldName, false));
+	}
+
+	private R compare(String operator, Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Use isNull()/isNotNull() to compare " + fieldName + " with null");
+		}
+		return sink.apply(Predicate.compare(fieldName, operator, Collections.singletonList(value)));
+	}
+}
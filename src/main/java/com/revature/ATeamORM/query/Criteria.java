@@ -0,0 +1,70 @@
+package com.revature.ATeamORM.query;
+
+import com.revature.ATeamORM.repos.EntityMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Group of predicates joined with and/or, for use as a parenthesized condition in a Query:
+ * <pre>
+ *     Criteria.where("username").eq("a").or("email").like("%@example.com")
+ * </pre>
+ * Predicates follow SQL precedence, so and binds tighter than or; nest a Criteria to group differently. Fields are
+ * only resolved against the @Column mapping when the Query is compiled, so a Criteria can be reused across queries.
+ */
+public final class Criteria {
+
+	private final List<Predicate> predicates = new ArrayList<>();
+	private final List<String> connectors = new ArrayList<>();
+
+	private Criteria() {}
+
+	public static Condition<Criteria> where(String fieldName) {
+		return new Criteria().and(fieldName);
+	}
+
+	public Condition<Criteria> and(String fieldName) {
+		return new Condition<>(fieldName, predicate -> add("and", predicate));
+	}
+
+	public Condition<Criteria> or(String fieldName) {
+		return new Condition<>(fieldName, predicate -> add("or", predicate));
+	}
+
+	public Criteria and(Criteria group) {
+		return add("and", Predicate.group(group));
+	}
+
+	public Criteria or(Criteria group) {
+		return add("or", Predicate.group(group));
+	}
+
+	Criteria add(String connector, Predicate predicate) {
+		connectors.add(connector);
+		predicates.add(predicate);
+		return this;
+	}
+
+	void addAll(Criteria other) {
+		connectors.addAll(other.connectors);
+		predicates.addAll(other.predicates);
+	}
+
+	boolean isEmpty() {
+		return predicates.isEmpty();
+	}
+
+	static Criteria empty() {
+		return new Criteria();
+	}
+
+	void render(EntityMetadata<?> metadata, StringBuilder sql, List<Parameter> parameters) {
+		for (int i = 0; i < predicates.size(); i++) {
+			if (i > 0) {
+				sql.append(' ').append(connectors.get(i)).append(' ');
+			}
+			predicates.get(i).render(metadata, sql, parameters);
+		}
+	}
+}
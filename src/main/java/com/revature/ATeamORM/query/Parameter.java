@@ -0,0 +1,48 @@
+package com.revature.ATeamORM.query;
+
+import com.revature.ATeamORM.repos.ColumnMetadata;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A value bound to one placeholder: typed through its column, or a plain int for limit and offset.
+ */
+final class Parameter {
+
+	private final ColumnMetadata column;
+	private final Object value;
+
+	private Parameter(ColumnMetadata column, Object value) {
+		this.column = column;
+		this.value = value;
+	}
+
+	/**
+	 * @param column Column the value is compared with
+	 * @param value Value of the field type, or its String form
+	 * @return Parameter bound with the column's typed setter
+	 */
+	static Parameter of(ColumnMetadata column, Object value) {
+		if (value instanceof String && column.getType() != String.class) {
+			value = column.fromString((String) value);
+		}
+		return new Parameter(column, value);
+	}
+
+	static Parameter ofInt(int value) {
+		return new Parameter(null, value);
+	}
+
+	void bind(PreparedStatement pstmt, int index) throws SQLException {
+		if (column == null) {
+			pstmt.setInt(index, (Integer) value);
+		} else {
+			column.bind(pstmt, index, value);
+		}
+	}
+
+	Object getValue() {
+		return value;
+	}
+}
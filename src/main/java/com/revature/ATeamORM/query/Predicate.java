@@ -0,0 +1,84 @@
+package com.revature.ATeamORM.query;
+
+import com.revature.ATeamORM.repos.ColumnMetadata;
+import com.revature.ATeamORM.repos.EntityMetadata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * A single comparison or a nested Criteria, rendered against the @Column mapping of the queried entity.
+ */
+abstract class Predicate {
+
+	/**
+	 * Appends this predicate's SQL and collects its parameters
+	 * @param metadata Metadata of the entity being queried
+	 * @param sql SQL being built
+	 * @param parameters Parameters in placeholder order
+	 */
+	abstract void render(EntityMetadata<?> metadata, StringBuilder sql, List<Parameter> parameters);
+
+	static Predicate compare(String fieldName, String operator, Collection<?> values) {
+		return new Comparison(fieldName, operator, new ArrayList<>(values));
+	}
+
+	static Predicate in(String fieldName, Collection<?> values) {
+		return new Comparison(fieldName, "in", new ArrayList<>(values));
+	}
+
+	static Predicate nullCheck(String fieldName, boolean isNull) {
+		return new Comparison(fieldName, isNull ? "is null" : "is not null", new ArrayList<>());
+	}
+
+	static Predicate group(Criteria criteria) {
+		return new Predicate() {
+			@Override
+			void render(EntityMetadata<?> metadata, StringBuilder sql, List<Parameter> parameters) {
+				sql.append('(');
+				criteria.render(metadata, sql, parameters);
+				sql.append(')');
+			}
+		};
+	}
+
+	private static final class Comparison extends Predicate {
+		private final String fieldName;
+		private final String operator;
+		private final List<Object> values;
+
+		Comparison(String fieldName, String operator, List<Object> values) {
+			this.fieldName = fieldName;
+			this.operator = operator;
+			this.values = values;
+		}
+
+		@Override
+		void render(EntityMetadata<?> metadata, StringBuilder sql, List<Parameter> parameters) {
+			ColumnMetadata column = metadata.getColumn(fieldName);
+			switch (operator) {
+				case "is null":
+				case "is not null":
+					sql.append(column.getColumnName()).append(' ').append(operator);
+					break;
+				case "in":
+					if (values.isEmpty()) {
+						sql.append("1 = 0");
+						break;
+					}
+					StringJoiner placeholders = new StringJoiner(", ", column.getColumnName() + " in (", ")");
+					for (Object value : values) {
+						placeholders.add("?");
+						parameters.add(Parameter.of(column, value));
+					}
+					sql.append(placeholders);
+					break;
+				default:
+					sql.append(column.getColumnName()).append(' ').append(operator).append(" ?");
+					parameters.add(Parameter.of(column, values.get(0)));
+			}
+		}
+	}
+}
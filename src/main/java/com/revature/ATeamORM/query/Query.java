@@ -0,0 +1,552 @@
+package com.revature.ATeamORM.query;
+
+import com.revature.ATeamORM.datasource.Result;
+import com.revature.ATeamORM.datasource.Session;
+import com.revature.ATeamORM.repos.ColumnMetadata;
+import com.revature.ATeamORM.repos.EntityMetadata;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Fluent, parameterized select over one entity, obtained from Session.query(clazz):
+ * <pre>
+ *     session.query(User.class)
+ *            .where("age").ge(18)
+ *            .and("username").like("a%")
+ *            .orderBy("username")
+ *            .limit(20)
+ *            .list();
+ * </pre>
+ * Fields are resolved through the entity's @Column mapping, values are always bound as parameters and filtering,
+ * ordering and paging all happen in the database. Predicates follow SQL precedence (and before or); use a nested
+ * Criteria to group them. A Query is a mutable builder and, like its Session, not thread-safe.
+ * @param <T> Class Type being queried
+ */
+public class Query<T> {
+
+	private final EntityMetadata<T> metadata;
+	private final Session session;
+	private final Criteria criteria = Criteria.empty();
+	private final List<String> orderFields = new ArrayList<>();
+	private final List<Boolean> orderDescending = new ArrayList<>();
+	private final List<ColumnMetadata> selected = new ArrayList<>();
+	private Integer limit;
+	private Integer offset;
+	private T after;
+
+	private String sql;
+	private String from;
+	private String ordering;
+	private String paging;
+	private List<Parameter> parameters;
+
+	/**
+	 * Creates a query run through the provided session. Prefer Session.query(clazz).
+	 * @param clazz The annotated class being queried
+	 * @param session Session that runs list() and first(), or null for a query that is only compiled
+	 */
+	public Query(Class<T> clazz, Session session) {
+		this.metadata = EntityMetadata.of(clazz);
+		this.session = session;
+		// All classes passed in must be annotated with @Entity
+		if (!metadata.isEntity()) {
+			throw new RuntimeException("This is not an entity class!");
+		}
+	}
+
+	/**
+	 * Creates a query that is not bound to a Session, for inspecting or running through ObjectRepo directly
+	 * @param clazz The annotated class being queried
+	 * @param <T> Class Type
+	 * @return An unfiltered query
+	 */
+	public static <T> Query<T> from(Class<T> clazz) {
+		return new Query<>(clazz, null);
+	}
+
+	/**
+	 * Projection: only reads the provided fields. list() then returns entities with every other field left at its
+	 * default value; such partial entities are not tracked by the Session, so flush() never writes them. listAs(type)
+	 * passes the fields, in this order, to a constructor of the type instead.
+	 * @param fieldNames Names of the fields (not columns) to read
+	 * @return This query
+	 */
+	public Query<T> select(String... fieldNames) {
+		selected.clear();
+		for (String fieldName : fieldNames) {
+			selected.add(metadata.getColumn(fieldName));
+		}
+		return changed();
+	}
+
+	public Condition<Query<T>> where(String fieldName) {
+		return and(fieldName);
+	}
+
+	public Query<T> where(Criteria group) {
+		return and(group);
+	}
+
+	public Condition<Query<T>> and(String fieldName) {
+		return new Condition<>(fieldName, predicate -> add("and", predicate));
+	}
+
+	public Condition<Query<T>> or(String fieldName) {
+		return new Condition<>(fieldName, predicate -> add("or", predicate));
+	}
+
+	public Query<T> and(Criteria group) {
+		return add("and", Predicate.group(group));
+	}
+
+	public Query<T> or(Criteria group) {
+		return add("or", Predicate.group(group));
+	}
+
+	/**
+	 * Sorts ascending by a field, after any earlier orderBy fields
+	 * @param fieldName Name of the field (not column)
+	 * @return This query
+	 */
+	public Query<T> orderBy(String fieldName) {
+		return order(fieldName, false);
+	}
+
+	/**
+	 * Sorts descending by a field, after any earlier orderBy fields
+	 * @param fieldName Name of the field (not column)
+	 * @return This query
+	 */
+	public Query<T> orderByDesc(String fieldName) {
+		return order(fieldName, true);
+	}
+
+	/**
+	 * Returns at most the provided number of rows
+	 * @param limit Maximum rows, must not be negative
+	 * @return This query
+	 */
+	public Query<T> limit(int limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException("Limit cannot be negative");
+		}
+		this.limit = limit;
+		return changed();
+	}
+
+	/**
+	 * Skips the provided number of rows. The database still reads the skipped rows, so prefer after(lastRow) for
+	 * deep pages.
+	 * @param offset Rows to skip, must not be negative
+	 * @return This query
+	 */
+	public Query<T> offset(int offset) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("Offset cannot be negative");
+		}
+		this.offset = offset;
+		return changed();
+	}
+
+	/**
+	 * Keyset pagination: only returns rows that sort after the provided row, the last row of the previous page.
+	 * The @Id field is appended to the ordering as a tie-breaker when it is not ordered on already, so pages never
+	 * skip or repeat rows. Ordered fields must not be null.
+	 * @param lastRow Last row of the previous page, or null for the first page
+	 * @return This query
+	 */
+	public Query<T> after(T lastRow) {
+		this.after = lastRow;
+		return changed();
+	}
+
+	/**
+	 * Runs the query through its Session
+	 * @return Result list of every matching row
+	 * @throws SQLException Thrown if the query fails
+	 */
+	public Result<T> list() throws SQLException {
+		return requireSession().find(this);
+	}
+
+	/**
+	 * Runs the query through its Session and constructs a DTO or record per row. The constructor must take the
+	 * select()ed fields, or every @Column field if none were selected, in that order.
+	 * @param type DTO or record type
+	 * @param <R> Type constructed
+	 * @return Result list of one object per matching row
+	 * @throws SQLException Thrown if the query fails
+	 */
+	public <R> Result<R> listAs(Class<R> type) throws SQLException {
+		return requireSession().find(this, type);
+	}
+
+	/**
+	 * Counts the matching rows in the database, without reading them
+	 * @return Number of rows list() would return
+	 * @throws SQLException Thrown if the query fails
+	 */
+	public long count() throws SQLException {
+		return requireSession().count(this);
+	}
+
+	/**
+	 * Checks whether any row matches, stopping at the first one found
+	 * @return true if list() would return at least one row
+	 * @throws SQLException Thrown if the query fails
+	 */
+	public boolean exists() throws SQLException {
+		return requireSession().exists(this);
+	}
+
+	/**
+	 * Computes an aggregate over the matching rows in the database
+	 * @param function Aggregate function
+	 * @param fieldName Numeric field (not column) aggregated, or null to COUNT rows
+	 * @return The aggregate as returned by the driver (e.g. Long for sum of an int field, BigDecimal for avg), or
+	 * null if no row matches and the function is not COUNT
+	 * @throws SQLException Thrown if the query fails
+	 */
+	public Number aggregate(Aggregate function, String fieldName) throws SQLException {
+		return requireSession().aggregate(this, function, fieldName);
+	}
+
+	/**
+	 * Computes an aggregate per distinct value of a field
+	 * @param function Aggregate function
+	 * @param fieldName Numeric field (not column) aggregated, or null to COUNT rows
+	 * @param groupByField Field (not column) whose values group the rows
+	 * @return Aggregate per group value, in the order the database returned the groups
+	 * @throws SQLException Thrown if the query fails
+	 */
+	public Map<Object, Number> aggregate(Aggregate function, String fieldName, String groupByField)
+			throws SQLException {
+		return requireSession().aggregate(this, function, fieldName, Objects.requireNonNull(groupByField));
+	}
+
+	/**
+	 * Runs the query limited to one row
+	 * @return The first matching row, or null if none match
+	 * @throws SQLException Thrown if the query fails
+	 */
+	public T first() throws SQLException {
+		Integer previous = limit;
+		limit(1);
+		try {
+			return list().getFirstEntry();
+		} finally {
+			limit = previous;
+			changed();
+		}
+	}
+
+	/**
+	 * Copies the filter, select, ordering and paging into a new query bound to the same Session. Criteria groups
+	 * are shared, everything else can be changed on one query without affecting the other.
+	 * @return An independent copy of this query
+	 */
+	public Query<T> copy() {
+		Query<T> copy = new Query<>(metadata.getType(), session);
+		copy.criteria.addAll(criteria);
+		copy.orderFields.addAll(orderFields);
+		copy.orderDescending.addAll(orderDescending);
+		copy.selected.addAll(selected);
+		copy.limit = limit;
+		copy.offset = offset;
+		copy.after = after;
+		return copy;
+	}
+
+	/**
+	 * Orders rows the way the compiled order by does, so rows read by separate statements can be merged. Values
+	 * compare in their natural Java order, which matches the database for numbers and booleans, and for strings
+	 * under the "C" collation; nulls sort last ascending and first descending, as in PostgreSQL.
+	 * @return Comparator over the ordered fields, or null if the query is not ordered
+	 * @throws IllegalStateException Thrown if an ordered field is left out by select()
+	 */
+	public Comparator<T> getOrderComparator() {
+		List<Boolean> descending = new ArrayList<>();
+		Comparator<T> comparator = null;
+		List<ColumnMetadata> columns = orderColumns(descending);
+		for (int i = 0; i < columns.size(); i++) {
+			ColumnMetadata column = columns.get(i);
+			if (isProjection() && !selected.contains(column)) {
+				throw new IllegalStateException("Ordered field " + column.getFieldName() + " is not selected");
+			}
+			Comparator<T> next = Comparator.comparing(row -> comparable(column.get(row)),
+													  Comparator.nullsLast(Comparator.naturalOrder()));
+			if (descending.get(i)) {
+				next = next.reversed();
+			}
+			comparator = comparator == null ? next : comparator.thenComparing(next);
+		}
+		return comparator;
+	}
+
+	/**
+	 * @return Rows returned at most, or null if not limited
+	 */
+	public Integer getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @return Rows skipped, or null if none are
+	 */
+	public Integer getOffset() {
+		return offset;
+	}
+
+	public Class<T> getEntityType() {
+		return metadata.getType();
+	}
+
+	/**
+	 * @return Whether select() restricted the columns read
+	 */
+	public boolean isProjection() {
+		return !selected.isEmpty();
+	}
+
+	/**
+	 * @return Columns read by the query, in select order; every @Column unless select() was used
+	 */
+	public List<ColumnMetadata> getSelectedColumns() {
+		return selected.isEmpty() ? metadata.getColumns() : Collections.unmodifiableList(selected);
+	}
+
+	/**
+	 * Compiles the query
+	 * @return Parameterized select statement
+	 */
+	public String toSql() {
+		compile();
+		return sql;
+	}
+
+	/**
+	 * Compiles the query into a count of its rows. Ordering is dropped; limit and offset still apply.
+	 * @return Parameterized select returning one row with one bigint, bound like toSql()
+	 */
+	public String toCountSql() {
+		return toAggregateSql(Aggregate.COUNT, null, null);
+	}
+
+	/**
+	 * Compiles the query into an existence check that stops at the first matching row
+	 * @return Parameterized select returning one row with one boolean, bound like toSql()
+	 */
+	public String toExistsSql() {
+		compile();
+		return "select exists(select 1" + from + (paging.isEmpty() ? " limit 1" : ordering + paging) + ")";
+	}
+
+	/**
+	 * Compiles the query into an aggregate over its rows. Ordering is dropped; limit and offset still apply, to the
+	 * rows before they are aggregated.
+	 * @param function Aggregate function
+	 * @param fieldName Numeric field (not column) aggregated, or null to COUNT rows
+	 * @param groupByField Field (not column) to group by, or null for a single aggregate
+	 * @return Parameterized select returning the group value (if grouped) then the aggregate, bound like toSql()
+	 */
+	public String toAggregateSql(Aggregate function, String fieldName, String groupByField) {
+		ColumnMetadata column = fieldName == null ? null : metadata.getColumn(fieldName);
+		if (column == null && function != Aggregate.COUNT) {
+			throw new IllegalArgumentException(function + " needs a field");
+		}
+		if (column != null && !isNumeric(column.getType())) {
+			throw new IllegalArgumentException("Cannot aggregate non-numeric field " + fieldName);
+		}
+		ColumnMetadata group = groupByField == null ? null : metadata.getColumn(groupByField);
+		compile();
+
+		StringJoiner select = new StringJoiner(", ", "select ", "");
+		if (group != null) {
+			select.add(group.getColumnName());
+		}
+		select.add(column == null ? "count(*)" : function.render(column.getColumnName()));
+		String groupBy = group == null ? "" : " group by " + group.getColumnName();
+		if (paging.isEmpty()) {
+			return select + from + groupBy;
+		}
+
+		// Limit and offset pick the rows being aggregated, so they are applied in a subquery
+		StringJoiner inner = new StringJoiner(", ", "select ", "");
+		if (group != null) {
+			inner.add(group.getColumnName());
+		}
+		if (column != null && column != group) {
+			inner.add(column.getColumnName());
+		}
+		if (group == null && column == null) {
+			inner.add("1");
+		}
+		return select + " from (" + inner + from + ordering + paging + ") page" + groupBy;
+	}
+
+	/**
+	 * Binds every parameter of toSql() to a statement prepared from it. The count, exists and aggregate forms take
+	 * the same parameters.
+	 * @param pstmt Statement prepared from toSql()
+	 * @throws SQLException Thrown if a parameter cannot be set
+	 */
+	public void bind(PreparedStatement pstmt) throws SQLException {
+		compile();
+		for (int i = 0; i < parameters.size(); i++) {
+			parameters.get(i).bind(pstmt, i + 1);
+		}
+	}
+
+	/**
+	 * @return Values of the parameters of toSql(), in placeholder order
+	 */
+	public List<Object> getParameterValues() {
+		compile();
+		List<Object> values = new ArrayList<>(parameters.size());
+		for (Parameter parameter : parameters) {
+			values.add(parameter.getValue());
+		}
+		return values;
+	}
+
+	private Session requireSession() {
+		if (session == null) {
+			throw new IllegalStateException("Query was not created through a Session");
+		}
+		return session;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Comparable<Object> comparable(Object value) {
+		return (Comparable<Object>) value;
+	}
+
+	private static boolean isNumeric(Class<?> type) {
+		return Number.class.isAssignableFrom(type) ||
+			   (type.isPrimitive() && type != boolean.class && type != char.class);
+	}
+
+	private Query<T> add(String connector, Predicate predicate) {
+		criteria.add(connector, predicate);
+		return changed();
+	}
+
+	private Query<T> order(String fieldName, boolean descending) {
+		// Resolves the field now so a typo fails where it was written
+		metadata.getColumn(fieldName);
+		orderFields.add(fieldName);
+		orderDescending.add(descending);
+		return changed();
+	}
+
+	private Query<T> changed() {
+		sql = null;
+		parameters = null;
+		return this;
+	}
+
+	private void compile() {
+		if (sql != null) {
+			return;
+		}
+		List<Parameter> params = new ArrayList<>();
+		StringBuilder builder = new StringBuilder(" from ").append(metadata.getTableName());
+
+		List<Boolean> descending = new ArrayList<>();
+		List<ColumnMetadata> orderColumns = orderColumns(descending);
+
+		boolean filtered = !criteria.isEmpty();
+		if (filtered || after != null) {
+			builder.append(" where ");
+			if (filtered && after != null) {
+				builder.append('(');
+			}
+			if (filtered) {
+				criteria.render(metadata, builder, params);
+			}
+			if (filtered && after != null) {
+				builder.append(") and ");
+			}
+			if (after != null) {
+				renderKeyset(builder, params, orderColumns, descending);
+			}
+		}
+
+		StringJoiner order = new StringJoiner(", ", " order by ", "");
+		order.setEmptyValue("");
+		for (int i = 0; i < orderColumns.size(); i++) {
+			order.add(orderColumns.get(i).getColumnName() + (descending.get(i) ? " desc" : " asc"));
+		}
+		StringBuilder page = new StringBuilder();
+		if (limit != null) {
+			page.append(" limit ?");
+			params.add(Parameter.ofInt(limit));
+		}
+		if (offset != null) {
+			page.append(" offset ?");
+			params.add(Parameter.ofInt(offset));
+		}
+
+		from = builder.toString();
+		ordering = order.toString();
+		paging = page.toString();
+		sql = selectList() + from + ordering + paging;
+		parameters = params;
+	}
+
+	/**
+	 * Resolves the ordered columns, with the @Id tie-breaker keyset pagination needs
+	 * @param descending Filled with the direction of each column returned
+	 */
+	private List<ColumnMetadata> orderColumns(List<Boolean> descending) {
+		List<ColumnMetadata> orderColumns = new ArrayList<>();
+		descending.addAll(orderDescending);
+		for (String field : orderFields) {
+			orderColumns.add(metadata.getColumn(field));
+		}
+		if (after != null && !orderColumns.contains(metadata.requireIdColumn())) {
+			orderColumns.add(metadata.requireIdColumn());
+			descending.add(false);
+		}
+		return orderColumns;
+	}
+
+	private String selectList() {
+		if (selected.isEmpty()) {
+			return "select *";
+		}
+		StringJoiner columns = new StringJoiner(", ", "select ", "");
+		for (ColumnMetadata column : selected) {
+			columns.add(column.getColumnName());
+		}
+		return columns.toString();
+	}
+
+	/**
+	 * Expands "sorts after lastRow" into (a > ?) or (a = ? and b > ?) ..., which unlike a row comparison also works
+	 * when the ordered columns mix ascending and descending
+	 */
+	private void renderKeyset(StringBuilder builder, List<Parameter> params, List<ColumnMetadata> columns,
+							  List<Boolean> descending) {
+		StringJoiner alternatives = new StringJoiner(" or ", "(", ")");
+		for (int i = 0; i < columns.size(); i++) {
+			StringJoiner terms = new StringJoiner(" and ", "(", ")");
+			for (int j = 0; j < i; j++) {
+				terms.add(columns.get(j).getColumnName() + " = ?");
+				params.add(Parameter.of(columns.get(j), columns.get(j).get(after)));
+			}
+			terms.add(columns.get(i).getColumnName() + (descending.get(i) ? " < ?" : " > ?"));
+			params.add(Parameter.of(columns.get(i), columns.get(i).get(after)));
+			alternatives.add(terms.toString());
+		}
+		builder.append(alternatives);
+	}
+}
@@ -0,0 +1,114 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import com.revature.ATeamORM.query.Query;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Fills the @ForeignKey fields of entities read together. Each association costs one "where key in (...)" query
+ * per BATCH_SIZE distinct keys instead of one query per entity. Only the entities returned to the caller have their
+ * eager associations fetched; the entities fetched for them get their lazy Lists but no further eager fetches, so
+ * classes referencing each other cannot recurse.
+ */
+final class AssociationLoader {
+
+	static final int BATCH_SIZE = 500;
+
+	private final ObjectRepo repo;
+	private final Connection conn;
+
+	AssociationLoader(ObjectRepo repo, Connection conn) {
+		this.repo = repo;
+		this.conn = conn;
+	}
+
+	/**
+	 * @param owners Entities of one class, read together
+	 * @param eager Whether eager associations are fetched, or only lazy Lists installed
+	 * @throws SQLException Thrown if an eager fetch fails
+	 */
+	void load(List<?> owners, boolean eager) throws SQLException {
+		if (owners.isEmpty()) {
+			return;
+		}
+		for (AssociationMetadata association : EntityMetadata.of(owners.get(0).getClass()).getAssociations()) {
+			if (association.isLazy() && repo.isLazyLoading()) {
+				installLazy(association, owners);
+			} else if (eager) {
+				fill(association, owners, fetch(association, owners));
+			}
+		}
+	}
+
+	private void fill(AssociationMetadata association, List<?> owners, Map<Object, List<Object>> targets) {
+		ColumnMetadata ownerColumn = association.getOwnerColumn();
+		for (Object owner : owners) {
+			List<Object> matches = targets.get(ownerColumn.get(owner));
+			if (association.isToMany()) {
+				association.set(owner, matches == null ? new ArrayList<>() : new ArrayList<>(matches));
+			} else {
+				association.set(owner, matches == null ? null : matches.get(0));
+			}
+		}
+	}
+
+	/**
+	 * Reads the targets of every owner
+	 * @return Targets grouped by the value of their target column, each group ordered by @Id
+	 */
+	private Map<Object, List<Object>> fetch(AssociationMetadata association, List<?> owners) throws SQLException {
+		Set<Object> keys = new LinkedHashSet<>();
+		for (Object owner : owners) {
+			Object key = association.getOwnerColumn().get(owner);
+			if (key != null) {
+				keys.add(key);
+			}
+		}
+		List<Object> values = new ArrayList<>(keys);
+		ColumnMetadata idColumn = EntityMetadata.of(association.getTarget()).getIdColumn();
+		Map<Object, List<Object>> targets = new HashMap<>();
+		for (int i = 0; i < values.size(); i += BATCH_SIZE) {
+			Query<?> query = Query.from(association.getTarget())
+								  .where(association.getQueriedField())
+								  .in(values.subList(i, Math.min(i + BATCH_SIZE, values.size())));
+			if (idColumn != null) {
+				query.orderBy(idColumn.getFieldName());
+			}
+			for (Object target : repo.readAssociated(conn, query)) {
+				targets.computeIfAbsent(association.getTargetColumn().get(target), k -> new ArrayList<>()).add(target);
+			}
+		}
+		return targets;
+	}
+
+	private void installLazy(AssociationMetadata association, List<?> owners) {
+		Map<Object, LazyList<Object>> lists = new IdentityHashMap<>();
+		List<Object> batch = new ArrayList<>(owners);
+		int generation = repo.getGeneration();
+		LazyList.Loader loader = () -> {
+			if (repo.getGeneration() != generation) {
+				throw new DataSourceException("Lazy @ForeignKey " + association.getFieldName() +
+											  " was used after its Session was closed");
+			}
+			Map<Object, List<Object>> targets;
+			try {
+				targets = fetch(association, batch);
+			} catch (SQLException e) {
+				throw new DataSourceException("Cannot load @ForeignKey " + association.getFieldName(), e);
+			}
+			ColumnMetadata ownerColumn = association.getOwnerColumn();
+			for (Object owner : batch) {
+				List<Object> matches = targets.get(ownerColumn.get(owner));
+				lists.get(owner).fill(matches == null ? new ArrayList<>() : new ArrayList<>(matches));
+			}
+		};
+		for (Object owner : owners) {
+			LazyList<Object> list = new LazyList<>(loader);
+			lists.put(owner, list);
+			association.set(owner, list);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.ForeignKey;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Cached description of a @ForeignKey annotated field. The key and referenced columns live on the other entity as
+ * often as on this one, so they are only resolved on first use; resolving them while the owner's EntityMetadata is
+ * still being built would recurse for classes that reference each other.
+ */
+final class AssociationMetadata {
+
+	private final Field field;
+	private final Class<?> owner;
+	private final Class<?> target;
+	private final boolean toMany;
+	private final boolean lazy;
+	private final String keyField;
+	private final String referencedField;
+
+	private volatile ColumnMetadata keyColumn;
+	private volatile ColumnMetadata referencedColumn;
+
+	AssociationMetadata(Class<?> owner, Field field) {
+		ForeignKey foreignKey = field.getAnnotation(ForeignKey.class);
+		this.field = field;
+		this.owner = owner;
+		this.toMany = field.getType() == List.class;
+		this.target = toMany ? elementType(field) : field.getType();
+		this.lazy = foreignKey.lazy();
+		this.keyField = foreignKey.name();
+		this.referencedField = foreignKey.references();
+		if (lazy && !toMany) {
+			throw new DataSourceException("@ForeignKey " + field.getName() + " in " + owner.getName() +
+										  " can only be lazy if it is a List");
+		}
+		field.setAccessible(true);
+	}
+
+	private static Class<?> elementType(Field field) {
+		Type type = field.getGenericType();
+		if (type instanceof ParameterizedType) {
+			Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+			if (element instanceof Class) {
+				return (Class<?>) element;
+			}
+		}
+		throw new DataSourceException("@ForeignKey List " + field.getName() + " must declare its entity type");
+	}
+
+	/**
+	 * @return The @Column holding the key: in the owner for a single entity, in the target for a List
+	 */
+	ColumnMetadata getKeyColumn() {
+		ColumnMetadata column = keyColumn;
+		if (column == null) {
+			Class<?> keyOwner = toMany ? target : owner;
+			column = EntityMetadata.of(keyOwner).getColumn(keyField);
+			keyColumn = column;
+		}
+		return column;
+	}
+
+	/**
+	 * @return The @Column the key references: in the target for a single entity, in the owner for a List
+	 */
+	ColumnMetadata getReferencedColumn() {
+		ColumnMetadata column = referencedColumn;
+		if (column == null) {
+			Class<?> referenced = toMany ? owner : target;
+			EntityMetadata<?> metadata = EntityMetadata.of(referenced);
+			column = referencedField.equals("") ? metadata.requireIdColumn() : metadata.getColumn(referencedField);
+			referencedColumn = column;
+		}
+		return column;
+	}
+
+	/**
+	 * @return Field of the entity that is queried to fill the association
+	 */
+	String getQueriedField() {
+		return toMany ? getKeyColumn().getFieldName() : getReferencedColumn().getFieldName();
+	}
+
+	/**
+	 * @return Column of the owner whose values are looked up in the queried field
+	 */
+	ColumnMetadata getOwnerColumn() {
+		return toMany ? getReferencedColumn() : getKeyColumn();
+	}
+
+	/**
+	 * @return Column of the target whose value matches the owner column
+	 */
+	ColumnMetadata getTargetColumn() {
+		return toMany ? getKeyColumn() : getReferencedColumn();
+	}
+
+	Class<?> getTarget() {
+		return target;
+	}
+
+	boolean isToMany() {
+		return toMany;
+	}
+
+	boolean isLazy() {
+		return lazy;
+	}
+
+	String getFieldName() {
+		return field.getName();
+	}
+
+	void set(Object owner, Object value) {
+		try {
+			field.set(owner, value);
+		} catch (IllegalAccessException e) {
+			throw new DataSourceException("Cannot access field " + field.getName(), e);
+		}
+	}
+}
@@ -0,0 +1,331 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.Column;
+import com.revature.ATeamORM.annotations.Id;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Cached description of a single @Column annotated field. The underlying field is made accessible once when the
+ * metadata is built so callers never have to toggle accessibility per read or write, and a typed MethodHandle
+ * reader is compiled so ResultSet values reach the field without boxing or type-name switches.
+ */
+public final class ColumnMetadata {
+
+	static final String INVALID_TYPE_MESSAGE = "Invalid field type. Make sure all fields in object are either: \n" +
+			"String\n" +
+			"int/Integer\n" +
+			"double/Double\n" +
+			"float/Float\n" +
+			"boolean/Boolean";
+
+	private final Field field;
+	private final String columnName;
+	private final boolean id;
+	private final boolean notNull;
+	private final boolean unique;
+	private final FieldType fieldType;
+	private final ColumnReader reader;
+
+	/**
+	 * Copies one ResultSet column into a field using the getter matching the field type
+	 */
+	@FunctionalInterface
+	interface ColumnReader {
+		void read(Object target, ResultSet rs, int index) throws Throwable;
+	}
+
+	/**
+	 * Java types supported for @Column fields, resolved once so binding never has to inspect the class name again
+	 */
+	enum FieldType {
+		STRING, INT, DOUBLE, FLOAT, BOOLEAN, UNSUPPORTED;
+
+		static FieldType of(Class<?> type) {
+			if (type == String.class) {
+				return STRING;
+			} else if (type == int.class || type == Integer.class) {
+				return INT;
+			} else if (type == double.class || type == Double.class) {
+				return DOUBLE;
+			} else if (type == float.class || type == Float.class) {
+				return FLOAT;
+			} else if (type == boolean.class || type == Boolean.class) {
+				return BOOLEAN;
+			}
+			return UNSUPPORTED;
+		}
+	}
+
+	ColumnMetadata(Field field) {
+		Column column = field.getAnnotation(Column.class);
+		this.field = field;
+		this.columnName = column.name().equals("") ? field.getName() : column.name();
+		this.id = field.isAnnotationPresent(Id.class);
+		this.notNull = column.notNull();
+		this.unique = column.unique();
+		this.fieldType = FieldType.of(field.getType());
+		field.setAccessible(true);
+		this.reader = compileReader(field, fieldType);
+	}
+
+	/**
+	 * Builds a reader around a setter MethodHandle adapted to the exact field type, so primitive columns are
+	 * copied with rs.getInt/getDouble/... and invokeExact without ever being boxed.
+	 * @param field Accessible field to write
+	 * @param fieldType Resolved type of the field
+	 * @return Reader for the field
+	 */
+	private static ColumnReader compileReader(Field field, FieldType fieldType) {
+		if (fieldType == FieldType.UNSUPPORTED) {
+			return (target, rs, index) -> {
+				throw new DataSourceException(INVALID_TYPE_MESSAGE);
+			};
+		}
+		Class<?> type = field.getType();
+		MethodHandle setter;
+		try {
+			setter = MethodHandles.lookup()
+								  .unreflectSetter(field)
+								  .asType(MethodType.methodType(void.class, Object.class, type));
+		} catch (IllegalAccessException e) {
+			throw new DataSourceException("Cannot access field " + field.getName(), e);
+		}
+		switch (fieldType) {
+			case STRING:
+				return (target, rs, index) -> {
+					setter.invokeExact(target, rs.getString(index));
+				};
+			case INT:
+				if (type == int.class) {
+					return (target, rs, index) -> {
+						setter.invokeExact(target, rs.getInt(index));
+					};
+				}
+				return (target, rs, index) -> {
+					setter.invokeExact(target, (Integer) rs.getInt(index));
+				};
+			case DOUBLE:
+				if (type == double.class) {
+					return (target, rs, index) -> {
+						setter.invokeExact(target, rs.getDouble(index));
+					};
+				}
+				return (target, rs, index) -> {
+					setter.invokeExact(target, (Double) rs.getDouble(index));
+				};
+			case FLOAT:
+				if (type == float.class) {
+					return (target, rs, index) -> {
+						setter.invokeExact(target, rs.getFloat(index));
+					};
+				}
+				return (target, rs, index) -> {
+					setter.invokeExact(target, (Float) rs.getFloat(index));
+				};
+			default:
+				if (type == boolean.class) {
+					return (target, rs, index) -> {
+						setter.invokeExact(target, rs.getBoolean(index));
+					};
+				}
+				return (target, rs, index) -> {
+					setter.invokeExact(target, (Boolean) rs.getBoolean(index));
+				};
+		}
+	}
+
+	/**
+	 * Reads the value at a ResultSet column index with the getter matching this column's type
+	 * @param rs ResultSet positioned on the row to read
+	 * @param index 1-based column index in the ResultSet
+	 * @return The value, boxed if primitive, or null if the column is SQL NULL
+	 * @throws SQLException Thrown if the value cannot be read
+	 */
+	public Object readValue(ResultSet rs, int index) throws SQLException {
+		Object value;
+		switch (fieldType) {
+			case STRING:
+				return rs.getString(index);
+			case INT:
+				value = rs.getInt(index);
+				break;
+			case DOUBLE:
+				value = rs.getDouble(index);
+				break;
+			case FLOAT:
+				value = rs.getFloat(index);
+				break;
+			case BOOLEAN:
+				value = rs.getBoolean(index);
+				break;
+			default:
+				throw new DataSourceException(INVALID_TYPE_MESSAGE);
+		}
+		return rs.wasNull() ? null : value;
+	}
+
+	/**
+	 * Copies the value at a ResultSet column index into this column's field on the object
+	 * @param object Object whose field is written
+	 * @param rs ResultSet positioned on the row to read
+	 * @param index 1-based column index in the ResultSet
+	 * @throws SQLException Thrown if the value cannot be read
+	 */
+	public void read(Object object, ResultSet rs, int index) throws SQLException {
+		try {
+			reader.read(object, rs, index);
+		} catch (SQLException | RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new DataSourceException("Cannot set field " + field.getName(), t);
+		}
+	}
+
+	/**
+	 * Binds a value of this column's type to a statement parameter using the matching typed setter
+	 * @param pstmt Statement whose parameter is set
+	 * @param index 1-based parameter index
+	 * @param value Value to bind, may be null
+	 * @throws SQLException Thrown if the parameter cannot be set
+	 */
+	public void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+		switch (fieldType) {
+			case STRING:
+				if (value == null) {
+					pstmt.setNull(index, Types.VARCHAR);
+				} else {
+					pstmt.setString(index, value.toString());
+				}
+				break;
+			case INT:
+				if (value == null) {
+					pstmt.setNull(index, Types.INTEGER);
+				} else {
+					pstmt.setInt(index, ((Number) value).intValue());
+				}
+				break;
+			case DOUBLE:
+				if (value == null) {
+					pstmt.setNull(index, Types.DOUBLE);
+				} else {
+					pstmt.setDouble(index, ((Number) value).doubleValue());
+				}
+				break;
+			case FLOAT:
+				if (value == null) {
+					pstmt.setNull(index, Types.REAL);
+				} else {
+					pstmt.setFloat(index, ((Number) value).floatValue());
+				}
+				break;
+			case BOOLEAN:
+				if (value == null) {
+					pstmt.setNull(index, Types.BOOLEAN);
+				} else {
+					pstmt.setBoolean(index, (Boolean) value);
+				}
+				break;
+			default:
+				pstmt.setObject(index, value);
+		}
+	}
+
+	/**
+	 * Converts a String representation, such as the fieldValue passed to Session.find, into this column's type
+	 * @param value String form of the value
+	 * @return Value converted to the field type, or null if value is null
+	 * @throws DataSourceException Thrown if the String cannot be converted
+	 */
+	public Object fromString(String value) {
+		if (value == null) {
+			return null;
+		}
+		try {
+			switch (fieldType) {
+				case INT:
+					return Integer.parseInt(value.trim());
+				case DOUBLE:
+					return Double.parseDouble(value.trim());
+				case FLOAT:
+					return Float.parseFloat(value.trim());
+				case BOOLEAN:
+					return Boolean.parseBoolean(value.trim());
+				default:
+					return value;
+			}
+		} catch (NumberFormatException e) {
+			throw new DataSourceException("Value " + value + " is not valid for @Column " + columnName, e);
+		}
+	}
+
+	/**
+	 * Reads the value of this column's field from the provided object
+	 * @param object Object whose field is read
+	 * @return Current value of the field, boxed if primitive
+	 */
+	public Object get(Object object) {
+		try {
+			return field.get(object);
+		} catch (IllegalAccessException e) {
+			throw new DataSourceException("Cannot access field " + field.getName(), e);
+		}
+	}
+
+	/**
+	 * Writes the provided value into this column's field on the object
+	 * @param object Object whose field is written
+	 * @param value Value to write, must match the field type
+	 */
+	public void set(Object object, Object value) {
+		try {
+			field.set(object, value);
+		} catch (IllegalAccessException e) {
+			throw new DataSourceException("Cannot access field " + field.getName(), e);
+		}
+	}
+
+	public Field getField() {
+		return field;
+	}
+
+	public String getFieldName() {
+		return field.getName();
+	}
+
+	public Class<?> getType() {
+		return field.getType();
+	}
+
+	public String getColumnName() {
+		return columnName;
+	}
+
+	public boolean isId() {
+		return id;
+	}
+
+	public boolean isNotNull() {
+		return notNull;
+	}
+
+	public boolean isUnique() {
+		return unique;
+	}
+
+	boolean isSupported() {
+		return fieldType != FieldType.UNSUPPORTED;
+	}
+
+	FieldType getFieldType() {
+		return fieldType;
+	}
+}
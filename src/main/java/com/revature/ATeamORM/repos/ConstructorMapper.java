@@ -0,0 +1,134 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.exceptions.DataSourceException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps rows onto a DTO or record through the constructor whose parameters match the selected columns in order, so
+ * the type needs no annotations, setters or no-args constructor. Resolved once per type and column list.
+ * @param <R> Type being constructed
+ */
+final class ConstructorMapper<R> {
+
+	private static final ConcurrentMap<List<Object>, ConstructorMapper<?>> cache = new ConcurrentHashMap<>();
+
+	private final ColumnMetadata[] columns;
+	private final MethodHandle constructor;
+
+	private ConstructorMapper(Class<R> type, List<ColumnMetadata> columns) {
+		this.columns = columns.toArray(new ColumnMetadata[0]);
+		Constructor<?> match = findConstructor(type, this.columns);
+		try {
+			match.setAccessible(true);
+			this.constructor = MethodHandles.lookup()
+											.unreflectConstructor(match)
+											.asSpreader(Object[].class, this.columns.length);
+		} catch (IllegalAccessException | RuntimeException e) {
+			throw new DataSourceException("Cannot access constructor of " + type.getName(), e);
+		}
+	}
+
+	/**
+	 * Gets the mapper of a type for the provided columns
+	 * @param type DTO or record type
+	 * @param columns Selected columns, in constructor parameter order
+	 * @param <R> Type being constructed
+	 * @return Shared mapper
+	 * @throws DataSourceException Thrown if no constructor takes exactly those column types in that order
+	 */
+	@SuppressWarnings("unchecked")
+	static <R> ConstructorMapper<R> of(Class<R> type, List<ColumnMetadata> columns) {
+		ConstructorMapper<?> mapper = cache.get(Arrays.asList(type, columns));
+		if (mapper == null) {
+			// The key keeps a copy, as the caller's list may be a live view of a Query that selects again later
+			mapper = cache.computeIfAbsent(Arrays.asList(type, new ArrayList<>(columns)),
+										   key -> new ConstructorMapper<>(type, columns));
+		}
+		return (ConstructorMapper<R>) mapper;
+	}
+
+	private static Constructor<?> findConstructor(Class<?> type, ColumnMetadata[] columns) {
+		for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+			if (Modifier.isPrivate(candidate.getModifiers()) || candidate.getParameterCount() != columns.length) {
+				continue;
+			}
+			Class<?>[] parameters = candidate.getParameterTypes();
+			boolean matches = true;
+			for (int i = 0; i < parameters.length && matches; i++) {
+				matches = box(parameters[i]).isAssignableFrom(box(columns[i].getType()));
+			}
+			if (matches) {
+				return candidate;
+			}
+		}
+		throw new DataSourceException("No constructor of " + type.getName() + " takes the selected fields in order");
+	}
+
+	private static Class<?> box(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return type;
+		}
+		if (type == int.class) {
+			return Integer.class;
+		}
+		if (type == double.class) {
+			return Double.class;
+		}
+		if (type == float.class) {
+			return Float.class;
+		}
+		if (type == boolean.class) {
+			return Boolean.class;
+		}
+		if (type == long.class) {
+			return Long.class;
+		}
+		if (type == short.class) {
+			return Short.class;
+		}
+		if (type == byte.class) {
+			return Byte.class;
+		}
+		return Character.class;
+	}
+
+	int[] resolveIndexes(ResultSet rs) throws SQLException {
+		int[] indexes = new int[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			indexes[i] = rs.findColumn(columns[i].getColumnName());
+		}
+		return indexes;
+	}
+
+	/**
+	 * Constructs an object from the current row
+	 * @param rs ResultSet positioned on the row to map
+	 * @param indexes Indexes from resolveIndexes for the same ResultSet
+	 * @return New object
+	 * @throws SQLException Thrown if a value cannot be read
+	 * @throws DataSourceException Thrown if the constructor fails, including for a NULL passed to a primitive
+	 */
+	@SuppressWarnings("unchecked")
+	R map(ResultSet rs, int[] indexes) throws SQLException {
+		Object[] arguments = new Object[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			arguments[i] = columns[i].readValue(rs, indexes[i]);
+		}
+		try {
+			return (R) constructor.invoke(arguments);
+		} catch (Throwable t) {
+			throw new DataSourceException("Cannot invoke constructor!", t);
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.exceptions.NullFieldException;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodes objects straight into PostgreSQL COPY CSV bytes from their @Column values. Rows are appended to one
+ * reusable byte buffer, strings are UTF-8 encoded character by character and integers digit by digit, so no
+ * intermediate String is built per row or per value.
+ */
+final class CopyEncoder {
+
+	private static final byte COMMA = ',';
+	private static final byte QUOTE = '"';
+	private static final byte NEWLINE = '\n';
+
+	private byte[] buffer;
+	private int length;
+
+	CopyEncoder(int initialCapacity) {
+		buffer = new byte[initialCapacity];
+	}
+
+	/**
+	 * Appends one CSV line holding the object's values for the provided columns. Null values are written as an
+	 * unquoted empty field, which COPY reads as NULL; strings are always quoted so empty strings stay empty strings.
+	 * @param object Object whose values are encoded
+	 * @param columns Columns in COPY column-list order
+	 * @throws NullFieldException Thrown if a notNull() column is null
+	 */
+	void writeRow(Object object, List<ColumnMetadata> columns) {
+		for (int i = 0; i < columns.size(); i++) {
+			ColumnMetadata column = columns.get(i);
+			Object value = column.get(object);
+			if (value == null && column.isNotNull()) {
+				throw new NullFieldException();
+			}
+			if (i > 0) {
+				write(COMMA);
+			}
+			writeValue(column, value);
+		}
+		write(NEWLINE);
+	}
+
+	private void writeValue(ColumnMetadata column, Object value) {
+		if (value == null) {
+			return;
+		}
+		switch (column.getFieldType()) {
+			case INT:
+				writeInt((Integer) value);
+				break;
+			case BOOLEAN:
+				write((Boolean) value ? (byte) 't' : (byte) 'f');
+				break;
+			case DOUBLE:
+			case FLOAT:
+				writeAscii(value.toString());
+				break;
+			default:
+				writeQuoted(value.toString());
+		}
+	}
+
+	private void writeInt(int value) {
+		if (value == Integer.MIN_VALUE) {
+			writeAscii("-2147483648");
+			return;
+		}
+		if (value < 0) {
+			write((byte) '-');
+			value = -value;
+		}
+		int digits = 1;
+		for (int n = value; n >= 10; n /= 10) {
+			digits++;
+		}
+		ensureCapacity(digits);
+		for (int i = length + digits - 1; i >= length; i--) {
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		length += digits;
+	}
+
+	private void writeAscii(String value) {
+		ensureCapacity(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			buffer[length++] = (byte) value.charAt(i);
+		}
+	}
+
+	/**
+	 * Writes a quoted CSV field, doubling embedded quotes and encoding the characters as UTF-8
+	 */
+	private void writeQuoted(String value) {
+		// Worst case: every char becomes 3 bytes or a doubled quote, plus the surrounding quotes
+		ensureCapacity(value.length() * 3 + 2);
+		buffer[length++] = QUOTE;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				buffer[length++] = QUOTE;
+				buffer[length++] = QUOTE;
+			} else if (c < 0x80) {
+				buffer[length++] = (byte) c;
+			} else if (c < 0x800) {
+				buffer[length++] = (byte) (0xC0 | (c >> 6));
+				buffer[length++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length() &&
+					   Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer[length++] = (byte) (0xF0 | (codePoint >> 18));
+				buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+			} else {
+				buffer[length++] = (byte) (0xE0 | (c >> 12));
+				buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buffer[length++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		buffer[length++] = QUOTE;
+	}
+
+	private void write(byte b) {
+		ensureCapacity(1);
+		buffer[length++] = b;
+	}
+
+	private void ensureCapacity(int extra) {
+		if (length + extra > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+		}
+	}
+
+	byte[] buffer() {
+		return buffer;
+	}
+
+	int length() {
+		return length;
+	}
+
+	void reset() {
+		length = 0;
+	}
+}
@@ -0,0 +1,103 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.metrics.Metrics;
+import com.revature.ATeamORM.metrics.Operation;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk loads entities through PostgreSQL's COPY ... FROM STDIN. Rows are pulled from an Iterator, encoded into a
+ * single bounded buffer and handed to the driver whenever the buffer fills. writeToCopy blocks while the server
+ * drains the socket, so the source is only advanced as fast as the database accepts data and the data set never
+ * has to be held in memory. Should not be directly invoked outside of the ORM.
+ */
+public class CopyLoader {
+
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final int bufferSize;
+
+	public CopyLoader() {
+		this(DEFAULT_BUFFER_SIZE);
+	}
+
+	public CopyLoader(int bufferSize) {
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException("Buffer size must be positive");
+		}
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Copies every object from the iterator into the table of the provided class. The @Id column is left to the
+	 * database and is not written back into the objects.
+	 * @param conn Database connection this operation will be performed in; must be a PostgreSQL connection.
+	 * @param clazz The annotated class of the objects being loaded
+	 * @param rows Source of objects, consumed once
+	 * @param <T> Class Type
+	 * @return Number of rows loaded
+	 * @throws SQLException Thrown if the COPY fails; nothing is loaded in that case
+	 */
+	public <T> long copyIn(Connection conn, Class<T> clazz, Iterator<? extends T> rows) throws SQLException {
+		EntityMetadata<T> metadata = EntityMetadata.of(clazz);
+		// All classes passed in must be annotated with @Entity
+		if (!metadata.isEntity()) {
+			throw new RuntimeException("This is not an entity class!");
+		}
+		CopyManager copyManager = new CopyManager(conn.unwrap(BaseConnection.class));
+		String sql = copySql(metadata);
+		boolean measured = Metrics.isMeasuringStatements();
+		long start = measured ? System.nanoTime() : 0;
+		long count = write(copyManager.copyIn(sql), metadata.getInsertColumns(), rows);
+		if (measured) {
+			Metrics.recordStatement(clazz, Operation.COPY, sql, System.nanoTime() - start, count);
+		}
+		// New rows can match any cached lookup on the table
+		QueryCache.invalidateTable(metadata.getTableName());
+		return count;
+	}
+
+	/**
+	 * Builds "COPY table (columns) FROM STDIN WITH (FORMAT csv)" for the insert columns of a class
+	 */
+	static String copySql(EntityMetadata<?> metadata) {
+		return "COPY " + metadata.getTableName() + " (" +
+			   metadata.getInsertColumns()
+					   .stream()
+					   .map(ColumnMetadata::getColumnName)
+					   .collect(Collectors.joining(", ")) +
+			   ") FROM STDIN WITH (FORMAT csv)";
+	}
+
+	/**
+	 * Streams encoded rows into an active COPY, cancelling it if anything fails
+	 */
+	long write(CopyIn copyIn, List<ColumnMetadata> columns, Iterator<?> rows) throws SQLException {
+		CopyEncoder encoder = new CopyEncoder(bufferSize);
+		try {
+			while (rows.hasNext()) {
+				encoder.writeRow(rows.next(), columns);
+				if (encoder.length() >= bufferSize) {
+					copyIn.writeToCopy(encoder.buffer(), 0, encoder.length());
+					encoder.reset();
+				}
+			}
+			if (encoder.length() > 0) {
+				copyIn.writeToCopy(encoder.buffer(), 0, encoder.length());
+			}
+			return copyIn.endCopy();
+		} catch (SQLException | RuntimeException e) {
+			if (copyIn.isActive()) {
+				copyIn.cancelCopy();
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.Cacheable;
+import com.revature.ATeamORM.cache.BoundedCache;
+import com.revature.ATeamORM.cache.CacheStats;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import com.revature.ATeamORM.metrics.CacheRegion;
+import com.revature.ATeamORM.metrics.Metrics;
+import com.revature.ATeamORM.metrics.MetricsRecorder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide second-level cache of one @Cacheable entity, shared by every Session. Rows are stored by @Id as
+ * their dehydrated @Column values and a new instance is built on every hit, so Sessions never share mutable objects.
+ * <p>
+ * A read that started before a write to the same entity class is not allowed to put its (possibly stale) rows, and
+ * ObjectRepo invalidates rows after the write has been committed. Writes made inside a transaction the ORM does not
+ * commit itself are only guaranteed to become visible once the entry's time to live has passed.
+ * @param <T> Class Type being cached
+ */
+public final class EntityCache<T> {
+
+	private static final ConcurrentMap<Class<?>, EntityCache<?>> caches = new ConcurrentHashMap<>();
+
+	private final EntityMetadata<T> metadata;
+	private final BoundedCache<Object, Object[]> rows;
+	private final AtomicLong writeCount = new AtomicLong();
+
+	private EntityCache(EntityMetadata<T> metadata, Cacheable config) {
+		this.metadata = metadata;
+		this.rows = new BoundedCache<>(config.maxSize(), config.ttlMillis());
+	}
+
+	/**
+	 * Gets the cache of a class
+	 * @param clazz Entity class
+	 * @param <T> Class Type
+	 * @return The shared cache, or null if the class is not annotated with @Cacheable or has no @Id
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> EntityCache<T> of(Class<T> clazz) {
+		Cacheable config = clazz.getAnnotation(Cacheable.class);
+		if (config == null) {
+			return null;
+		}
+		EntityMetadata<T> metadata = EntityMetadata.of(clazz);
+		if (!metadata.isEntity() || metadata.getIdColumn() == null) {
+			return null;
+		}
+		return (EntityCache<T>) caches.computeIfAbsent(clazz, c -> new EntityCache<>(metadata, config));
+	}
+
+	/**
+	 * Empties the cache of every entity class
+	 */
+	public static void clearAll() {
+		caches.values().forEach(EntityCache::clear);
+	}
+
+	/**
+	 * Builds a new instance from the cached row
+	 * @param id @Id value, already converted to the field type
+	 * @return A new instance, or null if the row is not cached
+	 */
+	public T get(Object id) {
+		Object[] state = rows.get(id);
+		MetricsRecorder metrics = Metrics.recorder();
+		if (metrics != null) {
+			metrics.recordCacheAccess(metadata.getType(), CacheRegion.ENTITY, state != null);
+		}
+		if (state == null) {
+			return null;
+		}
+		try {
+			return metadata.getRowMapper().map(state);
+		} catch (NoSuchMethodException | InvocationTargetException e) {
+			throw new DataSourceException("Could not create object from cache", e);
+		}
+	}
+
+	/**
+	 * Marks the start of a database read. Pass the returned stamp to put so rows read concurrently with a write are
+	 * discarded instead of cached.
+	 * @return Stamp of the latest write to this entity class
+	 */
+	public long beginRead() {
+		return writeCount.get();
+	}
+
+	/**
+	 * Caches the current @Column values of an entity read from the database
+	 * @param entity Entity exactly as read
+	 * @param stamp Value of beginRead() taken before the read
+	 */
+	public void put(Object entity, long stamp) {
+		Object[] state = metadata.snapshot(entity);
+		rows.putIf(metadata.requireIdColumn().get(entity), state, () -> writeCount.get() == stamp);
+	}
+
+	/**
+	 * Forgets the cached row of an entity that was written
+	 * @param entity Entity inserted, updated or deleted
+	 */
+	public void evict(Object entity) {
+		Object id = metadata.requireIdColumn().get(entity);
+		// Under the lock put checks its stamp with, so a put sees the new stamp or its row is invalidated after it
+		synchronized (rows) {
+			writeCount.incrementAndGet();
+			rows.invalidate(id);
+		}
+	}
+
+	public void clear() {
+		synchronized (rows) {
+			writeCount.incrementAndGet();
+			rows.clear();
+		}
+	}
+
+	public CacheStats getStats() {
+		return rows.getStats();
+	}
+}
@@ -0,0 +1,398 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.Column;
+import com.revature.ATeamORM.annotations.Entity;
+import com.revature.ATeamORM.annotations.ForeignKey;
+import com.revature.ATeamORM.annotations.ShardKey;
+import com.revature.ATeamORM.annotations.Table;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reflection-derived model of an annotated class: table name, ordered columns, id column and the parameterized SQL
+ * that never changes between calls. Built once per class and cached for the lifetime of the class loader, so
+ * ObjectRepo and ObjectCreator no longer re-scan fields and annotations on every operation.
+ * @param <T> Class Type being described
+ */
+public final class EntityMetadata<T> {
+
+	private static final ConcurrentMap<Class<?>, EntityMetadata<?>> cache = new ConcurrentHashMap<>();
+
+	private final Class<T> clazz;
+	private final boolean entity;
+	private final String tableName;
+	private final List<ColumnMetadata> columns;
+	private final List<ColumnMetadata> insertColumns;
+	private final List<ColumnMetadata> uniqueColumns;
+	private final Map<String, ColumnMetadata> columnsByField;
+	private final ColumnMetadata idColumn;
+	private final ColumnMetadata shardKeyColumn;
+	private final List<AssociationMetadata> associations;
+
+	private final String selectAllSql;
+	private final Map<String, String> selectByFieldSql;
+	private final String insertSql;
+	private final String updateSql;
+	private final String deleteSql;
+	private final String upsertByIdSql;
+	private final String upsertByUniqueSql;
+
+	private final ConcurrentMap<List<ColumnMetadata>, String> partialUpdateSql = new ConcurrentHashMap<>();
+	private final ConcurrentMap<List<ColumnMetadata>, RowMapper<T>> partialRowMappers = new ConcurrentHashMap<>();
+	private volatile RowMapper<T> rowMapper;
+
+	private EntityMetadata(Class<T> clazz) {
+		this.clazz = clazz;
+		this.entity = clazz.isAnnotationPresent(Entity.class);
+		this.tableName = resolveTableName(clazz);
+
+		List<ColumnMetadata> columnList = new ArrayList<>();
+		List<AssociationMetadata> associationList = new ArrayList<>();
+		Map<String, ColumnMetadata> byField = new HashMap<>();
+		ColumnMetadata shardKey = null;
+		for (Field field : clazz.getDeclaredFields()) {
+			if (field.isAnnotationPresent(Column.class)) {
+				ColumnMetadata column = new ColumnMetadata(field);
+				columnList.add(column);
+				byField.put(field.getName(), column);
+				if (field.isAnnotationPresent(ShardKey.class)) {
+					if (shardKey != null) {
+						throw new DataSourceException("Only one @ShardKey is allowed in " + clazz.getName());
+					}
+					shardKey = column;
+				}
+			} else if (field.isAnnotationPresent(ShardKey.class)) {
+				throw new DataSourceException("@ShardKey field " + field.getName() + " must also be a @Column");
+			} else if (field.isAnnotationPresent(ForeignKey.class)) {
+				associationList.add(new AssociationMetadata(clazz, field));
+			}
+		}
+		this.shardKeyColumn = shardKey;
+		this.associations = Collections.unmodifiableList(associationList);
+		this.columns = Collections.unmodifiableList(columnList);
+		this.columnsByField = Collections.unmodifiableMap(byField);
+		this.insertColumns = Collections.unmodifiableList(columnList.stream()
+																	.filter(c -> !c.isId())
+																	.collect(Collectors.toList()));
+		this.uniqueColumns = Collections.unmodifiableList(columnList.stream()
+																	.filter(ColumnMetadata::isUnique)
+																	.collect(Collectors.toList()));
+		this.idColumn = columnList.stream()
+								  .filter(ColumnMetadata::isId)
+								  .findFirst()
+								  .orElse(null);
+
+		// Parameterized SQL shared by every call; values are only ever bound, never concatenated
+		this.selectAllSql = "select * from " + tableName;
+		Map<String, String> byFieldSql = new HashMap<>();
+		for (ColumnMetadata column : columnList) {
+			byFieldSql.put(column.getFieldName(), selectAllSql + " where " + column.getColumnName() + " = ?");
+		}
+		this.selectByFieldSql = Collections.unmodifiableMap(byFieldSql);
+		this.insertSql = "insert into " + tableName + " (" + joinColumnNames(insertColumns) + ") values (" +
+						 placeholders(insertColumns.size()) + ")";
+		// The @Id only identifies the row; rewriting it would touch its index on every update
+		this.updateSql = idColumn == null ? null : "update " + tableName + " set " +
+						 insertColumns.stream()
+									  .map(c -> c.getColumnName() + " = ?")
+									  .collect(Collectors.joining(", ")) +
+						 " where " + idColumn.getColumnName() + " = ?";
+		this.deleteSql = idColumn == null ? null : "delete from " + tableName + " where " + idColumn.getColumnName() + " = ?";
+		this.upsertByIdSql = idColumn == null ? null : upsertSql(columnList, Collections.singletonList(idColumn));
+		this.upsertByUniqueSql = uniqueColumns.isEmpty() ? null : upsertSql(insertColumns, uniqueColumns);
+	}
+
+	/**
+	 * Builds "insert ... on conflict (target) do update set c = excluded.c" over every inserted column. Target columns
+	 * are rewritten with their own value, so the statement always returns the row, inserted or updated.
+	 */
+	private String upsertSql(List<ColumnMetadata> inserted, List<ColumnMetadata> target) {
+		return "insert into " + tableName + " (" + joinColumnNames(inserted) + ") values (" +
+			   placeholders(inserted.size()) + ") on conflict (" + joinColumnNames(target) + ") do update set " +
+			   inserted.stream()
+					   .map(c -> c.getColumnName() + " = excluded." + c.getColumnName())
+					   .collect(Collectors.joining(", "));
+	}
+
+	/**
+	 * Retrieves the cached metadata for a class, building it on first use.
+	 * @param clazz The class to describe
+	 * @param <T> Class Type
+	 * @return Metadata shared by every caller for that class
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> EntityMetadata<T> of(Class<T> clazz) {
+		EntityMetadata<?> metadata = cache.get(clazz);
+		if (metadata == null) {
+			metadata = cache.computeIfAbsent(clazz, c -> new EntityMetadata<>(c));
+		}
+		return (EntityMetadata<T>) metadata;
+	}
+
+	/**
+	 * Simple method to retrieve @Table name(), or the class name if none is provided.
+	 * @param clazz The class with the expected @Table annotation
+	 * @return @Table name() or name of class if none provided
+	 */
+	private static String resolveTableName(Class<?> clazz) {
+		Table table = clazz.getAnnotation(Table.class);
+		if (table == null || table.name().equals("")) {
+			return clazz.getName();
+		}
+		return table.name();
+	}
+
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
+	}
+
+	private static String joinColumnNames(List<ColumnMetadata> columns) {
+		return columns.stream()
+					  .map(ColumnMetadata::getColumnName)
+					  .collect(Collectors.joining(", "));
+	}
+
+	/**
+	 * Finds the column mapped to the provided field name
+	 * @param fieldName Name of the field (not column)
+	 * @return The column metadata
+	 * @throws DataSourceException Thrown if the class has no @Column field with that name
+	 */
+	public ColumnMetadata getColumn(String fieldName) {
+		ColumnMetadata column = columnsByField.get(fieldName);
+		if (column == null) {
+			throw new DataSourceException("Could not find @Column " + fieldName + " in " + clazz.getName());
+		}
+		return column;
+	}
+
+	/**
+	 * Gets the @Id column, failing if the class does not declare one
+	 * @return The @Id column
+	 * @throws DataSourceException Thrown if no @Column field is annotated with @Id
+	 */
+	public ColumnMetadata requireIdColumn() {
+		if (idColumn == null) {
+			throw new DataSourceException("Could not find @Id annotation in " + clazz.getName());
+		}
+		return idColumn;
+	}
+
+	/**
+	 * Copies the current value of every @Column of an object, in column order
+	 * @param object Object to copy
+	 * @return Column values, boxed if primitive
+	 */
+	public Object[] snapshot(Object object) {
+		Object[] values = new Object[columns.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = columns.get(i).get(object);
+		}
+		return values;
+	}
+
+	/**
+	 * Compares an object against a snapshot taken by snapshot(Object)
+	 * @param object Object to compare
+	 * @param snapshot Previous column values of the object
+	 * @return Columns, other than the @Id, whose value differs from the snapshot
+	 */
+	public List<ColumnMetadata> changedColumns(Object object, Object[] snapshot) {
+		List<ColumnMetadata> changed = new ArrayList<>();
+		for (int i = 0; i < snapshot.length; i++) {
+			ColumnMetadata column = columns.get(i);
+			if (!column.isId() && !Objects.equals(column.get(object), snapshot[i])) {
+				changed.add(column);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Gets "update table set a = ?, b = ? where id = ?" for a subset of columns, cached per distinct column list
+	 * @param setColumns Columns to write, in parameter order
+	 * @return Parameterized update statement
+	 */
+	public String getUpdateSql(List<ColumnMetadata> setColumns) {
+		String sql = partialUpdateSql.get(setColumns);
+		if (sql == null) {
+			String idName = requireIdColumn().getColumnName();
+			sql = partialUpdateSql.computeIfAbsent(new ArrayList<>(setColumns), c -> "update " + tableName + " set " +
+					c.stream()
+					 .map(column -> column.getColumnName() + " = ?")
+					 .collect(Collectors.joining(", ")) +
+					" where " + idName + " = ?");
+		}
+		return sql;
+	}
+
+	/**
+	 * Checks whether an object already carries its @Id. Ids of null or 0 are treated as not yet generated.
+	 * @param object Object of this class
+	 * @return true if the @Id holds a value
+	 */
+	public boolean hasId(Object object) {
+		Object id = requireIdColumn().get(object);
+		return id != null && !(id instanceof Number && ((Number) id).longValue() == 0);
+	}
+
+	/**
+	 * Gets the upsert statement of an object: on conflict of the @Id when the object has one, otherwise on conflict
+	 * of the unique() columns, which must together match a unique constraint of the table.
+	 * @param byId Whether the object already has its @Id
+	 * @return Parameterized upsert whose parameters are getUpsertColumns(byId), or the plain insert if the class has
+	 * no unique() columns to conflict on
+	 */
+	public String getUpsertSql(boolean byId) {
+		if (byId) {
+			requireIdColumn();
+			return upsertByIdSql;
+		}
+		return upsertByUniqueSql == null ? insertSql : upsertByUniqueSql;
+	}
+
+	/**
+	 * @param byId Whether the object already has its @Id
+	 * @return Columns bound to getUpsertSql(byId), in parameter order
+	 */
+	public List<ColumnMetadata> getUpsertColumns(boolean byId) {
+		return byId ? columns : insertColumns;
+	}
+
+	/**
+	 * Gets the row mapper for every @Column of the class, compiling it on first use
+	 * @return Mapper shared by every ObjectCreator of this class
+	 * @throws NoSuchMethodException Thrown if the class lacks a public no-args constructor.
+	 */
+	RowMapper<T> getRowMapper() throws NoSuchMethodException {
+		RowMapper<T> mapper = rowMapper;
+		if (mapper == null) {
+			mapper = new RowMapper<>(clazz, columns);
+			rowMapper = mapper;
+		}
+		return mapper;
+	}
+
+	/**
+	 * Gets the row mapper for a subset of columns, compiled on first use per distinct column list
+	 * @param selected Columns populated for every row; every other field keeps its default value
+	 * @return Mapper shared by every projection of these columns
+	 * @throws NoSuchMethodException Thrown if the class lacks a public no-args constructor.
+	 */
+	RowMapper<T> getRowMapper(List<ColumnMetadata> selected) throws NoSuchMethodException {
+		if (selected.equals(columns)) {
+			return getRowMapper();
+		}
+		RowMapper<T> mapper = partialRowMappers.get(selected);
+		if (mapper == null) {
+			mapper = new RowMapper<>(clazz, selected);
+			RowMapper<T> existing = partialRowMappers.putIfAbsent(new ArrayList<>(selected), mapper);
+			if (existing != null) {
+				mapper = existing;
+			}
+		}
+		return mapper;
+	}
+
+	public Class<T> getType() {
+		return clazz;
+	}
+
+	public boolean isEntity() {
+		return entity;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	public List<ColumnMetadata> getColumns() {
+		return columns;
+	}
+
+	public List<ColumnMetadata> getInsertColumns() {
+		return insertColumns;
+	}
+
+	public List<ColumnMetadata> getUniqueColumns() {
+		return uniqueColumns;
+	}
+
+	public ColumnMetadata getIdColumn() {
+		return idColumn;
+	}
+
+	/**
+	 * @return The @ShardKey column, or null if the class is not sharded
+	 */
+	public ColumnMetadata getShardKeyColumn() {
+		return shardKeyColumn;
+	}
+
+	/**
+	 * Resolves the @ForeignKey fields of the class to the columns they join
+	 * @return Each key @Column, of this class or of the associated one, mapped to the @Column it references
+	 */
+	public Map<ColumnMetadata, ColumnMetadata> getForeignKeyColumns() {
+		Map<ColumnMetadata, ColumnMetadata> keys = new LinkedHashMap<>();
+		for (AssociationMetadata association : associations) {
+			keys.put(association.getKeyColumn(), association.getReferencedColumn());
+		}
+		return keys;
+	}
+
+	/**
+	 * @return The @ForeignKey fields of the class, filled after its entities are read
+	 */
+	List<AssociationMetadata> getAssociations() {
+		return associations;
+	}
+
+	public String getSelectAllSql() {
+		return selectAllSql;
+	}
+
+	/**
+	 * Gets the "select * from table where column = ?" statement for the column mapped to a field
+	 * @param fieldName Name of the field (not column)
+	 * @return Parameterized select statement
+	 * @throws DataSourceException Thrown if the class has no @Column field with that name
+	 */
+	public String getSelectByFieldSql(String fieldName) {
+		String sql = selectByFieldSql.get(fieldName);
+		if (sql == null) {
+			getColumn(fieldName);
+		}
+		return sql;
+	}
+
+	public String getInsertSql() {
+		return insertSql;
+	}
+
+	/**
+	 * Gets "update table set a = ?, b = ? where id = ?" over getUpdateColumns()
+	 * @return Parameterized update statement
+	 */
+	public String getUpdateSql() {
+		requireIdColumn();
+		return updateSql;
+	}
+
+	/**
+	 * @return Columns written by getUpdateSql(), in parameter order: every @Column except the @Id
+	 */
+	public List<ColumnMetadata> getUpdateColumns() {
+		return insertColumns;
+	}
+
+	public String getDeleteSql() {
+		requireIdColumn();
+		return deleteSql;
+	}
+}
@@ -0,0 +1,72 @@
+package com.revature.ATeamORM.repos;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * List placed in a lazy @ForeignKey field. Nothing is queried until the list is first used; the first use of any
+ * list created by the same read loads the elements of all of them with one query per page of owners, so walking the
+ * children of every owner costs the same as fetching them eagerly. Lists must be used before their Session is
+ * closed. Like the entities holding them, they are not thread-safe.
+ * @param <E> Element entity type
+ */
+public final class LazyList<E> extends AbstractList<E> {
+
+	/**
+	 * Fills every list of one read
+	 */
+	@FunctionalInterface
+	interface Loader {
+		void load();
+	}
+
+	private final Loader loader;
+	private List<E> elements;
+
+	LazyList(Loader loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * @return Whether the elements were loaded, without loading them
+	 */
+	public boolean isLoaded() {
+		return elements != null;
+	}
+
+	void fill(List<E> elements) {
+		this.elements = elements;
+	}
+
+	private List<E> elements() {
+		if (elements == null) {
+			loader.load();
+		}
+		return elements;
+	}
+
+	@Override
+	public E get(int index) {
+		return elements().get(index);
+	}
+
+	@Override
+	public int size() {
+		return elements().size();
+	}
+
+	@Override
+	public E set(int index, E element) {
+		return elements().set(index, element);
+	}
+
+	@Override
+	public void add(int index, E element) {
+		elements().add(index, element);
+	}
+
+	@Override
+	public E remove(int index) {
+		return elements().remove(index);
+	}
+}
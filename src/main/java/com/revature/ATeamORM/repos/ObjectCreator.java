@@ -1,18 +1,16 @@
 package com.revature.ATeamORM.repos;
 
-import com.revature.ATeamORM.annotations.Column;
-import com.revature.ATeamORM.exceptions.DataSourceException;
+import com.revature.ATeamORM.metrics.Metrics;
+import com.revature.ATeamORM.metrics.MetricsRecorder;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Arrays;
-import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
- * More efficiently creates objects and declares their fields than prior ObjectRepo method.
+ * More efficiently creates objects and declares their fields than prior ObjectRepo method. Rows are materialized
+ * through the RowMapper compiled once per class, with column positions resolved once per ResultSet.
  * @param <T> Class Type for object being created
  * @author Uros Vorkapic
  */
@@ -20,27 +18,50 @@ public class ObjectCreator<T> {
 
 	Class<T> clazz;
 	ResultSet rs;
-	Field [] fields;
-	Constructor<T> constructor;
+	RowMapper<T> mapper;
+	int[] columnIndexes;
+	PersistenceContext context;
+	Consumer<? super T> rowListener;
 
 	/**
 	 * Instantiates
 	 * @param clazz Blueprint for objects to be created
 	 * @param rs ResultSet containing data used to fill class with
 	 * @throws NoSuchMethodException Thrown if passed class lacks a no-args constructor.
+	 * @throws SQLException Thrown if a @Column is missing from the ResultSet
 	 * @author Uros Vorkapic
 	 */
-	ObjectCreator (Class<T> clazz, ResultSet rs) throws NoSuchMethodException {
+	ObjectCreator (Class<T> clazz, ResultSet rs) throws NoSuchMethodException, SQLException {
+		this(clazz, rs, null);
+	}
+
+	/**
+	 * Instantiates a creator whose objects are registered with a Session's PersistenceContext
+	 * @param clazz Blueprint for objects to be created
+	 * @param rs ResultSet containing data used to fill class with
+	 * @param context Context that snapshots created objects and de-duplicates rows, or null for none
+	 * @throws NoSuchMethodException Thrown if passed class lacks a no-args constructor.
+	 * @throws SQLException Thrown if a @Column is missing from the ResultSet
+	 */
+	ObjectCreator (Class<T> clazz, ResultSet rs, PersistenceContext context) throws NoSuchMethodException, SQLException {
 		this.clazz = clazz;
 		this.rs = rs;
-		fields = Arrays.stream(clazz.getDeclaredFields())
-					   .filter(f -> f.isAnnotationPresent(Column.class))
-					   .toArray(Field[]::new);
-		constructor = clazz.getConstructor();
+		this.context = context;
+		mapper = EntityMetadata.of(clazz).getRowMapper();
+		columnIndexes = mapper.resolveIndexes(rs);
 	}
 
 	/**
-	 * Creates a new object from class blueprint, populates its fields, and returns it
+	 * Hands every created object to a listener, such as a cache, before it is registered with the PersistenceContext
+	 * @param rowListener Receives each object exactly as read from its row
+	 */
+	void onRowMapped(Consumer<? super T> rowListener) {
+		this.rowListener = rowListener;
+	}
+
+	/**
+	 * Creates a new object from class blueprint, populates its fields, and returns it. With a PersistenceContext the
+	 * object is snapshotted, or the already managed instance for the same row is returned instead.
 	 * @return Returns new fully instantiated and declared object of constructed class
 	 * @throws InvocationTargetException Handled in ObjectRepo
 	 * @throws InstantiationException Handled in ObjectRepo
@@ -49,59 +70,19 @@ public class ObjectCreator<T> {
 	 * @author Uros Vorkapic
 	 */
 	T create() throws InvocationTargetException, InstantiationException, IllegalAccessException, SQLException {
-		T object =  Objects.requireNonNull(constructor.newInstance());
-		boolean isValid = true;
-		for (Field field : fields) {
-			field.setAccessible(true);
-			switch (field.getType().getSimpleName()) {
-				case ("String"):
-					field.set(object, rs.getString(getColumnName(field)));
-					break;
-				case ("int"):
-				case ("Integer"):
-					field.set(object, rs.getInt(getColumnName(field)));
-					break;
-				case ("double"):
-				case ("Double"):
-					field.set(object, rs.getDouble(getColumnName(field)));
-					break;
-				case ("float"):
-				case ("Float"):
-					field.set(object, rs.getFloat(getColumnName(field)));
-					break;
-				case ("boolean"):
-				case ("Boolean"):
-					field.set(object, rs.getBoolean(getColumnName(field)));
-					break;
-				default:
-					isValid = false;
-
-			}
-			field.setAccessible(false);
-			if (!isValid) {
-				throw new DataSourceException("Invalid field type. Make sure all fields in object are either: \n" +
-						"String\n" +
-						"int/Integer\n" +
-						"double/Double\n" +
-						"float/Float\n" +
-						"boolean/Boolean");
-			}
+		MetricsRecorder metrics = Metrics.recorder();
+		T object;
+		if (metrics == null) {
+			object = mapper.map(rs, columnIndexes);
+		} else {
+			long start = System.nanoTime();
+			object = mapper.map(rs, columnIndexes);
+			metrics.recordRowMapping(clazz, System.nanoTime() - start);
 		}
-		return object;
-	}
-
-	/**
-	 * Simple method to retrieve @Column name(), or the field name if none is provided.
-	 * @param field The field with the expected @Column annotation
-	 * @return @Column name() or name of field if none provided
-	 * @author Uros Vorkapic
-	 */
-	private String getColumnName(Field field) {
-		String columnName = field.getAnnotation(Column.class).name();
-		if (columnName.equals("")) {
-			columnName = field.getName();
+		if (rowListener != null) {
+			rowListener.accept(object);
 		}
-		return columnName;
+		return context == null ? object : context.register(object);
 	}
 
 }
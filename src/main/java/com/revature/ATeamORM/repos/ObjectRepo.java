@@ -1,19 +1,20 @@
 package com.revature.ATeamORM.repos;
 
-import com.revature.ATeamORM.annotations.Column;
-import com.revature.ATeamORM.annotations.Id;
-import com.revature.ATeamORM.annotations.Table;
-import com.revature.ATeamORM.annotations.Entity;
-
 import com.revature.ATeamORM.datasource.Result;
-import java.lang.reflect.Field;
+import com.revature.ATeamORM.datasource.StatementCache;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
+import com.revature.ATeamORM.exceptions.DataSourceException;
 import com.revature.ATeamORM.exceptions.NullFieldException;
+import com.revature.ATeamORM.metrics.Metrics;
+import com.revature.ATeamORM.metrics.Operation;
+import com.revature.ATeamORM.query.Aggregate;
+import com.revature.ATeamORM.query.Query;
 
 
 import java.util.*;
@@ -25,6 +26,76 @@ import java.util.*;
  */
 public class ObjectRepo {
 
+    private PersistenceContext context;
+    private boolean lazyLoading = true;
+    private volatile int generation;
+    private List<Object> transactionWrites;
+    private Connection replicaConnection;
+
+    /**
+     * Registers objects read by this repo with a Session's PersistenceContext. Cursor reads (iterate) are never
+     * registered so they keep constant memory.
+     * @param context The Session's context, or null to stop registering
+     */
+    public void setPersistenceContext(PersistenceContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Marks whether the connection is running an explicit transaction. Reads inside one may see uncommitted rows, so
+     * they bypass the shared entity and query caches; objects written during it are evicted from those caches again
+     * when it ends, in case another session cached the previous row in the meantime.
+     * @param transactional true when a transaction begins, false once it is committed or rolled back
+     */
+    public void setTransactional(boolean transactional) {
+        if (transactional) {
+            if (transactionWrites == null) {
+                transactionWrites = new ArrayList<>();
+            }
+            return;
+        }
+        List<Object> written = transactionWrites;
+        transactionWrites = null;
+        if (written != null) {
+            written.forEach(this::evictCached);
+        }
+    }
+
+    /**
+     * Names the connection a Session sends reads to a replica through. Replicas may lag behind the primary, so rows
+     * read through it are never put into the shared entity and query caches, where they would shadow newer rows for
+     * every session; lookups through it are still answered from those caches.
+     * @param replicaConnection The replica connection, or null once it is returned to its pool
+     */
+    public void setReplicaConnection(Connection replicaConnection) {
+        this.replicaConnection = replicaConnection;
+    }
+
+    /**
+     * Chooses how lazy @ForeignKey Lists are filled. Lazy Lists query through the connection of the read that
+     * created them, so callers that give the connection back right after each call should fetch them eagerly.
+     * @param lazyLoading false to fetch lazy associations with their owners
+     */
+    public void setLazyLoading(boolean lazyLoading) {
+        this.lazyLoading = lazyLoading;
+    }
+
+    boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /**
+     * Makes every lazy @ForeignKey List created so far throw instead of querying, because the connection it would
+     * use is about to be returned to the pool and may be leased by another session.
+     */
+    public void closeLazyLists() {
+        generation++;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
     /**
      * Generates a new entry in the database containing information provided in the object. Id is assumed to be serial.
      * @param conn Database connection this operation will be performed in.
@@ -34,74 +105,55 @@ public class ObjectRepo {
      */
     public void create(Connection conn, Object object) throws SQLException {
         
-        try {
-            Class<?> oClass = Objects.requireNonNull(object.getClass());
-            
-            // All classes passed in must be annotated with @Entity
-            if (!oClass.isAnnotationPresent(Entity.class)) {
-                throw new RuntimeException("This is not an entity class!");
-            }
-            
-            // Filters through fields in class for ones annotated with @Column but without the @Id annotation
-            Field[] fields = Arrays.stream(oClass.getDeclaredFields())
-                                   .filter(f -> f.isAnnotationPresent(Column.class) && !f.isAnnotationPresent(Id.class))
-                                   .toArray(Field[]::new);
-            
-            StringBuilder sql = new StringBuilder("insert into " + getTableName(oClass) + " (");
-            int i = 1;
-            
-            // Gets the column_name and appends it to the sql string for each field annotated with @Column
-            for (Field field : fields) {
-                field.setAccessible(true);
-                if (field.getAnnotation(Column.class).notNull() && field.get(object) == null) {
-                    throw new NullFieldException();
-                }
-                sql.append(getColumnName(field));
-                if (i < fields.length) {
-                    sql.append(", ");
-                }
-                field.setAccessible(false);
-                i++;
-            }
-            sql.append(") values (");
-            i = 1;
-            
-            // Goes through each @Column annotated field in class and appends sql string with the value of the field
-            for (Field field : fields) {
-                field.setAccessible(true);
-                sql.append(encapsulateString(field.get(object)));
-                if (i < fields.length) {
-                    sql.append(", ");
+        EntityMetadata<?> metadata = EntityMetadata.of(Objects.requireNonNull(object.getClass()));
+        
+        // All classes passed in must be annotated with @Entity
+        if (!metadata.isEntity()) {
+            throw new RuntimeException("This is not an entity class!");
+        }
+        ColumnMetadata idColumn = metadata.requireIdColumn();
+        String fieldId = idColumn.getColumnName();
+        
+        // Binds the value of each @Column field without @Id to the cached insert statement
+        PreparedStatement pstmt = StatementCache.of(conn).prepare(metadata.getInsertSql(), new String[]{fieldId});
+        bindInsertColumns(pstmt, metadata, object);
+        
+        // Executes the statement, retrieves the id, then inserts new id back into object
+        if (executeUpdate(pstmt, metadata.getInsertSql(), metadata.getType(), Operation.INSERT) != 0) {
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                while (rs.next()) {
+                    idColumn.read(object, rs, 1);
                 }
-                field.setAccessible(false);
-                i++;
             }
-            sql.append(")");
-            
-            Field field = Arrays.stream(oClass.getDeclaredFields())
-                                .filter(f -> f.isAnnotationPresent(Id.class))
-                                .findFirst()
-                                .get();
-            field.setAccessible(true);
-            String fieldId = getColumnName(field);
-            field.setAccessible(false);
-            // Puts sql string into a prepared statement, executes it, retrieves the id, then inserts new id back into object
-            PreparedStatement pstmt = conn.prepareStatement(sql.toString(), new String[]{fieldId});
-            if (pstmt.executeUpdate() != 0) {
-                ResultSet rs = pstmt.getGeneratedKeys();
+        }
+        evictCached(object);
+    }
+
+    /**
+     * Inserts the object, or updates the row it conflicts with, in one INSERT ... ON CONFLICT DO UPDATE statement.
+     * An object with an @Id (not null or 0) conflicts on the @Id; otherwise it conflicts on the unique() columns,
+     * which must together match a unique constraint. The id of the inserted or updated row is written back.
+     * @param conn Database connection this operation will be performed in.
+     * @param object Entry to be inserted or updated
+     * @throws SQLException Thrown if connection cannot be established, a notNull() column is null or the table has
+     * no unique constraint matching the conflict columns
+     */
+    public void upsert(Connection conn, Object object) throws SQLException {
+        EntityMetadata<?> metadata = requireEntity(Objects.requireNonNull(object).getClass());
+        ColumnMetadata idColumn = metadata.requireIdColumn();
+        boolean byId = metadata.hasId(object);
+        
+        PreparedStatement pstmt = StatementCache.of(conn).prepare(metadata.getUpsertSql(byId),
+                                                                  new String[]{idColumn.getColumnName()});
+        bindColumns(pstmt, metadata.getUpsertColumns(byId), object);
+        if (executeUpdate(pstmt, metadata.getUpsertSql(byId), metadata.getType(), Operation.UPSERT) != 0) {
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
                 while (rs.next()) {
-                    field.setAccessible(true);
-                    setObjectValues(rs, field, object, fieldId);
-                    field.setAccessible(false);
+                    idColumn.read(object, rs, 1);
                 }
             }
-        } catch (IllegalAccessException e) {
-            System.out.println("Cannot access that object");
-            e.printStackTrace();
-        } catch (NoSuchElementException e) {
-            System.out.println("Could not find @Id annotation in class");
-            e.printStackTrace();
         }
+        evictCached(object);
     }
 
     /**
@@ -119,46 +171,48 @@ public class ObjectRepo {
      */
     public <T> Result<T> read(Connection conn, Class<T> clazz, String fieldName, String fieldValue) throws SQLException {
         
-        List<T> objectList = new ArrayList<>();
-        StringBuilder sql = new StringBuilder("select * from " + getTableName(clazz) + " where ");
+        EntityMetadata<T> metadata = EntityMetadata.of(clazz);
         
         // All classes passed in must be annotated with @Entity
-        if (!clazz.isAnnotationPresent(Entity.class)) {
+        if (!metadata.isEntity()) {
             throw new RuntimeException("This is not an entity class!");
         }
 
-        try {
-            Field field = clazz.getDeclaredField(fieldName);
-            sql.append(getColumnName(field))
-               .append(" = ")
-               .append(encapsulateString(fieldValue));
-
-
-            PreparedStatement pstmt = conn.prepareStatement(sql.toString());
-            ResultSet rs = pstmt.executeQuery();
-
-            ObjectCreator<T> oCreator = new ObjectCreator<>(clazz, rs);
-            while(rs.next()) {
-                objectList.add(oCreator.create());
+        ColumnMetadata column = metadata.getColumn(fieldName);
+        Object value = column.fromString(fieldValue);
+        
+        // Lookups by @Id of a @Cacheable entity are answered from the second-level cache when possible
+        EntityCache<T> cache = transactionWrites == null ? EntityCache.of(clazz) : null;
+        if (cache != null && column.isId()) {
+            T cached = cache.get(value);
+            if (cached != null) {
+                return new Result<>(loadAssociations(conn, register(new ArrayList<>(Collections.singletonList(cached)))));
             }
-        } catch (NoSuchMethodException e) {
-            System.out.println("Constructor does not exist!");
-            e.printStackTrace();
-        } catch (InvocationTargetException e) {
-            System.out.println("Cannot invoke constructor!");
-            e.printStackTrace();
-        } catch (InstantiationException e) {
-            System.out.println("Cannot instantiate object!");
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            System.out.println("Constructor is not public!");
-            e.printStackTrace();
-        } catch (NoSuchFieldException e) {
-            System.out.println("Could not find {fieldName} in your {Class<?>}!");
-            e.printStackTrace();
         }
         
-        return new Result<>(objectList);
+        // Then whole results of an entity with @CacheQueries
+        QueryCache<T> queryCache = transactionWrites == null ? QueryCache.of(clazz) : null;
+        long queryStamp = 0;
+        List<Object[]> rows = null;
+        if (queryCache != null) {
+            List<T> cached = queryCache.get(fieldName, value);
+            if (cached != null) {
+                return new Result<>(loadAssociations(conn, register(cached)));
+            }
+            if (conn != replicaConnection) {
+                queryStamp = queryCache.beginRead();
+                rows = new ArrayList<>();
+            }
+        }
+        
+        PreparedStatement pstmt = StatementCache.of(conn).prepare(metadata.getSelectByFieldSql(fieldName));
+        column.bind(pstmt, 1, value);
+        Result<T> result = readResults(conn, pstmt, metadata.getSelectByFieldSql(fieldName), clazz, rows);
+        if (rows != null) {
+            queryCache.put(fieldName, value, rows, queryStamp);
+        }
+        loadAssociations(conn, result.getList());
+        return result;
     }
 
     /**
@@ -171,31 +225,147 @@ public class ObjectRepo {
      * @author Uros Vorkapic
      */
     public <T> Result<T> read(Connection conn, Class<T> clazz) throws SQLException {
-        List<T> objectList = new ArrayList<>();
-        PreparedStatement pstmt = conn.prepareStatement("select * from " + getTableName(clazz));
+        String sql = EntityMetadata.of(clazz).getSelectAllSql();
+        PreparedStatement pstmt = StatementCache.of(conn).prepare(sql);
+        Result<T> result = readResults(conn, pstmt, sql, clazz, null);
+        loadAssociations(conn, result.getList());
+        return result;
+    }
 
-        ResultSet rs = pstmt.executeQuery();
-        try {
-            ObjectCreator<T> oCreator = new ObjectCreator<>(clazz, rs);
+    /**
+     * Runs a Query built with the fluent query builder and returns every matching row
+     * @param conn Database connection this operation will be performed in.
+     * @param query Compiled and bound by the query itself
+     * @param <T> Class Type
+     * @return Result list of objects from database
+     * @throws SQLException Thrown if connection cannot be established, a field does not exist or if class
+     * @Columns are not properly annotated
+     */
+    public <T> Result<T> read(Connection conn, Query<T> query) throws SQLException {
+        String sql = query.toSql();
+        PreparedStatement pstmt = StatementCache.of(conn).prepare(sql);
+        query.bind(pstmt);
+        if (!query.isProjection()) {
+            Result<T> result = readResults(conn, pstmt, sql, query.getEntityType(), null);
+            loadAssociations(conn, result.getList());
+            return result;
+        }
+        
+        // Partial entities bypass the PersistenceContext and caches, which assume every @Column was read
+        EntityMetadata<T> metadata = EntityMetadata.of(query.getEntityType());
+        List<T> objectList = new ArrayList<>();
+        boolean measured = Metrics.isMeasuringStatements();
+        long start = measured ? System.nanoTime() : 0;
+        try (ResultSet rs = pstmt.executeQuery()) {
+            RowMapper<T> mapper = metadata.getRowMapper(query.getSelectedColumns());
+            int[] indexes = mapper.resolveIndexes(rs);
             while (rs.next()) {
-                objectList.add(oCreator.create());
+                objectList.add(mapper.map(rs, indexes));
             }
         } catch (NoSuchMethodException e) {
-            System.out.println("Constructor does not exist!");
-            e.printStackTrace();
+            throw new DataSourceException("Constructor does not exist!");
         } catch (InvocationTargetException e) {
-            System.out.println("Cannot invoke constructor!");
-            e.printStackTrace();
-        } catch (InstantiationException e) {
-            System.out.println("Cannot instantiate object!");
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            System.out.println("Constructor is not public!");
-            e.printStackTrace();
+            throw new DataSourceException("Cannot invoke constructor!", e);
+        }
+        if (measured) {
+            Metrics.recordStatement(metadata.getType(), Operation.SELECT, sql, System.nanoTime() - start, objectList.size());
         }
         return new Result<>(objectList);
     }
 
+    /**
+     * Reads the entities an association refers to. Their own eager associations are not fetched.
+     */
+    <T> List<T> readAssociated(Connection conn, Query<T> query) throws SQLException {
+        String sql = query.toSql();
+        PreparedStatement pstmt = StatementCache.of(conn).prepare(sql);
+        query.bind(pstmt);
+        List<T> objects = readResults(conn, pstmt, sql, query.getEntityType(), null).getList();
+        new AssociationLoader(this, conn).load(objects, false);
+        return objects;
+    }
+
+    /**
+     * Fills the @ForeignKey fields of entities just read, with one query per association
+     */
+    private <T> List<T> loadAssociations(Connection conn, List<T> objects) throws SQLException {
+        if (!objects.isEmpty() && !EntityMetadata.of(objects.get(0).getClass()).getAssociations().isEmpty()) {
+            new AssociationLoader(this, conn).load(objects, true);
+        }
+        return objects;
+    }
+
+    /**
+     * Runs a Query and constructs an object of another type per row, passing the selected columns to its
+     * constructor in order. Only the selected columns are read from the database.
+     * @param conn Database connection this operation will be performed in.
+     * @param query Compiled and bound by the query itself
+     * @param type DTO or record type whose constructor takes the selected fields in order
+     * @param <R> Type constructed
+     * @return Result list of one object per row
+     * @throws SQLException Thrown if connection cannot be established or a field does not exist
+     * @throws DataSourceException Thrown if the type has no matching constructor
+     */
+    public <R> Result<R> read(Connection conn, Query<?> query, Class<R> type) throws SQLException {
+        ConstructorMapper<R> mapper = ConstructorMapper.of(type, query.getSelectedColumns());
+        String sql = query.toSql();
+        PreparedStatement pstmt = StatementCache.of(conn).prepare(sql);
+        query.bind(pstmt);
+        List<R> objectList = new ArrayList<>();
+        boolean measured = Metrics.isMeasuringStatements();
+        long start = measured ? System.nanoTime() : 0;
+        try (ResultSet rs = pstmt.executeQuery()) {
+            int[] indexes = mapper.resolveIndexes(rs);
+            while (rs.next()) {
+                objectList.add(mapper.map(rs, indexes));
+            }
+        }
+        if (measured) {
+            Metrics.recordStatement(query.getEntityType(), Operation.SELECT, sql, System.nanoTime() - start, objectList.size());
+        }
+        return new Result<>(objectList);
+    }
+
+    /**
+     * Opens a server-side cursor over the entries whose fieldName matches the fieldValue provided. Rows are fetched
+     * fetchSize at a time and objects are only created as the iterator is advanced.
+     * @param conn Database connection this operation will be performed in.
+     * @param clazz The class reference for the objects to be built from
+     * @param fieldName The name of the field (not column) that will be searched
+     * @param fieldValue The value of the field as a String
+     * @param fetchSize Number of rows fetched from the server per round trip
+     * @param <T> The object type created from the injected class
+     * @return Iterator that must be closed to release the cursor
+     * @throws SQLException Thrown if connection cannot be established, fieldName does not exist or
+     * if @Column is not properly annotated
+     */
+    public <T> ResultIterator<T> iterate(Connection conn, Class<T> clazz, String fieldName, String fieldValue, int fetchSize) throws SQLException {
+        
+        EntityMetadata<T> metadata = EntityMetadata.of(clazz);
+        
+        // All classes passed in must be annotated with @Entity
+        if (!metadata.isEntity()) {
+            throw new RuntimeException("This is not an entity class!");
+        }
+        
+        ColumnMetadata column = metadata.getColumn(fieldName);
+        return openCursor(conn, clazz, metadata.getSelectByFieldSql(fieldName), fetchSize, column, column.fromString(fieldValue));
+    }
+
+    /**
+     * Opens a server-side cursor over every entry in the table. Rows are fetched fetchSize at a time and objects are
+     * only created as the iterator is advanced.
+     * @param conn Database connection this operation will be performed in.
+     * @param clazz The class reference for the objects to be built from
+     * @param fetchSize Number of rows fetched from the server per round trip
+     * @param <T> Class Type
+     * @return Iterator that must be closed to release the cursor
+     * @throws SQLException Thrown if connection cannot be established or if class @Columns are not properly annotated
+     */
+    public <T> ResultIterator<T> iterate(Connection conn, Class<T> clazz, int fetchSize) throws SQLException {
+        return openCursor(conn, clazz, EntityMetadata.of(clazz).getSelectAllSql(), fetchSize, null, null);
+    }
+
     /**
      * Saves/Updates the values of the object provided into the database based on the @Id annotated field of the object
      * @param conn Database connection this operation will be performed in.
@@ -206,63 +376,39 @@ public class ObjectRepo {
      */
     public void update(Connection conn, Object object) throws SQLException {
         
-        try {
-            Class<?> oClass = Objects.requireNonNull(object.getClass());
-            
-            // All classes passed in must be annotated with @Entity
-            if (!oClass.isAnnotationPresent(Entity.class)) {
-                throw new RuntimeException("This is not an entity class!");
-            }
-            
-            // Filters through fields in class for ones annotated with @Column
-            Field[] fields = Arrays.stream(oClass.getDeclaredFields())
-                                   .filter(f -> f.isAnnotationPresent(Column.class))
-                                   .toArray(Field[]::new);
-            
-            // Used to create a camelCase string for the getter method that will be invoked
-            StringBuilder sql = new StringBuilder("update " + getTableName(oClass) + " set ");
-            int i = 1;
-            
-            // Goes through each @Column annotated field in class and appends sql string with "column_name = fieldValue,"
-            for (Field field : fields) {
-                field.setAccessible(true);
-                if (field.getAnnotation(Column.class).notNull() && field.get(object) == null) {
-                    throw new NullFieldException();
-                }
-                sql.append(getColumnName(field))
-                   .append(" = ")
-                   .append(encapsulateString(field.get(object)));
-                if (i < fields.length) {
-                    sql.append(", ");
-                }
-                field.setAccessible(false);
-                i++;
-            }
-            sql.append(" where ");
-
-            // Finds the field annotated with @Id and gets its field name to build a query of "where id_name = id"
-            for (Field field : fields) {
-                field.setAccessible(true);
-                if (field.isAnnotationPresent(Id.class)) {
-                    sql.append(getColumnName(field))
-                       .append(" = ")
-                       .append(field.get(object));
-                    break;
-                }
-                field.setAccessible(false);
-            }
-            
-            // Loads sql string into a PreparedStatement and executes it, updating the database
-            // Final sql string will look something like this:
-            // update tableName set user_id = object.id, username = object.username, password = object.password where user_id = object.id
-            PreparedStatement pstmt = conn.prepareStatement(sql.toString());
-            System.out.println(sql);
-            pstmt.executeUpdate();
-            
-        } catch (IllegalAccessException e) {
-            System.out.println("Cannot access that object");
-            e.printStackTrace();
+        EntityMetadata<?> metadata = EntityMetadata.of(Objects.requireNonNull(object.getClass()));
+        
+        // All classes passed in must be annotated with @Entity
+        if (!metadata.isEntity()) {
+            throw new RuntimeException("This is not an entity class!");
         }
+        update(conn, object, metadata.getUpdateColumns());
+    }
+
+    /**
+     * Updates only the provided columns of the object's row, identified by its @Id. Other columns keep whatever
+     * value the database holds, so concurrent writers of different columns do not overwrite each other.
+     * @param conn Database connection this operation will be performed in.
+     * @param object The object holding the values to write
+     * @param columns Columns to write; no statement is issued if empty
+     * @throws SQLException Thrown if connection cannot be established, a written notNull() column is null or if
+     * ID cannot be found.
+     */
+    public void update(Connection conn, Object object, List<ColumnMetadata> columns) throws SQLException {
+        EntityMetadata<?> metadata = requireEntity(Objects.requireNonNull(object).getClass());
+        ColumnMetadata idColumn = metadata.requireIdColumn();
+        if (columns.isEmpty()) {
+            return;
+        }
+        
+        // Statement looks something like this:
+        // update tableName set username = ?, password = ? where user_id = ?
+        String sql = columns.equals(metadata.getUpdateColumns()) ? metadata.getUpdateSql() : metadata.getUpdateSql(columns);
+        PreparedStatement pstmt = StatementCache.of(conn).prepare(sql);
+        bindColumns(pstmt, columns, object);
+        idColumn.bind(pstmt, columns.size() + 1, idColumn.get(object));
+        executeUpdate(pstmt, sql, metadata.getType(), Operation.UPDATE);
+        evictCached(object);
     }
 
     /**
@@ -274,35 +420,18 @@ public class ObjectRepo {
      */
     public void delete(Connection conn, Object object) throws SQLException {
         
-        try {
-            Class<?> oClass = Objects.requireNonNull(object.getClass());
-            
-            // All classes passed in must be annotated with @Entity
-            if (!oClass.isAnnotationPresent(Entity.class)) {
-                throw new RuntimeException("This is not an entity class!");
-            }
-            
-            // Filters through fields in class for one annotated with @Column and @Id (there should only be one)
-            Field field = Arrays.stream(oClass.getDeclaredFields())
-                                .filter(f -> f.isAnnotationPresent(Column.class) && f.isAnnotationPresent(Id.class))
-                                .findFirst()
-                                .get();
-            
-            // Finds and prepares to invoke the getter method for the field annotated with @Column and @Id
-            field.setAccessible(true);
-            String sql = "delete from " + getTableName(oClass) + " where " + getColumnName(field) + " = " + field.get(object);
-            field.setAccessible(false);
-            
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.executeUpdate();
-            
-        } catch (IllegalAccessException e) {
-            System.out.println("Cannot access that object");
-            e.printStackTrace();
-        } catch (NoSuchElementException e) {
-            System.out.println("Missing @Id annotation");
-            e.printStackTrace();
+        EntityMetadata<?> metadata = EntityMetadata.of(Objects.requireNonNull(object.getClass()));
+        
+        // All classes passed in must be annotated with @Entity
+        if (!metadata.isEntity()) {
+            throw new RuntimeException("This is not an entity class!");
         }
+        
+        ColumnMetadata idColumn = metadata.requireIdColumn();
+        PreparedStatement pstmt = StatementCache.of(conn).prepare(metadata.getDeleteSql());
+        idColumn.bind(pstmt, 1, idColumn.get(object));
+        executeUpdate(pstmt, metadata.getDeleteSql(), metadata.getType(), Operation.DELETE);
+        evictCached(object);
     }
 
     /**
@@ -314,134 +443,534 @@ public class ObjectRepo {
      * @author Juan Mendoza, Uros Vorkapic
      */
     public Boolean isEntryUnique(Connection conn, Object o) throws SQLException {
-        Class<?> oClass = Objects.requireNonNull(o.getClass());
+        EntityMetadata<?> metadata = EntityMetadata.of(Objects.requireNonNull(o.getClass()));
 
-        if(!oClass.isAnnotationPresent(Entity.class)){
+        if(!metadata.isEntity()){
             throw new RuntimeException("Not an Entity type.");
         }
 
-        Field[] oClassFields = Arrays.stream(oClass.getDeclaredFields())
-                                     .filter(f -> f.isAnnotationPresent(Column.class) && f.getAnnotation(Column.class).unique())
-                                     .toArray(Field[]::new);
         // if no @Columns are unique(), returns false by default so database doesn't have to be needlessly opened
-        if (oClassFields.length == 0) {
+        if (metadata.getUniqueColumns().isEmpty()) {
             return false;
         }
 
-        StringBuilder sql = new StringBuilder("select * from " + getTableName(oClass) + " where ");
-        try {
-            for(Field field : oClassFields){
-                field.setAccessible(true);
-                Column cn = field.getAnnotation(Column.class);
-                if(cn.unique() && field.get(o) != null){
-                    sql.append(cn.name())
-                       .append(" = ")
-                       .append(encapsulateString(field.get(o)))
-                       .append(" and ");
+        // Only unique columns with a value take part in the check
+        Query<?> query = Query.from(o.getClass());
+        for(ColumnMetadata column : metadata.getUniqueColumns()){
+            Object value = column.get(o);
+            if(value != null){
+                query.and(column.getFieldName()).eq(value);
+            }
+        }
+        if (query.getParameterValues().isEmpty()) {
+            return true;
+        }
+        return !exists(conn, query);
+    }
+
+    /**
+     * Counts the rows matching a Query without reading them, through select count(*)
+     * @param conn Database connection this operation will be performed in.
+     * @param query Compiled and bound by the query itself
+     * @return Number of matching rows
+     * @throws SQLException Thrown if connection cannot be established or a field does not exist
+     */
+    public long count(Connection conn, Query<?> query) throws SQLException {
+        try (ResultSet rs = executeAggregate(conn, query, query.toCountSql())) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Checks whether any row matches a Query through select exists(...), which stops at the first match
+     * @param conn Database connection this operation will be performed in.
+     * @param query Compiled and bound by the query itself
+     * @return true if at least one row matches
+     * @throws SQLException Thrown if connection cannot be established or a field does not exist
+     */
+    public boolean exists(Connection conn, Query<?> query) throws SQLException {
+        try (ResultSet rs = executeAggregate(conn, query, query.toExistsSql())) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * Computes an aggregate over the rows matching a Query in the database
+     * @param conn Database connection this operation will be performed in.
+     * @param query Compiled and bound by the query itself
+     * @param function Aggregate function
+     * @param fieldName Numeric field aggregated, or null to COUNT rows
+     * @return The aggregate as returned by the driver, or null if no row matches and the function is not COUNT
+     * @throws SQLException Thrown if connection cannot be established or a field does not exist
+     */
+    public Number aggregate(Connection conn, Query<?> query, Aggregate function, String fieldName)
+            throws SQLException {
+        try (ResultSet rs = executeAggregate(conn, query, query.toAggregateSql(function, fieldName, null))) {
+            return rs.next() ? (Number) rs.getObject(1) : null;
+        }
+    }
+
+    /**
+     * Computes an aggregate per distinct value of a field over the rows matching a Query
+     * @param conn Database connection this operation will be performed in.
+     * @param query Compiled and bound by the query itself
+     * @param function Aggregate function
+     * @param fieldName Numeric field aggregated, or null to COUNT rows
+     * @param groupByField Field whose values group the rows
+     * @return Aggregate per group value, keyed by the field type, in the order the database returned the groups
+     * @throws SQLException Thrown if connection cannot be established or a field does not exist
+     */
+    public Map<Object, Number> aggregate(Connection conn, Query<?> query, Aggregate function, String fieldName,
+                                         String groupByField) throws SQLException {
+        ColumnMetadata group = EntityMetadata.of(query.getEntityType()).getColumn(groupByField);
+        Map<Object, Number> groups = new LinkedHashMap<>();
+        try (ResultSet rs = executeAggregate(conn, query, query.toAggregateSql(function, fieldName, groupByField))) {
+            while (rs.next()) {
+                groups.put(group.readValue(rs, 1), (Number) rs.getObject(2));
+            }
+        }
+        return groups;
+    }
+
+    private ResultSet executeAggregate(Connection conn, Query<?> query, String sql) throws SQLException {
+        PreparedStatement pstmt = StatementCache.of(conn).prepare(sql);
+        query.bind(pstmt);
+        return executeQuery(pstmt, sql, query.getEntityType(), Operation.AGGREGATE);
+    }
+
+    /**
+     * Inserts every object with JDBC batching, grouped by class and executed batchSize rows per round trip. Generated
+     * ids are written back into the objects in order. If the connection is in autocommit mode the whole call runs in
+     * one transaction, so either every object is inserted or none are.
+     * @param conn Database connection this operation will be performed in.
+     * @param objects Entries to be added to database; may mix entity classes
+     * @param batchSize Maximum statements per executeBatch
+     * @throws SQLException Thrown if connection cannot be established, an object is missing non-null field values or
+     * if uniqueness is not ensured
+     */
+    public void createAll(Connection conn, Collection<?> objects, int batchSize) throws SQLException {
+        runAtomically(conn, () -> {
+            for (Map.Entry<Class<?>, List<Object>> group : groupByClass(objects).entrySet()) {
+                EntityMetadata<?> metadata = requireEntity(group.getKey());
+                ColumnMetadata idColumn = metadata.requireIdColumn();
+                PreparedStatement pstmt = StatementCache.of(conn).prepare(metadata.getInsertSql(),
+                                                                          new String[]{idColumn.getColumnName()});
+                for (List<Object> chunk : chunk(group.getValue(), batchSize)) {
+                    for (Object object : chunk) {
+                        bindInsertColumns(pstmt, metadata, object);
+                        pstmt.addBatch();
+                    }
+                    executeBatch(pstmt, metadata.getInsertSql(), metadata.getType(), Operation.INSERT);
+                    
+                    // Keys come back in the same order the rows were batched
+                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                        Iterator<Object> iterator = chunk.iterator();
+                        while (rs.next() && iterator.hasNext()) {
+                            idColumn.read(iterator.next(), rs, 1);
+                        }
+                    }
                 }
-                field.setAccessible(false);
             }
-        } catch (IllegalAccessException e) {
-            System.out.println("Could not access field!");
-            e.printStackTrace();
+        });
+        objects.forEach(this::evictCached);
+    }
+
+    /**
+     * Upserts every object with JDBC batching, grouped by class and by conflict target (see upsert) and executed
+     * batchSize rows per round trip. Ids of the inserted or updated rows are written back into the objects in order.
+     * If the connection is in autocommit mode the whole call runs in one transaction.
+     * @param conn Database connection this operation will be performed in.
+     * @param objects Entries to be inserted or updated; may mix entity classes
+     * @param batchSize Maximum statements per executeBatch
+     * @throws SQLException Thrown if connection cannot be established, a notNull() column is null or a table has no
+     * unique constraint matching the conflict columns
+     */
+    public void upsertAll(Connection conn, Collection<?> objects, int batchSize) throws SQLException {
+        // Objects with and without an id use different statements
+        Map<List<Object>, List<Object>> groups = new LinkedHashMap<>();
+        for (Map.Entry<Class<?>, List<Object>> group : groupByClass(objects).entrySet()) {
+            EntityMetadata<?> metadata = requireEntity(group.getKey());
+            for (Object object : group.getValue()) {
+                groups.computeIfAbsent(Arrays.asList(group.getKey(), metadata.hasId(object)), k -> new ArrayList<>())
+                      .add(object);
+            }
         }
+        runAtomically(conn, () -> {
+            for (Map.Entry<List<Object>, List<Object>> group : groups.entrySet()) {
+                EntityMetadata<?> metadata = EntityMetadata.of((Class<?>) group.getKey().get(0));
+                boolean byId = (Boolean) group.getKey().get(1);
+                ColumnMetadata idColumn = metadata.requireIdColumn();
+                PreparedStatement pstmt = StatementCache.of(conn).prepare(metadata.getUpsertSql(byId),
+                                                                          new String[]{idColumn.getColumnName()});
+                for (List<Object> chunk : chunk(group.getValue(), batchSize)) {
+                    for (Object object : chunk) {
+                        bindColumns(pstmt, metadata.getUpsertColumns(byId), object);
+                        pstmt.addBatch();
+                    }
+                    executeBatch(pstmt, metadata.getUpsertSql(byId), metadata.getType(), Operation.UPSERT);
+                    
+                    // Keys come back in the same order the rows were batched
+                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                        Iterator<Object> iterator = chunk.iterator();
+                        while (rs.next() && iterator.hasNext()) {
+                            idColumn.read(iterator.next(), rs, 1);
+                        }
+                    }
+                }
+            }
+        });
+        objects.forEach(this::evictCached);
+    }
 
-        String newSql = sql.substring(0,sql.length()-4);
-        PreparedStatement pstmt = conn.prepareStatement(newSql);
-        ResultSet rs = pstmt.executeQuery();
-        return !rs.next();
+    /**
+     * Updates every object with JDBC batching, grouped by class and executed batchSize rows per round trip. If the
+     * connection is in autocommit mode the whole call runs in one transaction.
+     * @param conn Database connection this operation will be performed in.
+     * @param objects Objects with non-null fields to use to update the database with; may mix entity classes
+     * @param batchSize Maximum statements per executeBatch
+     * @throws SQLException Thrown if connection cannot be established, an object is missing field values or if
+     * ID cannot be found.
+     */
+    public void updateAll(Connection conn, Collection<?> objects, int batchSize) throws SQLException {
+        runAtomically(conn, () -> {
+            for (Map.Entry<Class<?>, List<Object>> group : groupByClass(objects).entrySet()) {
+                EntityMetadata<?> metadata = requireEntity(group.getKey());
+                ColumnMetadata idColumn = metadata.requireIdColumn();
+                List<ColumnMetadata> columns = metadata.getUpdateColumns();
+                PreparedStatement pstmt = StatementCache.of(conn).prepare(metadata.getUpdateSql());
+                for (List<Object> chunk : chunk(group.getValue(), batchSize)) {
+                    for (Object object : chunk) {
+                        bindColumns(pstmt, columns, object);
+                        idColumn.bind(pstmt, columns.size() + 1, idColumn.get(object));
+                        pstmt.addBatch();
+                    }
+                    executeBatch(pstmt, metadata.getUpdateSql(), metadata.getType(), Operation.UPDATE);
+                }
+            }
+        });
+        objects.forEach(this::evictCached);
     }
 
     /**
-     * Simple method to retrieve @Table name(), or the class name if none is provided.
-     * @param clazz The class with the expected @Table annotation
-     * @return @Table name() or name of class if none provided
-     * @author Uros Vorkapic
+     * Deletes every object by its @Id with JDBC batching, grouped by class and executed batchSize rows per round
+     * trip. If the connection is in autocommit mode the whole call runs in one transaction.
+     * @param conn Database connection this operation will be performed in.
+     * @param objects Objects to be removed from the database; may mix entity classes
+     * @param batchSize Maximum statements per executeBatch
+     * @throws SQLException Thrown if connection cannot be established or something went terribly wrong
      */
-    private String getTableName(Class<?> clazz) {
-        String tableName = clazz.getAnnotation(Table.class)
-                                .name();
-        if (tableName.equals("")) {
-            tableName = clazz.getName();
+    public void deleteAll(Connection conn, Collection<?> objects, int batchSize) throws SQLException {
+        runAtomically(conn, () -> {
+            for (Map.Entry<Class<?>, List<Object>> group : groupByClass(objects).entrySet()) {
+                EntityMetadata<?> metadata = requireEntity(group.getKey());
+                ColumnMetadata idColumn = metadata.requireIdColumn();
+                PreparedStatement pstmt = StatementCache.of(conn).prepare(metadata.getDeleteSql());
+                for (List<Object> chunk : chunk(group.getValue(), batchSize)) {
+                    for (Object object : chunk) {
+                        idColumn.bind(pstmt, 1, idColumn.get(object));
+                        pstmt.addBatch();
+                    }
+                    executeBatch(pstmt, metadata.getDeleteSql(), metadata.getType(), Operation.DELETE);
+                }
+            }
+        });
+        objects.forEach(this::evictCached);
+    }
+
+    /**
+     * Writes only the provided columns of each object, grouped into one JDBC batch per class and column list. If
+     * the connection is in autocommit mode the whole call runs in one transaction.
+     * @param conn Database connection this operation will be performed in.
+     * @param changes Each object mapped to the columns to write; objects with no columns are skipped
+     * @param batchSize Maximum statements per executeBatch
+     * @throws SQLException Thrown if connection cannot be established, a notNull() column is null or if
+     * ID cannot be found.
+     */
+    public void updateColumns(Connection conn, Map<Object, List<ColumnMetadata>> changes, int batchSize) throws SQLException {
+        // Objects sharing a class and column list share one statement
+        Map<List<Object>, List<Object>> groups = new LinkedHashMap<>();
+        for (Map.Entry<Object, List<ColumnMetadata>> change : changes.entrySet()) {
+            if (!change.getValue().isEmpty()) {
+                groups.computeIfAbsent(Arrays.asList(change.getKey().getClass(), change.getValue()), k -> new ArrayList<>())
+                      .add(change.getKey());
+            }
+        }
+        if (groups.isEmpty()) {
+            return;
         }
-        return tableName;
+        runAtomically(conn, () -> {
+            for (Map.Entry<List<Object>, List<Object>> group : groups.entrySet()) {
+                EntityMetadata<?> metadata = requireEntity((Class<?>) group.getKey().get(0));
+                @SuppressWarnings("unchecked")
+                List<ColumnMetadata> columns = (List<ColumnMetadata>) group.getKey().get(1);
+                ColumnMetadata idColumn = metadata.requireIdColumn();
+                PreparedStatement pstmt = StatementCache.of(conn).prepare(metadata.getUpdateSql(columns));
+                for (List<Object> chunk : chunk(group.getValue(), batchSize)) {
+                    for (Object object : chunk) {
+                        bindColumns(pstmt, columns, object);
+                        idColumn.bind(pstmt, columns.size() + 1, idColumn.get(object));
+                        pstmt.addBatch();
+                    }
+                    executeBatch(pstmt, metadata.getUpdateSql(columns), metadata.getType(), Operation.UPDATE);
+                }
+            }
+        });
+        changes.keySet().forEach(this::evictCached);
     }
 
     /**
-     * Simple method to retrieve @Column name(), or the field name if none is provided.
-     * @param field The field with the expected @Column annotation
-     * @return @Column name() or name of field if none provided
-     * @author Uros Vorkapic
+     * Drops the second-level cache entry of an object that was just written, if its class is @Cacheable, and the
+     * cached query results of its table
      */
-    private String getColumnName(Field field) {
-        String columnName = field.getAnnotation(Column.class)
-                                 .name();
-        if (columnName.equals("")) {
-            columnName = field.getName();
+    private void evictCached(Object object) {
+        EntityCache<?> cache = EntityCache.of(object.getClass());
+        if (cache != null) {
+            cache.evict(object);
+        }
+        QueryCache.invalidateTable(EntityMetadata.of(object.getClass()).getTableName());
+        if (transactionWrites != null) {
+            transactionWrites.add(object);
         }
-        return columnName;
     }
 
+    /**
+     * Swaps objects built from a cache for the instances already managed by the Session, if any
+     */
+    private <T> List<T> register(List<T> objects) {
+        if (context != null) {
+            objects.replaceAll(context::register);
+        }
+        return objects;
+    }
 
     /**
-     * Ensures strings are properly encapsulated in single quotes before fed into sql query
-     * @param t Data to be encapsulated or not
-     * @param <T> Data Type
-     * @return String containing either a String encapsulated in single quotes, or a String of the data provided
-     * @author Uros Vorkapic
+     * Work executed by runAtomically
      */
-    private <T> String encapsulateString (T t) {
-        StringBuilder s = new StringBuilder();
-        if (t.getClass()
-             .getSimpleName()
-             .equals("String")) {
-            s.append("\'")
-             .append(t)
-             .append("\'");
-        } else {
-            s.append(t);
-        }
-        return s.toString();
-    }
-
-    /**
-     * Mostly defunct. Only used in one instance. A singular version of ObjectCreator.create(). Makes code a little more
-     * efficient by not having to instantiate the object to perform a single operation.
-     * @param rs The ResultSet containing generated key
-     * @param field The Field being updated
-     * @param object The Object whose field will be updated
-     * @param dbID The id name in the database (value retrieved using rs)
-     * @param <T> Object type
-     * @throws SQLException Thrown because of ResultSet
-     * @throws IllegalAccessException Thrown if field does not exist in object.
-     * @author Uros Vorkapic
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    /**
+     * Runs work in a single transaction when the connection is in autocommit mode; otherwise the work simply joins
+     * the caller's transaction.
+     */
+    private void runAtomically(Connection conn, SqlWork work) throws SQLException {
+        if (!conn.getAutoCommit()) {
+            work.run();
+            return;
+        }
+        conn.setAutoCommit(false);
+        try {
+            work.run();
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private EntityMetadata<?> requireEntity(Class<?> clazz) {
+        EntityMetadata<?> metadata = EntityMetadata.of(clazz);
+        // All classes passed in must be annotated with @Entity
+        if (!metadata.isEntity()) {
+            throw new RuntimeException("This is not an entity class!");
+        }
+        return metadata;
+    }
+
+    /**
+     * Groups objects by their class, keeping the order in which each class and object was first seen
+     */
+    private Map<Class<?>, List<Object>> groupByClass(Collection<?> objects) {
+        Map<Class<?>, List<Object>> groups = new LinkedHashMap<>();
+        for (Object object : objects) {
+            groups.computeIfAbsent(Objects.requireNonNull(object).getClass(), c -> new ArrayList<>()).add(object);
+        }
+        return groups;
+    }
+
+    private List<List<Object>> chunk(List<Object> objects, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        List<List<Object>> chunks = new ArrayList<>();
+        for (int i = 0; i < objects.size(); i += batchSize) {
+            chunks.add(objects.subList(i, Math.min(i + batchSize, objects.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Binds the values of every @Column field without @Id, in insert column order, starting at parameter 1
+     * @param pstmt Statement prepared from EntityMetadata.getInsertSql()
+     * @param metadata Metadata of the object's class
+     * @param object Object whose values are bound
+     * @throws SQLException Thrown if a parameter cannot be set
      */
-    private <T> void setObjectValues(ResultSet rs, Field field, T object, String dbID) throws SQLException, IllegalAccessException {
-        field.setAccessible(true);
-        switch (field.getType()
-                     .getSimpleName()) {
-            case ("String"):
-                field.set(object, rs.getString(dbID));
-                break;
-            case ("int"):
-            case ("Integer"):
-                field.set(object, rs.getInt(dbID));
-                break;
-            case ("double"):
-            case ("Double"):
-                field.set(object, rs.getDouble(dbID));
-                break;
-            case ("float"):
-            case ("Float"):
-                field.set(object, rs.getFloat(dbID));
-                break;
-            case ("boolean"):
-                field.set(object, rs.getBoolean(dbID));
-                break;
-        }
-        field.setAccessible(false);
+    private void bindInsertColumns(PreparedStatement pstmt, EntityMetadata<?> metadata, Object object) throws SQLException {
+        bindColumns(pstmt, metadata.getInsertColumns(), object);
+    }
+
+    /**
+     * Binds the values of the provided columns in order, starting at parameter 1
+     * @throws NullFieldException Thrown if a notNull() column is null
+     */
+    private void bindColumns(PreparedStatement pstmt, List<ColumnMetadata> columns, Object object) throws SQLException {
+        int index = 1;
+        for (ColumnMetadata column : columns) {
+            Object value = column.get(object);
+            if (column.isNotNull() && value == null) {
+                throw new NullFieldException();
+            }
+            column.bind(pstmt, index++, value);
+        }
+    }
+
+    /**
+     * Executes a query as a cursor. PostgreSQL only honours the fetch size inside a transaction, so autocommit is
+     * switched off for the lifetime of the cursor if it was on. The statement is not taken from the StatementCache
+     * because it has to stay open until the iterator is closed.
+     * @param conn Database connection this operation will be performed in.
+     * @param clazz The class reference for the objects to be built from
+     * @param sql Query with at most one parameter
+     * @param fetchSize Number of rows fetched from the server per round trip
+     * @param column Column the parameter is bound for, or null if the query has none
+     * @param value Value bound to the parameter
+     * @param <T> Class Type
+     * @return Iterator owning the statement and cursor
+     * @throws SQLException Thrown if the query fails
+     */
+    private <T> ResultIterator<T> openCursor(Connection conn, Class<T> clazz, String sql, int fetchSize,
+                                             ColumnMetadata column, Object value) throws SQLException {
+        boolean restoreAutoCommit = conn.getAutoCommit();
+        if (restoreAutoCommit) {
+            conn.setAutoCommit(false);
+        }
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(fetchSize);
+            if (column != null) {
+                column.bind(pstmt, 1, value);
+            }
+            return new ResultIterator<>(conn, pstmt, executeQuery(pstmt, sql, clazz, Operation.SELECT), clazz, restoreAutoCommit);
+        } catch (NoSuchMethodException e) {
+            abandonCursor(conn, pstmt, restoreAutoCommit);
+            throw new DataSourceException("Constructor does not exist!");
+        } catch (SQLException | RuntimeException e) {
+            abandonCursor(conn, pstmt, restoreAutoCommit);
+            throw e;
+        }
+    }
+
+    /**
+     * Cleans up after a cursor that failed to open
+     */
+    private void abandonCursor(Connection conn, PreparedStatement pstmt, boolean restoreAutoCommit) throws SQLException {
+        if (pstmt != null) {
+            pstmt.close();
+        }
+        if (restoreAutoCommit) {
+            conn.rollback();
+            conn.setAutoCommit(true);
+        }
     }
-    
-}
 
+    /**
+     * Executes a query and builds an object of the provided class for every row returned
+     * @param conn Connection the statement was prepared on
+     * @param pstmt Statement with all parameters bound
+     * @param sql SQL the statement was prepared from, for the StatementProfiler
+     * @param clazz The class reference for the objects to be built from
+     * @param rows If not null, receives the column values of every row for the QueryCache
+     * @param <T> Class Type
+     * @return Result list of objects from database
+     * @throws SQLException Thrown if the query fails
+     */
+    private <T> Result<T> readResults(Connection conn, PreparedStatement pstmt, String sql, Class<T> clazz, List<Object[]> rows) throws SQLException {
+        List<T> objectList = new ArrayList<>();
+        EntityMetadata<T> metadata = EntityMetadata.of(clazz);
+        EntityCache<T> cache = transactionWrites == null && conn != replicaConnection ? EntityCache.of(clazz) : null;
+        long cacheStamp = cache == null ? 0 : cache.beginRead();
+        boolean measured = Metrics.isMeasuringStatements();
+        long start = measured ? System.nanoTime() : 0;
+        try (ResultSet rs = pstmt.executeQuery()) {
+            ObjectCreator<T> oCreator = new ObjectCreator<>(clazz, rs, context);
+            if (cache != null || rows != null) {
+                oCreator.onRowMapped(object -> {
+                    if (cache != null) {
+                        cache.put(object, cacheStamp);
+                    }
+                    if (rows != null) {
+                        rows.add(metadata.snapshot(object));
+                    }
+                });
+            }
+            while (rs.next()) {
+                objectList.add(oCreator.create());
+            }
+        } catch (NoSuchMethodException e) {
+            throw new DataSourceException("Constructor does not exist!");
+        } catch (InvocationTargetException e) {
+            throw new DataSourceException("Cannot invoke constructor!", e);
+        } catch (InstantiationException e) {
+            throw new DataSourceException("Cannot instantiate object!", e);
+        } catch (IllegalAccessException e) {
+            throw new DataSourceException("Constructor is not public!", e);
+        }
+        if (measured) {
+            Metrics.recordStatement(clazz, Operation.SELECT, sql, System.nanoTime() - start, objectList.size());
+        }
+        return new Result<>(objectList);
+    }
+
+    /**
+     * Executes an insert, update or delete and reports it to the installed MetricsRecorder and StatementProfiler
+     * @return Number of rows written
+     */
+    private int executeUpdate(PreparedStatement pstmt, String sql, Class<?> clazz, Operation operation) throws SQLException {
+        if (!Metrics.isMeasuringStatements()) {
+            return pstmt.executeUpdate();
+        }
+        long start = System.nanoTime();
+        int rows = pstmt.executeUpdate();
+        Metrics.recordStatement(clazz, operation, sql, System.nanoTime() - start, rows);
+        return rows;
+    }
 
+    /**
+     * Executes a batch and reports it as one statement
+     */
+    private void executeBatch(PreparedStatement pstmt, String sql, Class<?> clazz, Operation operation) throws SQLException {
+        if (!Metrics.isMeasuringStatements()) {
+            pstmt.executeBatch();
+            return;
+        }
+        long start = System.nanoTime();
+        int[] counts = pstmt.executeBatch();
+        long elapsed = System.nanoTime() - start;
+        long rows = 0;
+        for (int count : counts) {
+            // SUCCESS_NO_INFO means the row was written but the driver did not count it
+            rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        Metrics.recordStatement(clazz, operation, sql, elapsed, rows);
+    }
+
+    /**
+     * Executes a query whose rows are not entities read here, reporting only its latency
+     */
+    private ResultSet executeQuery(PreparedStatement pstmt, String sql, Class<?> clazz, Operation operation) throws SQLException {
+        if (!Metrics.isMeasuringStatements()) {
+            return pstmt.executeQuery();
+        }
+        long start = System.nanoTime();
+        ResultSet rs = pstmt.executeQuery();
+        Metrics.recordStatement(clazz, operation, sql, System.nanoTime() - start, 0);
+        return rs;
+    }
+    
+}
@@ -0,0 +1,174 @@
+package com.revature.ATeamORM.repos;
+
+import java.util.*;
+
+/**
+ * First-level cache and unit of work for a single Session. Every entity loaded or written through the Session is
+ * kept in an identity map keyed by class and @Id value, so the same row is always represented by the same
+ * instance, and a snapshot of its @Column values is taken so changes can later be detected without asking the
+ * database. Not thread-safe; a Session is meant to be used by one thread at a time.
+ */
+public class PersistenceContext {
+
+	private final Map<EntityKey, Object> entities = new HashMap<>();
+	private final Map<Object, Object[]> snapshots = new IdentityHashMap<>();
+
+	/**
+	 * Looks up a managed entity by its @Id value
+	 * @param clazz The class of the entity
+	 * @param id The @Id value, already converted to the field type
+	 * @param <T> Class Type
+	 * @return The managed instance, or null if it is not in this context
+	 */
+	public <T> T find(Class<T> clazz, Object id) {
+		return clazz.cast(entities.get(new EntityKey(clazz, id)));
+	}
+
+	/**
+	 * Registers an entity that was just loaded from the database. If the same row is already managed, the existing
+	 * instance wins so callers keep seeing a single object (including any of its unflushed changes).
+	 * @param entity Freshly loaded entity
+	 * @param <T> Class Type
+	 * @return The instance callers should use for that row
+	 */
+	public <T> T register(T entity) {
+		EntityMetadata<?> metadata = EntityMetadata.of(entity.getClass());
+		if (metadata.getIdColumn() == null) {
+			return entity;
+		}
+		EntityKey key = new EntityKey(entity.getClass(), metadata.getIdColumn().get(entity));
+		Object existing = entities.get(key);
+		if (existing != null) {
+			@SuppressWarnings("unchecked")
+			T managed = (T) existing;
+			return managed;
+		}
+		entities.put(key, entity);
+		snapshots.put(entity, metadata.snapshot(entity));
+		return entity;
+	}
+
+	/**
+	 * Starts managing an entity whose current state is known to match the database, such as right after it was
+	 * inserted or saved, replacing any previous instance for the same row.
+	 * @param entity Entity in sync with the database
+	 */
+	public void manage(Object entity) {
+		EntityMetadata<?> metadata = EntityMetadata.of(entity.getClass());
+		if (metadata.getIdColumn() == null) {
+			return;
+		}
+		Object previous = entities.put(new EntityKey(entity.getClass(), metadata.getIdColumn().get(entity)), entity);
+		if (previous != null && previous != entity) {
+			snapshots.remove(previous);
+		}
+		snapshots.put(entity, metadata.snapshot(entity));
+	}
+
+	/**
+	 * Records that some columns of a managed entity were written, so only those are treated as clean. Other changed
+	 * columns stay dirty for the next save or flush.
+	 * @param entity Managed entity
+	 * @param columns Columns whose current values are now in the database
+	 * @return false if the entity is not managed by this context
+	 */
+	public boolean markWritten(Object entity, List<ColumnMetadata> columns) {
+		Object[] snapshot = snapshots.get(entity);
+		if (snapshot == null) {
+			return false;
+		}
+		List<ColumnMetadata> all = EntityMetadata.of(entity.getClass()).getColumns();
+		for (ColumnMetadata column : columns) {
+			snapshot[all.indexOf(column)] = column.get(entity);
+		}
+		return true;
+	}
+
+	/**
+	 * Stops managing an entity, for example after it was removed from the database
+	 * @param entity Entity to forget
+	 */
+	public void evict(Object entity) {
+		Object[] snapshot = snapshots.remove(entity);
+		if (snapshot == null) {
+			return;
+		}
+		ColumnMetadata idColumn = EntityMetadata.of(entity.getClass()).requireIdColumn();
+		entities.remove(new EntityKey(entity.getClass(), idColumn.get(entity)));
+	}
+
+	/**
+	 * Compares every managed entity against its snapshot
+	 * @return Each modified entity mapped to the columns whose values changed, in managed order
+	 */
+	public Map<Object, List<ColumnMetadata>> getDirtyEntities() {
+		Map<Object, List<ColumnMetadata>> dirty = new LinkedHashMap<>();
+		for (Map.Entry<Object, Object[]> entry : snapshots.entrySet()) {
+			List<ColumnMetadata> changed = EntityMetadata.of(entry.getKey().getClass())
+														 .changedColumns(entry.getKey(), entry.getValue());
+			if (!changed.isEmpty()) {
+				dirty.put(entry.getKey(), changed);
+			}
+		}
+		return dirty;
+	}
+
+	/**
+	 * Gets the columns of a managed entity that changed since it was loaded or last written
+	 * @param entity Entity to check
+	 * @return Changed columns, or null if the entity is not managed by this context
+	 */
+	public List<ColumnMetadata> getChangedColumns(Object entity) {
+		Object[] snapshot = snapshots.get(entity);
+		if (snapshot == null) {
+			return null;
+		}
+		return EntityMetadata.of(entity.getClass()).changedColumns(entity, snapshot);
+	}
+
+	public boolean contains(Object entity) {
+		return snapshots.containsKey(entity);
+	}
+
+	public int size() {
+		return snapshots.size();
+	}
+
+	/**
+	 * Forgets every managed entity
+	 */
+	public void clear() {
+		entities.clear();
+		snapshots.clear();
+	}
+
+	/**
+	 * Identity of a row: entity class plus @Id value
+	 */
+	private static final class EntityKey {
+		private final Class<?> clazz;
+		private final Object id;
+
+		EntityKey(Class<?> clazz, Object id) {
+			this.clazz = clazz;
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof EntityKey)) {
+				return false;
+			}
+			EntityKey other = (EntityKey) o;
+			return clazz == other.clazz && Objects.equals(id, other.id);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * clazz.hashCode() + Objects.hashCode(id);
+		}
+	}
+}
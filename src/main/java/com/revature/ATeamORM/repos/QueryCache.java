@@ -0,0 +1,140 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.CacheQueries;
+import com.revature.ATeamORM.cache.BoundedCache;
+import com.revature.ATeamORM.cache.CacheStats;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import com.revature.ATeamORM.metrics.CacheRegion;
+import com.revature.ATeamORM.metrics.Metrics;
+import com.revature.ATeamORM.metrics.MetricsRecorder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of find(fieldName, fieldValue) results for one entity annotated with @CacheQueries. Each
+ * result is stored as the dehydrated @Column values of its rows and rebuilt into new instances on every hit.
+ * Results larger than maxRows() are never cached, so memory stays bounded by maxSize() * maxRows() rows.
+ * <p>
+ * Any write to the entity's table clears the whole cache, because an insert or update can change which rows match
+ * any lookup. The same write stamp as EntityCache keeps reads that overlapped a write from caching their result.
+ * @param <T> Class Type being cached
+ */
+public final class QueryCache<T> {
+
+	private static final ConcurrentMap<Class<?>, QueryCache<?>> caches = new ConcurrentHashMap<>();
+
+	private final EntityMetadata<T> metadata;
+	private final int maxRows;
+	private final BoundedCache<List<Object>, List<Object[]>> results;
+	private final AtomicLong writeCount = new AtomicLong();
+
+	private QueryCache(EntityMetadata<T> metadata, CacheQueries config) {
+		this.metadata = metadata;
+		this.maxRows = config.maxRows();
+		this.results = new BoundedCache<>(config.maxSize(), config.ttlMillis());
+	}
+
+	/**
+	 * Gets the query cache of a class
+	 * @param clazz Entity class
+	 * @param <T> Class Type
+	 * @return The shared cache, or null if the class is not annotated with @CacheQueries
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> QueryCache<T> of(Class<T> clazz) {
+		CacheQueries config = clazz.getAnnotation(CacheQueries.class);
+		if (config == null) {
+			return null;
+		}
+		EntityMetadata<T> metadata = EntityMetadata.of(clazz);
+		if (!metadata.isEntity()) {
+			return null;
+		}
+		return (QueryCache<T>) caches.computeIfAbsent(clazz, c -> new QueryCache<>(metadata, config));
+	}
+
+	/**
+	 * Clears the cached results of every class mapped to a table
+	 * @param tableName Table that was written
+	 */
+	public static void invalidateTable(String tableName) {
+		for (QueryCache<?> cache : caches.values()) {
+			if (cache.metadata.getTableName().equals(tableName)) {
+				cache.clear();
+			}
+		}
+	}
+
+	/**
+	 * Empties the query cache of every entity class
+	 */
+	public static void clearAll() {
+		caches.values().forEach(QueryCache::clear);
+	}
+
+	/**
+	 * Builds new instances from a cached result
+	 * @param fieldName Field that was searched
+	 * @param value Searched value, already converted to the field type
+	 * @return New instances in query order, or null if the result is not cached
+	 */
+	public List<T> get(String fieldName, Object value) {
+		List<Object[]> rows = results.get(Arrays.asList(fieldName, value));
+		MetricsRecorder metrics = Metrics.recorder();
+		if (metrics != null) {
+			metrics.recordCacheAccess(metadata.getType(), CacheRegion.QUERY, rows != null);
+		}
+		if (rows == null) {
+			return null;
+		}
+		try {
+			RowMapper<T> mapper = metadata.getRowMapper();
+			List<T> objects = new ArrayList<>(rows.size());
+			for (Object[] row : rows) {
+				objects.add(mapper.map(row));
+			}
+			return objects;
+		} catch (NoSuchMethodException | InvocationTargetException e) {
+			throw new DataSourceException("Could not create object from cache", e);
+		}
+	}
+
+	/**
+	 * Marks the start of a database read
+	 * @return Stamp of the latest write to this entity's table
+	 */
+	public long beginRead() {
+		return writeCount.get();
+	}
+
+	/**
+	 * Caches a result unless it has too many rows or the table was written since the read began
+	 * @param fieldName Field that was searched
+	 * @param value Searched value, already converted to the field type
+	 * @param rows Values captured by EntityMetadata.snapshot for every row, in query order
+	 * @param stamp Value of beginRead() taken before the read
+	 */
+	public void put(String fieldName, Object value, List<Object[]> rows, long stamp) {
+		if (rows.size() <= maxRows) {
+			results.putIf(Arrays.asList(fieldName, value), rows, () -> writeCount.get() == stamp);
+		}
+	}
+
+	public void clear() {
+		// Under the lock put checks its stamp with, so a put sees the new stamp or its result is cleared after it
+		synchronized (results) {
+			writeCount.incrementAndGet();
+			results.clear();
+		}
+	}
+
+	public CacheStats getStats() {
+		return results.getStats();
+	}
+}
@@ -0,0 +1,116 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.exceptions.DataSourceException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily materializes one object per row of an open cursor, so memory use does not grow with the size of the
+ * result. Must be closed (directly, through try-with-resources or by closing its Stream) to release the cursor;
+ * it also closes itself once the last row has been read.
+ * @param <T> Class Type being created
+ */
+public class ResultIterator<T> implements Iterator<T>, AutoCloseable {
+
+	private final Connection conn;
+	private final PreparedStatement pstmt;
+	private final ResultSet rs;
+	private final ObjectCreator<T> oCreator;
+	private final boolean restoreAutoCommit;
+	private boolean advanced;
+	private boolean hasRow;
+	private boolean closed;
+
+	/**
+	 * Wraps an executed cursor query
+	 * @param conn Connection the cursor runs on
+	 * @param pstmt Statement owned by this iterator, closed with it
+	 * @param rs ResultSet produced by pstmt
+	 * @param clazz Blueprint for objects to be created
+	 * @param restoreAutoCommit Whether autocommit was switched off for the cursor and must be restored on close
+	 * @throws NoSuchMethodException Thrown if passed class lacks a no-args constructor.
+	 * @throws SQLException Thrown if a @Column is missing from the ResultSet
+	 */
+	ResultIterator(Connection conn, PreparedStatement pstmt, ResultSet rs, Class<T> clazz, boolean restoreAutoCommit)
+			throws NoSuchMethodException, SQLException {
+		this.conn = conn;
+		this.pstmt = pstmt;
+		this.rs = rs;
+		this.restoreAutoCommit = restoreAutoCommit;
+		this.oCreator = new ObjectCreator<>(clazz, rs);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (closed) {
+			return false;
+		}
+		if (!advanced) {
+			try {
+				hasRow = rs.next();
+			} catch (SQLException e) {
+				close();
+				throw new DataSourceException("Could not read the next row", e);
+			}
+			advanced = true;
+			if (!hasRow) {
+				close();
+			}
+		}
+		return hasRow;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		advanced = false;
+		try {
+			return oCreator.create();
+		} catch (SQLException | InvocationTargetException | InstantiationException | IllegalAccessException e) {
+			close();
+			throw new DataSourceException("Could not create object from row", e);
+		}
+	}
+
+	/**
+	 * Exposes the remaining rows as a sequential Stream that closes this iterator when the Stream is closed
+	 * @return Lazy Stream over the remaining rows
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+							.onClose(this::close);
+	}
+
+	/**
+	 * Closes the cursor and, if it was switched off for this cursor, restores autocommit on the connection
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			rs.close();
+			pstmt.close();
+			if (restoreAutoCommit) {
+				conn.commit();
+				conn.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			throw new DataSourceException("Could not close cursor", e);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.exceptions.DataSourceException;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Mapper specialized for one class and column list. The no-args constructor is bound to a Supplier through
+ * LambdaMetafactory and every column reuses the typed reader compiled by its ColumnMetadata, so mapping a row is a
+ * constructor call plus one direct getter/setter pair per column.
+ * @param <T> Class Type being mapped
+ */
+final class RowMapper<T> {
+
+	private final Class<T> clazz;
+	private final Supplier<T> instantiator;
+	private final ColumnMetadata[] columns;
+
+	/**
+	 * Compiles a mapper for the provided columns of a class
+	 * @param clazz Blueprint for objects to be created
+	 * @param columns Columns populated for every row
+	 * @throws NoSuchMethodException Thrown if passed class lacks a public no-args constructor.
+	 * @throws DataSourceException Thrown if a column has an unsupported field type
+	 */
+	RowMapper(Class<T> clazz, List<ColumnMetadata> columns) throws NoSuchMethodException {
+		for (ColumnMetadata column : columns) {
+			if (!column.isSupported()) {
+				throw new DataSourceException(ColumnMetadata.INVALID_TYPE_MESSAGE);
+			}
+		}
+		this.clazz = clazz;
+		this.columns = columns.toArray(new ColumnMetadata[0]);
+		this.instantiator = compileInstantiator(clazz.getConstructor());
+	}
+
+	/**
+	 * Binds the constructor to a Supplier. LambdaMetafactory needs the class to be publicly reachable; anything
+	 * else falls back to invoking the constructor's MethodHandle.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Supplier<T> compileInstantiator(Constructor<T> constructor) {
+		Class<T> clazz = constructor.getDeclaringClass();
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle handle = lookup.unreflectConstructor(constructor);
+			if (isPubliclyReachable(clazz)) {
+				CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+															  MethodType.methodType(Object.class), handle,
+															  MethodType.methodType(clazz));
+				return (Supplier<T>) site.getTarget().invokeExact();
+			}
+			MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+			return () -> {
+				try {
+					return (T) generic.invokeExact();
+				} catch (Throwable t) {
+					throw new InstantiationFailure(t);
+				}
+			};
+		} catch (Throwable e) {
+			return () -> {
+				try {
+					return constructor.newInstance();
+				} catch (InvocationTargetException ex) {
+					throw new InstantiationFailure(ex.getCause());
+				} catch (ReflectiveOperationException ex) {
+					throw new InstantiationFailure(ex);
+				}
+			};
+		}
+	}
+
+	private static boolean isPubliclyReachable(Class<?> clazz) {
+		for (Class<?> c = clazz; c != null; c = c.getEnclosingClass()) {
+			if (!Modifier.isPublic(c.getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Looks up the position of every mapped column once per ResultSet
+	 * @param rs ResultSet the mapper will read
+	 * @return Column indexes in mapper column order
+	 * @throws SQLException Thrown if a mapped column is missing from the ResultSet
+	 */
+	int[] resolveIndexes(ResultSet rs) throws SQLException {
+		int[] indexes = new int[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			indexes[i] = rs.findColumn(columns[i].getColumnName());
+		}
+		return indexes;
+	}
+
+	/**
+	 * Creates a new object and populates it from the current row
+	 * @param rs ResultSet positioned on the row to map
+	 * @param indexes Indexes from resolveIndexes for the same ResultSet
+	 * @return New fully populated object
+	 * @throws InvocationTargetException Thrown if the constructor fails
+	 * @throws SQLException Thrown if a value cannot be read
+	 */
+	T map(ResultSet rs, int[] indexes) throws InvocationTargetException, SQLException {
+		T object = instantiate();
+		for (int i = 0; i < columns.length; i++) {
+			columns[i].read(object, rs, indexes[i]);
+		}
+		return object;
+	}
+
+	/**
+	 * Creates a new object and populates it from values captured by EntityMetadata.snapshot
+	 * @param values Column values in mapper column order
+	 * @return New fully populated object
+	 * @throws InvocationTargetException Thrown if the constructor fails
+	 */
+	T map(Object[] values) throws InvocationTargetException {
+		T object = instantiate();
+		for (int i = 0; i < columns.length; i++) {
+			columns[i].set(object, values[i]);
+		}
+		return object;
+	}
+
+	private T instantiate() throws InvocationTargetException {
+		try {
+			return instantiator.get();
+		} catch (InstantiationFailure e) {
+			throw new InvocationTargetException(e.getCause());
+		} catch (Throwable t) {
+			throw new InvocationTargetException(t);
+		}
+	}
+
+	Class<T> getType() {
+		return clazz;
+	}
+
+	/**
+	 * Carries a constructor failure out of the Supplier
+	 */
+	private static final class InstantiationFailure extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		InstantiationFailure(Throwable cause) {
+			super(cause);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.revature.ATeamORM.schema;
+
+/**
+ * A column as the annotations declare it: @Column name and flags, the PostgreSQL type of the field and any
+ * @Constraints
+ */
+public final class ColumnDefinition {
+
+	private final String name;
+	private final String type;
+	private final boolean primaryKey;
+	private final boolean notNull;
+	private final String defaultValue;
+	private final String check;
+
+	ColumnDefinition(String name, String type, boolean primaryKey, boolean notNull, String defaultValue, String check) {
+		this.name = name;
+		this.type = type;
+		this.primaryKey = primaryKey;
+		this.notNull = notNull;
+		this.defaultValue = defaultValue;
+		this.check = check;
+	}
+
+	/**
+	 * @return The column as it appears in create table or alter table ... add column
+	 */
+	public String toSql() {
+		StringBuilder sql = new StringBuilder(name).append(' ').append(type);
+		if (primaryKey) {
+			sql.append(" primary key");
+		} else if (notNull) {
+			sql.append(" not null");
+		}
+		if (defaultValue != null) {
+			sql.append(" default ").append(defaultValue);
+		}
+		if (check != null) {
+			sql.append(" check (").append(check).append(')');
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * @return Type information_schema.columns reports for the column, serial being an integer with a default
+	 */
+	String getStoredType() {
+		return type.equals("serial") ? "integer" : type;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public boolean isPrimaryKey() {
+		return primaryKey;
+	}
+
+	public boolean isNotNull() {
+		return notNull || primaryKey;
+	}
+
+	public String getDefaultValue() {
+		return defaultValue;
+	}
+
+	public String getCheck() {
+		return check;
+	}
+
+	@Override
+	public String toString() {
+		return toSql();
+	}
+}
@@ -0,0 +1,217 @@
+package com.revature.ATeamORM.schema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The tables a database already has, as far as Schema needs them: columns from information_schema.columns, foreign
+ * keys from information_schema.table_constraints and indexes from the PostgreSQL catalog, which information_schema
+ * does not describe
+ */
+public final class ExistingSchema {
+
+	private static final String COLUMNS_SQL = "select column_name, data_type, is_nullable " +
+			"from information_schema.columns where table_schema = ? and table_name = ?";
+
+	// Key columns of every full index; expression columns have no attname, partial indexes are left out
+	private static final String INDEXES_SQL = "select i.relname, ix.indisunique, a.attname " +
+			"from pg_index ix " +
+			"join pg_class t on t.oid = ix.indrelid " +
+			"join pg_namespace n on n.oid = t.relnamespace " +
+			"join pg_class i on i.oid = ix.indexrelid " +
+			"cross join lateral unnest(ix.indkey::int2[]) with ordinality as k(attnum, ord) " +
+			"left join pg_attribute a on a.attrelid = t.oid and a.attnum = k.attnum " +
+			"where n.nspname = ? and t.relname = ? and ix.indpred is null and k.ord <= ix.indnkeyatts " +
+			"order by i.relname, k.ord";
+
+	private static final String FOREIGN_KEYS_SQL = "select kcu.column_name, ccu.table_name, ccu.column_name " +
+			"from information_schema.table_constraints tc " +
+			"join information_schema.key_column_usage kcu " +
+			"on kcu.constraint_schema = tc.constraint_schema and kcu.constraint_name = tc.constraint_name " +
+			"join information_schema.constraint_column_usage ccu " +
+			"on ccu.constraint_schema = tc.constraint_schema and ccu.constraint_name = tc.constraint_name " +
+			"where tc.constraint_type = 'FOREIGN KEY' and tc.table_schema = ? and tc.table_name = ?";
+
+	private final Map<String, Table> tables = new HashMap<>();
+
+	ExistingSchema() {}
+
+	/**
+	 * Reads the provided tables from the database. Names without a schema are looked up in current_schema().
+	 * @param conn Connection to the database being migrated
+	 * @param tableNames Tables to read, as Schema names them
+	 * @return The tables that exist; missing ones are simply absent
+	 * @throws SQLException Thrown if the catalog cannot be queried
+	 */
+	public static ExistingSchema read(Connection conn, Collection<String> tableNames) throws SQLException {
+		ExistingSchema schema = new ExistingSchema();
+		String currentSchema;
+		try (PreparedStatement pstmt = conn.prepareStatement("select current_schema()");
+			 ResultSet rs = pstmt.executeQuery()) {
+			currentSchema = rs.next() ? rs.getString(1) : "public";
+		}
+		try (PreparedStatement columns = conn.prepareStatement(COLUMNS_SQL);
+			 PreparedStatement indexes = conn.prepareStatement(INDEXES_SQL);
+			 PreparedStatement foreignKeys = conn.prepareStatement(FOREIGN_KEYS_SQL)) {
+			for (String name : tableNames) {
+				int dot = name.indexOf('.');
+				String namespace = dot < 0 ? currentSchema : name.substring(0, dot);
+				String relation = name.substring(dot + 1);
+
+				Table table = null;
+				bind(columns, namespace, relation);
+				try (ResultSet rs = columns.executeQuery()) {
+					while (rs.next()) {
+						if (table == null) {
+							table = schema.addTable(name);
+						}
+						table.addColumn(rs.getString(1), rs.getString(2), "YES".equals(rs.getString(3)));
+					}
+				}
+				if (table == null) {
+					continue;
+				}
+
+				Map<String, List<String>> indexColumns = new LinkedHashMap<>();
+				Map<String, Boolean> indexUnique = new HashMap<>();
+				bind(indexes, namespace, relation);
+				try (ResultSet rs = indexes.executeQuery()) {
+					while (rs.next()) {
+						indexColumns.computeIfAbsent(rs.getString(1), n -> new ArrayList<>()).add(rs.getString(3));
+						indexUnique.put(rs.getString(1), rs.getBoolean(2));
+					}
+				}
+				for (Map.Entry<String, List<String>> index : indexColumns.entrySet()) {
+					if (!index.getValue().contains(null)) {
+						table.addIndex(index.getValue(), indexUnique.get(index.getKey()));
+					}
+				}
+
+				bind(foreignKeys, namespace, relation);
+				try (ResultSet rs = foreignKeys.executeQuery()) {
+					while (rs.next()) {
+						table.addForeignKey(rs.getString(1), rs.getString(2), rs.getString(3));
+					}
+				}
+			}
+		}
+		return schema;
+	}
+
+	private static void bind(PreparedStatement pstmt, String namespace, String relation) throws SQLException {
+		pstmt.setString(1, namespace);
+		pstmt.setString(2, relation);
+	}
+
+	/**
+	 * @param name Table name as Schema names it
+	 * @return The table, or null if the database does not have it
+	 */
+	Table getTable(String name) {
+		return tables.get(name.toLowerCase(Locale.ROOT));
+	}
+
+	Table addTable(String name) {
+		Table table = new Table();
+		tables.put(name.toLowerCase(Locale.ROOT), table);
+		return table;
+	}
+
+	/**
+	 * An existing table's columns, indexes and foreign keys, with lower-cased names
+	 */
+	static final class Table {
+		private final Map<String, Column> columns = new HashMap<>();
+		private final List<List<String>> indexColumns = new ArrayList<>();
+		private final List<Boolean> indexUnique = new ArrayList<>();
+		private final List<String> foreignKeys = new ArrayList<>();
+
+		Column getColumn(String name) {
+			return columns.get(name.toLowerCase(Locale.ROOT));
+		}
+
+		Table addColumn(String name, String type, boolean nullable) {
+			columns.put(name.toLowerCase(Locale.ROOT), new Column(type, nullable));
+			return this;
+		}
+
+		Table addIndex(List<String> columnNames, boolean unique) {
+			List<String> lowerCased = new ArrayList<>();
+			for (String column : columnNames) {
+				lowerCased.add(column.toLowerCase(Locale.ROOT));
+			}
+			indexColumns.add(lowerCased);
+			indexUnique.add(unique);
+			return this;
+		}
+
+		Table addForeignKey(String column, String referencedTable, String referencedColumn) {
+			foreignKeys.add(foreignKey(column, referencedTable, referencedColumn));
+			return this;
+		}
+
+		boolean isCovered(IndexDefinition index) {
+			for (int i = 0; i < indexColumns.size(); i++) {
+				if (index.isCoveredBy(indexColumns.get(i), indexUnique.get(i))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * A unique index, usually backing a unique or primary key constraint, over the same columns in any order
+		 */
+		boolean hasUniqueIndex(List<String> columnNames) {
+			for (int i = 0; i < indexColumns.size(); i++) {
+				List<String> existing = indexColumns.get(i);
+				if (indexUnique.get(i) && existing.size() == columnNames.size() && existing.containsAll(columnNames)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		boolean hasForeignKey(ForeignKeyDefinition foreignKey) {
+			String referencedTable = foreignKey.getReferencedTable();
+			// information_schema names the referenced table without its schema
+			referencedTable = referencedTable.substring(referencedTable.indexOf('.') + 1);
+			return foreignKeys.contains(foreignKey(foreignKey.getColumn(), referencedTable,
+												   foreignKey.getReferencedColumn()));
+		}
+
+		private static String foreignKey(String column, String referencedTable, String referencedColumn) {
+			return (column + " " + referencedTable + " " + referencedColumn).toLowerCase(Locale.ROOT);
+		}
+	}
+
+	/**
+	 * An existing column: the data_type and is_nullable information_schema reports for it
+	 */
+	static final class Column {
+		private final String type;
+		private final boolean nullable;
+
+		Column(String type, boolean nullable) {
+			this.type = type;
+			this.nullable = nullable;
+		}
+
+		String getType() {
+			return type;
+		}
+
+		boolean isNullable() {
+			return nullable;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.revature.ATeamORM.schema;
+
+/**
+ * A foreign key derived from a @ForeignKey association: the key @Column references a column of the associated
+ * entity's table
+ */
+public final class ForeignKeyDefinition {
+
+	private final String name;
+	private final String table;
+	private final String column;
+	private final String referencedTable;
+	private final String referencedColumn;
+
+	ForeignKeyDefinition(String name, String table, String column, String referencedTable, String referencedColumn) {
+		this.name = name;
+		this.table = table;
+		this.column = column;
+		this.referencedTable = referencedTable;
+		this.referencedColumn = referencedColumn;
+	}
+
+	/**
+	 * @return Statement adding the constraint; foreign keys are added after every table exists, so tables that
+	 * reference each other can be created in any order
+	 */
+	public String toSql() {
+		return "alter table " + table + " add constraint " + name + " foreign key (" + column + ") references " +
+			   referencedTable + " (" + referencedColumn + ")";
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getColumn() {
+		return column;
+	}
+
+	public String getReferencedTable() {
+		return referencedTable;
+	}
+
+	public String getReferencedColumn() {
+		return referencedColumn;
+	}
+
+	@Override
+	public String toString() {
+		return toSql();
+	}
+}
@@ -0,0 +1,58 @@
+package com.revature.ATeamORM.schema;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An index over one or more columns of a table, declared with @Index or required by the ORM's own lookups
+ */
+public final class IndexDefinition {
+
+	private final String name;
+	private final String table;
+	private final List<String> columns;
+	private final boolean unique;
+
+	IndexDefinition(String name, String table, List<String> columns, boolean unique) {
+		this.name = name;
+		this.table = table;
+		this.columns = Collections.unmodifiableList(columns);
+		this.unique = unique;
+	}
+
+	public String toSql() {
+		return "create " + (unique ? "unique " : "") + "index " + name + " on " + table + " (" +
+			   String.join(", ", columns) + ")";
+	}
+
+	/**
+	 * Checks whether an existing index already serves this one's lookups. An index whose leading columns are these
+	 * columns does, unless this one is unique, which takes a unique index over exactly these columns.
+	 * @param existingColumns Key columns of the existing index, in order
+	 * @param existingUnique Whether the existing index is unique
+	 * @return true if no index needs to be created for this one
+	 */
+	boolean isCoveredBy(List<String> existingColumns, boolean existingUnique) {
+		if (unique) {
+			return existingUnique && existingColumns.equals(columns);
+		}
+		return existingColumns.size() >= columns.size() && existingColumns.subList(0, columns.size()).equals(columns);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<String> getColumns() {
+		return columns;
+	}
+
+	public boolean isUnique() {
+		return unique;
+	}
+
+	@Override
+	public String toString() {
+		return toSql();
+	}
+}
@@ -0,0 +1,301 @@
+package com.revature.ATeamORM.schema;
+
+import com.revature.ATeamORM.annotations.Constraints;
+import com.revature.ATeamORM.annotations.Index;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import com.revature.ATeamORM.repos.ColumnMetadata;
+import com.revature.ATeamORM.repos.EntityMetadata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The tables a set of @Entity classes map to, derived from their annotations:
+ * <pre>
+ *     Schema schema = Schema.of(User.class, Post.class);
+ *     schema.toCreateSql();                       // the whole schema
+ *     new SchemaMigrator(schema).plan(conn);      // only what the database lacks
+ * </pre>
+ * Field types map to text (String), integer (int, serial for the @Id), double precision, real and boolean.
+ * Identifiers are lower-cased, as PostgreSQL folds the unquoted names the ORM uses. Besides @Index, every
+ * @ForeignKey key column and @ShardKey column gets an index unless the primary key, the unique constraint or another
+ * index already leads with it, since the ORM looks rows up by them.
+ */
+public final class Schema {
+
+	private final Map<String, TableDefinition> tables = new LinkedHashMap<>();
+
+	private Schema() {}
+
+	/**
+	 * Derives the tables of the provided entities. Foreign keys are derived from @ForeignKey fields on either side
+	 * of an association, as long as the class owning the key column is one of the entities.
+	 * @param entities Classes annotated with @Entity
+	 * @return The derived schema
+	 * @throws DataSourceException Thrown if a class is not an @Entity, two classes map to one table or a field type
+	 * has no column type
+	 */
+	public static Schema of(Class<?>... entities) {
+		Schema schema = new Schema();
+		Map<String, Class<?>> owners = new LinkedHashMap<>();
+		for (Class<?> clazz : entities) {
+			EntityMetadata<?> metadata = EntityMetadata.of(clazz);
+			if (!metadata.isEntity()) {
+				throw new DataSourceException(clazz.getName() + " is not an @Entity");
+			}
+			TableDefinition table = define(metadata);
+			Class<?> previous = owners.put(table.getName(), clazz);
+			if (previous != null) {
+				throw new DataSourceException(previous.getName() + " and " + clazz.getName() + " both map to table " +
+											  table.getName());
+			}
+			schema.tables.put(table.getName(), table);
+		}
+		for (Class<?> clazz : entities) {
+			EntityMetadata<?> metadata = EntityMetadata.of(clazz);
+			for (Map.Entry<ColumnMetadata, ColumnMetadata> key : metadata.getForeignKeyColumns().entrySet()) {
+				schema.addForeignKey(key.getKey(), key.getValue());
+			}
+			if (metadata.getShardKeyColumn() != null) {
+				schema.requireIndex(schema.tables.get(tableName(metadata)), name(metadata.getShardKeyColumn()));
+			}
+		}
+		return schema;
+	}
+
+	/**
+	 * Builds every statement creating the schema in an empty database: the tables, then their indexes, then the
+	 * foreign keys, so tables may reference each other in any order
+	 * @return Statements to run in order
+	 */
+	public List<String> toCreateSql() {
+		List<String> statements = new ArrayList<>();
+		for (TableDefinition table : tables.values()) {
+			statements.add(table.toCreateSql());
+		}
+		for (TableDefinition table : tables.values()) {
+			for (IndexDefinition index : table.getIndexes()) {
+				statements.add(index.toSql());
+			}
+		}
+		for (TableDefinition table : tables.values()) {
+			for (ForeignKeyDefinition foreignKey : table.getForeignKeys()) {
+				statements.add(foreignKey.toSql());
+			}
+		}
+		return statements;
+	}
+
+	/**
+	 * Compares the schema with what the database has and builds the statements adding what is missing: tables,
+	 * columns, not null constraints, column types, unique constraints, indexes and foreign keys. Nothing is dropped
+	 * or loosened, so columns, indexes and constraints only the database has are left alone. An existing index
+	 * serves an @Index if it leads with the same columns, whatever its name. Column types are only changed when
+	 * every existing value fits the new type, e.g. integer to double precision.
+	 * @param existing The database as read by ExistingSchema.read
+	 * @return Statements to run in order, empty if the database is up to date
+	 * @throws DataSourceException Thrown if a column type could only change by narrowing or converting values, or a
+	 * not null column without a @Constraints defaultValue is missing from an existing table, whose rows it could
+	 * not be added to; every such column is listed
+	 */
+	public List<String> toMigrationSql(ExistingSchema existing) {
+		List<String> tableStatements = new ArrayList<>();
+		List<String> columnStatements = new ArrayList<>();
+		List<String> indexStatements = new ArrayList<>();
+		List<String> foreignKeyStatements = new ArrayList<>();
+		List<String> conflicts = new ArrayList<>();
+		for (TableDefinition table : tables.values()) {
+			ExistingSchema.Table current = existing.getTable(table.getName());
+			if (current == null) {
+				tableStatements.add(table.toCreateSql());
+				for (IndexDefinition index : table.getIndexes()) {
+					indexStatements.add(index.toSql());
+				}
+				for (ForeignKeyDefinition foreignKey : table.getForeignKeys()) {
+					foreignKeyStatements.add(foreignKey.toSql());
+				}
+				continue;
+			}
+
+			String alter = "alter table " + table.getName() + " ";
+			for (ColumnDefinition column : table.getColumns()) {
+				ExistingSchema.Column currentColumn = current.getColumn(column.getName());
+				String qualified = table.getName() + "." + column.getName();
+				if (currentColumn == null) {
+					// A serial column fills existing rows from its sequence
+					if (column.isNotNull() && column.getDefaultValue() == null && !column.getType().equals("serial")) {
+						conflicts.add(qualified + " is not null and has no default for the existing rows");
+					} else {
+						columnStatements.add(alter + "add column " + column.toSql());
+					}
+					continue;
+				}
+				if (!isCompatible(column.getStoredType(), currentColumn.getType())) {
+					if (!isWidening(column.getStoredType(), currentColumn.getType())) {
+						conflicts.add(qualified + " is " + currentColumn.getType() + " but the entity maps it to " +
+									  column.getStoredType());
+						continue;
+					}
+					columnStatements.add(alter + "alter column " + column.getName() + " type " +
+										 column.getStoredType() + " using " + column.getName() + "::" +
+										 column.getStoredType());
+				}
+				if (column.isNotNull() && currentColumn.isNullable()) {
+					columnStatements.add(alter + "alter column " + column.getName() + " set not null");
+				}
+			}
+			if (!table.getUniqueColumns().isEmpty() && !current.hasUniqueIndex(table.getUniqueColumns())) {
+				columnStatements.add(alter + "add " + table.uniqueConstraintSql());
+			}
+			for (IndexDefinition index : table.getIndexes()) {
+				if (!current.isCovered(index)) {
+					indexStatements.add(index.toSql());
+				}
+			}
+			for (ForeignKeyDefinition foreignKey : table.getForeignKeys()) {
+				if (!current.hasForeignKey(foreignKey)) {
+					foreignKeyStatements.add(foreignKey.toSql());
+				}
+			}
+		}
+		if (!conflicts.isEmpty()) {
+			throw new DataSourceException("Cannot migrate without losing data: " + String.join("; ", conflicts));
+		}
+		List<String> statements = new ArrayList<>(tableStatements);
+		statements.addAll(columnStatements);
+		statements.addAll(indexStatements);
+		statements.addAll(foreignKeyStatements);
+		return statements;
+	}
+
+	/**
+	 * @param name Table name as @Table declares it, in any case
+	 * @return The table, or null if no entity maps to it
+	 */
+	public TableDefinition getTable(String name) {
+		return tables.get(name.toLowerCase(Locale.ROOT));
+	}
+
+	public Collection<TableDefinition> getTables() {
+		return Collections.unmodifiableCollection(tables.values());
+	}
+
+	private static TableDefinition define(EntityMetadata<?> metadata) {
+		String table = tableName(metadata);
+		List<ColumnDefinition> columns = new ArrayList<>();
+		List<String> unique = new ArrayList<>();
+		Map<String, List<String>> indexColumns = new LinkedHashMap<>();
+		Map<String, Boolean> indexUnique = new LinkedHashMap<>();
+		for (ColumnMetadata column : metadata.getColumns()) {
+			Constraints constraints = column.getField().getAnnotation(Constraints.class);
+			columns.add(new ColumnDefinition(name(column), sqlType(column), column.isId(), column.isNotNull(),
+											 constraints == null ? null : emptyToNull(constraints.defaultValue()),
+											 constraints == null ? null : emptyToNull(constraints.check())));
+			if (column.isUnique()) {
+				unique.add(name(column));
+			}
+			Index index = column.getField().getAnnotation(Index.class);
+			if (index != null) {
+				String indexName = index.name().equals("")
+								   ? indexName(table, Collections.singletonList(name(column)))
+								   : index.name().toLowerCase(Locale.ROOT);
+				indexColumns.computeIfAbsent(indexName, n -> new ArrayList<>()).add(name(column));
+				indexUnique.merge(indexName, index.unique(), Boolean::logicalOr);
+			}
+		}
+		TableDefinition definition = new TableDefinition(table, columns, unique);
+		for (Map.Entry<String, List<String>> index : indexColumns.entrySet()) {
+			definition.addIndex(new IndexDefinition(index.getKey(), table, index.getValue(),
+													indexUnique.get(index.getKey())));
+		}
+		return definition;
+	}
+
+	/**
+	 * Adds the foreign key of an association to the table owning its key column, with an index on that column,
+	 * which association loads look rows up by. Both sides of an association give the same key, added once.
+	 */
+	private void addForeignKey(ColumnMetadata key, ColumnMetadata referenced) {
+		TableDefinition table = tables.get(tableName(EntityMetadata.of(key.getField().getDeclaringClass())));
+		if (table == null) {
+			return;
+		}
+		String column = name(key);
+		for (ForeignKeyDefinition existing : table.getForeignKeys()) {
+			if (existing.getColumn().equals(column)) {
+				return;
+			}
+		}
+		String referencedTable = tableName(EntityMetadata.of(referenced.getField().getDeclaringClass()));
+		table.addForeignKey(new ForeignKeyDefinition(table.getName().replace('.', '_') + "_" + column + "_fkey",
+													 table.getName(), column, referencedTable, name(referenced)));
+		requireIndex(table, column);
+	}
+
+	private void requireIndex(TableDefinition table, String column) {
+		if (!table.isIndexed(column)) {
+			List<String> columns = Collections.singletonList(column);
+			table.addIndex(new IndexDefinition(indexName(table.getName(), columns), table.getName(), columns, false));
+		}
+	}
+
+	private static String sqlType(ColumnMetadata column) {
+		Class<?> type = column.getType();
+		if (type == String.class) {
+			return "text";
+		} else if (type == int.class || type == Integer.class) {
+			return column.isId() ? "serial" : "integer";
+		} else if (type == double.class || type == Double.class) {
+			return "double precision";
+		} else if (type == float.class || type == Float.class) {
+			return "real";
+		} else if (type == boolean.class || type == Boolean.class) {
+			return "boolean";
+		}
+		throw new DataSourceException("No column type for field " + column.getFieldName() + " of type " +
+									  type.getName());
+	}
+
+	/**
+	 * Types the ORM reads and writes the same way; a String column may be text or any character type
+	 */
+	private static boolean isCompatible(String expected, String actual) {
+		if (expected.equals(actual)) {
+			return true;
+		}
+		return expected.equals("text") && (actual.equals("character varying") || actual.equals("character"));
+	}
+
+	/**
+	 * Type changes every existing value survives exactly; integers above 2^24 do not fit a real
+	 */
+	private static boolean isWidening(String expected, String actual) {
+		if (expected.equals("integer") || expected.equals("real")) {
+			return actual.equals("smallint");
+		} else if (expected.equals("double precision")) {
+			return actual.equals("smallint") || actual.equals("integer") || actual.equals("real");
+		}
+		return false;
+	}
+
+	private static String indexName(String table, List<String> columns) {
+		return table.replace('.', '_') + "_" + String.join("_", columns) + "_idx";
+	}
+
+	private static String tableName(EntityMetadata<?> metadata) {
+		return metadata.getTableName().toLowerCase(Locale.ROOT);
+	}
+
+	private static String name(ColumnMetadata column) {
+		return column.getColumnName().toLowerCase(Locale.ROOT);
+	}
+
+	private static String emptyToNull(String value) {
+		return value.equals("") ? null : value;
+	}
+}
@@ -0,0 +1,84 @@
+package com.revature.ATeamORM.schema;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Brings a database in line with the annotations of a set of entities:
+ * <pre>
+ *     try (Connection conn = ConnectionFactory.getInstance().getConnection(Config.class)) {
+ *         List&lt;String&gt; applied = new SchemaMigrator(User.class, Post.class).migrate(conn);
+ *     }
+ * </pre>
+ * plan() only reads the catalog, so the statements can be reviewed or kept as a migration script instead.
+ */
+public class SchemaMigrator {
+
+	private final Schema schema;
+
+	/**
+	 * @param entities Classes annotated with @Entity, see Schema.of
+	 */
+	public SchemaMigrator(Class<?>... entities) {
+		this(Schema.of(entities));
+	}
+
+	public SchemaMigrator(Schema schema) {
+		this.schema = schema;
+	}
+
+	/**
+	 * Compares the schema with the database, see Schema.toMigrationSql
+	 * @param conn Connection to the database being migrated
+	 * @return Statements adding what the database lacks, in the order they must run
+	 * @throws SQLException Thrown if the catalog cannot be queried
+	 */
+	public List<String> plan(Connection conn) throws SQLException {
+		List<String> tableNames = new ArrayList<>();
+		for (TableDefinition table : schema.getTables()) {
+			tableNames.add(table.getName());
+		}
+		return schema.toMigrationSql(ExistingSchema.read(conn, tableNames));
+	}
+
+	/**
+	 * Plans and runs the migration as one JDBC batch in a single transaction; PostgreSQL DDL is transactional, so a
+	 * failing statement leaves the database as it was. The connection must be in autocommit mode, as committing or
+	 * rolling back the migration would end a transaction the caller has open.
+	 * @param conn Connection to the database being migrated
+	 * @return Statements run, empty if the database was up to date
+	 * @throws SQLException Thrown if the catalog cannot be queried or a statement fails, e.g. set not null on a column
+	 * holding nulls
+	 * @throws IllegalStateException Thrown if autocommit is off on the connection
+	 */
+	public List<String> migrate(Connection conn) throws SQLException {
+		if (!conn.getAutoCommit()) {
+			throw new IllegalStateException("Cannot migrate inside a transaction, autocommit is off on the connection");
+		}
+		List<String> statements = plan(conn);
+		if (statements.isEmpty()) {
+			return statements;
+		}
+		conn.setAutoCommit(false);
+		try (Statement stmt = conn.createStatement()) {
+			for (String sql : statements) {
+				stmt.addBatch(sql);
+			}
+			stmt.executeBatch();
+			conn.commit();
+		} catch (SQLException | RuntimeException e) {
+			conn.rollback();
+			throw e;
+		} finally {
+			conn.setAutoCommit(true);
+		}
+		return statements;
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+}
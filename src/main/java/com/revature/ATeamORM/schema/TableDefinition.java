@@ -0,0 +1,110 @@
+package com.revature.ATeamORM.schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The table an @Entity maps to: its columns, the unique constraint of its unique() columns, its indexes and the
+ * foreign keys of its key columns
+ */
+public final class TableDefinition {
+
+	private final String name;
+	private final List<ColumnDefinition> columns;
+	private final List<String> uniqueColumns;
+	private final List<IndexDefinition> indexes = new ArrayList<>();
+	private final List<ForeignKeyDefinition> foreignKeys = new ArrayList<>();
+
+	TableDefinition(String name, List<ColumnDefinition> columns, List<String> uniqueColumns) {
+		this.name = name;
+		this.columns = Collections.unmodifiableList(columns);
+		this.uniqueColumns = Collections.unmodifiableList(uniqueColumns);
+	}
+
+	/**
+	 * Builds the create table statement. Indexes and foreign keys are separate statements, see
+	 * Schema.toCreateSql().
+	 * @return create table statement with every column and the unique constraint
+	 */
+	public String toCreateSql() {
+		StringJoiner body = new StringJoiner(", ", "create table " + name + " (", ")");
+		for (ColumnDefinition column : columns) {
+			body.add(column.toSql());
+		}
+		if (!uniqueColumns.isEmpty()) {
+			body.add(uniqueConstraintSql());
+		}
+		return body.toString();
+	}
+
+	/**
+	 * The ORM treats the unique() columns together as the entity's natural key, as the conflict target of upsert and
+	 * in isEntityUnique, so they share a single constraint
+	 */
+	String uniqueConstraintSql() {
+		return "constraint " + name.replace('.', '_') + "_" + String.join("_", uniqueColumns) + "_key unique (" +
+			   String.join(", ", uniqueColumns) + ")";
+	}
+
+	void addIndex(IndexDefinition index) {
+		indexes.add(index);
+	}
+
+	void addForeignKey(ForeignKeyDefinition foreignKey) {
+		foreignKeys.add(foreignKey);
+	}
+
+	/**
+	 * Checks whether the primary key, the unique constraint or an index already added leads with a column
+	 */
+	boolean isIndexed(String column) {
+		for (ColumnDefinition definition : columns) {
+			if (definition.isPrimaryKey() && definition.getName().equals(column)) {
+				return true;
+			}
+		}
+		if (!uniqueColumns.isEmpty() && uniqueColumns.get(0).equals(column)) {
+			return true;
+		}
+		for (IndexDefinition index : indexes) {
+			if (index.getColumns().get(0).equals(column)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<ColumnDefinition> getColumns() {
+		return columns;
+	}
+
+	public ColumnDefinition getColumn(String name) {
+		for (ColumnDefinition column : columns) {
+			if (column.getName().equals(name)) {
+				return column;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return The unique() columns, in declaration order, covered by one unique constraint; empty if none
+	 */
+	public List<String> getUniqueColumns() {
+		return uniqueColumns;
+	}
+
+	public List<IndexDefinition> getIndexes() {
+		return Collections.unmodifiableList(indexes);
+	}
+
+	public List<ForeignKeyDefinition> getForeignKeys() {
+		return Collections.unmodifiableList(foreignKeys);
+	}
+}
@@ -0,0 +1,29 @@
+package com.revature.ATeamORM.sharding;
+
+/**
+ * Spreads keys evenly by hashing them. Integral keys hash their long value, so an int and a long key with the same
+ * value share a shard; other keys use hashCode(), which String, Double and Boolean define identically on every JVM.
+ * Adding a shard changes the shard of most keys, so the shard count is fixed once data is written.
+ */
+public final class HashShardStrategy implements ShardStrategy {
+
+	@Override
+	public int shardOf(Object key, int shardCount) {
+		long hash = key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte
+					? ((Number) key).longValue()
+					: key.hashCode();
+		return (int) Math.floorMod(mix(hash), (long) shardCount);
+	}
+
+	/**
+	 * Finalizer of MurmurHash3, so sequential keys do not all land on neighbouring shards in the same order
+	 */
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
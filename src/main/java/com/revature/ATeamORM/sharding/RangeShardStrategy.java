@@ -0,0 +1,44 @@
+package com.revature.ATeamORM.sharding;
+
+import java.util.Arrays;
+
+/**
+ * Assigns contiguous key ranges to shards, so a range of keys can be kept on one database:
+ * <pre>
+ *     // ids below 1,000,000 on shard 0, below 2,000,000 on shard 1, the rest on shard 2
+ *     new RangeShardStrategy(1_000_000, 2_000_000)
+ * </pre>
+ * Bounds must have the type of the @ShardKey field and be in ascending order.
+ */
+public final class RangeShardStrategy implements ShardStrategy {
+
+	private final Comparable<?>[] upperBounds;
+
+	/**
+	 * @param upperBounds Exclusive upper bound of every shard but the last, which takes all larger keys
+	 */
+	public RangeShardStrategy(Comparable<?>... upperBounds) {
+		this.upperBounds = upperBounds.clone();
+		for (int i = 1; i < this.upperBounds.length; i++) {
+			if (compare(this.upperBounds[i - 1], this.upperBounds[i]) >= 0) {
+				throw new IllegalArgumentException("Bounds must be ascending: " + Arrays.toString(upperBounds));
+			}
+		}
+	}
+
+	@Override
+	public int shardOf(Object key, int shardCount) {
+		if (shardCount != upperBounds.length + 1) {
+			throw new IllegalArgumentException(upperBounds.length + " bounds need " + (upperBounds.length + 1) +
+											   " shards, not " + shardCount);
+		}
+		int index = Arrays.binarySearch(upperBounds, key, RangeShardStrategy::compare);
+		// A key equal to a bound belongs to the next shard
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static int compare(Object a, Object b) {
+		return ((Comparable<Object>) a).compareTo(b);
+	}
+}
@@ -0,0 +1,17 @@
+package com.revature.ATeamORM.sharding;
+
+/**
+ * Maps the value of an entity's @ShardKey to the shard storing it. Must always give the same shard for the same key,
+ * across processes and restarts, since rows are never moved between shards.
+ */
+@FunctionalInterface
+public interface ShardStrategy {
+
+	/**
+	 * Chooses the shard for a key
+	 * @param key Value of the @ShardKey field, never null
+	 * @param shardCount Number of configured shards
+	 * @return Index of the shard, from 0 to shardCount - 1
+	 */
+	int shardOf(Object key, int shardCount);
+}
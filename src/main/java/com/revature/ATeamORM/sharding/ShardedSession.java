@@ -0,0 +1,491 @@
+package com.revature.ATeamORM.sharding;
+
+import com.revature.ATeamORM.annotations.CacheQueries;
+import com.revature.ATeamORM.annotations.Cacheable;
+import com.revature.ATeamORM.datasource.Result;
+import com.revature.ATeamORM.datasource.Session;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import com.revature.ATeamORM.exceptions.NullFieldException;
+import com.revature.ATeamORM.query.Query;
+import com.revature.ATeamORM.repos.ColumnMetadata;
+import com.revature.ATeamORM.repos.EntityMetadata;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads the rows of entities with a @ShardKey over several databases, each configured like a Session by a class
+ * annotated with @JDBCConnection:
+ * <pre>
+ *     try (ShardedSession session = new ShardedSession(new HashShardStrategy(), Shard0.class, Shard1.class)) {
+ *         session.open();
+ *         session.insert(order);                           // the shard of order.tenantId
+ *         session.find(Order.class, "tenantId", "42");     // that shard only
+ *         session.find(Query.from(Order.class).orderByDesc("total").limit(10));   // every shard, merged
+ *     }
+ * </pre>
+ * Writes and lookups by the shard key run on one shard. Every other read runs on all shards in parallel, and the rows
+ * are merged in the query's order before its offset and limit are applied, so the result matches a single database
+ * holding every row. Strings are merged in Java's natural order, which is the database's only under the "C" collation;
+ * ordered by a text field on any other collation, e.g. en_US.UTF-8, merged rows can come out in a different order and a
+ * limited query can return different rows. Each shard has its own Session: entities are tracked per shard and @Id
+ * values only need to be unique within their shard, which is also why sharded entities cannot be @Cacheable or
+ * @CacheQueries. Transactions do not span shards; use getSession(shard) for one. Like Session, not thread-safe.
+ */
+public class ShardedSession implements AutoCloseable {
+
+	private static final AtomicInteger threadCount = new AtomicInteger();
+	private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+		Thread thread = new Thread(r, "ATeamORM-shard-" + threadCount.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ShardStrategy strategy;
+	private final Session[] sessions;
+	private final List<Integer> allShards;
+
+	/**
+	 * Creates a Session per shard. Connections are borrowed by open().
+	 * @param strategy Maps shard keys to shards; the order of shardConfigs gives the shard indexes
+	 * @param shardConfigs Classes with the JDBCConnection annotation of each shard, in shard order
+	 */
+	public ShardedSession(ShardStrategy strategy, Class<?>... shardConfigs) {
+		if (shardConfigs.length == 0) {
+			throw new IllegalArgumentException("At least one shard is required");
+		}
+		this.strategy = Objects.requireNonNull(strategy);
+		this.sessions = new Session[shardConfigs.length];
+		List<Integer> shards = new ArrayList<>(shardConfigs.length);
+		for (int i = 0; i < shardConfigs.length; i++) {
+			sessions[i] = new Session(shardConfigs[i]);
+			shards.add(i);
+		}
+		this.allShards = Collections.unmodifiableList(shards);
+	}
+
+	/**
+	 * Borrows a pooled connection for every shard
+	 * @throws SQLException Thrown if a connection cannot be established; connections already borrowed are returned
+	 */
+	public void open() throws SQLException {
+		for (int i = 0; i < sessions.length; i++) {
+			try {
+				sessions[i].open();
+			} catch (SQLException | RuntimeException e) {
+				for (int j = 0; j < i; j++) {
+					try {
+						sessions[j].close();
+					} catch (SQLException suppressed) {
+						e.addSuppressed(suppressed);
+					}
+				}
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Finds the entries whose fieldName matches the fieldValue provided. A lookup by the @ShardKey field only
+	 * queries the shard holding that key; any other field is looked up on every shard.
+	 * @param clazz The class reference for the objects to be built from
+	 * @param fieldName The name of the field (not column) that will be searched
+	 * @param fieldValue The value of the field as a String
+	 * @param <T> The object type created from the injected class
+	 * @return Result object containing the entries of every shard searched
+	 * @throws SQLException Thrown if a shard cannot be queried, fieldName does not exist or if @Column is not
+	 * properly annotated
+	 */
+	public <T> Result<T> find(Class<T> clazz, String fieldName, String fieldValue) throws SQLException {
+		ColumnMetadata shardKey = shardKey(clazz);
+		if (shardKey.getFieldName().equals(fieldName) && fieldValue != null) {
+			return sessions[shardOfKey(shardKey.fromString(fieldValue))].find(clazz, fieldName, fieldValue);
+		}
+		return new Result<>(concat(scatter(allShards, shard -> sessions[shard].find(clazz, fieldName, fieldValue)
+																					.getList())));
+	}
+
+	/**
+	 * Finds every entry of a table on every shard, in parallel
+	 * @param clazz The class reference for the objects to be built from
+	 * @param <T> The object type created from the injected class
+	 * @return Result object containing the entries of all shards, shard by shard
+	 * @throws SQLException Thrown if a shard cannot be queried or @Column fields are not correctly annotated
+	 */
+	public <T> Result<T> findAll(Class<T> clazz) throws SQLException {
+		shardKey(clazz);
+		return new Result<>(concat(scatter(allShards, shard -> sessions[shard].findAll(clazz).getList())));
+	}
+
+	/**
+	 * Runs a query built with Query.from(clazz) on every shard in parallel and merges the rows in its order. Each
+	 * shard reads up to offset + limit rows, so deep offsets get expensive; keyset pagination with after(lastRow)
+	 * reads at most limit rows per shard. Rows are merged with Query.getOrderComparator(), so ordering by a text
+	 * field only matches a single database when the shards use the "C" collation.
+	 * @param query The query to run
+	 * @param <T> The object type created from the injected class
+	 * @return Result object containing the matching entries, ordered, offset and limited across all shards
+	 * @throws SQLException Thrown if a shard cannot be queried or a field does not exist
+	 * @throws IllegalStateException Thrown if the query is a projection that does not select its ordered fields
+	 */
+	public <T> Result<T> find(Query<T> query) throws SQLException {
+		shardKey(query.getEntityType());
+		if (sessions.length == 1) {
+			return sessions[0].find(query);
+		}
+		Comparator<T> order = query.getOrderComparator();
+		Integer limit = query.getLimit();
+		Integer offset = query.getOffset();
+		Query<T> shardQuery = query;
+		if (offset != null) {
+			// Any shard may hold the rows the offset skips, so every shard reads from its first row
+			shardQuery = query.copy().offset(0);
+			if (limit != null) {
+				shardQuery.limit((int) Math.min(Integer.MAX_VALUE, (long) limit + offset));
+			}
+		}
+		// Compiled here, so the shards' threads only read the finished SQL and parameters
+		shardQuery.toSql();
+		Query<T> compiled = shardQuery;
+		List<T> rows = concat(scatter(allShards, shard -> sessions[shard].find(compiled).getList()));
+		if (order != null) {
+			// TimSort finds the already sorted run of each shard and merges them
+			rows.sort(order);
+		}
+		int from = offset == null ? 0 : Math.min(offset, rows.size());
+		int to = limit == null ? rows.size() : (int) Math.min(rows.size(), (long) from + limit);
+		return new Result<>(from == 0 && to == rows.size() ? rows : new ArrayList<>(rows.subList(from, to)));
+	}
+
+	/**
+	 * Counts every entry of a table across all shards
+	 * @param clazz The annotated class of the table
+	 * @return Number of entries
+	 * @throws SQLException Thrown if a shard cannot be queried
+	 */
+	public long count(Class<?> clazz) throws SQLException {
+		return count(Query.from(clazz));
+	}
+
+	/**
+	 * Counts the entries a query matches across all shards. Limit and offset apply per shard, as in the counted
+	 * statement, so only unpaged queries give the count find(query) would return.
+	 * @param query The query to count
+	 * @return Number of matching entries
+	 * @throws SQLException Thrown if a shard cannot be queried or a field does not exist
+	 */
+	public long count(Query<?> query) throws SQLException {
+		shardKey(query.getEntityType());
+		query.toCountSql();
+		long total = 0;
+		for (long count : scatter(allShards, shard -> sessions[shard].count(query))) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Checks whether any entry on any shard matches a query
+	 * @param query The query to check
+	 * @return true if at least one entry matches
+	 * @throws SQLException Thrown if a shard cannot be queried or a field does not exist
+	 */
+	public boolean exists(Query<?> query) throws SQLException {
+		shardKey(query.getEntityType());
+		query.toExistsSql();
+		return scatter(allShards, shard -> sessions[shard].exists(query)).contains(true);
+	}
+
+	/**
+	 * Inserts the object into the shard of its @ShardKey and writes the generated Id back into it
+	 * @param object The object to be inserted into the database
+	 * @throws SQLException Thrown if the shard cannot be reached or object is missing field values
+	 */
+	public void insert(Object object) throws SQLException {
+		sessions[shardOf(object)].insert(object);
+	}
+
+	/**
+	 * Saves/Updates the object on the shard of its @ShardKey, see Session.save(object). The shard key must not
+	 * change, since the row is not moved to another shard.
+	 * @param object The object with non-null fields to use to update the database with
+	 * @throws SQLException Thrown if the shard cannot be reached, object is missing field values or if ID cannot be
+	 * found
+	 */
+	public void save(Object object) throws SQLException {
+		sessions[shardOf(object)].save(object);
+	}
+
+	/**
+	 * Inserts the object or updates the row it conflicts with, on the shard of its @ShardKey
+	 * @param object The object to be inserted or updated
+	 * @throws SQLException Thrown if the shard cannot be reached or object is missing field values
+	 */
+	public void upsert(Object object) throws SQLException {
+		sessions[shardOf(object)].upsert(object);
+	}
+
+	/**
+	 * Deletes the object from the shard of its @ShardKey
+	 * @param object The object to be removed from the database
+	 * @throws SQLException Thrown if the shard cannot be reached
+	 */
+	public void remove(Object object) throws SQLException {
+		sessions[shardOf(object)].remove(object);
+	}
+
+	/**
+	 * Batched insert of every object provided, each shard receiving its objects in parallel and in its own
+	 * transaction. A failing shard does not undo the inserts of the others.
+	 * @param objects The objects to be inserted into the database
+	 * @throws SQLException Thrown if a shard cannot be reached or an object is missing field values
+	 */
+	public void insertAll(Collection<?> objects) throws SQLException {
+		writeAll(objects, Session::insertAll);
+	}
+
+	/**
+	 * Batched save of every object provided, each shard in parallel and in its own transaction
+	 * @param objects The objects with non-null fields to use to update the database with
+	 * @throws SQLException Thrown if a shard cannot be reached, an object is missing field values or if ID cannot be
+	 * found
+	 */
+	public void saveAll(Collection<?> objects) throws SQLException {
+		writeAll(objects, Session::saveAll);
+	}
+
+	/**
+	 * Batched upsert of every object provided, each shard in parallel and in its own transaction
+	 * @param objects The objects to be inserted or updated
+	 * @throws SQLException Thrown if a shard cannot be reached or an object is missing field values
+	 */
+	public void upsertAll(Collection<?> objects) throws SQLException {
+		writeAll(objects, Session::upsertAll);
+	}
+
+	/**
+	 * Batched delete of every object provided, each shard in parallel and in its own transaction
+	 * @param objects The objects to be removed from the database
+	 * @throws SQLException Thrown if a shard cannot be reached
+	 */
+	public void removeAll(Collection<?> objects) throws SQLException {
+		writeAll(objects, Session::removeAll);
+	}
+
+	/**
+	 * Writes the changed entities tracked by every shard's Session, shards in parallel
+	 * @return Number of entities written
+	 * @throws SQLException Thrown if a shard cannot be reached or a changed notNull() field is null
+	 */
+	public int flush() throws SQLException {
+		int written = 0;
+		for (int count : scatter(allShards, shard -> sessions[shard].flush())) {
+			written += count;
+		}
+		return written;
+	}
+
+	/**
+	 * Forgets every entity tracked by every shard's Session
+	 */
+	public void clear() {
+		for (Session session : sessions) {
+			session.clear();
+		}
+	}
+
+	/**
+	 * Finds the shard an entity belongs to
+	 * @param object Entity of a class with a @ShardKey
+	 * @return Index of the shard, in the order the configuration classes were provided
+	 * @throws NullFieldException Thrown if the @ShardKey field is null
+	 */
+	public int shardOf(Object object) {
+		ColumnMetadata shardKey = shardKey(object.getClass());
+		Object key = shardKey.get(object);
+		if (key == null) {
+			throw new NullFieldException("@ShardKey field " + shardKey.getFieldName() + " is null");
+		}
+		return shardOfKey(key);
+	}
+
+	/**
+	 * Gets the Session of one shard, for transactions or anything else that only involves that shard
+	 * @param shard Index of the shard
+	 * @return The shard's Session, open once this session is
+	 */
+	public Session getSession(int shard) {
+		return sessions[shard];
+	}
+
+	public int getShardCount() {
+		return sessions.length;
+	}
+
+	/**
+	 * Closes the Session of every shard, returning their connections to the pools
+	 * @throws SQLException Thrown if a connection cannot be closed properly; every shard is still closed
+	 */
+	@Override
+	public void close() throws SQLException {
+		SQLException failure = null;
+		for (Session session : sessions) {
+			try {
+				session.close();
+			} catch (SQLException e) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Work done with the Session of one shard
+	 * @param <R> Result Type
+	 */
+	@FunctionalInterface
+	private interface ShardCall<R> {
+		R run(int shard) throws SQLException;
+	}
+
+	/**
+	 * Batched write of a collection through each shard's Session
+	 */
+	@FunctionalInterface
+	private interface ShardWrite {
+		void write(Session session, Collection<?> objects) throws SQLException;
+	}
+
+	private void writeAll(Collection<?> objects, ShardWrite write) throws SQLException {
+		List<List<Object>> byShard = new ArrayList<>(sessions.length);
+		for (int i = 0; i < sessions.length; i++) {
+			byShard.add(new ArrayList<>());
+		}
+		for (Object object : objects) {
+			byShard.get(shardOf(object)).add(object);
+		}
+		List<Integer> shards = new ArrayList<>();
+		for (int i = 0; i < sessions.length; i++) {
+			if (!byShard.get(i).isEmpty()) {
+				shards.add(i);
+			}
+		}
+		if (shards.isEmpty()) {
+			return;
+		}
+		scatter(shards, shard -> {
+			write.write(sessions[shard], byShard.get(shard));
+			return null;
+		});
+	}
+
+	/**
+	 * Runs a call for every provided shard, in parallel, and waits for all of them, even when one fails or this
+	 * thread is interrupted, since a Session must never be used by two threads at once.
+	 * @return Result of each shard, in the order of shards
+	 * @throws SQLException Thrown if a shard failed; failures of other shards are added as suppressed exceptions
+	 */
+	private <R> List<R> scatter(List<Integer> shards, ShardCall<R> call) throws SQLException {
+		List<Future<R>> futures = new ArrayList<>(shards.size() - 1);
+		for (int shard : shards.subList(1, shards.size())) {
+			futures.add(executor.submit(() -> call.run(shard)));
+		}
+		List<R> results = new ArrayList<>(shards.size());
+		Throwable failure = null;
+		// The calling thread runs the first shard itself instead of idling
+		try {
+			results.add(call.run(shards.get(0)));
+		} catch (SQLException | RuntimeException | Error e) {
+			failure = e;
+		}
+		for (Future<R> future : futures) {
+			try {
+				results.add(await(future));
+			} catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				} else {
+					failure.addSuppressed(e.getCause());
+				}
+			}
+		}
+		if (failure instanceof SQLException) {
+			throw (SQLException) failure;
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw new DataSourceException("Shard call failed", failure);
+		}
+		return results;
+	}
+
+	private static <R> R await(Future<R> future) throws ExecutionException {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return future.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static <T> List<T> concat(List<List<T>> lists) {
+		int size = 0;
+		for (List<T> list : lists) {
+			size += list.size();
+		}
+		List<T> all = new ArrayList<>(size);
+		for (List<T> list : lists) {
+			all.addAll(list);
+		}
+		return all;
+	}
+
+	private int shardOfKey(Object key) {
+		int shard = strategy.shardOf(key, sessions.length);
+		if (shard < 0 || shard >= sessions.length) {
+			throw new IllegalStateException("Strategy chose shard " + shard + " of " + sessions.length);
+		}
+		return shard;
+	}
+
+	/**
+	 * Gets the @ShardKey of an entity class, checking that its rows can be spread over shards
+	 */
+	private static ColumnMetadata shardKey(Class<?> clazz) {
+		ColumnMetadata shardKey = EntityMetadata.of(clazz).getShardKeyColumn();
+		if (shardKey == null) {
+			throw new DataSourceException("Could not find @ShardKey annotation in " + clazz.getName());
+		}
+		if (clazz.isAnnotationPresent(Cacheable.class) || clazz.isAnnotationPresent(CacheQueries.class)) {
+			throw new DataSourceException("Sharded entity " + clazz.getName() +
+										  " cannot be @Cacheable or @CacheQueries, its @Id is only unique per shard");
+		}
+		return shardKey;
+	}
+}
@@ -0,0 +1,357 @@
+package com.revature.ATeamORM.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * In-process JDBC stand-in for the benchmarks. Every connection serves the same fixed rows to any query, accepts
+ * every update and returns 1 as the generated key, so measurements cover the ORM rather than a database. The
+ * objects are dynamic proxies; their own (constant) overhead is part of every measurement.
+ */
+public final class StubJdbc {
+
+	/**
+	 * Column labels of the users table mapped by repos.TestUser
+	 */
+	public static final String[] USER_COLUMNS = {"user_id", "username", "password", "email"};
+
+	private static final List<java.sql.Driver> displaced = new ArrayList<>();
+	private static Driver installed;
+	private static volatile long executeDelayMillis;
+
+	private StubJdbc() {}
+
+	/**
+	 * Builds rows for the users table
+	 * @param count Number of rows
+	 * @return Rows in USER_COLUMNS order
+	 */
+	public static Object[][] users(int count) {
+		Object[][] rows = new Object[count][];
+		for (int i = 0; i < count; i++) {
+			rows[i] = new Object[]{i + 1, "user" + i, "password" + i, i % 2 == 0 ? null : "user" + i + "@example.com"};
+		}
+		return rows;
+	}
+
+	/**
+	 * Creates a connection whose queries return the provided rows
+	 * @param labels Column labels, in row value order
+	 * @param rows Values of every row
+	 * @return Stub connection
+	 */
+	public static Connection connection(String[] labels, Object[][] rows) {
+		return proxy(Connection.class, new ConnectionHandler(labels, rows, null));
+	}
+
+	/**
+	 * Creates a forward-only result set over the provided rows
+	 * @param labels Column labels, in row value order
+	 * @param rows Values of every row
+	 * @return Stub result set positioned before the first row
+	 */
+	public static ResultSet resultSet(String[] labels, Object[][] rows) {
+		return proxy(ResultSet.class, new ResultSetHandler(labels, rows));
+	}
+
+	/**
+	 * Makes DriverManager hand out stub connections for every jdbc:postgresql: url, so ConnectionFactory and
+	 * Session run unchanged. The real driver is displaced until uninstall() is called.
+	 * @param labels Column labels, in row value order
+	 * @param rows Values of every row
+	 * @throws SQLException Thrown if a driver cannot be (de)registered
+	 */
+	public static synchronized void install(String[] labels, Object[][] rows) throws SQLException {
+		uninstall();
+		for (Enumeration<java.sql.Driver> drivers = DriverManager.getDrivers(); drivers.hasMoreElements(); ) {
+			java.sql.Driver driver = drivers.nextElement();
+			if (driver.acceptsURL("jdbc:postgresql://localhost/")) {
+				DriverManager.deregisterDriver(driver);
+				displaced.add(driver);
+			}
+		}
+		installed = new Driver(labels, rows);
+		DriverManager.registerDriver(installed);
+	}
+
+	/**
+	 * Removes the stub driver and restores any driver it displaced
+	 * @throws SQLException Thrown if a driver cannot be (de)registered
+	 */
+	public static synchronized void uninstall() throws SQLException {
+		if (installed != null) {
+			DriverManager.deregisterDriver(installed);
+			installed = null;
+		}
+		for (java.sql.Driver driver : displaced) {
+			DriverManager.registerDriver(driver);
+		}
+		displaced.clear();
+	}
+
+	/**
+	 * Makes every execute call take the provided time, unless the statement is cancelled first
+	 * @param millis Delay per execute, 0 for none
+	 */
+	public static void setExecuteDelay(long millis) {
+		executeDelayMillis = millis;
+	}
+
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(StubJdbc.class.getClassLoader(), new Class<?>[]{type}, handler));
+	}
+
+	/**
+	 * Default for any method without stub behaviour: zero, false or null
+	 */
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		}
+		if (type == int.class) {
+			return 0;
+		}
+		if (type == long.class) {
+			return 0L;
+		}
+		if (type == double.class) {
+			return 0d;
+		}
+		if (type == float.class) {
+			return 0f;
+		}
+		if (type == short.class) {
+			return (short) 0;
+		}
+		if (type == byte.class) {
+			return (byte) 0;
+		}
+		return null;
+	}
+
+	private static final class Driver implements java.sql.Driver {
+		private final String[] labels;
+		private final Object[][] rows;
+
+		Driver(String[] labels, Object[][] rows) {
+			this.labels = labels;
+			this.rows = rows;
+		}
+
+		@Override
+		public Connection connect(String url, Properties info) {
+			return acceptsURL(url) ? proxy(Connection.class, new ConnectionHandler(labels, rows, url)) : null;
+		}
+
+		@Override
+		public boolean acceptsURL(String url) {
+			return url.startsWith("jdbc:postgresql:");
+		}
+
+		@Override
+		public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+			return new DriverPropertyInfo[0];
+		}
+
+		@Override
+		public int getMajorVersion() {
+			return 1;
+		}
+
+		@Override
+		public int getMinorVersion() {
+			return 0;
+		}
+
+		@Override
+		public boolean jdbcCompliant() {
+			return false;
+		}
+
+		@Override
+		public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+			throw new SQLFeatureNotSupportedException();
+		}
+	}
+
+	private static final class ConnectionHandler implements InvocationHandler {
+		private final String[] labels;
+		private final Object[][] rows;
+		private final String schema;
+		private boolean autoCommit = true;
+		private boolean closed;
+
+		ConnectionHandler(String[] labels, Object[][] rows, String url) {
+			this.labels = labels;
+			this.rows = rows;
+			this.schema = schemaOf(url);
+		}
+
+		/**
+		 * Reads the currentSchema parameter the way the PostgreSQL driver does
+		 */
+		private static String schemaOf(String url) {
+			if (url == null || url.indexOf('?') < 0) {
+				return null;
+			}
+			for (String param : url.substring(url.indexOf('?') + 1).split("&")) {
+				if (param.startsWith("currentSchema=")) {
+					return param.substring("currentSchema=".length());
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			switch (method.getName()) {
+				case "prepareStatement":
+					return proxy(PreparedStatement.class, new StatementHandler(labels, rows));
+				case "getAutoCommit":
+					return autoCommit;
+				case "getSchema":
+					return schema;
+				case "setAutoCommit":
+					autoCommit = (Boolean) args[0];
+					return null;
+				case "isValid":
+					return !closed;
+				case "isClosed":
+					return closed;
+				case "close":
+					closed = true;
+					return null;
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				case "toString":
+					return "StubConnection";
+				default:
+					return defaultValue(method.getReturnType());
+			}
+		}
+	}
+
+	private static final class StatementHandler implements InvocationHandler {
+		private static final String[] KEY_LABELS = {"id"};
+		private static final Object[][] KEY_ROWS = {{1}};
+
+		private final String[] labels;
+		private final Object[][] rows;
+		private int batched;
+		private boolean closed;
+		private volatile CountDownLatch cancelled = new CountDownLatch(1);
+
+		StatementHandler(String[] labels, Object[][] rows) {
+			this.labels = labels;
+			this.rows = rows;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+			if (method.getName().startsWith("execute")) {
+				awaitDelay();
+			}
+			switch (method.getName()) {
+				case "cancel":
+					cancelled.countDown();
+					return null;
+				case "executeQuery":
+					return resultSet(labels, rows);
+				case "executeUpdate":
+					return 1;
+				case "getGeneratedKeys":
+					return resultSet(KEY_LABELS, KEY_ROWS);
+				case "addBatch":
+					batched++;
+					return null;
+				case "executeBatch":
+					int[] counts = new int[batched];
+					Arrays.fill(counts, 1);
+					batched = 0;
+					return counts;
+				case "isClosed":
+					return closed;
+				case "close":
+					closed = true;
+					return null;
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				default:
+					return defaultValue(method.getReturnType());
+			}
+		}
+
+		private void awaitDelay() throws SQLException {
+			long delay = executeDelayMillis;
+			if (delay > 0) {
+				CountDownLatch latch = new CountDownLatch(1);
+				cancelled = latch;
+				try {
+					if (latch.await(delay, TimeUnit.MILLISECONDS)) {
+						throw new SQLException("canceling statement due to user request", "57014");
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new SQLException("Interrupted", e);
+				}
+			}
+		}
+	}
+
+	private static final class ResultSetHandler implements InvocationHandler {
+		private final String[] labels;
+		private final Object[][] rows;
+		private int row = -1;
+		private Object last;
+
+		ResultSetHandler(String[] labels, Object[][] rows) {
+			this.labels = labels;
+			this.rows = rows;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+			switch (method.getName()) {
+				case "next":
+					return ++row < rows.length;
+				case "findColumn":
+					for (int i = 0; i < labels.length; i++) {
+						if (labels[i].equalsIgnoreCase((String) args[0])) {
+							return i + 1;
+						}
+					}
+					throw new SQLException("Column " + args[0] + " not found");
+				case "getString":
+				case "getInt":
+				case "getDouble":
+				case "getFloat":
+				case "getBoolean":
+				case "getObject":
+					last = rows[row][(Integer) args[0] - 1];
+					return last == null ? defaultValue(method.getReturnType()) : last;
+				case "wasNull":
+					return last == null;
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				default:
+					return defaultValue(method.getReturnType());
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.revature.ATeamORM.cache;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class BoundedCacheTest {
+
+	private long now;
+	private BoundedCache<String, String> sut;
+
+	@Before
+	public void setUpTest() {
+		now = 0;
+		sut = new BoundedCache<>(2, 1000, () -> now);
+	}
+
+	@Test
+	public void test_evictsLeastRecentlyUsedEntry() {
+		sut.put("a", "1");
+		sut.put("b", "2");
+		sut.get("a");
+		sut.put("c", "3");
+
+		Assert.assertEquals("1", sut.get("a"));
+		Assert.assertNull(sut.get("b"));
+		Assert.assertEquals("3", sut.get("c"));
+		Assert.assertEquals(1, sut.getStats().getEvictionCount());
+		Assert.assertEquals(2, sut.size());
+	}
+
+	@Test
+	public void test_expiresEntriesAfterTtl() {
+		sut.put("a", "1");
+		now = TimeUnit.MILLISECONDS.toNanos(999);
+		Assert.assertEquals("1", sut.get("a"));
+
+		now = TimeUnit.MILLISECONDS.toNanos(1000);
+		Assert.assertNull(sut.get("a"));
+
+		CacheStats stats = sut.getStats();
+		Assert.assertEquals(1, stats.getHitCount());
+		Assert.assertEquals(1, stats.getMissCount());
+		Assert.assertEquals(1, stats.getExpirationCount());
+		Assert.assertEquals(0, stats.getSize());
+		Assert.assertEquals(0.5, stats.getHitRate(), 0.0);
+	}
+
+	@Test
+	public void test_invalidateIfRemovesMatchingKeys() {
+		sut.put("a", "1");
+		sut.put("b", "2");
+
+		sut.invalidateIf("a"::equals);
+
+		Assert.assertNull(sut.get("a"));
+		Assert.assertEquals("2", sut.get("b"));
+	}
+
+	@Test
+	public void test_putIfIsAtomicWithInvalidate() throws Exception {
+		Thread invalidator = new Thread(() -> sut.invalidate("a"));
+
+		boolean put = sut.putIf("a", "1", () -> {
+			// The invalidate has to wait for the put, it cannot land between the check and the put
+			invalidator.start();
+			while (invalidator.getState() != Thread.State.BLOCKED) {
+				Thread.yield();
+			}
+			return true;
+		});
+		invalidator.join();
+
+		Assert.assertTrue(put);
+		Assert.assertNull(sut.get("a"));
+		Assert.assertFalse(sut.putIf("a", "1", () -> false));
+		Assert.assertEquals(0, sut.size());
+	}
+}
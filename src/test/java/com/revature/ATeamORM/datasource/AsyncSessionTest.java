@@ -0,0 +1,126 @@
+package com.revature.ATeamORM.datasource;
+
+import com.revature.ATeamORM.annotations.JDBCConnection;
+import com.revature.ATeamORM.annotations.PoolConfig;
+import com.revature.ATeamORM.benchmark.StubJdbc;
+import com.revature.ATeamORM.repos.CachedUser;
+import com.revature.ATeamORM.repos.EntityCache;
+import com.revature.ATeamORM.repos.LookupUser;
+import com.revature.ATeamORM.repos.QueryCache;
+import com.revature.ATeamORM.repos.TestUser;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@JDBCConnection(url = "async", username = "username", password = "password")
+public class AsyncSessionTest {
+
+	@JDBCConnection(url = "async-primary", username = "username", password = "password", replicas = {"async-replica"})
+	@PoolConfig(minIdle = 0)
+	public static class ReplicatedConfig {}
+
+	private AsyncSession sut;
+
+	@Before
+	public void setUpTest() throws SQLException {
+		StubJdbc.install(StubJdbc.USER_COLUMNS, StubJdbc.users(3));
+		sut = new AsyncSession(AsyncSessionTest.class);
+	}
+
+	@After
+	public void tearDownTest() throws SQLException {
+		sut.close();
+		EntityCache.clearAll();
+		QueryCache.clearAll();
+		StubJdbc.setExecuteDelay(0);
+		ConnectionFactory.getInstance().shutdown();
+		StubJdbc.uninstall();
+	}
+
+	@Test
+	public void test_findCompletesOffTheCallingThread() throws Exception {
+		Result<TestUser> result = sut.findAll(TestUser.class).get(5, TimeUnit.SECONDS);
+
+		Assert.assertEquals(3, result.getList().size());
+		Assert.assertEquals("user0", result.getFirstEntry().getUsername());
+	}
+
+	@Test
+	public void test_insertWritesGeneratedId() throws Exception {
+		TestUser user = new TestUser("name", "pass", "mail");
+
+		sut.insert(user).get(5, TimeUnit.SECONDS);
+
+		Assert.assertEquals(1, user.getId());
+	}
+
+	@Test
+	public void test_replicaReadsLeaveSharedCachesEmpty() throws Exception {
+		StubJdbc.install(StubJdbc.USER_COLUMNS, StubJdbc.users(1));
+		try (AsyncSession replicated = new AsyncSession(ReplicatedConfig.class)) {
+			replicated.findAll(CachedUser.class).get(5, TimeUnit.SECONDS);
+			replicated.find(LookupUser.class, "username", "user0").get(5, TimeUnit.SECONDS);
+		}
+
+		Assert.assertEquals(0, EntityCache.of(CachedUser.class).getStats().getSize());
+		Assert.assertEquals(0, QueryCache.of(LookupUser.class).getStats().getSize());
+
+		// The same reads on the primary fill both caches
+		sut.findAll(CachedUser.class).get(5, TimeUnit.SECONDS);
+		sut.find(LookupUser.class, "username", "user0").get(5, TimeUnit.SECONDS);
+		Assert.assertEquals(1, EntityCache.of(CachedUser.class).getStats().getSize());
+		Assert.assertEquals(1, QueryCache.of(LookupUser.class).getStats().getSize());
+	}
+
+	@Test
+	public void test_timeoutCancelsRunningStatement() throws Exception {
+		StubJdbc.setExecuteDelay(10_000);
+		sut.setTimeout(100, TimeUnit.MILLISECONDS);
+
+		long start = System.nanoTime();
+		try {
+			sut.find(TestUser.class, "username", "user0").get(5, TimeUnit.SECONDS);
+			Assert.fail("Expected TimeoutException");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof TimeoutException);
+		}
+		Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+
+		// The cancelled statement releases its connection well before the execute delay
+		awaitIdle();
+	}
+
+	@Test
+	public void test_cancelCancelsRunningStatement() throws Exception {
+		StubJdbc.setExecuteDelay(10_000);
+
+		CompletableFuture<Result<TestUser>> future = sut.findAll(TestUser.class);
+		awaitActive();
+		Assert.assertTrue(future.cancel(true));
+
+		awaitIdle();
+	}
+
+	private void awaitActive() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (ConnectionFactory.getInstance().getPoolStats(AsyncSessionTest.class).getActiveConnections() == 0) {
+			Assert.assertTrue("Call never borrowed a connection", System.nanoTime() < deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private void awaitIdle() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (ConnectionFactory.getInstance().getPoolStats(AsyncSessionTest.class).getActiveConnections() > 0) {
+			Assert.assertTrue("Statement was not cancelled", System.nanoTime() < deadline);
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.revature.ATeamORM.datasource;
+
+import com.revature.ATeamORM.annotations.JDBCConnection;
+import com.revature.ATeamORM.benchmark.StubJdbc;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrowing and returning pooled connections through ConnectionFactory, with the stub driver behind the pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectionFactoryBenchmark {
+
+	@JDBCConnection(url = "benchmark", username = "username", password = "password")
+	public static class Config {}
+
+	@Setup
+	public void setUp() throws SQLException {
+		StubJdbc.install(StubJdbc.USER_COLUMNS, StubJdbc.users(1));
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		ConnectionFactory.getInstance().shutdown();
+		StubJdbc.uninstall();
+	}
+
+	@Benchmark
+	public void borrowAndReturn() throws SQLException {
+		ConnectionFactory.getInstance().getConnection(Config.class).close();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void borrowAndReturnContended() throws SQLException {
+		ConnectionFactory.getInstance().getConnection(Config.class).close();
+	}
+}
@@ -1,6 +1,9 @@
 package com.revature.ATeamORM.datasource;
 
 import com.revature.ATeamORM.annotations.JDBCConnection;
+import com.revature.ATeamORM.annotations.PoolConfig;
+import com.revature.ATeamORM.benchmark.StubJdbc;
+import com.revature.ATeamORM.repos.TestUser;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -9,10 +12,31 @@ import org.mockito.Mock;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
 
 @JDBCConnection(url="url", username="username", password="password")
 public class ConnectionFactoryTest {
 
+	@JDBCConnection(url = "stress", username = "username", password = "password", schema = "alpha")
+	@PoolConfig(minIdle = 0, maxSize = 8, acquireTimeoutMillis = 10_000)
+	public static class AlphaConfig {}
+
+	@JDBCConnection(url = "stress", username = "username", password = "password", schema = "beta")
+	@PoolConfig(minIdle = 0, maxSize = 8, acquireTimeoutMillis = 10_000)
+	public static class BetaConfig {}
+
+	@JDBCConnection(url = "stress", username = "username", password = "password")
+	public static class DefaultSchemaConfig {}
+
+	@JDBCConnection(url = "primary", username = "username", password = "password", schema = "alpha",
+					replicas = {"replica1", "replica2, replica3"}, balancing = JDBCConnection.Balancing.LEAST_BUSY)
+	@PoolConfig(minIdle = 0)
+	public static class ReplicatedConfig {}
+
 	@Mock private Connection mockConnection;
 	@Mock private PreparedStatement mockStatement;
 
@@ -44,5 +68,91 @@ public class ConnectionFactoryTest {
 
 	}
 
+	@Test
+	public void test_settingsAreResolvedPerClass() {
+		ConnectionFactory f = ConnectionFactory.getInstance();
+
+		ConnectionSettings alpha = f.getSettings(AlphaConfig.class);
+
+		Assert.assertSame(alpha, f.getSettings(AlphaConfig.class));
+		Assert.assertEquals("jdbc:postgresql://stress:5432/postgres?currentSchema=alpha", alpha.getUrl());
+		Assert.assertEquals("beta", f.getSettings(BetaConfig.class).getSchema());
+		// A class without a schema never inherits one resolved for another class
+		Assert.assertEquals("jdbc:postgresql://stress:5432/postgres", f.getSettings(DefaultSchemaConfig.class).getUrl());
+		Assert.assertNull(f.getSettings(DefaultSchemaConfig.class).getSchema());
+	}
+
+	@Test
+	public void test_replicasResolvedWithPrimarySchema() {
+		ConnectionSettings settings = ConnectionFactory.getInstance().getSettings(ReplicatedConfig.class);
 
+		Assert.assertEquals(Arrays.asList("jdbc:postgresql://replica1:5432/postgres?currentSchema=alpha",
+										  "jdbc:postgresql://replica2:5432/postgres?currentSchema=alpha",
+										  "jdbc:postgresql://replica3:5432/postgres?currentSchema=alpha"),
+							settings.getReplicaUrls());
+		Assert.assertEquals(JDBCConnection.Balancing.LEAST_BUSY, settings.getBalancing());
+		Assert.assertTrue(ConnectionFactory.getInstance().hasReplicas(ReplicatedConfig.class));
+		Assert.assertFalse(ConnectionFactory.getInstance().hasReplicas(DefaultSchemaConfig.class));
+	}
+
+	@Test
+	public void test_leastBusyReadsSpreadOverReplicas() throws SQLException {
+		StubJdbc.install(StubJdbc.USER_COLUMNS, StubJdbc.users(2));
+		ConnectionFactory f = ConnectionFactory.getInstance();
+		try {
+			List<Connection> held = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				held.add(f.getReadConnection(ReplicatedConfig.class));
+			}
+
+			for (PoolStats stats : f.getReplicaPoolStats(ReplicatedConfig.class)) {
+				Assert.assertEquals(1, stats.getActiveConnections());
+			}
+			Assert.assertEquals(0, f.getPoolStats(ReplicatedConfig.class).getBorrowCount());
+			for (Connection connection : held) {
+				connection.close();
+			}
+		} finally {
+			f.shutdown();
+			StubJdbc.uninstall();
+		}
+	}
+
+	@Test
+	public void test_parallelSessionsKeepTheirOwnSchema() throws Exception {
+		StubJdbc.install(StubJdbc.USER_COLUMNS, StubJdbc.users(2));
+		ConnectionFactory.getInstance().shutdown();
+		ExecutorService executor = Executors.newFixedThreadPool(32);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 4_000; i++) {
+				Class<?> config = i % 2 == 0 ? AlphaConfig.class : BetaConfig.class;
+				String schema = i % 2 == 0 ? "alpha" : "beta";
+				futures.add(executor.submit(() -> {
+					try (Session session = new Session(config)) {
+						session.open();
+						Assert.assertEquals(2, session.findAll(TestUser.class).getList().size());
+					}
+					try (Connection conn = ConnectionFactory.getInstance().getConnection(config)) {
+						Assert.assertEquals(schema, conn.getSchema());
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+
+			for (Class<?> config : new Class<?>[]{AlphaConfig.class, BetaConfig.class}) {
+				PoolStats stats = ConnectionFactory.getInstance().getPoolStats(config);
+				Assert.assertEquals(0, stats.getActiveConnections());
+				Assert.assertTrue(stats.getCreatedCount() <= 8);
+				Assert.assertEquals(4_000, stats.getBorrowCount());
+			}
+		} finally {
+			executor.shutdownNow();
+			ConnectionFactory.getInstance().shutdown();
+			StubJdbc.uninstall();
+		}
+	}
 }
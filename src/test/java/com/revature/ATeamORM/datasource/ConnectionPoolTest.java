@@ -0,0 +1,149 @@
+package com.revature.ATeamORM.datasource;
+
+import com.revature.ATeamORM.annotations.PoolConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@PoolConfig(minIdle = 0, maxIdle = 2, maxSize = 2, acquireTimeoutMillis = 100, housekeepingIntervalMillis = 0,
+			idleTimeoutMillis = 1, maxLifetimeMillis = 0, validationBypassMillis = 0)
+public class ConnectionPoolTest {
+
+	@PoolConfig(minIdle = 2, maxIdle = 2, maxSize = 3, housekeepingIntervalMillis = 0)
+	private static class MinIdleConfig {}
+
+	private List<Connection> physicalConnections;
+	private ConnectionPool sut;
+
+	@Before
+	public void setUpTest() {
+		physicalConnections = new ArrayList<>();
+		sut = new ConnectionPool(PoolSettings.from(ConnectionPoolTest.class), this::newPhysicalConnection);
+	}
+
+	@After
+	public void tearDownTest() {
+		sut.close();
+		sut = null;
+	}
+
+	private Connection newPhysicalConnection() throws SQLException {
+		Connection connection = mock(Connection.class);
+		when(connection.getAutoCommit()).thenReturn(true);
+		when(connection.isValid(anyInt())).thenReturn(true);
+		physicalConnections.add(connection);
+		return connection;
+	}
+
+	@Test
+	public void test_borrowReusesReturnedConnection() throws SQLException {
+		Connection first = sut.borrow();
+		first.close();
+		Connection second = sut.borrow();
+		second.prepareStatement("select 1");
+
+		Assert.assertEquals(1, physicalConnections.size());
+		verify(physicalConnections.get(0)).prepareStatement("select 1");
+		verify(physicalConnections.get(0), never()).close();
+	}
+
+	@Test
+	public void test_closedHandleStaysClosedWhenConnectionIsLentAgain() throws SQLException {
+		Connection first = sut.borrow();
+		first.close();
+		Connection second = sut.borrow();
+
+		Assert.assertNotSame(first, second);
+		Assert.assertTrue(first.isClosed());
+		Assert.assertFalse(second.isClosed());
+		try {
+			first.prepareStatement("select 1");
+			Assert.fail("Expected SQLException");
+		} catch (SQLException expected) {
+			// the stale handle must not reach the new borrower's connection
+		}
+
+		// Closing the stale handle again must not return the connection out from under its new borrower
+		first.close();
+		Assert.assertEquals(1, sut.getStats().getActiveConnections());
+		Assert.assertFalse(second.isClosed());
+	}
+
+	@Test
+	public void test_closedProxyRejectsCalls() throws SQLException {
+		Connection connection = sut.borrow();
+		connection.close();
+
+		Assert.assertTrue(connection.isClosed());
+		try {
+			connection.prepareStatement("select 1");
+			Assert.fail("Expected SQLException");
+		} catch (SQLException expected) {
+			// returned connections must not be usable
+		}
+	}
+
+	@Test
+	public void test_borrowTimesOutWhenExhausted() throws SQLException {
+		sut.borrow();
+		sut.borrow();
+		try {
+			sut.borrow();
+			Assert.fail("Expected SQLException");
+		} catch (SQLException expected) {
+			Assert.assertEquals(1, sut.getStats().getTimeoutCount());
+		}
+		Assert.assertEquals(2, sut.getStats().getActiveConnections());
+	}
+
+	@Test
+	public void test_releaseRollsBackOpenTransaction() throws SQLException {
+		Connection connection = sut.borrow();
+		Connection physical = physicalConnections.get(0);
+		when(physical.getAutoCommit()).thenReturn(false);
+		connection.close();
+
+		verify(physical).rollback();
+		verify(physical).setAutoCommit(true);
+	}
+
+	@Test
+	public void test_invalidIdleConnectionIsReplaced() throws SQLException {
+		sut.borrow().close();
+		when(physicalConnections.get(0).isValid(anyInt())).thenReturn(false);
+
+		sut.borrow();
+		Assert.assertEquals(2, physicalConnections.size());
+		verify(physicalConnections.get(0)).close();
+	}
+
+	@Test
+	public void test_housekeepEvictsIdleConnections() throws Exception {
+		sut.borrow().close();
+		Thread.sleep(5);
+		sut.housekeep();
+
+		PoolStats stats = sut.getStats();
+		Assert.assertEquals(0, stats.getTotalConnections());
+		Assert.assertEquals(1, stats.getDestroyedCount());
+	}
+
+	@Test
+	public void test_housekeepFillsToMinIdle() {
+		ConnectionPool pool = new ConnectionPool(PoolSettings.from(MinIdleConfig.class), this::newPhysicalConnection);
+		pool.housekeep();
+
+		Assert.assertEquals(2, pool.getStats().getIdleConnections());
+		pool.close();
+		Assert.assertEquals(0, pool.getStats().getTotalConnections());
+	}
+}
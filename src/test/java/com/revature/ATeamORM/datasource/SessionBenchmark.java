@@ -0,0 +1,63 @@
+package com.revature.ATeamORM.datasource;
+
+import com.revature.ATeamORM.annotations.JDBCConnection;
+import com.revature.ATeamORM.benchmark.StubJdbc;
+import com.revature.ATeamORM.repos.TestUser;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end Session calls on a pooled stub connection whose queries return a fixed number of users rows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionBenchmark {
+
+	@JDBCConnection(url = "benchmark", username = "username", password = "password")
+	public static class Config {}
+
+	@Param({"1", "100"})
+	public int rows;
+
+	private Session session;
+
+	@Setup
+	public void setUp() throws SQLException {
+		StubJdbc.install(StubJdbc.USER_COLUMNS, StubJdbc.users(rows));
+		session = new Session(Config.class);
+		session.open();
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		session.close();
+		ConnectionFactory.getInstance().shutdown();
+		StubJdbc.uninstall();
+	}
+
+	@Benchmark
+	public TestUser insert() throws SQLException {
+		TestUser user = new TestUser("user", "password", "user@example.com");
+		session.insert(user);
+		return user;
+	}
+
+	@Benchmark
+	public TestUser find() throws SQLException {
+		return session.find(TestUser.class, "username", "user0").getFirstEntry();
+	}
+
+	@Benchmark
+	public List<TestUser> findAll() throws SQLException {
+		// A new unit of work per call, as in a request-scoped Session
+		session.clear();
+		return session.findAll(TestUser.class).getList();
+	}
+}
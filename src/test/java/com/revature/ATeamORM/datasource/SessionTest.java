@@ -1,26 +1,164 @@
 package com.revature.ATeamORM.datasource;
 
+import com.revature.ATeamORM.annotations.JDBCConnection;
+import com.revature.ATeamORM.annotations.PoolConfig;
+import com.revature.ATeamORM.benchmark.StubJdbc;
+import com.revature.ATeamORM.repos.CachedUser;
+import com.revature.ATeamORM.repos.EntityCache;
+import com.revature.ATeamORM.repos.TestUser;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.sql.SQLException;
 
+@JDBCConnection(url = "session", username = "username", password = "password")
 public class SessionTest {
-	@Before
-	public void setUpTest() {
 
+	@JDBCConnection(url = "primary", username = "username", password = "password", replicas = {"replica"})
+	@PoolConfig(minIdle = 0)
+	public static class ReplicatedConfig {}
+
+	private Session sut;
+
+	@Before
+	public void setUpTest() throws SQLException {
+		StubJdbc.install(StubJdbc.USER_COLUMNS, StubJdbc.users(3));
+		sut = new Session(SessionTest.class);
+		sut.open();
 	}
 
 	@After
-	public void tearDownTest() {
+	public void tearDownTest() throws SQLException {
+		sut.close();
+		ConnectionFactory.getInstance().shutdown();
+		StubJdbc.uninstall();
+	}
+
+	@Test
+	public void test_insertInTransactionIsSentOnCommit() throws SQLException {
+		TestUser user = new TestUser("name", "pass", "mail");
+
+		sut.beginTransaction();
+		sut.insert(user);
+
+		Assert.assertTrue(sut.isInTransaction());
+		Assert.assertEquals(0, user.getId());
+
+		sut.commit();
+
+		Assert.assertFalse(sut.isInTransaction());
+		Assert.assertEquals(1, user.getId());
+	}
+
+	@Test
+	public void test_queryInTransactionSendsQueuedWrites() throws SQLException {
+		TestUser user = new TestUser("name", "pass", "mail");
+
+		sut.beginTransaction();
+		sut.insert(user);
+		sut.findAll(TestUser.class);
+
+		Assert.assertEquals(1, user.getId());
+		sut.rollback();
+	}
+
+	@Test
+	public void test_inTransactionRollsBackWhenWorkThrows() throws SQLException {
+		TestUser user = new TestUser("name", "pass", "mail");
+
+		try {
+			sut.inTransaction(s -> {
+				s.insert(user);
+				throw new IllegalStateException("boom");
+			});
+			Assert.fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("boom", e.getMessage());
+		}
+
+		Assert.assertFalse(sut.isInTransaction());
+		// The queued insert was discarded, never sent
+		Assert.assertEquals(0, user.getId());
+	}
+
+	@Test
+	public void test_inTransactionReturnsWorkResult() throws SQLException {
+		TestUser user = new TestUser("name", "pass", "mail");
+
+		int id = sut.inTransaction(s -> {
+			s.insert(user);
+			s.flush();
+			return user.getId();
+		});
+
+		Assert.assertEquals(1, id);
+	}
 
+	@Test(expected = IllegalStateException.class)
+	public void test_beginTransactionTwiceThrows() throws SQLException {
+		sut.beginTransaction();
+		sut.beginTransaction();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void test_commitWithoutTransactionThrows() throws SQLException {
+		sut.commit();
 	}
 
 	@Test
-	public void test_() {
+	public void test_readsGoToReplicaUntilSessionWrites() throws SQLException {
+		try (Session session = new Session(ReplicatedConfig.class)) {
+			session.open();
+			session.findAll(TestUser.class);
+			Assert.assertEquals(1, replicaBorrows());
+			Assert.assertEquals(1, replicaActive());
+
+			session.insert(new TestUser("name", "pass", "mail"));
+			session.count(TestUser.class);
+
+			// Read-your-writes keeps the count on the primary, the replica connection is not borrowed again
+			Assert.assertEquals(1, replicaBorrows());
+		}
+		Assert.assertEquals(0, replicaActive());
+	}
+
+	@Test
+	public void test_transactionReadsStayOnPrimary() throws SQLException {
+		try (Session session = new Session(ReplicatedConfig.class)) {
+			session.open();
+			session.setReadYourWrites(false);
+			session.beginTransaction();
+			session.findAll(TestUser.class);
+			session.commit();
+
+			Assert.assertEquals(0, replicaBorrows());
+		}
+	}
+
+	@Test
+	public void test_replicaReadsBypassSharedCaches() throws SQLException {
+		try (Session session = new Session(ReplicatedConfig.class)) {
+			session.open();
+			session.findAll(CachedUser.class);
+			Assert.assertEquals(1, replicaBorrows());
+			Assert.assertEquals(0, session.getCacheStats(CachedUser.class).getSize());
+
+			// Once the session writes, reads go to the primary and may fill the cache again
+			session.insert(new TestUser("name", "pass", "mail"));
+			session.findAll(CachedUser.class);
+			Assert.assertEquals(3, session.getCacheStats(CachedUser.class).getSize());
+		} finally {
+			EntityCache.clearAll();
+		}
+	}
+
+	private static long replicaBorrows() {
+		return ConnectionFactory.getInstance().getReplicaPoolStats(ReplicatedConfig.class).get(0).getBorrowCount();
+	}
 
+	private static int replicaActive() {
+		return ConnectionFactory.getInstance().getReplicaPoolStats(ReplicatedConfig.class).get(0).getActiveConnections();
 	}
 }
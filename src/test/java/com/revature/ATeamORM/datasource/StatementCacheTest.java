@@ -0,0 +1,93 @@
+package com.revature.ATeamORM.datasource;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class StatementCacheTest {
+
+	private Connection mockConnection;
+	private StatementCache sut;
+
+	@Before
+	public void setUpTest() throws SQLException {
+		mockConnection = mock(Connection.class);
+		when(mockConnection.prepareStatement(anyString())).thenAnswer(i -> mock(PreparedStatement.class));
+		sut = new StatementCache(mockConnection, 2);
+	}
+
+	@After
+	public void tearDownTest() {
+		sut = null;
+		mockConnection = null;
+	}
+
+	@Test
+	public void test_prepareReusesStatementForSameSql() throws SQLException {
+		PreparedStatement first = sut.prepare("select 1");
+		PreparedStatement second = sut.prepare("select 1");
+
+		Assert.assertSame(first, second);
+		verify(mockConnection, times(1)).prepareStatement("select 1");
+		verify(second).clearParameters();
+	}
+
+	@Test
+	public void test_prepareEvictsAndClosesLeastRecentlyUsed() throws SQLException {
+		PreparedStatement a = sut.prepare("a");
+		sut.prepare("b");
+		sut.prepare("a");
+		PreparedStatement b = sut.prepare("b");
+		sut.prepare("c");
+
+		Assert.assertEquals(2, sut.size());
+		verify(a).close();
+		verify(b, never()).close();
+	}
+
+	@Test
+	public void test_clearClosesAllStatements() throws SQLException {
+		PreparedStatement a = sut.prepare("a");
+		sut.clear();
+
+		Assert.assertEquals(0, sut.size());
+		verify(a).close();
+	}
+
+	@Test
+	public void test_ofReturnsSameCacheUntilReleased() throws SQLException {
+		StatementCache first = StatementCache.of(mockConnection);
+		Assert.assertSame(first, StatementCache.of(mockConnection));
+
+		StatementCache.release(mockConnection);
+		Assert.assertNotSame(first, StatementCache.of(mockConnection));
+		StatementCache.release(mockConnection);
+	}
+
+	@Test
+	public void test_cancelBeforePrepareStopsNextStatement() throws SQLException {
+		PreparedStatement stale = sut.prepare("select 1");
+		sut.clearCancel();
+		sut.cancel();
+
+		// The statement of an earlier caller is not cancelled, the next one never starts
+		verify(stale, never()).cancel();
+		try {
+			sut.prepare("select 2");
+			Assert.fail("Expected SQLException");
+		} catch (SQLException e) {
+			Assert.assertEquals("57014", e.getSQLState());
+		}
+
+		sut.clearCancel();
+		Assert.assertNotNull(sut.prepare("select 2"));
+	}
+}
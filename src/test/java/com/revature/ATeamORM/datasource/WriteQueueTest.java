@@ -0,0 +1,64 @@
+package com.revature.ATeamORM.datasource;
+
+import com.revature.ATeamORM.repos.ColumnMetadata;
+import com.revature.ATeamORM.repos.EntityMetadata;
+import com.revature.ATeamORM.repos.TestUser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class WriteQueueTest {
+
+	private WriteQueue sut;
+
+	@Before
+	public void setUpTest() {
+		sut = new WriteQueue();
+	}
+
+	@Test
+	public void test_consecutiveWritesOfOneKindShareARun() {
+		TestUser first = new TestUser("a", "pass", "mail");
+		TestUser second = new TestUser("b", "pass", "mail");
+
+		sut.add(WriteQueue.Kind.INSERT, first, null);
+		sut.add(WriteQueue.Kind.INSERT, second, null);
+		sut.add(WriteQueue.Kind.REMOVE, first, null);
+
+		List<WriteQueue.Run> runs = sut.drain();
+		Assert.assertEquals(2, runs.size());
+		Assert.assertEquals(Arrays.asList(first, second), runs.get(0).objects);
+		Assert.assertEquals(WriteQueue.Kind.REMOVE, runs.get(1).kind);
+		Assert.assertTrue(sut.isEmpty());
+	}
+
+	@Test
+	public void test_repeatedSavesMergeColumns() {
+		TestUser user = new TestUser("a", "pass", "mail");
+		List<ColumnMetadata> columns = EntityMetadata.of(TestUser.class).getUpdateColumns();
+
+		sut.add(WriteQueue.Kind.SAVE, user, Collections.singletonList(columns.get(0)));
+		sut.add(WriteQueue.Kind.SAVE, user, Collections.singletonList(columns.get(1)));
+
+		WriteQueue.Run run = sut.drain().get(0);
+		Assert.assertEquals(1, run.objects.size());
+		Assert.assertEquals(columns.subList(0, 2), run.columns.get(user));
+	}
+
+	@Test
+	public void test_fullSaveWinsOverPartialSave() {
+		TestUser user = new TestUser("a", "pass", "mail");
+		List<ColumnMetadata> columns = EntityMetadata.of(TestUser.class).getUpdateColumns();
+
+		sut.add(WriteQueue.Kind.SAVE, user, Collections.singletonList(columns.get(0)));
+		sut.add(WriteQueue.Kind.SAVE, user, null);
+		sut.add(WriteQueue.Kind.SAVE, user, Collections.singletonList(columns.get(1)));
+
+		Assert.assertEquals(1, sut.size());
+		Assert.assertNull(sut.drain().get(0).columns.get(user));
+	}
+}
@@ -0,0 +1,65 @@
+package com.revature.ATeamORM.metrics;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+public class InMemoryMetricsTest {
+
+	private InMemoryMetrics sut;
+
+	@Before
+	public void setUpTest() {
+		sut = new InMemoryMetrics();
+	}
+
+	@Test
+	public void test_statementsAreKeptPerEntityAndOperation() {
+		sut.recordStatement(String.class, Operation.SELECT, 2_000, 10);
+		sut.recordStatement(String.class, Operation.SELECT, 4_000, 5);
+		sut.recordStatement(String.class, Operation.INSERT, 1_000, 1);
+
+		TimerMetrics select = sut.getStatementMetrics(String.class, Operation.SELECT);
+		Assert.assertEquals(2, select.getLatency().getCount());
+		Assert.assertEquals(15, select.getRows());
+		Assert.assertEquals(1, sut.getStatementMetrics(String.class, Operation.INSERT).getRows());
+		Assert.assertNull(sut.getStatementMetrics(Integer.class, Operation.SELECT));
+	}
+
+	@Test
+	public void test_snapshotFlattensMeasurements() {
+		sut.recordStatement(String.class, Operation.UPDATE, 3_000, 2);
+		sut.recordCacheAccess(String.class, CacheRegion.QUERY, true);
+		sut.recordCacheAccess(String.class, CacheRegion.QUERY, false);
+		sut.recordConnectionAcquire(Integer.class, 1_000);
+
+		Map<String, Number> snapshot = sut.snapshot();
+
+		Assert.assertEquals(1L, snapshot.get("statement.java.lang.String.UPDATE.count"));
+		Assert.assertEquals(2L, snapshot.get("statement.java.lang.String.UPDATE.rows"));
+		Assert.assertEquals(3L, snapshot.get("statement.java.lang.String.UPDATE.maxMicros"));
+		Assert.assertEquals(0.5, snapshot.get("cache.java.lang.String.QUERY.hitRate"));
+		Assert.assertEquals(1L, snapshot.get("acquire.java.lang.Integer.count"));
+	}
+
+	@Test
+	public void test_jmxExporterPublishesSnapshot() throws Exception {
+		sut.recordRowMapping(String.class, 500);
+		ObjectName name = JmxExporter.register(sut, "com.revature.ATeamORM:type=Metrics,name=InMemoryMetricsTest");
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+			Assert.assertEquals(1L, server.getAttribute(name, "mapping.java.lang.String.count"));
+
+			server.invoke(name, "reset", new Object[0], new String[0]);
+			Assert.assertNull(sut.getRowMappingMetrics(String.class));
+		} finally {
+			JmxExporter.unregister(name);
+		}
+	}
+}
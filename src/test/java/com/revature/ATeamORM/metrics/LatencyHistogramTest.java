@@ -0,0 +1,59 @@
+package com.revature.ATeamORM.metrics;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	private LatencyHistogram sut;
+
+	@Before
+	public void setUpTest() {
+		sut = new LatencyHistogram();
+	}
+
+	@Test
+	public void test_emptyHistogramReportsZero() {
+		Assert.assertEquals(0, sut.getCount());
+		Assert.assertEquals(0, sut.getValueAtPercentile(99));
+		Assert.assertEquals(0, sut.getMean(), 0);
+	}
+
+	@Test
+	public void test_percentilesWithinBucketPrecision() {
+		for (long i = 1; i <= 10_000; i++) {
+			sut.record(i * 1_000);
+		}
+
+		Assert.assertEquals(10_000, sut.getCount());
+		Assert.assertEquals(10_000_000, sut.getMax());
+		Assert.assertEquals(5_000_500, sut.getMean(), 0.001);
+		assertWithin(5_000_000, sut.getValueAtPercentile(50));
+		assertWithin(9_900_000, sut.getValueAtPercentile(99));
+		Assert.assertEquals(10_000_000, sut.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void test_smallValuesAreExact() {
+		sut.record(3);
+		sut.record(-5);
+
+		Assert.assertEquals(0, sut.getValueAtPercentile(50));
+		Assert.assertEquals(3, sut.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void test_bucketsCoverEveryLong() {
+		Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+		for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+			int bucket = LatencyHistogram.bucketOf(value);
+			Assert.assertTrue(LatencyHistogram.highestValueOf(bucket) >= value);
+			Assert.assertTrue(bucket == 0 || LatencyHistogram.highestValueOf(bucket - 1) < value);
+		}
+	}
+
+	private static void assertWithin(long expected, long actual) {
+		Assert.assertTrue(actual + " is not within 4% of " + expected, Math.abs(actual - expected) <= expected * 0.04);
+	}
+}
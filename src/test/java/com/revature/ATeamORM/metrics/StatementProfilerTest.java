@@ -0,0 +1,112 @@
+package com.revature.ATeamORM.metrics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+public class StatementProfilerTest {
+
+	private StatementProfiler sut;
+	private Logger logger;
+	private List<LogRecord> logged;
+	private Handler handler;
+
+	@Before
+	public void setUpTest() {
+		sut = new StatementProfiler(10, TimeUnit.MILLISECONDS);
+		logged = new ArrayList<>();
+		handler = new Handler() {
+			@Override
+			public void publish(LogRecord record) {
+				logged.add(record);
+			}
+
+			@Override
+			public void flush() {}
+
+			@Override
+			public void close() {}
+		};
+		logger = Logger.getLogger(StatementProfiler.class.getName());
+		logger.setUseParentHandlers(false);
+		logger.addHandler(handler);
+	}
+
+	@After
+	public void tearDownTest() {
+		logger.removeHandler(handler);
+		logger.setUseParentHandlers(true);
+		Metrics.uninstallProfiler();
+	}
+
+	@Test
+	public void test_fingerprintReplacesLiteralsAndFoldsWhitespace() {
+		Assert.assertEquals("select * from users where name = ? and age > ? limit ?",
+							StatementProfiler.fingerprint("SELECT *  FROM users\n WHERE name = 'o''brien' AND age > 42 LIMIT 10"));
+		Assert.assertEquals("select user_id from users where user_id = ?",
+							StatementProfiler.fingerprint("select user_id from users where user_id = $1"));
+		Assert.assertEquals("select \"Mixed\" from t2",
+							StatementProfiler.fingerprint("select \"Mixed\" from t2"));
+	}
+
+	@Test
+	public void test_fingerprintCollapsesParameterLists() {
+		Assert.assertEquals(StatementProfiler.fingerprint("select * from posts where author_id in (?, ?)"),
+							StatementProfiler.fingerprint("select * from posts where author_id in (?, ?, ?, ?)"));
+		Assert.assertEquals("select * from posts where author_id in (...)",
+							StatementProfiler.fingerprint("select * from posts where author_id in (1, 2, 3)"));
+	}
+
+	@Test
+	public void test_statementsAggregatedPerFingerprint() {
+		sut.record("select * from posts where author_id in (?, ?)", String.class, Operation.SELECT, 2_000, 4);
+		sut.record("select * from posts where author_id in (?, ?, ?)", String.class, Operation.SELECT, 6_000, 2);
+		sut.record("delete from posts where post_id = ?", String.class, Operation.DELETE, 1_000, 1);
+
+		List<StatementProfile> top = sut.top(1);
+
+		Assert.assertEquals(1, top.size());
+		Assert.assertEquals("select * from posts where author_id in (...)", top.get(0).getFingerprint());
+		Assert.assertEquals(2, top.get(0).getCount());
+		Assert.assertEquals(8_000, top.get(0).getTotalNanos());
+		Assert.assertEquals(6_000, top.get(0).getMaxNanos());
+		Assert.assertEquals(4_000, top.get(0).getMeanNanos(), 0);
+		Assert.assertEquals(6, top.get(0).getRows());
+		Assert.assertEquals(2, sut.getProfiles().size());
+	}
+
+	@Test
+	public void test_slowStatementsLoggedWithoutValues() {
+		sut.record("select * from users where password = 'hunter2'", String.class, Operation.SELECT,
+				   TimeUnit.MILLISECONDS.toNanos(5), 1);
+		Assert.assertTrue(logged.isEmpty());
+
+		sut.record("select * from users where password = 'hunter2'", String.class, Operation.SELECT,
+				   TimeUnit.MILLISECONDS.toNanos(20), 1);
+
+		Assert.assertEquals(1, logged.size());
+		Assert.assertFalse(logged.get(0).getMessage().contains("hunter2"));
+		Assert.assertTrue(logged.get(0).getMessage().contains("select * from users where password = ?"));
+		Assert.assertEquals(1, sut.top(1).get(0).getSlowCount());
+	}
+
+	@Test
+	public void test_installedProfilerReceivesStatements() {
+		Metrics.installProfiler(sut);
+		Assert.assertTrue(Metrics.isMeasuringStatements());
+
+		Metrics.recordStatement(String.class, Operation.UPDATE, "update users set email = ? where user_id = ?", 1_000, 1);
+
+		Assert.assertEquals(1, sut.top(5).size());
+		Metrics.uninstallProfiler();
+		Assert.assertFalse(Metrics.isMeasuringStatements());
+	}
+}
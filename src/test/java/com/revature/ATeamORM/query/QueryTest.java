@@ -0,0 +1,155 @@
+package com.revature.ATeamORM.query;
+
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import com.revature.ATeamORM.repos.TestUser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class QueryTest {
+
+	@Test
+	public void test_unfilteredQuerySelectsEverything() {
+		Assert.assertEquals("select * from users", Query.from(TestUser.class).toSql());
+	}
+
+	@Test
+	public void test_selectOnlyReadsProvidedFields() {
+		Query<TestUser> query = Query.from(TestUser.class).select("id", "email").where("username").eq("a");
+
+		Assert.assertEquals("select user_id, email from users where username = ?", query.toSql());
+		Assert.assertTrue(query.isProjection());
+		Assert.assertEquals(2, query.getSelectedColumns().size());
+	}
+
+	@Test
+	public void test_countExistsAndAggregatesDropOrdering() {
+		Query<TestUser> query = Query.from(TestUser.class).where("username").like("a%").orderBy("username");
+
+		Assert.assertEquals("select count(*) from users where username like ?", query.toCountSql());
+		Assert.assertEquals("select exists(select 1 from users where username like ? limit 1)", query.toExistsSql());
+		Assert.assertEquals("select email, max(user_id) from users where username like ? group by email",
+							query.toAggregateSql(Aggregate.MAX, "id", "email"));
+	}
+
+	@Test
+	public void test_pagedAggregateUsesSubquery() {
+		Query<TestUser> query = Query.from(TestUser.class).orderByDesc("id").limit(10);
+
+		Assert.assertEquals("select sum(user_id) from (select user_id from users order by user_id desc limit ?) page",
+							query.toAggregateSql(Aggregate.SUM, "id", null));
+		Assert.assertEquals("select count(*) from (select 1 from users order by user_id desc limit ?) page",
+							query.toCountSql());
+		Assert.assertEquals(Collections.singletonList(10), query.getParameterValues());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_nonNumericAggregateFails() {
+		Query.from(TestUser.class).toAggregateSql(Aggregate.AVG, "username", null);
+	}
+
+	@Test
+	public void test_predicatesOrderingAndPaging() {
+		Query<TestUser> query = Query.from(TestUser.class)
+									 .where("username").like("a%")
+									 .and("id").ge("10")
+									 .or("email").isNull()
+									 .orderByDesc("id")
+									 .limit(20)
+									 .offset(40);
+
+		Assert.assertEquals("select * from users where username like ? and user_id >= ? or email is null " +
+							"order by user_id desc limit ? offset ?", query.toSql());
+		// The String "10" is converted to the int field type
+		Assert.assertEquals(Arrays.asList("a%", 10, 20, 40), query.getParameterValues());
+	}
+
+	@Test
+	public void test_nestedCriteriaAndIn() {
+		Query<TestUser> query = Query.from(TestUser.class)
+									 .where("id").in(1, 2, 3)
+									 .and(Criteria.where("email").ne("x").or("password").isNotNull())
+									 .or("username").in(Collections.emptyList());
+
+		Assert.assertEquals("select * from users where user_id in (?, ?, ?) and (email <> ? or password is not null) " +
+							"or 1 = 0", query.toSql());
+		Assert.assertEquals(Arrays.asList(1, 2, 3, "x"), query.getParameterValues());
+	}
+
+	@Test
+	public void test_keysetAppendsIdTieBreaker() {
+		TestUser last = new TestUser("m", "p", "e");
+		last.setId(7);
+
+		Query<TestUser> query = Query.from(TestUser.class)
+									 .where("email").isNotNull()
+									 .orderBy("username")
+									 .after(last)
+									 .limit(10);
+
+		Assert.assertEquals("select * from users where (email is not null) and " +
+							"((username > ?) or (username = ? and user_id > ?)) " +
+							"order by username asc, user_id asc limit ?", query.toSql());
+		Assert.assertEquals(Arrays.asList("m", "m", 7, 10), query.getParameterValues());
+	}
+
+	@Test
+	public void test_bindUsesTypedSetters() throws SQLException {
+		PreparedStatement pstmt = mock(PreparedStatement.class);
+
+		Query.from(TestUser.class).where("id").eq(5).and("username").eq("a").limit(1).bind(pstmt);
+
+		verify(pstmt).setInt(1, 5);
+		verify(pstmt).setString(2, "a");
+		verify(pstmt).setInt(3, 1);
+	}
+
+	@Test(expected = DataSourceException.class)
+	public void test_unknownFieldFails() {
+		Query.from(TestUser.class).orderBy("notPersisted");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_nullComparisonFails() {
+		Query.from(TestUser.class).where("email").eq(null);
+	}
+
+	@Test
+	public void test_copyIsIndependentOfOriginal() {
+		Query<TestUser> query = Query.from(TestUser.class).where("username").like("a%").orderBy("email").limit(5);
+		Query<TestUser> copy = query.copy().offset(10).and("email").isNull();
+
+		Assert.assertEquals("select * from users where username like ? order by email asc limit ?", query.toSql());
+		Assert.assertEquals("select * from users where username like ? and email is null order by email asc limit ? offset ?",
+							copy.toSql());
+		Assert.assertEquals(Integer.valueOf(5), copy.getLimit());
+		Assert.assertNull(query.getOffset());
+	}
+
+	@Test
+	public void test_orderComparatorMatchesOrderBy() {
+		TestUser a = new TestUser("a", "x", null);
+		TestUser b = new TestUser("b", "x", "b@example.com");
+		TestUser c = new TestUser("c", "y", "c@example.com");
+		List<TestUser> users = Arrays.asList(a, c, b);
+
+		users.sort(Query.from(TestUser.class).orderByDesc("password").orderBy("email").getOrderComparator());
+
+		// Nulls sort last ascending, as in PostgreSQL
+		Assert.assertEquals(Arrays.asList(c, b, a), users);
+		Assert.assertNull(Query.from(TestUser.class).getOrderComparator());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void test_orderComparatorNeedsOrderedFieldsSelected() {
+		Query.from(TestUser.class).select("id").orderBy("email").getOrderComparator();
+	}
+}
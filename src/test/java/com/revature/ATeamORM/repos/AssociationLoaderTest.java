@@ -0,0 +1,120 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.benchmark.StubJdbc;
+import com.revature.ATeamORM.datasource.StatementCache;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class AssociationLoaderTest {
+
+	private static final String[] AUTHOR_COLUMNS = {"author_id", "name"};
+	private static final String[] POST_COLUMNS = {"post_id", "author_id", "title"};
+	private static final String POSTS_OF_TWO_AUTHORS = "select * from posts where author_id in (?, ?) order by post_id asc";
+
+	private Connection mockConnection;
+	private ObjectRepo sut;
+
+	@Before
+	public void setUpTest() throws SQLException {
+		mockConnection = mock(Connection.class);
+		when(mockConnection.prepareStatement(anyString())).thenAnswer(invocation -> {
+			throw new AssertionError("Unexpected query " + invocation.getArgument(0));
+		});
+		sut = new ObjectRepo();
+	}
+
+	@After
+	public void tearDownTest() {
+		StatementCache.release(mockConnection);
+	}
+
+	private PreparedStatement returning(String sql, String[] labels, Object[][] rows) throws SQLException {
+		PreparedStatement statement = mock(PreparedStatement.class);
+		when(statement.executeQuery()).thenAnswer(invocation -> StubJdbc.resultSet(labels, rows));
+		doReturn(statement).when(mockConnection).prepareStatement(sql);
+		return statement;
+	}
+
+	@Test
+	public void test_oneToManyLoadedWithOneQueryForEveryOwner() throws SQLException {
+		returning("select * from authors", AUTHOR_COLUMNS, new Object[][]{{1, "ann"}, {2, "bob"}, {3, "cy"}});
+		PreparedStatement posts = returning("select * from posts where author_id in (?, ?, ?) order by post_id asc",
+											POST_COLUMNS, new Object[][]{{10, 1, "a"}, {11, 2, "b"}, {12, 1, "c"}});
+
+		List<TestAuthor> authors = sut.read(mockConnection, TestAuthor.class).getList();
+
+		verify(posts, times(1)).executeQuery();
+		Assert.assertEquals(2, authors.get(0).getPosts().size());
+		Assert.assertEquals("c", authors.get(0).getPosts().get(1).getTitle());
+		Assert.assertEquals(1, authors.get(1).getPosts().size());
+		Assert.assertTrue(authors.get(2).getPosts().isEmpty());
+		// Entities fetched for an association do not fetch their own eager associations
+		Assert.assertNull(authors.get(0).getPosts().get(0).getAuthor());
+	}
+
+	@Test
+	public void test_manyToOneSharesFetchedOwner() throws SQLException {
+		returning("select * from posts", POST_COLUMNS, new Object[][]{{10, 1, "a"}, {11, 2, "b"}, {12, 1, "c"}});
+		PreparedStatement authors = returning("select * from authors where author_id in (?, ?) order by author_id asc",
+											  AUTHOR_COLUMNS, new Object[][]{{1, "ann"}, {2, "bob"}});
+
+		List<TestPost> posts = sut.read(mockConnection, TestPost.class).getList();
+
+		verify(authors, times(1)).executeQuery();
+		Assert.assertEquals("ann", posts.get(0).getAuthor().getName());
+		Assert.assertSame(posts.get(0).getAuthor(), posts.get(2).getAuthor());
+		Assert.assertEquals("bob", posts.get(1).getAuthor().getName());
+	}
+
+	@Test
+	public void test_lazyListsLoadTogetherOnFirstUse() throws SQLException {
+		returning("select * from authors", AUTHOR_COLUMNS, new Object[][]{{1, "ann"}, {2, "bob"}});
+		PreparedStatement posts = returning(POSTS_OF_TWO_AUTHORS, POST_COLUMNS,
+											new Object[][]{{10, 1, "a"}, {11, 2, "b"}});
+
+		List<LazyAuthor> authors = sut.read(mockConnection, LazyAuthor.class).getList();
+		LazyList<TestPost> first = (LazyList<TestPost>) authors.get(0).getPosts();
+		LazyList<TestPost> second = (LazyList<TestPost>) authors.get(1).getPosts();
+		verify(posts, never()).executeQuery();
+
+		Assert.assertEquals(1, second.size());
+		Assert.assertTrue(first.isLoaded());
+		Assert.assertEquals("a", first.get(0).getTitle());
+		verify(posts, times(1)).executeQuery();
+	}
+
+	@Test(expected = DataSourceException.class)
+	public void test_lazyListFailsAfterClose() throws SQLException {
+		returning("select * from authors", AUTHOR_COLUMNS, new Object[][]{{1, "ann"}, {2, "bob"}});
+		returning(POSTS_OF_TWO_AUTHORS, POST_COLUMNS, new Object[0][]);
+
+		List<LazyAuthor> authors = sut.read(mockConnection, LazyAuthor.class).getList();
+		sut.closeLazyLists();
+
+		authors.get(0).getPosts().size();
+	}
+
+	@Test
+	public void test_lazyAssociationsFetchedEagerlyWhenDisabled() throws SQLException {
+		returning("select * from authors", AUTHOR_COLUMNS, new Object[][]{{1, "ann"}, {2, "bob"}});
+		PreparedStatement posts = returning(POSTS_OF_TWO_AUTHORS, POST_COLUMNS, new Object[][]{{10, 1, "a"}});
+		sut.setLazyLoading(false);
+
+		List<LazyAuthor> authors = sut.read(mockConnection, LazyAuthor.class).getList();
+
+		verify(posts, times(1)).executeQuery();
+		Assert.assertFalse(authors.get(0).getPosts() instanceof LazyList);
+		Assert.assertEquals(1, authors.get(0).getPosts().size());
+	}
+}
@@ -0,0 +1,40 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.*;
+
+/**
+ * Second-level cached model used by the repos tests.
+ */
+@Entity(name = "cached_users")
+@Table(name = "cached_users")
+@Cacheable(maxSize = 10)
+public class CachedUser {
+
+	@Id
+	@Column(name = "user_id")
+	private int id;
+
+	@Column(name = "username", notNull = true)
+	private String username;
+
+	public CachedUser() {
+		super();
+	}
+
+	public CachedUser(int id, String username) {
+		this.id = id;
+		this.username = username;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+}
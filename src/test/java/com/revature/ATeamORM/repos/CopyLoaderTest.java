@@ -0,0 +1,76 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.exceptions.NullFieldException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class CopyLoaderTest {
+
+	private List<ColumnMetadata> columns;
+	private CopyIn mockCopyIn;
+
+	@Before
+	public void setUpTest() {
+		columns = EntityMetadata.of(TestUser.class).getInsertColumns();
+		mockCopyIn = mock(CopyIn.class);
+	}
+
+	@Test
+	public void test_copySqlListsInsertColumns() {
+		Assert.assertEquals("COPY users (username, password, email) FROM STDIN WITH (FORMAT csv)",
+							CopyLoader.copySql(EntityMetadata.of(TestUser.class)));
+	}
+
+	@Test
+	public void test_encoderQuotesStringsAndWritesNullsEmpty() {
+		CopyEncoder encoder = new CopyEncoder(4);
+		encoder.writeRow(new TestUser("say \"hi\"", "", null), columns);
+		encoder.writeRow(new TestUser("\u017e\u00e9\u20ac\ud83d\ude00", "p", "e"), columns);
+
+		String csv = new String(encoder.buffer(), 0, encoder.length(), StandardCharsets.UTF_8);
+		Assert.assertEquals("\"say \"\"hi\"\"\",\"\",\n\"\u017e\u00e9\u20ac\ud83d\ude00\",\"p\",\"e\"\n", csv);
+	}
+
+	@Test(expected = NullFieldException.class)
+	public void test_encoderRejectsNullNotNullColumn() {
+		new CopyEncoder(16).writeRow(new TestUser(null, "p", "e"), columns);
+	}
+
+	@Test
+	public void test_writeFlushesWhenBufferFillsAndEndsCopy() throws SQLException {
+		when(mockCopyIn.endCopy()).thenReturn(3L);
+		List<TestUser> users = Arrays.asList(new TestUser("a", "p", "e"), new TestUser("b", "p", "e"),
+											 new TestUser("c", "p", "e"));
+
+		long loaded = new CopyLoader(8).write(mockCopyIn, columns, users.iterator());
+
+		Assert.assertEquals(3, loaded);
+		verify(mockCopyIn, times(3)).writeToCopy(any(byte[].class), eq(0), anyInt());
+		verify(mockCopyIn).endCopy();
+	}
+
+	@Test
+	public void test_writeCancelsCopyOnFailure() throws SQLException {
+		when(mockCopyIn.isActive()).thenReturn(true);
+
+		try {
+			new CopyLoader().write(mockCopyIn, columns, Collections.singletonList(new TestUser(null, "p", "e")).iterator());
+			Assert.fail("Expected NullFieldException");
+		} catch (NullFieldException expected) {
+			verify(mockCopyIn).cancelCopy();
+			verify(mockCopyIn, never()).endCopy();
+		}
+	}
+}
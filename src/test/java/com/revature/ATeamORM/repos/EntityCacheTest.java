@@ -0,0 +1,44 @@
+package com.revature.ATeamORM.repos;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class EntityCacheTest {
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	@After
+	public void tearDownTest() {
+		executor.shutdownNow();
+		EntityCache.clearAll();
+	}
+
+	@Test
+	public void test_putRacingEvictNeverCachesStaleRow() throws Exception {
+		EntityCache<CachedUser> sut = EntityCache.of(CachedUser.class);
+		CachedUser user = new CachedUser(4, "stale");
+		CyclicBarrier start = new CyclicBarrier(2);
+
+		for (int i = 0; i < 2_000; i++) {
+			long stamp = sut.beginRead();
+			Future<?> writer = executor.submit(() -> {
+				start.await();
+				sut.evict(user);
+				return null;
+			});
+			start.await();
+			sut.put(user, stamp);
+			writer.get(5, TimeUnit.SECONDS);
+
+			// The write began after the read, whichever thread got to the cache first
+			Assert.assertNull(sut.get(4));
+		}
+	}
+}
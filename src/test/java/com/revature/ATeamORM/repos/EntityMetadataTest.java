@@ -0,0 +1,86 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class EntityMetadataTest {
+
+	@Test
+	public void test_ofReturnsCachedInstance() {
+		Assert.assertSame(EntityMetadata.of(TestUser.class), EntityMetadata.of(TestUser.class));
+	}
+
+	@Test
+	public void test_columnsFollowDeclarationOrder() {
+		List<String> columns = EntityMetadata.of(TestUser.class)
+											 .getColumns()
+											 .stream()
+											 .map(ColumnMetadata::getColumnName)
+											 .collect(Collectors.toList());
+		Assert.assertEquals(4, columns.size());
+		Assert.assertEquals("user_id", columns.get(0));
+		Assert.assertEquals("email", columns.get(3));
+	}
+
+	@Test
+	public void test_idAndUniqueColumns() {
+		EntityMetadata<TestUser> metadata = EntityMetadata.of(TestUser.class);
+		Assert.assertEquals("user_id", metadata.requireIdColumn().getColumnName());
+		Assert.assertEquals(1, metadata.getUniqueColumns().size());
+		Assert.assertTrue(metadata.getColumn("username").isNotNull());
+		Assert.assertEquals(3, metadata.getInsertColumns().size());
+	}
+
+	@Test
+	public void test_tableNameAndSqlTemplates() {
+		EntityMetadata<TestUser> metadata = EntityMetadata.of(TestUser.class);
+		Assert.assertTrue(metadata.isEntity());
+		Assert.assertEquals("users", metadata.getTableName());
+		Assert.assertEquals("select * from users", metadata.getSelectAllSql());
+		Assert.assertEquals("insert into users (username, password, email) values (?, ?, ?)", metadata.getInsertSql());
+		Assert.assertEquals("select * from users where username = ?", metadata.getSelectByFieldSql("username"));
+		Assert.assertEquals("update users set username = ?, password = ?, email = ? where user_id = ?",
+							metadata.getUpdateSql());
+	}
+
+	@Test
+	public void test_upsertConflictsOnIdOrUniqueColumns() {
+		EntityMetadata<TestUser> metadata = EntityMetadata.of(TestUser.class);
+		Assert.assertEquals("insert into users (user_id, username, password, email) values (?, ?, ?, ?) " +
+							"on conflict (user_id) do update set user_id = excluded.user_id, " +
+							"username = excluded.username, password = excluded.password, email = excluded.email",
+							metadata.getUpsertSql(true));
+		Assert.assertEquals("insert into users (username, password, email) values (?, ?, ?) " +
+							"on conflict (username) do update set username = excluded.username, " +
+							"password = excluded.password, email = excluded.email",
+							metadata.getUpsertSql(false));
+
+		TestUser user = new TestUser("name", "pass", "mail");
+		Assert.assertFalse(metadata.hasId(user));
+		user.setId(3);
+		Assert.assertTrue(metadata.hasId(user));
+	}
+
+	@Test
+	public void test_columnAccessorsReadAndWriteFields() {
+		TestUser user = new TestUser("name", "pass", "mail");
+		ColumnMetadata column = EntityMetadata.of(TestUser.class).getColumn("email");
+		Assert.assertEquals("mail", column.get(user));
+		column.set(user, "other");
+		Assert.assertEquals("other", user.getEmail());
+	}
+
+	@Test(expected = DataSourceException.class)
+	public void test_getColumnWithUnmappedField() {
+		EntityMetadata.of(TestUser.class).getColumn("notPersisted");
+	}
+
+	@Test(expected = DataSourceException.class)
+	public void test_requireIdColumnWithoutId() {
+		EntityMetadata.of(String.class).requireIdColumn();
+	}
+}
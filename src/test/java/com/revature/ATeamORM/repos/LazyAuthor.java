@@ -0,0 +1,35 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.*;
+
+import java.util.List;
+
+/**
+ * TestAuthor with its posts loaded lazily. Shares its table with TestAuthor.
+ */
+@Entity(name = "authors")
+@Table(name = "authors")
+public class LazyAuthor {
+
+	@Id
+	@Column(name = "author_id")
+	private int id;
+
+	@Column(name = "name")
+	private String name;
+
+	@ForeignKey(name = "authorId", lazy = true)
+	private List<TestPost> posts;
+
+	public LazyAuthor() {
+		super();
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public List<TestPost> getPosts() {
+		return posts;
+	}
+}
@@ -0,0 +1,31 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.*;
+
+/**
+ * Query cached model used by the repos tests. Shares its table with TestUser.
+ */
+@Entity(name = "users")
+@Table(name = "users")
+@CacheQueries(maxRows = 2)
+public class LookupUser {
+
+	@Id
+	@Column(name = "user_id")
+	private int id;
+
+	@Column(name = "username", notNull = true)
+	private String username;
+
+	public LookupUser() {
+		super();
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+}
@@ -0,0 +1,45 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.benchmark.StubJdbc;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping throughput of ObjectCreator over the stub JDBC ResultSet.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ObjectCreatorBenchmark {
+
+	@Param({"1", "100"})
+	public int rows;
+
+	private Object[][] data;
+
+	@Setup
+	public void setUp() {
+		data = StubJdbc.users(rows);
+	}
+
+	/**
+	 * Column lookup once per ResultSet plus one object per row, the work behind every find/findAll
+	 */
+	@Benchmark
+	public void mapResultSet(Blackhole blackhole) throws SQLException, NoSuchMethodException, InvocationTargetException,
+			InstantiationException, IllegalAccessException {
+		ResultSet rs = StubJdbc.resultSet(StubJdbc.USER_COLUMNS, data);
+		ObjectCreator<TestUser> creator = new ObjectCreator<>(TestUser.class, rs);
+		while (rs.next()) {
+			blackhole.consume(creator.create());
+		}
+	}
+}
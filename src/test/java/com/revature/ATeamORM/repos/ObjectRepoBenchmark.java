@@ -0,0 +1,49 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.benchmark.StubJdbc;
+import com.revature.ATeamORM.datasource.StatementCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statement lookup and parameter binding of the single-object writes in ObjectRepo over a stub connection.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ObjectRepoBenchmark {
+
+	private final ObjectRepo repo = new ObjectRepo();
+	private Connection conn;
+	private TestUser user;
+
+	@Setup
+	public void setUp() {
+		conn = StubJdbc.connection(StubJdbc.USER_COLUMNS, StubJdbc.users(1));
+		user = new TestUser("user", "password", "user@example.com");
+		user.setId(1);
+	}
+
+	@TearDown
+	public void tearDown() {
+		StatementCache.release(conn);
+	}
+
+	@Benchmark
+	public TestUser create() throws SQLException {
+		repo.create(conn, user);
+		return user;
+	}
+
+	@Benchmark
+	public TestUser update() throws SQLException {
+		repo.update(conn, user);
+		return user;
+	}
+}
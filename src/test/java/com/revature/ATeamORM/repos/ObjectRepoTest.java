@@ -0,0 +1,411 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.datasource.StatementCache;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import com.revature.ATeamORM.exceptions.NullFieldException;
+import com.revature.ATeamORM.metrics.CacheRegion;
+import com.revature.ATeamORM.metrics.InMemoryMetrics;
+import com.revature.ATeamORM.metrics.Metrics;
+import com.revature.ATeamORM.metrics.Operation;
+import com.revature.ATeamORM.query.Aggregate;
+import com.revature.ATeamORM.query.Query;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ObjectRepoTest {
+
+	private Connection mockConnection;
+	private PreparedStatement mockStatement;
+	private ResultSet mockResultSet;
+	private ObjectRepo sut;
+
+	@Before
+	public void setUpTest() throws SQLException {
+		mockConnection = mock(Connection.class);
+		mockStatement = mock(PreparedStatement.class);
+		mockResultSet = mock(ResultSet.class);
+		when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+		when(mockConnection.prepareStatement(anyString(), any(String[].class))).thenReturn(mockStatement);
+		when(mockConnection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(mockStatement);
+		when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+		when(mockStatement.getGeneratedKeys()).thenReturn(mockResultSet);
+		sut = new ObjectRepo();
+	}
+
+	@After
+	public void tearDownTest() {
+		StatementCache.release(mockConnection);
+		EntityCache.clearAll();
+		QueryCache.clearAll();
+		Metrics.uninstall();
+		sut = null;
+	}
+
+	@Test
+	public void test_createBindsValuesToParameterizedInsert() throws SQLException {
+		when(mockStatement.executeUpdate()).thenReturn(1);
+		when(mockResultSet.next()).thenReturn(true, false);
+		when(mockResultSet.getInt(1)).thenReturn(7);
+		TestUser user = new TestUser("o'brien", "pass", null);
+
+		sut.create(mockConnection, user);
+
+		verify(mockConnection).prepareStatement("insert into users (username, password, email) values (?, ?, ?)",
+												new String[]{"user_id"});
+		verify(mockStatement).setString(1, "o'brien");
+		verify(mockStatement).setString(2, "pass");
+		verify(mockStatement).setNull(eq(3), anyInt());
+		org.junit.Assert.assertEquals(7, user.getId());
+	}
+
+	@Test(expected = NullFieldException.class)
+	public void test_createWithNullNotNullColumn() throws SQLException {
+		sut.create(mockConnection, new TestUser(null, "pass", "mail"));
+	}
+
+	@Test
+	public void test_readReusesStatementAndBindsTypedValue() throws SQLException {
+		sut.read(mockConnection, TestUser.class, "id", "3");
+		sut.read(mockConnection, TestUser.class, "id", "4");
+
+		verify(mockConnection, times(1)).prepareStatement("select * from users where user_id = ?");
+		verify(mockStatement).setInt(1, 3);
+		verify(mockStatement).setInt(1, 4);
+		verify(mockResultSet, times(2)).close();
+	}
+
+	@Test
+	public void test_deleteBindsId() throws SQLException {
+		TestUser user = new TestUser("name", "pass", "mail");
+		user.setId(5);
+
+		sut.delete(mockConnection, user);
+
+		verify(mockConnection).prepareStatement("delete from users where user_id = ?");
+		verify(mockStatement).setInt(1, 5);
+		verify(mockStatement).executeUpdate();
+	}
+
+	@Test
+	public void test_iterateStreamsRowsThroughCursor() throws SQLException {
+		when(mockConnection.getAutoCommit()).thenReturn(true);
+		when(mockResultSet.next()).thenReturn(true, true, false);
+		when(mockResultSet.getString(anyInt())).thenReturn("row");
+
+		long count;
+		try (Stream<TestUser> users = sut.iterate(mockConnection, TestUser.class, 100).stream()) {
+			verify(mockConnection).setAutoCommit(false);
+			verify(mockStatement).setFetchSize(100);
+			count = users.count();
+		}
+
+		org.junit.Assert.assertEquals(2, count);
+		verify(mockResultSet).close();
+		verify(mockStatement).close();
+		verify(mockConnection).commit();
+		verify(mockConnection).setAutoCommit(true);
+	}
+
+	@Test
+	public void test_iterateLeavesExistingTransactionOpen() throws SQLException {
+		when(mockConnection.getAutoCommit()).thenReturn(false);
+
+		sut.iterate(mockConnection, TestUser.class, "username", "name", 10).close();
+
+		verify(mockStatement).setString(1, "name");
+		verify(mockConnection, never()).setAutoCommit(anyBoolean());
+		verify(mockConnection, never()).commit();
+	}
+
+	@Test
+	public void test_createAllBatchesInChunksAndWritesBackIds() throws SQLException {
+		when(mockConnection.getAutoCommit()).thenReturn(true);
+		when(mockResultSet.next()).thenReturn(true, true, false, true, false);
+		when(mockResultSet.getInt(1)).thenReturn(1, 2, 3);
+		List<TestUser> users = Arrays.asList(new TestUser("a", "p", "e"), new TestUser("b", "p", "e"),
+											 new TestUser("c", "p", "e"));
+
+		sut.createAll(mockConnection, users, 2);
+
+		verify(mockStatement, times(3)).addBatch();
+		verify(mockStatement, times(2)).executeBatch();
+		verify(mockConnection).commit();
+		org.junit.Assert.assertEquals(1, users.get(0).getId());
+		org.junit.Assert.assertEquals(2, users.get(1).getId());
+		org.junit.Assert.assertEquals(3, users.get(2).getId());
+	}
+
+	@Test
+	public void test_deleteAllRollsBackOnFailure() throws SQLException {
+		when(mockConnection.getAutoCommit()).thenReturn(true);
+		when(mockStatement.executeBatch()).thenThrow(new SQLException("boom"));
+
+		try {
+			sut.deleteAll(mockConnection, Arrays.asList(new TestUser("a", "p", "e")), 10);
+			org.junit.Assert.fail("Expected SQLException");
+		} catch (SQLException expected) {
+			verify(mockConnection).rollback();
+			verify(mockConnection, never()).commit();
+			verify(mockConnection).setAutoCommit(true);
+		}
+	}
+
+	@Test
+	public void test_updateColumnsWritesOnlyProvidedColumns() throws SQLException {
+		when(mockConnection.getAutoCommit()).thenReturn(true);
+		TestUser user = new TestUser("name", "pass", "mail");
+		user.setId(3);
+		Map<Object, List<ColumnMetadata>> changes = new LinkedHashMap<>();
+		changes.put(user, Collections.singletonList(EntityMetadata.of(TestUser.class).getColumn("email")));
+		changes.put(new TestUser("other", "pass", "mail"), Collections.emptyList());
+
+		sut.updateColumns(mockConnection, changes, 10);
+
+		verify(mockConnection).prepareStatement("update users set email = ? where user_id = ?");
+		verify(mockStatement).setString(1, "mail");
+		verify(mockStatement).setInt(2, 3);
+		verify(mockStatement, times(1)).addBatch();
+		verify(mockConnection).commit();
+	}
+
+	@Test
+	public void test_readRegistersRowsWithPersistenceContext() throws SQLException {
+		PersistenceContext context = new PersistenceContext();
+		sut.setPersistenceContext(context);
+		when(mockResultSet.next()).thenReturn(true, true, false);
+		when(mockResultSet.findColumn("user_id")).thenReturn(1);
+		when(mockResultSet.getInt(1)).thenReturn(9);
+
+		List<TestUser> users = sut.read(mockConnection, TestUser.class).getList();
+
+		org.junit.Assert.assertSame(users.get(0), users.get(1));
+		org.junit.Assert.assertSame(users.get(0), context.find(TestUser.class, 9));
+	}
+
+	@Test
+	public void test_readByIdServedFromEntityCacheUntilWritten() throws SQLException {
+		when(mockResultSet.next()).thenReturn(true, false);
+		when(mockResultSet.findColumn("user_id")).thenReturn(1);
+		when(mockResultSet.findColumn("username")).thenReturn(2);
+		when(mockResultSet.getInt(1)).thenReturn(4);
+		when(mockResultSet.getString(2)).thenReturn("cached");
+
+		CachedUser first = sut.read(mockConnection, CachedUser.class, "id", "4").getFirstEntry();
+		CachedUser second = sut.read(mockConnection, CachedUser.class, "id", "4").getFirstEntry();
+
+		verify(mockStatement, times(1)).executeQuery();
+		org.junit.Assert.assertNotSame(first, second);
+		org.junit.Assert.assertEquals("cached", second.getUsername());
+		org.junit.Assert.assertEquals(1, EntityCache.of(CachedUser.class).getStats().getHitCount());
+
+		sut.delete(mockConnection, second);
+		org.junit.Assert.assertNull(EntityCache.of(CachedUser.class).get(4));
+	}
+
+	@Test
+	public void test_replicaReadsDoNotFillSharedCaches() throws SQLException {
+		when(mockResultSet.next()).thenReturn(true, false, true, false);
+		when(mockResultSet.findColumn("user_id")).thenReturn(1);
+		when(mockResultSet.findColumn("username")).thenReturn(2);
+		when(mockResultSet.getInt(1)).thenReturn(4);
+		when(mockResultSet.getString(2)).thenReturn("stale");
+		sut.setReplicaConnection(mockConnection);
+
+		sut.read(mockConnection, CachedUser.class, "id", "4");
+		sut.read(mockConnection, LookupUser.class, "username", "stale");
+
+		org.junit.Assert.assertNull(EntityCache.of(CachedUser.class).get(4));
+		org.junit.Assert.assertEquals(0, QueryCache.of(LookupUser.class).getStats().getSize());
+	}
+
+	@Test
+	public void test_findResultsCachedUntilTableIsWritten() throws SQLException {
+		when(mockResultSet.next()).thenReturn(true, false, true, false);
+		when(mockResultSet.findColumn("user_id")).thenReturn(1);
+		when(mockResultSet.findColumn("username")).thenReturn(2);
+		when(mockResultSet.getInt(1)).thenReturn(6);
+		when(mockResultSet.getString(2)).thenReturn("lookup");
+
+		sut.read(mockConnection, LookupUser.class, "username", "lookup");
+		LookupUser cached = sut.read(mockConnection, LookupUser.class, "username", "lookup").getFirstEntry();
+
+		verify(mockStatement, times(1)).executeQuery();
+		org.junit.Assert.assertEquals(6, cached.getId());
+		org.junit.Assert.assertEquals(1, QueryCache.of(LookupUser.class).getStats().getHitCount());
+
+		// Writes through any class mapped to the same table clear the cached results
+		TestUser user = new TestUser("lookup", "pass", "mail");
+		user.setId(6);
+		sut.delete(mockConnection, user);
+		sut.read(mockConnection, LookupUser.class, "username", "lookup");
+
+		verify(mockStatement, times(2)).executeQuery();
+	}
+
+	@Test
+	public void test_projectionHydratesOnlySelectedColumnsAndIsNotTracked() throws SQLException {
+		when(mockResultSet.next()).thenReturn(true, false);
+		when(mockResultSet.findColumn("user_id")).thenReturn(1);
+		when(mockResultSet.findColumn("username")).thenReturn(2);
+		when(mockResultSet.getInt(1)).thenReturn(3);
+		when(mockResultSet.getString(2)).thenReturn("partial");
+		PersistenceContext context = new PersistenceContext();
+		sut.setPersistenceContext(context);
+
+		TestUser user = sut.read(mockConnection, Query.from(TestUser.class).select("id", "username")).getFirstEntry();
+
+		verify(mockConnection).prepareStatement("select user_id, username from users");
+		verify(mockResultSet, never()).findColumn("password");
+		org.junit.Assert.assertEquals(3, user.getId());
+		org.junit.Assert.assertEquals("partial", user.getUsername());
+		org.junit.Assert.assertNull(user.getPassword());
+		org.junit.Assert.assertEquals(0, context.size());
+	}
+
+	@Test
+	public void test_projectionIntoConstructor() throws SQLException {
+		when(mockResultSet.next()).thenReturn(true, true, false);
+		when(mockResultSet.findColumn("username")).thenReturn(1);
+		when(mockResultSet.findColumn("user_id")).thenReturn(2);
+		when(mockResultSet.getString(1)).thenReturn("first", "second");
+		when(mockResultSet.getInt(2)).thenReturn(1, 2);
+
+		List<UserSummary> summaries = sut.read(mockConnection, Query.from(TestUser.class).select("username", "id"),
+											   UserSummary.class).getList();
+
+		org.junit.Assert.assertEquals(2, summaries.size());
+		org.junit.Assert.assertEquals("second", summaries.get(1).username);
+		org.junit.Assert.assertEquals(2, summaries.get(1).id);
+	}
+
+	@Test
+	public void test_constructorMapperCacheKeyIsNotTheCallersList() {
+		EntityMetadata<TestUser> metadata = EntityMetadata.of(TestUser.class);
+		List<ColumnMetadata> columns = new ArrayList<>();
+		columns.add(metadata.getColumn("username"));
+		columns.add(metadata.getColumn("id"));
+		ConstructorMapper<UserSummary> mapper = ConstructorMapper.of(UserSummary.class, columns);
+
+		// A reused Query clears and refills its selected columns
+		columns.clear();
+
+		org.junit.Assert.assertSame(mapper, ConstructorMapper.of(UserSummary.class,
+				Arrays.asList(metadata.getColumn("username"), metadata.getColumn("id"))));
+	}
+
+	@Test(expected = DataSourceException.class)
+	public void test_projectionWithoutMatchingConstructorFails() throws SQLException {
+		sut.read(mockConnection, Query.from(TestUser.class).select("id", "username"), UserSummary.class);
+	}
+
+	@Test
+	public void test_isEntryUniqueChecksExistence() throws SQLException {
+		when(mockResultSet.next()).thenReturn(true);
+		when(mockResultSet.getBoolean(1)).thenReturn(true, false);
+		TestUser user = new TestUser("taken", "pass", "mail");
+
+		org.junit.Assert.assertFalse(sut.isEntryUnique(mockConnection, user));
+		org.junit.Assert.assertTrue(sut.isEntryUnique(mockConnection, user));
+
+		verify(mockConnection).prepareStatement("select exists(select 1 from users where username = ? limit 1)");
+		verify(mockStatement, times(2)).setString(1, "taken");
+	}
+
+	@Test
+	public void test_groupedAggregate() throws SQLException {
+		when(mockResultSet.next()).thenReturn(true, true, false);
+		when(mockResultSet.getString(1)).thenReturn("a.com", "b.com");
+		when(mockResultSet.getObject(2)).thenReturn(3L, 1L);
+
+		Map<Object, Number> counts = sut.aggregate(mockConnection, Query.from(TestUser.class), Aggregate.COUNT, null,
+												   "email");
+
+		verify(mockConnection).prepareStatement("select email, count(*) from users group by email");
+		org.junit.Assert.assertEquals(Arrays.asList("a.com", "b.com"), new java.util.ArrayList<>(counts.keySet()));
+		org.junit.Assert.assertEquals(3L, counts.get("a.com"));
+	}
+
+	@Test
+	public void test_upsertAllGroupsByConflictTargetAndWritesIdsBack() throws SQLException {
+		when(mockResultSet.next()).thenReturn(true, false, true, false);
+		when(mockResultSet.getInt(1)).thenReturn(12, 5);
+		TestUser fresh = new TestUser("fresh", "pass", "mail");
+		TestUser known = new TestUser("known", "pass", "mail");
+		known.setId(5);
+
+		sut.upsertAll(mockConnection, Arrays.asList(fresh, known), 10);
+
+		verify(mockConnection).prepareStatement(eq(EntityMetadata.of(TestUser.class).getUpsertSql(false)),
+												any(String[].class));
+		verify(mockConnection).prepareStatement(eq(EntityMetadata.of(TestUser.class).getUpsertSql(true)),
+												any(String[].class));
+		verify(mockStatement, times(2)).executeBatch();
+		org.junit.Assert.assertEquals(12, fresh.getId());
+		org.junit.Assert.assertEquals(5, known.getId());
+	}
+
+	@Test
+	public void test_updateOnlyWritesProvidedColumns() throws SQLException {
+		TestUser user = new TestUser("name", "pass", "mail");
+		user.setId(4);
+		EntityMetadata<TestUser> metadata = EntityMetadata.of(TestUser.class);
+
+		sut.update(mockConnection, user, Collections.emptyList());
+		verify(mockConnection, never()).prepareStatement(anyString());
+
+		sut.update(mockConnection, user, Collections.singletonList(metadata.getColumn("email")));
+		verify(mockConnection).prepareStatement("update users set email = ? where user_id = ?");
+		verify(mockStatement).setString(1, "mail");
+		verify(mockStatement).setInt(2, 4);
+		verify(mockStatement).executeUpdate();
+	}
+
+	@Test
+	public void test_statementsCacheLookupsAndMappingReportedToMetrics() throws SQLException {
+		InMemoryMetrics metrics = new InMemoryMetrics();
+		Metrics.install(metrics);
+		when(mockResultSet.next()).thenReturn(true, false);
+		when(mockResultSet.findColumn("user_id")).thenReturn(1);
+		when(mockResultSet.findColumn("username")).thenReturn(2);
+		when(mockResultSet.getInt(1)).thenReturn(4);
+		when(mockResultSet.getString(2)).thenReturn("cached");
+		when(mockStatement.executeBatch()).thenReturn(new int[]{1, 1});
+
+		sut.read(mockConnection, CachedUser.class, "id", "4");
+		sut.read(mockConnection, CachedUser.class, "id", "4");
+		sut.deleteAll(mockConnection, Arrays.asList(new CachedUser(1, "a"), new CachedUser(2, "b")), 10);
+
+		org.junit.Assert.assertEquals(1, metrics.getStatementMetrics(CachedUser.class, Operation.SELECT).getLatency().getCount());
+		org.junit.Assert.assertEquals(1, metrics.getStatementMetrics(CachedUser.class, Operation.SELECT).getRows());
+		org.junit.Assert.assertEquals(2, metrics.getStatementMetrics(CachedUser.class, Operation.DELETE).getRows());
+		org.junit.Assert.assertEquals(1, metrics.getRowMappingMetrics(CachedUser.class).getLatency().getCount());
+		org.junit.Assert.assertEquals(0.5, metrics.getCacheMetrics(CachedUser.class, CacheRegion.ENTITY).getHitRate(), 0);
+	}
+
+	static class UserSummary {
+		final String username;
+		final int id;
+
+		UserSummary(String username, int id) {
+			this.username = username;
+			this.id = id;
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.revature.ATeamORM.repos;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class PersistenceContextTest {
+
+	private PersistenceContext sut;
+
+	@Before
+	public void setUpTest() {
+		sut = new PersistenceContext();
+	}
+
+	private static TestUser user(int id, String username) {
+		TestUser user = new TestUser(username, "pass", "mail");
+		user.setId(id);
+		return user;
+	}
+
+	@Test
+	public void test_registerKeepsFirstInstanceForSameRow() {
+		TestUser first = user(1, "name");
+		TestUser second = user(1, "name");
+
+		Assert.assertSame(first, sut.register(first));
+		Assert.assertSame(first, sut.register(second));
+		Assert.assertSame(first, sut.find(TestUser.class, 1));
+		Assert.assertNull(sut.find(TestUser.class, 2));
+		Assert.assertEquals(1, sut.size());
+	}
+
+	@Test
+	public void test_dirtyEntitiesOnlyContainChangedColumns() {
+		TestUser changed = sut.register(user(1, "name"));
+		sut.register(user(2, "other"));
+		changed.setEmail("new mail");
+
+		Map<Object, List<ColumnMetadata>> dirty = sut.getDirtyEntities();
+
+		Assert.assertEquals(1, dirty.size());
+		Assert.assertEquals(1, dirty.get(changed).size());
+		Assert.assertEquals("email", dirty.get(changed).get(0).getColumnName());
+	}
+
+	@Test
+	public void test_markWrittenOnlyCleansWrittenColumns() {
+		TestUser user = sut.register(user(1, "name"));
+		user.setPassword("changed");
+		user.setEmail("changed");
+		EntityMetadata<TestUser> metadata = EntityMetadata.of(TestUser.class);
+
+		Assert.assertTrue(sut.markWritten(user, Collections.singletonList(metadata.getColumn("password"))));
+
+		List<ColumnMetadata> changed = sut.getChangedColumns(user);
+		Assert.assertEquals(1, changed.size());
+		Assert.assertEquals("email", changed.get(0).getColumnName());
+		Assert.assertFalse(sut.markWritten(user(2, "other"), metadata.getUpdateColumns()));
+	}
+
+	@Test
+	public void test_manageResetsSnapshot() {
+		TestUser user = sut.register(user(1, "name"));
+		user.setPassword("changed");
+
+		sut.manage(user);
+
+		Assert.assertTrue(sut.getChangedColumns(user).isEmpty());
+		Assert.assertTrue(sut.getDirtyEntities().isEmpty());
+	}
+
+	@Test
+	public void test_evictForgetsEntity() {
+		TestUser user = sut.register(user(1, "name"));
+
+		sut.evict(user);
+
+		Assert.assertFalse(sut.contains(user));
+		Assert.assertNull(sut.find(TestUser.class, 1));
+		Assert.assertNull(sut.getChangedColumns(user));
+	}
+}
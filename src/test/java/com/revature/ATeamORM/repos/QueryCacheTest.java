@@ -0,0 +1,46 @@
+package com.revature.ATeamORM.repos;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class QueryCacheTest {
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	@After
+	public void tearDownTest() {
+		executor.shutdownNow();
+		QueryCache.clearAll();
+	}
+
+	@Test
+	public void test_putRacingClearNeverCachesStaleResult() throws Exception {
+		QueryCache<LookupUser> sut = QueryCache.of(LookupUser.class);
+		List<Object[]> rows = Collections.singletonList(new Object[]{6, "stale"});
+		CyclicBarrier start = new CyclicBarrier(2);
+
+		for (int i = 0; i < 2_000; i++) {
+			long stamp = sut.beginRead();
+			Future<?> writer = executor.submit(() -> {
+				start.await();
+				QueryCache.invalidateTable("users");
+				return null;
+			});
+			start.await();
+			sut.put("username", "stale", rows, stamp);
+			writer.get(5, TimeUnit.SECONDS);
+
+			// The write began after the read, whichever thread got to the cache first
+			Assert.assertNull(sut.get("username", "stale"));
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.Column;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.mockito.Mockito.*;
+
+public class RowMapperTest {
+
+	private static class PrivateModel {
+		@Column(name = "score")
+		private Double score;
+
+		@Column(name = "active")
+		private boolean active;
+
+		public PrivateModel() {
+			super();
+		}
+	}
+
+	public static class UnsupportedModel {
+		@Column(name = "created")
+		private java.util.Date created;
+	}
+
+	public static class FailingModel {
+		@Column(name = "name")
+		private String name;
+
+		public FailingModel() {
+			throw new IllegalStateException("no");
+		}
+	}
+
+	private ResultSet mockResultSet;
+
+	@Before
+	public void setUpTest() throws SQLException {
+		mockResultSet = mock(ResultSet.class);
+		when(mockResultSet.findColumn("user_id")).thenReturn(1);
+		when(mockResultSet.findColumn("username")).thenReturn(2);
+		when(mockResultSet.findColumn("password")).thenReturn(3);
+		when(mockResultSet.findColumn("email")).thenReturn(4);
+	}
+
+	@Test
+	public void test_mapPopulatesEveryColumnByIndex() throws Exception {
+		when(mockResultSet.getInt(1)).thenReturn(9);
+		when(mockResultSet.getString(2)).thenReturn("name");
+		when(mockResultSet.getString(3)).thenReturn("pass");
+		when(mockResultSet.getString(4)).thenReturn("mail");
+		RowMapper<TestUser> sut = EntityMetadata.of(TestUser.class).getRowMapper();
+
+		TestUser user = sut.map(mockResultSet, sut.resolveIndexes(mockResultSet));
+
+		Assert.assertEquals(9, user.getId());
+		Assert.assertEquals("name", user.getUsername());
+		Assert.assertEquals("pass", user.getPassword());
+		Assert.assertEquals("mail", user.getEmail());
+		verify(mockResultSet, never()).getString("username");
+	}
+
+	@Test
+	public void test_resolveIndexesLooksUpEachColumnOnce() throws Exception {
+		RowMapper<TestUser> sut = EntityMetadata.of(TestUser.class).getRowMapper();
+		int[] indexes = sut.resolveIndexes(mockResultSet);
+		sut.map(mockResultSet, indexes);
+		sut.map(mockResultSet, indexes);
+
+		Assert.assertArrayEquals(new int[]{1, 2, 3, 4}, indexes);
+		verify(mockResultSet, times(1)).findColumn("username");
+	}
+
+	@Test
+	public void test_mapWithNonPublicClassAndWrapperTypes() throws Exception {
+		when(mockResultSet.findColumn("score")).thenReturn(1);
+		when(mockResultSet.findColumn("active")).thenReturn(2);
+		when(mockResultSet.getDouble(1)).thenReturn(2.5);
+		when(mockResultSet.getBoolean(2)).thenReturn(true);
+		RowMapper<PrivateModel> sut = EntityMetadata.of(PrivateModel.class).getRowMapper();
+
+		PrivateModel model = sut.map(mockResultSet, sut.resolveIndexes(mockResultSet));
+
+		Assert.assertEquals(Double.valueOf(2.5), model.score);
+		Assert.assertTrue(model.active);
+	}
+
+	@Test(expected = DataSourceException.class)
+	public void test_compileWithUnsupportedFieldType() throws Exception {
+		EntityMetadata.of(UnsupportedModel.class).getRowMapper();
+	}
+
+	@Test(expected = InvocationTargetException.class)
+	public void test_mapWrapsConstructorFailure() throws Exception {
+		RowMapper<FailingModel> sut = EntityMetadata.of(FailingModel.class).getRowMapper();
+		sut.map(mockResultSet, sut.resolveIndexes(mockResultSet));
+	}
+}
@@ -0,0 +1,39 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.*;
+
+import java.util.List;
+
+/**
+ * One side of the association models used by the repos tests
+ */
+@Entity(name = "authors")
+@Table(name = "authors")
+public class TestAuthor {
+
+	@Id
+	@Column(name = "author_id")
+	private int id;
+
+	@Column(name = "name")
+	private String name;
+
+	@ForeignKey(name = "authorId")
+	private List<TestPost> posts;
+
+	public TestAuthor() {
+		super();
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<TestPost> getPosts() {
+		return posts;
+	}
+}
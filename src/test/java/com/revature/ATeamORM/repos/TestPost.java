@@ -0,0 +1,44 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.*;
+
+/**
+ * Many side of the association models used by the repos tests
+ */
+@Entity(name = "posts")
+@Table(name = "posts")
+public class TestPost {
+
+	@Id
+	@Column(name = "post_id")
+	private int id;
+
+	@Column(name = "author_id")
+	private int authorId;
+
+	@Column(name = "title")
+	private String title;
+
+	@ForeignKey(name = "authorId")
+	private TestAuthor author;
+
+	public TestPost() {
+		super();
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public int getAuthorId() {
+		return authorId;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public TestAuthor getAuthor() {
+		return author;
+	}
+}
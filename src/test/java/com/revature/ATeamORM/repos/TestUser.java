@@ -0,0 +1,68 @@
+package com.revature.ATeamORM.repos;
+
+import com.revature.ATeamORM.annotations.*;
+
+/**
+ * Annotated model shared by the repos tests. Mirrors the shape of the AppUser test model.
+ */
+@Entity(name = "users")
+@Table(name = "users")
+public class TestUser {
+
+	@Id
+	@Column(name = "user_id")
+	private int id;
+
+	@Column(name = "username", notNull = true, unique = true)
+	private String username;
+
+	@Column(name = "password")
+	private String password;
+
+	@Column(name = "email")
+	private String email;
+
+	private String notPersisted;
+
+	public TestUser() {
+		super();
+	}
+
+	public TestUser(String username, String password, String email) {
+		this.username = username;
+		this.password = password;
+		this.email = email;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+}
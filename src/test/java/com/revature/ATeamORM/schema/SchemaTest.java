@@ -0,0 +1,164 @@
+package com.revature.ATeamORM.schema;
+
+import com.revature.ATeamORM.benchmark.StubJdbc;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import com.revature.ATeamORM.repos.TestAuthor;
+import com.revature.ATeamORM.repos.TestPost;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SchemaTest {
+
+	@Test
+	public void test_createSqlFromAnnotations() {
+		List<String> ddl = Schema.of(TestAccount.class).toCreateSql();
+
+		Assert.assertEquals(Arrays.asList(
+				"create table accounts (account_id serial primary key, email text not null, region text, " +
+				"balance double precision default 0 check (balance >= 0), handle text, tag text, active boolean, " +
+				"constraint accounts_handle_tag_key unique (handle, tag))",
+				"create index accounts_email_idx on accounts (email)",
+				"create index accounts_region_balance_idx on accounts (region, balance)"), ddl);
+	}
+
+	@Test
+	public void test_foreignKeyDerivedOnceAndIndexed() {
+		Schema schema = Schema.of(TestAuthor.class, TestPost.class);
+		List<String> ddl = schema.toCreateSql();
+
+		Assert.assertEquals(1, schema.getTable("posts").getForeignKeys().size());
+		Assert.assertEquals("create index posts_author_id_idx on posts (author_id)", ddl.get(2));
+		Assert.assertEquals("alter table posts add constraint posts_author_id_fkey foreign key (author_id) " +
+							"references authors (author_id)", ddl.get(3));
+		Assert.assertEquals(4, ddl.size());
+	}
+
+	@Test
+	public void test_migrationOnlyAddsWhatIsMissing() {
+		ExistingSchema existing = new ExistingSchema();
+		existing.addTable("accounts")
+				.addColumn("account_id", "integer", false)
+				.addColumn("email", "character varying", true)
+				.addColumn("region", "text", true)
+				.addColumn("balance", "integer", true)
+				.addIndex(Collections.singletonList("account_id"), true)
+				.addIndex(Arrays.asList("region", "balance", "active"), false);
+
+		List<String> migration = Schema.of(TestAccount.class).toMigrationSql(existing);
+
+		Assert.assertEquals(Arrays.asList(
+				"alter table accounts alter column email set not null",
+				"alter table accounts alter column balance type double precision using balance::double precision",
+				"alter table accounts add column handle text",
+				"alter table accounts add column tag text",
+				"alter table accounts add column active boolean",
+				"alter table accounts add constraint accounts_handle_tag_key unique (handle, tag)",
+				"create index accounts_email_idx on accounts (email)"), migration);
+	}
+
+	@Test
+	public void test_migrationRejectsNarrowingTypesAndNotNullColumnsWithoutDefault() {
+		ExistingSchema existing = new ExistingSchema();
+		existing.addTable("accounts")
+				.addColumn("account_id", "bigint", false)
+				.addColumn("region", "text", true)
+				.addColumn("balance", "numeric", true);
+
+		try {
+			Schema.of(TestAccount.class).toMigrationSql(existing);
+			Assert.fail("Expected DataSourceException");
+		} catch (DataSourceException e) {
+			Assert.assertTrue(e.getMessage().contains("accounts.account_id is bigint but the entity maps it to integer"));
+			Assert.assertTrue(e.getMessage().contains("accounts.email is not null and has no default"));
+			Assert.assertTrue(e.getMessage().contains("accounts.balance is numeric but the entity maps it to " +
+													  "double precision"));
+		}
+	}
+
+	@Test
+	public void test_migrationAddsPrimaryKeyAndDefaultedColumnsToExistingTable() {
+		ExistingSchema existing = new ExistingSchema();
+		existing.addTable("accounts")
+				.addColumn("email", "text", false)
+				.addColumn("region", "text", true)
+				.addColumn("handle", "text", true)
+				.addColumn("tag", "text", true)
+				.addColumn("active", "boolean", true)
+				.addIndex(Collections.singletonList("email"), false)
+				.addIndex(Arrays.asList("region", "balance"), false)
+				.addIndex(Arrays.asList("handle", "tag"), true);
+
+		Assert.assertEquals(Arrays.asList(
+				"alter table accounts add column account_id serial primary key",
+				"alter table accounts add column balance double precision default 0 check (balance >= 0)"),
+							Schema.of(TestAccount.class).toMigrationSql(existing));
+	}
+
+	@Test
+	public void test_upToDateDatabaseNeedsNoMigration() {
+		ExistingSchema existing = new ExistingSchema();
+		existing.addTable("authors")
+				.addColumn("author_id", "integer", false)
+				.addColumn("name", "text", true)
+				.addIndex(Collections.singletonList("author_id"), true);
+		existing.addTable("posts")
+				.addColumn("post_id", "integer", false)
+				.addColumn("author_id", "integer", true)
+				.addColumn("title", "text", true)
+				.addIndex(Collections.singletonList("post_id"), true)
+				.addIndex(Arrays.asList("author_id", "title"), false)
+				.addForeignKey("author_id", "authors", "author_id");
+
+		Assert.assertEquals(Collections.emptyList(),
+							Schema.of(TestAuthor.class, TestPost.class).toMigrationSql(existing));
+	}
+
+	@Test
+	public void test_migrateCreatesMissingTablesInOneTransaction() throws SQLException {
+		Connection conn = mock(Connection.class);
+		PreparedStatement catalog = mock(PreparedStatement.class);
+		Statement ddl = mock(Statement.class);
+		when(conn.prepareStatement(anyString())).thenReturn(catalog);
+		when(catalog.executeQuery()).thenAnswer(i -> StubJdbc.resultSet(new String[]{"name"}, new Object[0][]));
+		when(conn.getAutoCommit()).thenReturn(true);
+		when(conn.createStatement()).thenReturn(ddl);
+
+		List<String> applied = new SchemaMigrator(TestAccount.class).migrate(conn);
+
+		Assert.assertEquals(Schema.of(TestAccount.class).toCreateSql(), applied);
+		for (String sql : applied) {
+			verify(ddl).addBatch(sql);
+		}
+		verify(ddl).executeBatch();
+		verify(conn).commit();
+		verify(conn).setAutoCommit(true);
+	}
+
+	@Test
+	public void test_migrateRefusesToRunInsideCallersTransaction() throws SQLException {
+		Connection conn = mock(Connection.class);
+		when(conn.getAutoCommit()).thenReturn(false);
+
+		try {
+			new SchemaMigrator(TestAccount.class).migrate(conn);
+			Assert.fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			verify(conn, never()).commit();
+			verify(conn, never()).rollback();
+		}
+	}
+}
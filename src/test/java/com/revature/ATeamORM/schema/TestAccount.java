@@ -0,0 +1,41 @@
+package com.revature.ATeamORM.schema;
+
+import com.revature.ATeamORM.annotations.*;
+
+/**
+ * Entity exercising every annotation the schema package derives DDL from
+ */
+@Entity(name = "accounts")
+@Table(name = "accounts")
+public class TestAccount {
+
+	@Id
+	@Column(name = "account_id")
+	private int id;
+
+	@Index
+	@Column(name = "email", notNull = true)
+	private String email;
+
+	@Index(name = "accounts_region_balance_idx")
+	@Column(name = "region")
+	private String region;
+
+	@Index(name = "accounts_region_balance_idx")
+	@Constraints(check = "balance >= 0", defaultValue = "0")
+	@Column(name = "balance")
+	private double balance;
+
+	@Column(name = "handle", unique = true)
+	private String handle;
+
+	@Column(name = "tag", unique = true)
+	private String tag;
+
+	@Column(name = "active")
+	private boolean active;
+
+	public TestAccount() {
+		super();
+	}
+}
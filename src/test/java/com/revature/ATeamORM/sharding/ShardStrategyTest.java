@@ -0,0 +1,51 @@
+package com.revature.ATeamORM.sharding;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShardStrategyTest {
+
+	@Test
+	public void test_hashSpreadsSequentialKeysEvenly() {
+		HashShardStrategy sut = new HashShardStrategy();
+		int[] counts = new int[4];
+
+		for (int key = 0; key < 4000; key++) {
+			counts[sut.shardOf(key, 4)]++;
+		}
+
+		for (int count : counts) {
+			Assert.assertTrue("Uneven spread: " + count, count > 800 && count < 1200);
+		}
+	}
+
+	@Test
+	public void test_hashIsStableAcrossIntegralTypes() {
+		HashShardStrategy sut = new HashShardStrategy();
+
+		Assert.assertEquals(sut.shardOf(42, 7), sut.shardOf(42L, 7));
+		Assert.assertEquals(sut.shardOf("tenant", 7), sut.shardOf(new String("tenant"), 7));
+	}
+
+	@Test
+	public void test_rangeKeyEqualToBoundGoesToNextShard() {
+		RangeShardStrategy sut = new RangeShardStrategy(100, 200);
+
+		Assert.assertEquals(0, sut.shardOf(-5, 3));
+		Assert.assertEquals(0, sut.shardOf(99, 3));
+		Assert.assertEquals(1, sut.shardOf(100, 3));
+		Assert.assertEquals(1, sut.shardOf(199, 3));
+		Assert.assertEquals(2, sut.shardOf(200, 3));
+		Assert.assertEquals(2, sut.shardOf(Integer.MAX_VALUE, 3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_rangeBoundsMustAscend() {
+		new RangeShardStrategy("m", "c");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_rangeNeedsOneMoreShardThanBounds() {
+		new RangeShardStrategy(100, 200).shardOf(5, 2);
+	}
+}
@@ -0,0 +1,87 @@
+package com.revature.ATeamORM.sharding;
+
+import com.revature.ATeamORM.annotations.JDBCConnection;
+import com.revature.ATeamORM.benchmark.StubJdbc;
+import com.revature.ATeamORM.datasource.ConnectionFactory;
+import com.revature.ATeamORM.exceptions.DataSourceException;
+import com.revature.ATeamORM.exceptions.NullFieldException;
+import com.revature.ATeamORM.query.Query;
+import com.revature.ATeamORM.repos.TestUser;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Every stub shard holds the same three users, with ids 1 to 3, so rows read from two shards come in pairs
+ */
+public class ShardedSessionTest {
+
+	@JDBCConnection(url = "shard0", username = "username", password = "password")
+	public static class Shard0 {}
+
+	@JDBCConnection(url = "shard1", username = "username", password = "password")
+	public static class Shard1 {}
+
+	private ShardedSession sut;
+
+	@Before
+	public void setUpTest() throws SQLException {
+		StubJdbc.install(StubJdbc.USER_COLUMNS, StubJdbc.users(3));
+		sut = new ShardedSession(new HashShardStrategy(), Shard0.class, Shard1.class);
+		sut.open();
+	}
+
+	@After
+	public void tearDownTest() throws SQLException {
+		sut.close();
+		ConnectionFactory.getInstance().shutdown();
+		StubJdbc.uninstall();
+	}
+
+	@Test
+	public void test_findByShardKeyQueriesOneShard() throws SQLException {
+		Assert.assertEquals(3, sut.find(ShardedUser.class, "username", "user0").getList().size());
+		Assert.assertEquals(6, sut.find(ShardedUser.class, "email", "user1@example.com").getList().size());
+		Assert.assertEquals(6, sut.findAll(ShardedUser.class).getList().size());
+	}
+
+	@Test
+	public void test_queryMergesShardsInOrderBeforePaging() throws SQLException {
+		List<ShardedUser> page = sut.find(Query.from(ShardedUser.class).orderByDesc("id").offset(1).limit(3))
+									.getList();
+
+		List<Integer> ids = new ArrayList<>();
+		for (ShardedUser user : page) {
+			ids.add(user.getId());
+		}
+		Assert.assertEquals(Arrays.asList(3, 2, 2), ids);
+	}
+
+	@Test
+	public void test_writesAreRoutedByShardKey() throws SQLException {
+		ShardedUser user = new ShardedUser("tenant");
+		int shard = sut.shardOf(user);
+
+		sut.insert(user);
+		sut.insertAll(Arrays.asList(new ShardedUser("a"), new ShardedUser("b"), new ShardedUser("c")));
+
+		Assert.assertEquals(new HashShardStrategy().shardOf("tenant", 2), shard);
+		Assert.assertEquals(1, user.getId());
+	}
+
+	@Test(expected = NullFieldException.class)
+	public void test_nullShardKeyFails() throws SQLException {
+		sut.insert(new ShardedUser(null));
+	}
+
+	@Test(expected = DataSourceException.class)
+	public void test_entityWithoutShardKeyFails() throws SQLException {
+		sut.findAll(TestUser.class);
+	}
+}
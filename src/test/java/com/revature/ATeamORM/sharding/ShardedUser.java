@@ -0,0 +1,41 @@
+package com.revature.ATeamORM.sharding;
+
+import com.revature.ATeamORM.annotations.*;
+
+/**
+ * TestUser sharded by username, read from the StubJdbc users table
+ */
+@Entity(name = "users")
+@Table(name = "users")
+public class ShardedUser {
+
+	@Id
+	@Column(name = "user_id")
+	private int id;
+
+	@ShardKey
+	@Column(name = "username", notNull = true)
+	private String username;
+
+	@Column(name = "password")
+	private String password;
+
+	@Column(name = "email")
+	private String email;
+
+	public ShardedUser() {
+		super();
+	}
+
+	public ShardedUser(String username) {
+		this.username = username;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+}